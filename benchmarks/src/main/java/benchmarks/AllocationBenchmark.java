@@ -0,0 +1,74 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.AStar;
+import utils.IndexedDijkstra;
+import utils.IndexedGraph;
+import utils.IndexedPath;
+import utils.Metric;
+
+/**
+ * Measures the point-to-point searches over an {@link IndexedGraph}: with fresh arrays per
+ * query, and with the pooled scratch arrays of {@link IndexedDijkstra}. The GC profiler's
+ * {@code gc.alloc.rate.norm} shows the difference; a distance query should allocate nothing
+ * and a path query only its result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+
+    @Param({"campus", "grid-10000"})
+    public String graph;
+
+    private IndexedGraph indexed;
+    private int[] sources;
+    private int[] targets;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        indexed = IndexedGraph.of(BenchmarkGraphs.load(graph));
+        Random random = new Random(BenchmarkGraphs.SEED);
+        sources = new int[256];
+        targets = new int[256];
+        for (int i = 0; i < 256; i++) {
+            sources[i] = random.nextInt(indexed.size());
+            targets[i] = random.nextInt(indexed.size());
+        }
+    }
+
+    @Benchmark
+    public IndexedPath freshArrays() {
+        int i = next++ & 255;
+        return AStar.findShortestPathUnguided(indexed, sources[i], targets[i], Metric.DISTANCE);
+    }
+
+    @Benchmark
+    public IndexedPath pooledPath() {
+        int i = next++ & 255;
+        return IndexedDijkstra.shortestPath(indexed, sources[i], targets[i], Metric.DISTANCE);
+    }
+
+    @Benchmark
+    public double pooledDistance() {
+        int i = next++ & 255;
+        return IndexedDijkstra.distance(indexed, sources[i], targets[i], Metric.DISTANCE);
+    }
+}
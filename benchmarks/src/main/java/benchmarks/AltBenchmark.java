@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.AStar;
+import utils.IndexedGraph;
+import utils.IndexedPath;
+import utils.Landmarks;
+import utils.Metric;
+
+/**
+ * Measures ALT A* with {@link Landmarks#DEFAULT_COUNT} landmarks against the same search
+ * without a heuristic, over a fixed set of random pairs, and the time to choose the
+ * landmarks. The settled-node counts of both searches are in {@link IndexedPath}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AltBenchmark {
+
+    @Param({"campus", "grid-10000", "zones-100000"})
+    public String graph;
+
+    private IndexedGraph indexed;
+    private Landmarks landmarks;
+    private int[] sources;
+    private int[] targets;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        indexed = IndexedGraph.of(BenchmarkGraphs.load(graph));
+        landmarks = Landmarks.build(indexed, Landmarks.DEFAULT_COUNT, Metric.DISTANCE);
+        Random random = new Random(BenchmarkGraphs.SEED);
+        sources = new int[256];
+        targets = new int[256];
+        for (int i = 0; i < 256; i++) {
+            sources[i] = random.nextInt(indexed.size());
+            targets[i] = random.nextInt(indexed.size());
+        }
+    }
+
+    @Benchmark
+    public IndexedPath unguided() {
+        int i = next++ & 255;
+        return AStar.findShortestPathUnguided(indexed, sources[i], targets[i], Metric.DISTANCE);
+    }
+
+    @Benchmark
+    public IndexedPath alt() {
+        int i = next++ & 255;
+        return AStar.findShortestPath(landmarks, sources[i], targets[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Landmarks preprocess() {
+        return Landmarks.build(indexed, Landmarks.DEFAULT_COUNT, Metric.DISTANCE);
+    }
+}
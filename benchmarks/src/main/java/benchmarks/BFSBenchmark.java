@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.BFS;
+import utils.CancellationToken;
+import utils.Graph;
+import utils.Node;
+import utils.SearchCancelledException;
+
+/**
+ * Measures route enumeration with {@link BFS#findAllPaths(Graph, Node, Node, CancellationToken)}.
+ * Enumeration can grow exponentially, so the inputs are kept small and every search carries a
+ * deadline; an operation that hits it returns -1, which shows up as a suspiciously flat score.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BFSBenchmark {
+
+    // Upper bound on a single enumeration
+    private static final Duration DEADLINE = Duration.ofSeconds(5);
+
+    @Param({"campus", "grid-36", "grid-100"})
+    public String graph;
+
+    private Graph loaded;
+    private List<Node[]> pairs;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        loaded = BenchmarkGraphs.load(graph);
+        pairs = BenchmarkGraphs.randomPairs(loaded, 16);
+    }
+
+    @Benchmark
+    public int findAllPaths() {
+        Node[] pair = pairs.get(next++ & 15);
+        try {
+            return BFS.findAllPaths(loaded, pair[0], pair[1], CancellationToken.withTimeout(DEADLINE)).size();
+        } catch (SearchCancelledException e) {
+            return -1;
+        }
+    }
+}
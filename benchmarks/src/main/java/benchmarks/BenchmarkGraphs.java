@@ -0,0 +1,105 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import utils.CSVParser;
+import utils.Graph;
+import utils.GraphGenerator;
+import utils.Node;
+
+/**
+ * The inputs shared by the benchmarks: the shipped campus data and synthetic graphs built
+ * from a fixed seed, so every run measures exactly the same graphs.
+ *
+ * <p>Graphs are named by a benchmark parameter: {@code campus} for the landmark file, or
+ * {@code <layout>-N} for N nodes in one of the {@link GraphGenerator} layouts, for example
+ * {@code grid-1024} or {@code zones-100000}.
+ */
+class BenchmarkGraphs {
+
+    // Seed for every synthetic input, so results are comparable between runs
+    static final long SEED = 42;
+
+    /**
+     * Builds the graph a benchmark parameter names.
+     *
+     * @param name {@code campus} or {@code <layout>-N}.
+     * @return The graph.
+     * @throws IOException If the campus file cannot be read.
+     */
+    static Graph load(String name) throws IOException {
+        if (name.equals("campus")) {
+            Graph graph = new Graph();
+            CSVParser.parseCSV(campusCsvPath(), graph);
+            return graph;
+        }
+        int dash = name.lastIndexOf('-');
+        if (dash < 0) {
+            throw new IllegalArgumentException("Unknown benchmark graph: " + name);
+        }
+        GraphGenerator.Layout layout = GraphGenerator.Layout.fromName(name.substring(0, dash));
+        int nodeCount = Integer.parseInt(name.substring(dash + 1));
+        return new GraphGenerator(SEED).generate(layout, nodeCount).toGraph();
+    }
+
+    /**
+     * Finds the landmark file: the {@code campus.csv} system property if set, otherwise the
+     * {@code data} directory of the working directory or one of its parents.
+     *
+     * @return The path to the landmark CSV file.
+     * @throws IOException If the file cannot be found.
+     */
+    static String campusCsvPath() throws IOException {
+        String configured = System.getProperty("campus.csv");
+        if (configured != null) {
+            return configured;
+        }
+        for (Path dir = Paths.get(System.getProperty("user.dir")).toAbsolutePath(); dir != null; dir = dir.getParent()) {
+            Path candidate = dir.resolve("data").resolve("landmarksAdjacencyMatrix.csv");
+            if (Files.isRegularFile(candidate)) {
+                return candidate.toString();
+            }
+        }
+        throw new IOException("landmarksAdjacencyMatrix.csv not found; set -Dcampus.csv=<path>");
+    }
+
+    /**
+     * Writes a complete distance matrix in the landmark file's format, for parsing benchmarks.
+     *
+     * @param size The number of landmarks.
+     * @return The temporary file, deleted when the JVM exits.
+     * @throws IOException If the file cannot be written.
+     */
+    static Path writeMatrixCsv(int size) throws IOException {
+        Path file = Files.createTempFile("landmarks-" + size + "-", ".csv");
+        file.toFile().deleteOnExit();
+        new GraphGenerator(SEED).complete(size).writeMatrixCsv(file);
+        return file;
+    }
+
+    /**
+     * Picks random (source, destination) pairs of distinct nodes.
+     *
+     * @param graph The graph.
+     * @param count The number of pairs.
+     * @return The pairs, as two-element arrays.
+     */
+    static List<Node[]> randomPairs(Graph graph, int count) {
+        List<Node> nodes = graph.snapshot().getNodes();
+        Random random = new Random(SEED);
+        ArrayList<Node[]> pairs = new ArrayList<>(count);
+        while (pairs.size() < count) {
+            Node source = nodes.get(random.nextInt(nodes.size()));
+            Node destination = nodes.get(random.nextInt(nodes.size()));
+            if (!source.equals(destination)) {
+                pairs.add(new Node[] {source, destination});
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,37 @@
+package benchmarks;
+
+import java.io.IOException;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the standard JMH command line, always adding the GC profiler so
+ * every result also reports the bytes allocated per operation.
+ */
+public class BenchmarkMain {
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args JMH command line options, for example a benchmark name pattern or {@code -p graph=campus}.
+     * @throws RunnerException If a benchmark fails.
+     * @throws CommandLineOptionException If the options cannot be parsed.
+     * @throws IOException If listing the benchmarks fails.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
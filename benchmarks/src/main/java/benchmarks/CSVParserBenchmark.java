@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.CSVParser;
+import utils.Graph;
+
+/**
+ * Measures {@link CSVParser#parseCSV(String, Graph)} on the shipped landmark file and on
+ * larger synthetic matrices in the same format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CSVParserBenchmark {
+
+    @Param({"campus", "matrix-500"})
+    public String file;
+
+    private String path;
+
+    @Setup
+    public void setUp() throws IOException {
+        path = file.equals("campus") ? BenchmarkGraphs.campusCsvPath()
+                : BenchmarkGraphs.writeMatrixCsv(Integer.parseInt(file.substring("matrix-".length()))).toString();
+    }
+
+    @Benchmark
+    public Graph parseCSV() throws IOException {
+        Graph graph = new Graph();
+        CSVParser.parseCSV(path, graph);
+        return graph;
+    }
+}
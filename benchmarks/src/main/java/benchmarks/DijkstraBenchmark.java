@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.Dijkstra;
+import utils.Graph;
+import utils.Metric;
+import utils.Node;
+import utils.RouteResult;
+
+/**
+ * Measures {@link Dijkstra#findShortestPath(Graph, Node, Node)} over a fixed set of random
+ * pairs, one pair per operation, next to the heap-based {@link Dijkstra#route} on the same
+ * pairs. The legacy search scans every node to pick the next one, so it already takes
+ * seconds per operation on the 1024-node grid.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DijkstraBenchmark {
+
+    @Param({"campus", "grid-256", "zones-256", "grid-1024"})
+    public String graph;
+
+    private Graph loaded;
+    private List<Node[]> pairs;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        loaded = BenchmarkGraphs.load(graph);
+        pairs = BenchmarkGraphs.randomPairs(loaded, 256);
+    }
+
+    @Benchmark
+    public ArrayList<Node> findShortestPath() {
+        Node[] pair = pairs.get(next++ & 255);
+        return Dijkstra.findShortestPath(loaded, pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public RouteResult route() {
+        Node[] pair = pairs.get(next++ & 255);
+        return Dijkstra.route(loaded, pair[0], pair[1], Metric.DISTANCE);
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.Dijkstra;
+import utils.Edge;
+import utils.Graph;
+import utils.Metric;
+import utils.Node;
+
+/**
+ * Measures the lookups the interfaces make for every displayed route:
+ * {@link Graph#getEdge(Node, Node)}, {@link Graph#getNodeByName(String)} and
+ * {@link Graph#calculateDistance(ArrayList)} on shortest paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphLookupBenchmark {
+
+    @Param({"campus", "grid-1024", "zones-1024"})
+    public String graph;
+
+    private Graph loaded;
+    private List<Node[]> pairs;
+    private ArrayList<Edge> edges;
+    private ArrayList<String> names;
+    private ArrayList<ArrayList<Node>> paths;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        loaded = BenchmarkGraphs.load(graph);
+        pairs = BenchmarkGraphs.randomPairs(loaded, 256);
+        edges = new ArrayList<>();
+        names = new ArrayList<>();
+        paths = new ArrayList<>();
+        for (Node[] pair : pairs) {
+            ArrayList<Node> path = new ArrayList<>(Dijkstra.route(loaded, pair[0], pair[1], Metric.DISTANCE).getPath());
+            paths.add(path);
+            edges.add(loaded.getEdge(path.get(0), path.get(1)));
+            // Names as a user would type them, in a different case from the file
+            names.add(pair[1].getName().toUpperCase());
+        }
+    }
+
+    @Benchmark
+    public Edge getEdge() {
+        Edge edge = edges.get(next++ & 255);
+        return loaded.getEdge(edge.getSource(), edge.getDestination());
+    }
+
+    @Benchmark
+    public Node getNodeByName() {
+        return loaded.getNodeByName(names.get(next++ & 255));
+    }
+
+    @Benchmark
+    public double calculateDistance() {
+        return loaded.calculateDistance(paths.get(next++ & 255));
+    }
+}
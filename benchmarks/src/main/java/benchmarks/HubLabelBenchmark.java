@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.ContractionHierarchy;
+import utils.HubLabels;
+import utils.IndexedGraph;
+import utils.Metric;
+
+/**
+ * Measures a hub-label distance query next to the contraction-hierarchy query it is built
+ * from, over a fixed set of random pairs, and the time to build the labels in hierarchy
+ * order. The index size is printed once per trial, since JMH only reports times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HubLabelBenchmark {
+
+    @Param({"campus", "grid-1024", "grid-10000"})
+    public String graph;
+
+    private IndexedGraph indexed;
+    private ContractionHierarchy hierarchy;
+    private HubLabels labels;
+    private int[] sources;
+    private int[] targets;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        indexed = IndexedGraph.of(BenchmarkGraphs.load(graph));
+        hierarchy = ContractionHierarchy.build(indexed, Metric.DISTANCE);
+        labels = HubLabels.build(indexed, hierarchy);
+        System.out.println("\n" + graph + ": " + labels);
+        Random random = new Random(BenchmarkGraphs.SEED);
+        sources = new int[1024];
+        targets = new int[1024];
+        for (int i = 0; i < 1024; i++) {
+            sources[i] = random.nextInt(indexed.size());
+            targets[i] = random.nextInt(indexed.size());
+        }
+    }
+
+    @Benchmark
+    public double labelDistance() {
+        int i = next++ & 1023;
+        return labels.distance(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public double hierarchyDistance() {
+        int i = next++ & 1023;
+        return hierarchy.distance(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public HubLabels build() {
+        return HubLabels.build(indexed, hierarchy);
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.CSVParser;
+import utils.MergeSort;
+
+/**
+ * Measures {@link MergeSort} on route rows as the GUI builds them (route text, distance,
+ * time) and on landmark names. Each operation sorts a fresh copy of the same shuffled input,
+ * so the copy is part of the measured cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeSortBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private ArrayList<Object[]> routes;
+    private ArrayList<String> names;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkGraphs.SEED);
+        routes = new ArrayList<>(size);
+        names = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            double distance = random.nextDouble() * 2000;
+            routes.add(new Object[] {"Route " + i, distance, distance / 10f / CSVParser.WALKING_SPEED_MPS});
+            names.add("Landmark " + Integer.toString(random.nextInt(1 << 20), 36).repeat(1 + random.nextInt(4)));
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Object[]> mergeSortRoutes() {
+        ArrayList<Object[]> copy = new ArrayList<>(routes);
+        MergeSort.mergeSort(copy);
+        return copy;
+    }
+
+    @Benchmark
+    public ArrayList<String> mergeSortNames() {
+        ArrayList<String> copy = new ArrayList<>(names);
+        MergeSort.mergeSortString(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.IndexedDijkstra;
+import utils.IndexedGraph;
+import utils.Metric;
+import utils.QuantizedDijkstra;
+import utils.QuantizedGraph;
+
+/**
+ * Measures full single-source searches with the radix heap over quantized weights next to
+ * the double-precision search with a binary heap, from a fixed set of random sources.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuantizedBenchmark {
+
+    @Param({"campus", "grid-10000", "grid-100000"})
+    public String graph;
+
+    private IndexedGraph indexed;
+    private QuantizedGraph quantized;
+    private int[] sources;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        indexed = IndexedGraph.of(BenchmarkGraphs.load(graph));
+        quantized = QuantizedGraph.of(indexed, Metric.DISTANCE);
+        Random random = new Random(BenchmarkGraphs.SEED);
+        sources = new int[64];
+        for (int i = 0; i < 64; i++) {
+            sources[i] = random.nextInt(indexed.size());
+        }
+    }
+
+    @Benchmark
+    public double[] doubleDistances() {
+        return IndexedDijkstra.distances(indexed, sources[next++ & 63], Metric.DISTANCE);
+    }
+
+    @Benchmark
+    public long[] quantizedDistances() {
+        return QuantizedDijkstra.distances(quantized, sources[next++ & 63]);
+    }
+}
@@ -0,0 +1,68 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class AStarTest {
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void landmarkSearchMatchesDijkstra(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 2000, 11);
+        for (Metric metric : Metric.values()) {
+            Landmarks landmarks = Landmarks.build(graph, Landmarks.DEFAULT_COUNT, metric);
+            Random random = new Random(5);
+            for (int query = 0; query < 40; query++) {
+                int source = random.nextInt(graph.size());
+                double[] expected = TestGraphs.referenceDistances(graph, source, metric);
+                int target = random.nextInt(graph.size());
+                IndexedPath path = AStar.findShortestPath(landmarks, source, target);
+                String message = layout + " " + metric + " " + source + " -> " + target;
+                TestGraphs.assertSameCost(expected[target], path.getCost(), message);
+                if (path.isFound()) {
+                    assertEquals(source, path.getNodes()[0], message);
+                    assertEquals(target, path.getNodes()[path.getNodes().length - 1], message);
+                    TestGraphs.assertSameCost(expected[target], TestGraphs.pathCost(graph, path.getNodes(), metric), message);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void landmarkBoundsAreConsistent(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 1000, 12);
+        Landmarks landmarks = Landmarks.build(graph, Landmarks.DEFAULT_COUNT, Metric.DISTANCE);
+        Random random = new Random(6);
+        for (int query = 0; query < 20; query++) {
+            int t = random.nextInt(graph.size());
+            double[] toTarget = TestGraphs.referenceDistances(graph, t, Metric.DISTANCE);
+            for (int u = 0; u < graph.size(); u++) {
+                double bound = landmarks.lowerBound(u, t);
+                assertTrue(bound <= toTarget[u] + 1e-9, "bound above the distance from " + u + " to " + t);
+                for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++) {
+                    double next = graph.weight(e, Metric.DISTANCE) + landmarks.lowerBound(graph.target(e), t);
+                    assertTrue(bound <= next + 1e-9, "inconsistent bound on edge " + u + " -> " + graph.target(e));
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void unguidedSearchMatchesDijkstra(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 2000, 13);
+        Random random = new Random(7);
+        for (int query = 0; query < 20; query++) {
+            int source = random.nextInt(graph.size());
+            double[] expected = TestGraphs.referenceDistances(graph, source, Metric.TIME);
+            int target = random.nextInt(graph.size());
+            IndexedPath path = AStar.findShortestPathUnguided(graph, source, target, Metric.TIME);
+            TestGraphs.assertSameCost(expected[target], path.getCost(), layout + " " + source + " -> " + target);
+        }
+    }
+}
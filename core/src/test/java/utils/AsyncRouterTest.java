@@ -0,0 +1,131 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncRouterTest {
+
+    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    // Runs each query on the pool and records when the query's task has returned
+    private final Executor executor = task -> pool.execute(() -> {
+        try {
+            task.run();
+        } finally {
+            finished.countDown();
+        }
+    });
+
+    @AfterEach
+    void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void queuedQueriesFailAtTheirDeadline() throws Exception {
+        Graph graph = GatedGraph.chain();
+        Router router = new Router(graph);
+        List<Runnable> queued = new ArrayList<>();
+        AsyncRouter async = new AsyncRouter(router, queued::add);
+
+        CompletableFuture<RouteResult> future = async.route(graph.getNodeByName("A"), graph.getNodeByName("C"),
+                Metric.DISTANCE, Duration.ofMillis(20));
+        assertTimedOut(future);
+
+        // The query never started, and starting it late does no work
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+        assertEquals(0, router.getSearchCount());
+    }
+
+    @Test
+    void runningSearchesStopAtTheirDeadline() throws Exception {
+        GatedGraph graph = GatedGraph.chain();
+        Router router = new Router(graph);
+        AsyncRouter async = new AsyncRouter(router, executor);
+
+        CompletableFuture<RouteResult> future = async.route(graph.getNodeByName("A"), graph.getNodeByName("C"),
+                Metric.DISTANCE, Duration.ofMillis(50));
+        GatedGraph.waitFor(() -> router.getSearchCount() == 1, "The search never started");
+        assertTimedOut(future);
+
+        graph.open.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        // The search stopped before finding a route, so nothing was cached
+        assertEquals(0, router.getCache().size());
+    }
+
+    @Test
+    void cancellingTheFutureStopsTheSearch() throws Exception {
+        GatedGraph graph = GatedGraph.chain();
+        Router router = new Router(graph);
+        AsyncRouter async = new AsyncRouter(router, executor);
+
+        CompletableFuture<RouteResult> future = async.route(graph.getNodeByName("A"), graph.getNodeByName("C"),
+                Metric.TIME, Duration.ofMinutes(1));
+        GatedGraph.waitFor(() -> router.getSearchCount() == 1, "The search never started");
+        assertTrue(future.cancel(true));
+        assertThrows(CancellationException.class, future::join);
+
+        graph.open.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(0, router.getCache().size());
+        // Another query for the same route is not affected by the cancelled one
+        assertEquals(2, router.route(graph.getNodeByName("A"), graph.getNodeByName("C"), Metric.TIME).getTime());
+    }
+
+    @Test
+    void queriesWithinTheirDeadlineComplete() throws Exception {
+        GatedGraph graph = GatedGraph.chain();
+        graph.open.countDown();
+        AsyncRouter async = new AsyncRouter(new Router(graph), executor);
+        RouteResult result = async.route(graph.getNodeByName("C"), graph.getNodeByName("A"), Metric.DISTANCE,
+                Duration.ofMinutes(1)).get(10, TimeUnit.SECONDS);
+        assertEquals(List.of("C", "B", "A"), result.getPath().stream().map(Node::getName).toList());
+    }
+
+    @Test
+    void cancelledTokensStopSearches() {
+        CancellationToken token = CancellationToken.create();
+        assertFalse(token.isCancelled());
+        token.cancel();
+        assertTrue(token.isCancelled());
+        SearchCancelledException cancelled = assertThrows(SearchCancelledException.class, token::throwIfCancelled);
+        assertFalse(cancelled.isTimedOut());
+
+        CancellationToken expired = CancellationToken.withTimeout(Duration.ZERO);
+        assertTrue(expired.isExpired());
+        assertTrue(assertThrows(SearchCancelledException.class, expired::throwIfCancelled).isTimedOut());
+
+        CancellationToken.NONE.cancel();
+        assertFalse(CancellationToken.NONE.isCancelled());
+
+        GraphSnapshot snapshot = TestGraphs.generated("grid", 2000, 131).snapshot();
+        List<Node> nodes = new ArrayList<>(snapshot.getNodes());
+        assertThrows(SearchCancelledException.class, () -> Dijkstra.route(snapshot, nodes.get(0),
+                nodes.get(nodes.size() - 1), Metric.DISTANCE, token));
+    }
+
+    private static void assertTimedOut(CompletableFuture<RouteResult> future) throws InterruptedException {
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        SearchCancelledException cause = assertInstanceOf(SearchCancelledException.class, thrown.getCause());
+        assertTrue(cause.isTimedOut());
+    }
+}
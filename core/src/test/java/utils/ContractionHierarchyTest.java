@@ -0,0 +1,124 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class ContractionHierarchyTest {
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void queriesMatchDijkstra(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 3000, 21);
+        for (Metric metric : Metric.values()) {
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, metric);
+            Random random = new Random(1);
+            for (int query = 0; query < 10; query++) {
+                int source = random.nextInt(graph.size());
+                double[] expected = TestGraphs.referenceDistances(graph, source, metric);
+                for (int target = 0; target < graph.size(); target += 7) {
+                    String message = layout + " " + metric + " " + source + " -> " + target;
+                    int s = hierarchy.indexOf(graph.node(source));
+                    int t = hierarchy.indexOf(graph.node(target));
+                    TestGraphs.assertSameCost(expected[target], hierarchy.distance(s, t), message);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void unpackedPathsAreShortestPaths(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 2000, 22);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, Metric.DISTANCE);
+        Random random = new Random(2);
+        for (int query = 0; query < 50; query++) {
+            int source = random.nextInt(graph.size());
+            int target = random.nextInt(graph.size());
+            double expected = TestGraphs.referenceDistances(graph, source, Metric.DISTANCE)[target];
+            IndexedPath path = hierarchy.findShortestPath(hierarchy.indexOf(graph.node(source)), hierarchy.indexOf(graph.node(target)));
+            String message = layout + " " + source + " -> " + target;
+            TestGraphs.assertSameCost(expected, path.getCost(), message);
+            if (path.isFound()) {
+                // Translate the hierarchy's indices back to the graph's before summing the edges
+                int[] nodes = new int[path.getNodes().length];
+                for (int i = 0; i < nodes.length; i++) {
+                    nodes[i] = graph.indexOf(hierarchy.node(path.getNodes()[i]));
+                }
+                assertEquals(source, nodes[0], message);
+                assertEquals(target, nodes[nodes.length - 1], message);
+                TestGraphs.assertSameCost(expected, TestGraphs.pathCost(graph, nodes, Metric.DISTANCE), message);
+            }
+        }
+    }
+
+    @Test
+    void savedHierarchyAnswersTheSame(@TempDir Path directory) throws IOException {
+        IndexedGraph graph = TestGraphs.indexed("geometric", 1000, 23);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, Metric.TIME);
+        Path file = directory.resolve("campus.ch");
+        hierarchy.save(file);
+        ContractionHierarchy loaded = ContractionHierarchy.load(file);
+
+        assertEquals(hierarchy.size(), loaded.size());
+        assertEquals(hierarchy.edgeCount(), loaded.edgeCount());
+        Random random = new Random(3);
+        for (int query = 0; query < 200; query++) {
+            int source = random.nextInt(graph.size());
+            int target = random.nextInt(graph.size());
+            assertEquals(hierarchy.distance(source, target), loaded.distance(source, target), source + " -> " + target);
+        }
+    }
+
+    @Test
+    void concurrentQueriesMatchSequentialOnes() {
+        IndexedGraph graph = TestGraphs.indexed("zones", 3000, 24);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, Metric.DISTANCE);
+        Random random = new Random(4);
+        int[] sources = random.ints(2000, 0, graph.size()).toArray();
+        int[] targets = random.ints(2000, 0, graph.size()).toArray();
+        double[] expected = IntStream.range(0, sources.length)
+                .mapToDouble(i -> hierarchy.distance(sources[i], targets[i])).toArray();
+        double[] actual = IntStream.range(0, sources.length).parallel()
+                .mapToDouble(i -> hierarchy.findShortestPath(sources[i], targets[i]).getCost()).toArray();
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void distanceQueriesOnNewThreadsDoNotAllocate() throws InterruptedException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "This JVM does not report per-thread allocation");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "This JVM does not report per-thread allocation");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // The routing server runs every request on a thread of its own
+        IndexedGraph graph = TestGraphs.indexed("geometric", 1000, 25);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, Metric.DISTANCE);
+        hierarchy.distance(0, graph.size() - 1);
+        for (int request = 0; request < 20; request++) {
+            int source = request;
+            AtomicLong allocated = new AtomicLong(-1);
+            Thread thread = new Thread(() -> {
+                threads.getCurrentThreadAllocatedBytes(); // The first reading may set up the counter
+                long before = threads.getCurrentThreadAllocatedBytes();
+                hierarchy.distance(source, graph.size() - 1 - source);
+                allocated.set(threads.getCurrentThreadAllocatedBytes() - before);
+            });
+            thread.start();
+            thread.join();
+            assertEquals(0, allocated.get(), "bytes allocated by a query on a new thread");
+        }
+    }
+}
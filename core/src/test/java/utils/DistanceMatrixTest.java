@@ -0,0 +1,46 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class DistanceMatrixTest {
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void entriesMatchDijkstra(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 2000, 171);
+        Random random = new Random(31);
+        int[] sources = random.ints(12, 0, graph.size()).toArray();
+        int[] targets = random.ints(30, 0, graph.size()).toArray();
+        // Repeated sources and targets get their own rows and columns
+        sources[5] = sources[2];
+        targets[7] = targets[0];
+        for (Metric metric : Metric.values()) {
+            double[][] matrix = DistanceMatrix.distanceMatrix(graph, sources, targets, metric);
+            assertEquals(sources.length, matrix.length);
+            for (int row = 0; row < sources.length; row++) {
+                double[] expected = TestGraphs.referenceDistances(graph, sources[row], metric);
+                assertEquals(targets.length, matrix[row].length);
+                for (int column = 0; column < targets.length; column++) {
+                    TestGraphs.assertSameCost(expected[targets[column]], matrix[row][column],
+                            layout + " " + metric + " " + sources[row] + " -> " + targets[column]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void emptySidesGiveEmptyMatrices() {
+        IndexedGraph graph = TestGraphs.indexed("grid", 100, 172);
+        double[][] noTargets = DistanceMatrix.distanceMatrix(graph, new int[] {0, 5, 5}, new int[0], Metric.DISTANCE);
+        assertEquals(3, noTargets.length);
+        for (double[] row : noTargets) {
+            assertEquals(0, row.length);
+        }
+        assertEquals(0, DistanceMatrix.distanceMatrix(graph, new int[0], new int[] {1, 2}, Metric.TIME).length);
+    }
+}
@@ -0,0 +1,73 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class DynamicShortestPathsTest {
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void repairedTreesMatchDijkstraAfterEveryChange(String layout) {
+        Graph graph = TestGraphs.generated(layout, 600, 61);
+        List<Node> nodes = new ArrayList<>(graph.snapshot().getNodes());
+        Random random = new Random(12);
+        List<Node> sources = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            sources.add(nodes.get(random.nextInt(nodes.size())));
+        }
+
+        try (DynamicShortestPaths trees = new DynamicShortestPaths(graph, Metric.DISTANCE, sources)) {
+            assertMatchesDijkstra(graph, trees, sources, layout + " before any change");
+            List<Edge> removed = new ArrayList<>();
+            for (int change = 0; change < 150; change++) {
+                List<Edge> edges = graph.getEdges();
+                Edge edge = edges.get(random.nextInt(edges.size()));
+                int kind = random.nextInt(10);
+                String description;
+                if (kind < 3) {
+                    graph.removeEdge(edge.getSource(), edge.getDestination());
+                    removed.add(edge);
+                    description = "closing " + edge;
+                } else if (kind < 6) {
+                    graph.updateEdge(edge.getSource(), edge.getDestination(), edge.getDistance() * 3, edge.getTime() * 3);
+                    description = "lengthening " + edge;
+                } else if (kind < 9 || removed.isEmpty()) {
+                    graph.updateEdge(edge.getSource(), edge.getDestination(), edge.getDistance() / 4, edge.getTime() / 4);
+                    description = "shortening " + edge;
+                } else {
+                    Edge reopened = removed.remove(removed.size() - 1);
+                    graph.addEdge(new Edge(reopened.getSource(), reopened.getDestination(), reopened.getDistance(), reopened.getTime()));
+                    description = "reopening " + reopened;
+                }
+                assertMatchesDijkstra(graph, trees, sources, layout + " after " + description);
+            }
+            assertTrue(trees.getRepairCount() > 0, "no change was repaired incrementally");
+        }
+    }
+
+    private static void assertMatchesDijkstra(Graph graph, DynamicShortestPaths trees, List<Node> sources, String message) {
+        IndexedGraph indexed = IndexedGraph.of(graph);
+        for (Node source : sources) {
+            double[] expected = TestGraphs.referenceDistances(indexed, indexed.indexOf(source), Metric.DISTANCE);
+            for (int v = 0; v < indexed.size(); v++) {
+                Node destination = indexed.node(v);
+                String query = message + ": " + source + " -> " + destination;
+                TestGraphs.assertSameCost(expected[v], trees.distance(source, destination), query);
+                List<Node> path = trees.path(source, destination);
+                if (expected[v] == Double.POSITIVE_INFINITY) {
+                    assertTrue(path.isEmpty(), query);
+                } else {
+                    assertEquals(source, path.get(0), query);
+                    assertEquals(destination, path.get(path.size() - 1), query);
+                    TestGraphs.assertSameCost(expected[v], TestGraphs.pathCost(indexed, indexed.indicesOf(path), Metric.DISTANCE), query);
+                }
+            }
+        }
+    }
+}
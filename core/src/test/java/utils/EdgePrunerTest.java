@@ -0,0 +1,46 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class EdgePrunerTest {
+
+    @Test
+    void campusDistancesSurvivePruning() throws IOException {
+        Graph full = TestGraphs.campus();
+        Graph pruned = EdgePruner.prune(full);
+        assertTrue(IndexedGraph.of(pruned).targets().length < IndexedGraph.of(full).targets().length,
+                "Some walkways of the campus matrix have a shorter detour");
+        assertSameDistances(IndexedGraph.of(full), IndexedGraph.of(pruned), 1);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"complete, 400", "grid, 2000", "geometric, 2000", "zones, 2000"})
+    void generatedDistancesSurvivePruning(String layout, int nodeCount) {
+        Graph full = TestGraphs.generated(layout, nodeCount, 151);
+        assertSameDistances(IndexedGraph.of(full), IndexedGraph.of(EdgePruner.prune(full)), Math.max(1, nodeCount / 40));
+    }
+
+    /**
+     * Checks that every pair of nodes is the same distance apart, in both metrics, after
+     * pruning as before, from every {@code step}-th source.
+     */
+    private static void assertSameDistances(IndexedGraph full, IndexedGraph pruned, int step) {
+        assertEquals(full.size(), pruned.size());
+        for (Metric metric : Metric.values()) {
+            for (int source = 0; source < full.size(); source += step) {
+                double[] expected = TestGraphs.referenceDistances(full, source, metric);
+                double[] actual = TestGraphs.referenceDistances(pruned, pruned.indexOf(full.node(source)), metric);
+                for (int v = 0; v < full.size(); v++) {
+                    TestGraphs.assertSameCost(expected[v], actual[pruned.indexOf(full.node(v))],
+                            metric + " " + full.node(source) + " -> " + full.node(v));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class FacilityIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void nearestMembersMatchDijkstra(String layout) throws IOException {
+        IndexedGraph graph = TestGraphs.indexed(layout, 1500, 81);
+        Random random = new Random(17);
+        FacilityIndex index = new FacilityIndex(graph, categories(graph, random));
+        for (Metric metric : Metric.values()) {
+            for (int query = 0; query < 30; query++) {
+                int source = random.nextInt(graph.size());
+                double[] expected = TestGraphs.referenceDistances(graph, source, metric);
+                for (String category : new String[] {"cafe", "library"}) {
+                    String message = layout + " " + metric + " " + category + " from " + source;
+                    double[] memberDistances = memberDistances(index, graph, category, expected);
+                    int k = 1 + random.nextInt(8);
+                    List<RouteResult> routes = index.nearest(graph.node(source), category, k, metric);
+                    assertEquals(Math.min(k, memberDistances.length), routes.size(), message);
+                    for (int i = 0; i < routes.size(); i++) {
+                        assertRouteToMember(index, graph, source, category, memberDistances[i], routes.get(i), message);
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void nearestTablesMatchDijkstra(String layout) throws IOException {
+        IndexedGraph graph = TestGraphs.indexed(layout, 1500, 82);
+        Random random = new Random(18);
+        FacilityIndex index = new FacilityIndex(graph, categories(graph, random));
+        for (Metric metric : Metric.values()) {
+            for (int query = 0; query < 30; query++) {
+                int source = random.nextInt(graph.size());
+                double[] expected = TestGraphs.referenceDistances(graph, source, metric);
+                for (String category : new String[] {"cafe", "library"}) {
+                    String message = layout + " " + metric + " " + category + " from " + source;
+                    double[] memberDistances = memberDistances(index, graph, category, expected);
+                    RouteResult route = index.nearest(graph.node(source), category, metric);
+                    if (memberDistances.length == 0) {
+                        assertNull(route, message);
+                    } else {
+                        assertRouteToMember(index, graph, source, category, memberDistances[0], route, message);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void membersAreTheirOwnNearest() throws IOException {
+        IndexedGraph graph = TestGraphs.indexed("grid", 400, 83);
+        FacilityIndex index = new FacilityIndex(graph, categories(graph, new Random(19)));
+        assertEquals(30, index.memberCount("Cafe"));
+        assertEquals(0, index.memberCount("bank"));
+        assertTrue(index.nearest(graph.node(0), "bank", 3, Metric.DISTANCE).isEmpty());
+        assertNull(index.nearest(graph.node(0), "bank", Metric.DISTANCE));
+        for (int v = 0; v < graph.size(); v++) {
+            if (index.getCategories().categoriesOf(graph.node(v)).contains("cafe")) {
+                assertEquals(0, index.nearest(graph.node(v), "cafe", Metric.DISTANCE).getCost());
+                assertEquals(0, index.nearest(graph.node(v), "cafe", 1, Metric.TIME).get(0).getCost());
+            }
+        }
+    }
+
+    /**
+     * Writes a category file putting 30 random landmarks in "cafe" and a single one in
+     * "library", since the generated names carry no keywords.
+     */
+    private LandmarkCategories categories(IndexedGraph graph, Random random) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(LandmarkCategories.HEADER);
+        random.ints(0, graph.size()).distinct().limit(30).forEach(v -> lines.add(graph.node(v).getName() + ",cafe"));
+        lines.add(graph.node(random.nextInt(graph.size())).getName() + ",Library");
+        Path file = directory.resolve("categories.csv");
+        Files.write(file, lines);
+        return LandmarkCategories.load(file);
+    }
+
+    /**
+     * Returns the reference distances to the reachable members of a category, nearest first.
+     */
+    private static double[] memberDistances(FacilityIndex index, IndexedGraph graph, String category, double[] expected) {
+        Set<Integer> members = new TreeSet<>();
+        for (int v = 0; v < graph.size(); v++) {
+            if (index.getCategories().categoriesOf(graph.node(v)).contains(category)) {
+                members.add(v);
+            }
+        }
+        assertEquals(members.size(), index.memberCount(category));
+        return members.stream().mapToDouble(v -> expected[v]).filter(d -> d != Double.POSITIVE_INFINITY).sorted().toArray();
+    }
+
+    private static void assertRouteToMember(FacilityIndex index, IndexedGraph graph, int source, String category,
+            double expected, RouteResult route, String message) {
+        TestGraphs.assertSameCost(expected, route.getCost(), message);
+        assertTrue(index.getCategories().categoriesOf(route.getDestination()).contains(category), message);
+        assertEquals(graph.node(source), route.getSource(), message);
+        int[] nodes = graph.indicesOf(route.getPath());
+        assertEquals(source, nodes[0], message);
+        assertEquals(route.getDestination(), graph.node(nodes[nodes.length - 1]), message);
+        TestGraphs.assertSameCost(expected, TestGraphs.pathCost(graph, nodes, route.getMetric()), message);
+        assertEquals(Arrays.stream(nodes).distinct().count(), nodes.length, message + ": the path repeats a node");
+    }
+}
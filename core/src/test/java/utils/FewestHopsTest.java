@@ -0,0 +1,140 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class FewestHopsTest {
+
+    @ParameterizedTest
+    @CsvSource({"grid, 2000", "geometric, 2000", "zones, 2000", "complete, 500",
+            "grid, 200000", "geometric, 200000", "zones, 200000"})
+    void hopCountsMatchBreadthFirstSearch(String layout, int nodeCount) {
+        IndexedGraph graph = TestGraphs.indexed(layout, nodeCount, 121);
+        Random random = new Random(25);
+        for (int query = 0; query < 5; query++) {
+            int source = random.nextInt(graph.size());
+            assertArrayEquals(referenceHops(graph, source), FewestHops.hopCounts(graph, source), layout + " from " + source);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"grid, 2000", "geometric, 2000", "zones, 2000", "geometric, 200000"})
+    void pathsHaveTheFewestHops(String layout, int nodeCount) {
+        IndexedGraph graph = TestGraphs.indexed(layout, nodeCount, 122);
+        Random random = new Random(26);
+        for (int query = 0; query < 20; query++) {
+            int source = random.nextInt(graph.size());
+            int target = random.nextInt(graph.size());
+            assertFewestHops(graph, source, target, referenceHops(graph, source)[target], layout + " " + source + " -> " + target);
+        }
+    }
+
+    @Test
+    void wideFrontiersMatchBreadthFirstSearch() {
+        // Planar layouts keep the frontier near their perimeter; a random graph's grows about
+        // fivefold per level, which drives the parallel top-down and bottom-up levels
+        IndexedGraph graph = randomGraph(150_000, 3, 124);
+        Random random = new Random(27);
+        for (int query = 0; query < 5; query++) {
+            int source = random.nextInt(graph.size());
+            int[] expected = referenceHops(graph, source);
+            assertArrayEquals(expected, FewestHops.hopCounts(graph, source), "from " + source);
+            for (int i = 0; i < 10; i++) {
+                int target = random.nextInt(graph.size());
+                assertFewestHops(graph, source, target, expected[target], source + " -> " + target);
+            }
+        }
+    }
+
+    @Test
+    void campusPathsHaveTheFewestHops() throws IOException {
+        IndexedGraph graph = IndexedGraph.of(EdgePruner.prune(TestGraphs.campus()));
+        for (int source = 0; source < graph.size(); source++) {
+            int[] expected = referenceHops(graph, source);
+            assertArrayEquals(expected, FewestHops.hopCounts(graph, source), "from " + source);
+            for (int target = 0; target < graph.size(); target += 11) {
+                assertFewestHops(graph, source, target, expected[target], source + " -> " + target);
+            }
+        }
+    }
+
+    @Test
+    void unreachableTargetsAreNotFound() {
+        Graph graph = TestGraphs.generated("grid", 400, 123);
+        Node island = new Node("Island");
+        graph.addNode(island);
+        IndexedGraph indexed = IndexedGraph.of(graph);
+        int target = indexed.indexOf(island);
+        int source = (target + 1) % indexed.size();
+        assertFalse(FewestHops.shortestPath(indexed, source, target).isFound());
+        assertEquals(Double.POSITIVE_INFINITY, FewestHops.shortestPath(indexed, source, target).getCost());
+        assertEquals(-1, FewestHops.hopCounts(indexed, source)[target]);
+        int[] hops = FewestHops.hopCounts(indexed, target);
+        assertEquals(0, hops[target]);
+        assertEquals(1, Arrays.stream(hops).filter(h -> h >= 0).count());
+    }
+
+    private static void assertFewestHops(IndexedGraph graph, int source, int target, int expected, String message) {
+        IndexedPath path = FewestHops.shortestPath(graph, source, target);
+        assertEquals(expected >= 0, path.isFound(), message);
+        if (path.isFound()) {
+            int[] nodes = path.getNodes();
+            assertEquals(expected, path.getCost(), message);
+            assertEquals(expected + 1, nodes.length, message);
+            assertEquals(source, nodes[0], message);
+            assertEquals(target, nodes[nodes.length - 1], message);
+            assertTrue(TestGraphs.pathCost(graph, nodes, Metric.DISTANCE) < Double.POSITIVE_INFINITY, message + ": a step is not an edge");
+        }
+    }
+
+    /**
+     * Builds a graph joining each node to a few others chosen at random.
+     */
+    private static IndexedGraph randomGraph(int nodeCount, int edgesPerNode, long seed) {
+        Node[] nodes = new Node[nodeCount];
+        Graph graph = new Graph();
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i] = new Node("R" + i);
+            graph.addNode(nodes[i]);
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = 0; j < edgesPerNode; j++) {
+                graph.addEdge(new Edge(nodes[i], nodes[random.nextInt(nodeCount)], 1, 1));
+            }
+        }
+        return IndexedGraph.of(graph);
+    }
+
+    /**
+     * Counts hops with a textbook breadth-first search over a queue.
+     */
+    private static int[] referenceHops(IndexedGraph graph, int source) {
+        int[] hops = new int[graph.size()];
+        Arrays.fill(hops, -1);
+        hops[source] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++) {
+                int v = graph.target(e);
+                if (hops[v] < 0) {
+                    hops[v] = hops[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return hops;
+    }
+}
@@ -0,0 +1,67 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A graph whose snapshots are held back until a test opens the gate, so a search started
+ * through a {@link Router} blocks at a known point, and which can then fail that search.
+ */
+class GatedGraph extends Graph {
+
+    final CountDownLatch open = new CountDownLatch(1);
+    volatile RuntimeException failure;
+
+    @Override
+    public GraphSnapshot snapshot() {
+        await(open);
+        RuntimeException thrown = failure;
+        if (thrown != null) {
+            throw thrown;
+        }
+        return super.snapshot();
+    }
+
+    /**
+     * Builds the gated line A - B - C with walkways of distance and time 1.
+     */
+    static GatedGraph chain() {
+        GatedGraph graph = new GatedGraph();
+        Node a = new Node("A");
+        Node b = new Node("B");
+        Node c = new Node("C");
+        graph.addEdge(new Edge(a, b, 1, 1));
+        graph.addEdge(new Edge(b, c, 1, 1));
+        return graph;
+    }
+
+    /**
+     * Waits for a latch, failing the calling search if it is not released within ten seconds.
+     */
+    static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new CompletionException(new TimeoutException("Latch was never released"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Polls until a condition holds, failing the test after ten seconds.
+     */
+    static void waitFor(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class GeoIndexTest {
+
+    // Metres by which the tree's chord-based distance may differ from the haversine one
+    private static final double METRE_TOLERANCE = 1e-3;
+
+    @Test
+    void campusSnapsMatchBruteForce() throws IOException {
+        Graph graph = TestGraphs.campus();
+        NodeCoordinates.load(TestGraphs.resource("landmarkCoordinates.csv"), graph);
+        IndexedGraph indexed = IndexedGraph.of(graph);
+        GeoIndex index = new GeoIndex(indexed);
+        assertEquals(indexed.size(), index.size());
+        Random random = new Random(22);
+        for (int query = 0; query < 500; query++) {
+            // Positions across and just beyond the campus, in degrees
+            double latitude = TestGraphs.CAMPUS_LATITUDE + (random.nextDouble() - 0.5) * 0.06;
+            double longitude = TestGraphs.CAMPUS_LONGITUDE + (random.nextDouble() - 0.5) * 0.06;
+            assertMatchesBruteForce(index, indexed, latitude, longitude, 1 + random.nextInt(10));
+        }
+        // A position exactly on a landmark snaps to it
+        Node node = indexed.node(17);
+        GeoIndex.Snap snap = index.nearest(node.getLatitude(), node.getLongitude(), 1).get(0);
+        assertEquals(0, snap.getMetres(), METRE_TOLERANCE);
+        assertEquals(node.getLatitude(), snap.getNode().getLatitude());
+    }
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void generatedSnapsMatchBruteForce(String layout) {
+        IndexedGraph graph = IndexedGraph.of(TestGraphs.located(layout, 5000, 101));
+        GeoIndex index = new GeoIndex(graph);
+        Random random = new Random(23);
+        for (int query = 0; query < 300; query++) {
+            Node near = graph.node(random.nextInt(graph.size()));
+            double latitude = near.getLatitude() + (random.nextDouble() - 0.5) * 0.01;
+            double longitude = near.getLongitude() + (random.nextDouble() - 0.5) * 0.01;
+            assertMatchesBruteForce(index, graph, latitude, longitude, 1 + random.nextInt(20));
+        }
+    }
+
+    @Test
+    void unlocatedLandmarksAreLeftOut() {
+        Graph graph = TestGraphs.generated("grid", 100, 102);
+        List<Node> nodes = new ArrayList<>(graph.snapshot().getNodes());
+        for (int i = 0; i < 10; i++) {
+            nodes.get(i).setLocation(TestGraphs.CAMPUS_LATITUDE + i * 0.001, TestGraphs.CAMPUS_LONGITUDE);
+        }
+        GeoIndex index = new GeoIndex(IndexedGraph.of(graph));
+        assertEquals(10, index.size());
+        List<GeoIndex.Snap> snaps = index.nearest(TestGraphs.CAMPUS_LATITUDE, TestGraphs.CAMPUS_LONGITUDE, 50);
+        assertEquals(10, snaps.size());
+        assertTrue(snaps.stream().allMatch(snap -> snap.getNode().hasLocation()));
+        assertTrue(index.nearest(TestGraphs.CAMPUS_LATITUDE, TestGraphs.CAMPUS_LONGITUDE, 0).isEmpty());
+        assertTrue(new GeoIndex(TestGraphs.indexed("grid", 100, 102)).nearest(0, 0, 3).isEmpty());
+    }
+
+    /**
+     * Checks a query against a scan of every located landmark by haversine distance. Ties
+     * may come back in either order, so the distances are compared rank by rank.
+     */
+    private static void assertMatchesBruteForce(GeoIndex index, IndexedGraph graph, double latitude, double longitude, int k) {
+        List<Double> expected = new ArrayList<>();
+        for (int v = 0; v < graph.size(); v++) {
+            Node node = graph.node(v);
+            if (node.hasLocation()) {
+                expected.add(GeoIndex.greatCircleMetres(latitude, longitude, node.getLatitude(), node.getLongitude()));
+            }
+        }
+        expected.sort(Comparator.naturalOrder());
+        List<GeoIndex.Snap> snaps = index.nearest(latitude, longitude, k);
+        String message = k + " nearest to " + latitude + ", " + longitude;
+        assertEquals(Math.min(k, expected.size()), snaps.size(), message);
+        for (int i = 0; i < snaps.size(); i++) {
+            GeoIndex.Snap snap = snaps.get(i);
+            assertEquals(expected.get(i), snap.getMetres(), METRE_TOLERANCE, message + " rank " + i);
+            double actual = GeoIndex.greatCircleMetres(latitude, longitude, snap.getNode().getLatitude(), snap.getNode().getLongitude());
+            assertEquals(snap.getMetres(), actual, METRE_TOLERANCE, message + " rank " + i);
+        }
+    }
+}
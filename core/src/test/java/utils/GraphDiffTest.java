@@ -0,0 +1,114 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class GraphDiffTest {
+
+    @Test
+    void diffListsEachChangedWalkwayOnce() {
+        Graph current = graph("A-B 1", "B-C 1", "C-D 1");
+        Graph next = graph("A-B 1", "B-C 2", "A-C 3", "D-E 1");
+        GraphDiff diff = GraphDiff.between(current.snapshot(), next.snapshot());
+
+        assertEquals(List.of("A-C 3.0", "D-E 1.0"), names(diff.getAddedEdges()));
+        assertEquals(List.of("C-D 1.0"), names(diff.getRemovedEdges()));
+        assertEquals(List.of("B-C 2.0"), names(diff.getUpdatedEdges()));
+        assertEquals(List.of("E"), diff.getAddedNodes().stream().map(Node::getName).toList());
+        assertTrue(diff.getMissingNodes().isEmpty());
+        assertFalse(diff.isEmpty());
+        assertTrue(GraphDiff.between(current.snapshot(), graph("B-A 1", "C-B 1", "D-C 1").snapshot()).isEmpty());
+    }
+
+    @Test
+    void applyingADiffMatchesTheNewData() {
+        Graph current = graph("A-B 1", "B-C 1", "C-D 1", "D-A 4");
+        Graph next = graph("A-B 1", "B-C 0.5", "A-C 3", "D-E 1");
+        GraphSnapshot before = current.snapshot();
+        GraphDiff diff = GraphDiff.between(before, next.snapshot());
+
+        List<EdgeChange> changes = current.apply(diff);
+        GraphSnapshot after = current.snapshot();
+
+        // Two removals, one update and two additions, all published as one new snapshot
+        assertEquals(5, changes.size());
+        assertEquals(before.getVersion() + 5, after.getVersion());
+        assertEquals(changes.get(changes.size() - 1).getVersion(), after.getVersion());
+        assertTrue(GraphDiff.between(after, next.snapshot()).isEmpty());
+        assertNull(after.getEdge(node(current, "C"), node(current, "D")));
+        assertNull(after.getEdge(node(current, "A"), node(current, "D")));
+        assertEquals(0.5, after.getEdge(node(current, "C"), node(current, "B")).getDistance());
+        assertEquals(3, after.getEdge(node(current, "C"), node(current, "A")).getDistance());
+        assertEquals(1, after.getEdge(node(current, "E"), node(current, "D")).getDistance());
+        // D is missing from the new data's walkways to C and A but stays as a node
+        assertTrue(after.contains(node(current, "D")));
+        assertEquals(1, before.getEdge(node(current, "C"), node(current, "D")).getDistance());
+    }
+
+    @Test
+    void appliedWalkwaysJoinTheGraphsOwnNodes() {
+        Graph current = graph("A-B 1", "B-C 1", "C-D 1");
+        List<Node> original = new ArrayList<>(current.snapshot().getNodes());
+        for (int i = 0; i < original.size(); i++) {
+            original.get(i).setLocation(TestGraphs.CAMPUS_LATITUDE + i * 0.001, TestGraphs.CAMPUS_LONGITUDE);
+        }
+        Graph next = graph("A-B 1", "B-C 2", "A-D 1", "D-E 1");
+        current.apply(GraphDiff.between(current.snapshot(), next.snapshot()));
+
+        GraphSnapshot after = current.snapshot();
+        for (Node node : original) {
+            assertSame(node, after.getNodeByName(node.getName()));
+        }
+        for (Edge edge : after.getEdges()) {
+            for (Node end : List.of(edge.getSource(), edge.getDestination())) {
+                assertTrue(end.hasLocation() || end.getName().equals("E"), edge.toString());
+            }
+        }
+        for (Node node : original) {
+            for (Node neighbour : after.getNeighbourNodes(node)) {
+                assertSame(after.getNodeByName(neighbour.getName()), neighbour, node + " -> " + neighbour);
+            }
+        }
+        RouteResult route = Dijkstra.route(after, node(current, "C"), node(current, "D"), Metric.DISTANCE,
+                CancellationToken.NONE);
+        assertEquals(List.of("C", "B", "A", "D"), route.getPath().stream().map(Node::getName).toList());
+        assertTrue(route.getPath().stream().allMatch(Node::hasLocation));
+    }
+
+    /**
+     * Builds a graph from walkways written as "A-B distance", each with time equal to its distance.
+     */
+    private static Graph graph(String... walkways) {
+        Graph graph = new Graph();
+        Map<String, Node> nodes = new HashMap<>();
+        for (String walkway : walkways) {
+            String[] parts = walkway.split("[- ]");
+            double distance = Double.parseDouble(parts[2]);
+            graph.addEdge(new Edge(nodes.computeIfAbsent(parts[0], Node::new), nodes.computeIfAbsent(parts[1], Node::new),
+                    distance, distance));
+        }
+        return graph;
+    }
+
+    private static Node node(Graph graph, String name) {
+        return graph.snapshot().getNodeByName(name);
+    }
+
+    private static List<String> names(List<Edge> edges) {
+        List<String> names = new ArrayList<>();
+        for (Edge edge : edges) {
+            names.add(edge.getSource() + "-" + edge.getDestination() + " " + edge.getDistance());
+        }
+        names.sort(null);
+        return names;
+    }
+}
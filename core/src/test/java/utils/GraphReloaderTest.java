@@ -0,0 +1,124 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GraphReloaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reloadingAppliesTheFilesChanges() throws IOException {
+        Path file = write("A,0,1,0", "B,1,0,1", "C,0,1,0");
+        Graph graph = load(file);
+        Node a = graph.getNodeByName("A");
+        a.setLocation(TestGraphs.CAMPUS_LATITUDE, TestGraphs.CAMPUS_LONGITUDE);
+        RouteCache cache = new RouteCache(graph, 64);
+        Node b = graph.getNodeByName("B");
+        Node c = graph.getNodeByName("C");
+        cache.put(Dijkstra.route(graph.snapshot(), a, b, Metric.DISTANCE, CancellationToken.NONE), graph.getVersion());
+        cache.put(Dijkstra.route(graph.snapshot(), b, c, Metric.DISTANCE, CancellationToken.NONE), graph.getVersion());
+
+        GraphReloader reloader = reloadedByHand(graph, file, false);
+        write("A,0,1,0", "B,1,0,3", "C,0,3,0");
+        GraphDiff diff = reloader.reloadNow();
+        assertNotNull(diff);
+        assertEquals(1, diff.getUpdatedEdges().size());
+        assertEquals(1, reloader.getReloadCount());
+        assertSame(diff, reloader.getLastDiff());
+
+        GraphSnapshot snapshot = graph.snapshot();
+        assertEquals(3, snapshot.getEdge(c, b).getDistance());
+        assertSame(a, snapshot.getNodeByName("A"));
+        assertTrue(snapshot.getNodeByName("A").hasLocation());
+        // Only the route over the changed walkway was dropped
+        assertNotNull(cache.get(a, b, Metric.DISTANCE));
+        assertNull(cache.get(b, c, Metric.DISTANCE));
+
+        // Reloading unchanged data finds nothing to apply
+        long version = graph.getVersion();
+        assertTrue(reloader.reloadNow().isEmpty());
+        assertEquals(version, graph.getVersion());
+        assertEquals(2, reloader.getReloadCount());
+    }
+
+    @Test
+    void unreadableFilesKeepTheCurrentGraph() throws IOException {
+        Path file = write("A,0,1", "B,1,0");
+        Graph graph = load(file);
+        long version = graph.getVersion();
+        GraphReloader reloader = reloadedByHand(graph, file, false);
+        Files.write(file, List.of("Address,A,B"));
+        assertNull(reloader.reloadNow());
+        Files.write(file, List.of("Address,A,B", "A,0,far", "B,1,0"));
+        assertNull(reloader.reloadNow());
+        assertEquals(2, reloader.getFailureCount());
+        assertEquals(0, reloader.getReloadCount());
+        assertNull(reloader.getLastDiff());
+        assertEquals(version, graph.getVersion());
+        assertEquals(1, graph.snapshot().getEdge(graph.getNodeByName("A"), graph.getNodeByName("B")).getDistance());
+    }
+
+    @Test
+    void prunedGraphsAreComparedWithPrunedData() throws IOException {
+        // A-C is longer than the detour through B, so pruning drops it
+        Path file = write("A,0,1,3", "B,1,0,1", "C,3,1,0");
+        Graph graph = EdgePruner.prune(load(file));
+        GraphReloader reloader = reloadedByHand(graph, file, true);
+        write("A,0,1,4", "B,1,0,1", "C,4,1,0");
+        assertTrue(reloader.reloadNow().isEmpty());
+        assertNull(graph.snapshot().getEdge(graph.getNodeByName("A"), graph.getNodeByName("C")));
+    }
+
+    @Test
+    void fileChangesAreReloadedInTheBackground() throws Exception {
+        Path file = write("A,0,1", "B,1,0");
+        Graph graph = load(file);
+        try (GraphReloader reloader = new GraphReloader(graph, file.toString())) {
+            write("A,0,2", "B,2,0");
+            GatedGraph.waitFor(() -> reloader.getReloadCount() > 0, "The change was never picked up");
+            assertEquals(2, graph.snapshot().getEdge(graph.getNodeByName("A"), graph.getNodeByName("B")).getDistance());
+        }
+    }
+
+    /**
+     * Creates a reloader that no longer watches the file, so only the test's own calls reload it.
+     */
+    private static GraphReloader reloadedByHand(Graph graph, Path file, boolean pruneEdges) throws IOException {
+        GraphReloader reloader = new GraphReloader(graph, file.toString(), pruneEdges);
+        reloader.close();
+        return reloader;
+    }
+
+    private static Graph load(Path file) throws IOException {
+        Graph graph = new Graph();
+        CSVParser.parseCSV(file.toString(), graph);
+        return graph;
+    }
+
+    /**
+     * Writes a landmark matrix over the nodes named at the start of each row.
+     */
+    private Path write(String... rows) throws IOException {
+        StringBuilder header = new StringBuilder("Address");
+        for (String row : rows) {
+            header.append(',').append(row, 0, row.indexOf(','));
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(header.toString());
+        lines.addAll(List.of(rows));
+        return Files.write(directory.resolve("landmarks.csv"), lines);
+    }
+}
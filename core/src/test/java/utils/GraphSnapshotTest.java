@@ -0,0 +1,101 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class GraphSnapshotTest {
+
+    @Test
+    void oldSnapshotsDoNotSeeLaterChanges() {
+        Graph graph = TestGraphs.generated("grid", 1000, 141);
+        GraphSnapshot before = graph.snapshot();
+        List<String> contents = describe(before);
+        Edge edge = before.getEdges().get(0);
+        Node source = edge.getSource();
+        Node destination = edge.getDestination();
+        Node other = before.getNodes().get(before.size() - 1);
+
+        assertTrue(graph.updateEdge(source, destination, edge.getDistance() * 2, edge.getTime() * 2));
+        assertTrue(graph.removeEdge(source, destination));
+        graph.addEdge(new Edge(source, other, 0.01, 0.01));
+        Node added = new Node("Added Landmark");
+        graph.addEdge(new Edge(other, added, 0.02, 0.02));
+        GraphSnapshot after = graph.snapshot();
+
+        assertEquals(contents, describe(before));
+        assertEquals(before.getVersion() + 4, after.getVersion());
+        assertSame(edge, before.getEdge(source, destination));
+        assertNull(before.getEdge(source, other));
+        assertFalse(before.contains(added));
+        assertEquals(before.size() + 1, after.size());
+
+        assertNull(after.getEdge(source, destination));
+        assertNull(after.getEdge(destination, source));
+        assertEquals(0.01, after.getEdge(other, source).getDistance());
+        assertTrue(after.getNeighbourNodes(added).contains(other));
+    }
+
+    @Test
+    void unchangedChunksAreShared() {
+        Graph graph = TestGraphs.generated("geometric", 1000, 142);
+        GraphSnapshot before = graph.snapshot();
+        Edge edge = before.getEdges().get(before.getEdges().size() / 2);
+        Node source = edge.getSource();
+        Node destination = edge.getDestination();
+
+        assertTrue(graph.updateEdge(source, destination, edge.getDistance() + 1, edge.getTime() + 1));
+        GraphSnapshot after = graph.snapshot();
+
+        Map<Object[], Boolean> chunks = new IdentityHashMap<>();
+        for (Node node : before.getNodes()) {
+            boolean changed = node.equals(source) || node.equals(destination);
+            boolean chunkChanged = before.chunkOf(node) == before.chunkOf(source)
+                    || before.chunkOf(node) == before.chunkOf(destination);
+            if (changed) {
+                assertNotSame(before.outgoingEdges(node), after.outgoingEdges(node), node.getName());
+            } else {
+                assertSame(before.outgoingEdges(node), after.outgoingEdges(node), node.getName());
+                assertSame(before.getNeighbourNodes(node), after.getNeighbourNodes(node), node.getName());
+            }
+            assertEquals(!chunkChanged, before.chunkOf(node) == after.chunkOf(node), node.getName());
+            chunks.put(before.chunkOf(node), chunkChanged);
+        }
+        // A thousand nodes fill 16 chunks, of which at most the two holding the walkway's ends are copied
+        assertEquals(16, chunks.size());
+        assertTrue(chunks.values().stream().filter(copied -> copied).count() <= 2);
+        assertSame(before.getNodes(), after.getNodes());
+    }
+
+    @Test
+    void unchangedGraphsReuseTheirSnapshot() {
+        Graph graph = TestGraphs.generated("zones", 500, 143);
+        GraphSnapshot snapshot = graph.snapshot();
+        assertSame(snapshot, graph.snapshot());
+        assertFalse(graph.removeEdge(new Node("Nowhere"), snapshot.getNodes().get(0)));
+        assertSame(snapshot, graph.snapshot());
+    }
+
+    /**
+     * Lists every edge and neighbour of a snapshot as text, so changes to either show up.
+     */
+    private static List<String> describe(GraphSnapshot snapshot) {
+        List<String> lines = new ArrayList<>();
+        for (Node node : snapshot.getNodes()) {
+            for (Edge edge : snapshot.outgoingEdges(node)) {
+                lines.add(edge.getSource() + " -> " + edge.getDestination() + " " + edge.getDistance() + " " + edge.getTime());
+            }
+            lines.add(node + " neighbours " + snapshot.getNeighbourNodes(node));
+        }
+        return lines;
+    }
+}
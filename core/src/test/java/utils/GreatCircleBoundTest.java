@@ -0,0 +1,71 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class GreatCircleBoundTest {
+
+    @Test
+    void campusBoundsAreAdmissibleAndRoutesExact() throws IOException {
+        Graph graph = TestGraphs.campus();
+        NodeCoordinates.load(TestGraphs.resource("landmarkCoordinates.csv"), graph);
+        IndexedGraph indexed = IndexedGraph.of(graph);
+        for (Metric metric : Metric.values()) {
+            GreatCircleBound bound = GreatCircleBound.build(indexed, metric);
+            assertTrue(bound.getScale() > 0, metric.name());
+            for (int source = 0; source < indexed.size(); source++) {
+                assertAdmissibleAndExact(bound, indexed, source, 1, metric + " from " + source);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void generatedBoundsAreAdmissibleAndRoutesExact(String layout) {
+        IndexedGraph graph = IndexedGraph.of(TestGraphs.located(layout, 2000, 111));
+        Random random = new Random(24);
+        for (Metric metric : Metric.values()) {
+            GreatCircleBound bound = GreatCircleBound.build(graph, metric);
+            for (int query = 0; query < 15; query++) {
+                assertAdmissibleAndExact(bound, graph, random.nextInt(graph.size()), 17, layout + " " + metric);
+            }
+        }
+    }
+
+    @Test
+    void everyLandmarkNeedsALocation() {
+        IndexedGraph graph = TestGraphs.indexed("grid", 100, 112);
+        assertThrows(IllegalArgumentException.class, () -> GreatCircleBound.build(graph, Metric.DISTANCE));
+    }
+
+    /**
+     * Checks that the bound never overestimates the reference distance from a source, and
+     * that A* guided by it finds paths of the reference cost to every {@code step}-th node.
+     */
+    private static void assertAdmissibleAndExact(GreatCircleBound bound, IndexedGraph graph, int source, int step, String message) {
+        double[] expected = TestGraphs.referenceDistances(graph, source, bound.getMetric());
+        for (int v = 0; v < graph.size(); v++) {
+            // Walkways are two-way, so the bound must hold in both directions
+            double slack = 1e-9 * Math.max(1, expected[v]);
+            assertTrue(bound.lowerBound(source, v) <= expected[v] + slack, message + " bound to " + v);
+            assertTrue(bound.lowerBound(v, source) <= expected[v] + slack, message + " bound from " + v);
+        }
+        for (int target = 0; target < graph.size(); target += step) {
+            IndexedPath path = AStar.findShortestPath(bound, source, target);
+            String query = message + " -> " + target;
+            TestGraphs.assertSameCost(expected[target], path.getCost(), query);
+            if (path.isFound()) {
+                assertEquals(source, path.getNodes()[0], query);
+                assertEquals(target, path.getNodes()[path.getNodes().length - 1], query);
+                TestGraphs.assertSameCost(expected[target], TestGraphs.pathCost(graph, path.getNodes(), bound.getMetric()), query);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package utils;
+
+import java.util.Random;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class HubLabelsTest {
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void hierarchyOrderedLabelsMatchDijkstra(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 3000, 31);
+        for (Metric metric : Metric.values()) {
+            HubLabels labels = HubLabels.build(graph, ContractionHierarchy.build(graph, metric));
+            assertMatchesDijkstra(graph, labels, metric, layout);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void degreeOrderedLabelsMatchDijkstra(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 800, 32);
+        assertMatchesDijkstra(graph, HubLabels.build(graph, Metric.DISTANCE), Metric.DISTANCE, layout);
+    }
+
+    private static void assertMatchesDijkstra(IndexedGraph graph, HubLabels labels, Metric metric, String layout) {
+        Random random = new Random(4);
+        for (int query = 0; query < 10; query++) {
+            int source = random.nextInt(graph.size());
+            double[] expected = TestGraphs.referenceDistances(graph, source, metric);
+            for (int target = 0; target < graph.size(); target++) {
+                TestGraphs.assertSameCost(expected[target], labels.distance(source, target),
+                        layout + " " + metric + " " + source + " -> " + target);
+                TestGraphs.assertSameCost(expected[target], labels.distance(graph.node(source), graph.node(target)),
+                        layout + " " + metric + " " + graph.node(source) + " -> " + graph.node(target));
+            }
+        }
+    }
+}
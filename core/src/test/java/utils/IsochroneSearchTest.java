@@ -0,0 +1,101 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class IsochroneSearchTest {
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void reachableSetsMatchDijkstra(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 2000, 91);
+        Random random = new Random(20);
+        for (Metric metric : Metric.values()) {
+            for (int query = 0; query < 20; query++) {
+                int source = random.nextInt(graph.size());
+                double[] expected = TestGraphs.referenceDistances(graph, source, metric);
+                double budget = budgetBetweenNodes(expected, random);
+                Isochrone isochrone = IsochroneSearch.reachable(graph, graph.node(source), budget, metric);
+                assertMatchesDijkstra(graph, source, expected, budget, isochrone, layout + " " + metric + " from " + source);
+            }
+        }
+    }
+
+    @Test
+    void batchesMatchSingleSearches() {
+        IndexedGraph graph = TestGraphs.indexed("geometric", 3000, 92);
+        Random random = new Random(21);
+        List<Node> origins = new ArrayList<>();
+        random.ints(0, graph.size()).distinct().limit(40).forEach(v -> origins.add(graph.node(v)));
+        double budget = budgetBetweenNodes(TestGraphs.referenceDistances(graph, 0, Metric.TIME), random);
+        List<Isochrone> batch = IsochroneSearch.reachable(graph, origins, budget, Metric.TIME);
+        assertEquals(origins.size(), batch.size());
+        for (int i = 0; i < origins.size(); i++) {
+            int source = graph.indexOf(origins.get(i));
+            double[] expected = TestGraphs.referenceDistances(graph, source, Metric.TIME);
+            assertEquals(origins.get(i), batch.get(i).getOrigin());
+            assertMatchesDijkstra(graph, source, expected, budget, batch.get(i), "batch origin " + source);
+        }
+    }
+
+    @Test
+    void zeroBudgetReachesOnlyTheOrigin() {
+        IndexedGraph graph = TestGraphs.indexed("grid", 400, 93);
+        Isochrone isochrone = IsochroneSearch.reachable(graph, graph.node(7), 0, Metric.DISTANCE);
+        assertEquals(List.of(graph.node(7)), isochrone.getNodes());
+        assertEquals(0, isochrone.getCost(graph.node(7)));
+        assertEquals(Double.MAX_VALUE, isochrone.getCost(graph.node(8)));
+        assertTrue(isochrone.getPath(graph.node(8)).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> IsochroneSearch.reachable(graph, graph.node(7), -1, Metric.DISTANCE));
+    }
+
+    /**
+     * Picks a budget halfway between the costs of two nodes, so summing the same edges in
+     * another order cannot move a node across it.
+     */
+    private static double budgetBetweenNodes(double[] expected, Random random) {
+        double[] costs = Arrays.stream(expected).filter(d -> d != Double.POSITIVE_INFINITY).sorted().distinct().toArray();
+        while (true) {
+            int i = random.nextInt(costs.length - 1);
+            if (costs[i + 1] - costs[i] > 1e-6 * costs[i + 1]) {
+                return (costs[i] + costs[i + 1]) / 2;
+            }
+        }
+    }
+
+    private static void assertMatchesDijkstra(IndexedGraph graph, int source, double[] expected, double budget,
+            Isochrone isochrone, String message) {
+        int inBudget = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            Node node = graph.node(v);
+            if (expected[v] <= budget) {
+                inBudget++;
+                assertTrue(isochrone.contains(node), message + ": missing " + node);
+                TestGraphs.assertSameCost(expected[v], isochrone.getCost(node), message + " to " + node);
+                List<Node> path = isochrone.getPath(node);
+                int[] nodes = graph.indicesOf(path);
+                assertEquals(source, nodes[0], message);
+                assertEquals(v, nodes[nodes.length - 1], message);
+                TestGraphs.assertSameCost(expected[v], TestGraphs.pathCost(graph, nodes, isochrone.getMetric()), message + " to " + node);
+            } else {
+                assertFalse(isochrone.contains(node), message + ": " + node + " is over the budget");
+            }
+        }
+        assertEquals(inBudget, isochrone.size(), message);
+        assertEquals(graph.node(source), isochrone.getNodes().get(0), message);
+        for (int i = 1; i < isochrone.size(); i++) {
+            assertTrue(isochrone.getCost(isochrone.getNodes().get(i - 1)) <= isochrone.getCost(isochrone.getNodes().get(i)),
+                    message + ": nodes out of cost order");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NodeCoordinatesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void fixtureLocatesEveryCampusLandmark() throws IOException {
+        Graph graph = TestGraphs.campus();
+        int located = NodeCoordinates.load(TestGraphs.resource("landmarkCoordinates.csv"), graph);
+        assertEquals(graph.snapshot().getNodes().size(), located);
+        for (Node node : graph.snapshot().getNodes()) {
+            assertTrue(node.hasLocation(), node.getName());
+            // Every landmark is on the campus, within a few kilometres of its centre
+            assertTrue(GeoIndex.greatCircleMetres(TestGraphs.CAMPUS_LATITUDE, TestGraphs.CAMPUS_LONGITUDE,
+                    node.getLatitude(), node.getLongitude()) < 10_000, node.getName());
+        }
+    }
+
+    @Test
+    void namesMatchIgnoringCaseAndMayContainCommas() throws IOException {
+        Graph graph = new Graph();
+        Node hall = new Node("Akuafo Hall Legon");
+        Node office = new Node("Office, Block A");
+        Node unlisted = new Node("Main Gate");
+        graph.addEdge(new Edge(hall, office, 1, 1));
+        graph.addEdge(new Edge(office, unlisted, 1, 1));
+        Path file = write(NodeCoordinates.HEADER, "akuafo hall legon,5.6531,-0.1854", "Office, Block A, 5.65, -0.19", "");
+
+        assertEquals(2, NodeCoordinates.load(file, graph));
+        assertEquals(5.6531, hall.getLatitude());
+        assertEquals(-0.1854, hall.getLongitude());
+        assertEquals(5.65, office.getLatitude());
+        assertEquals(-0.19, office.getLongitude());
+        assertFalse(unlisted.hasLocation());
+    }
+
+    @Test
+    void malformedLinesAreRejected() throws IOException {
+        Graph graph = new Graph();
+        graph.addEdge(new Edge(new Node("Balme Library Legon"), new Node("Main Gate"), 1, 1));
+        for (String line : List.of("Unknown Place,5.65,-0.19", "Balme Library Legon,north,-0.19",
+                "Balme Library Legon,95,-0.19", "Balme Library Legon")) {
+            Path file = write(NodeCoordinates.HEADER, line);
+            assertThrows(IOException.class, () -> NodeCoordinates.load(file, graph), line);
+        }
+    }
+
+    private Path write(String... lines) throws IOException {
+        return Files.write(directory.resolve("landmarkCoordinates.csv"), List.of(lines));
+    }
+}
@@ -0,0 +1,134 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class QuantizedDijkstraTest {
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void distancesAreWithinTheErrorBound(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 3000, 41);
+        for (Metric metric : Metric.values()) {
+            QuantizedGraph quantized = QuantizedGraph.of(graph, metric);
+            // No shortest path has more edges than there are nodes
+            double bound = quantized.errorBound(graph.size() - 1);
+            Random random = new Random(8);
+            for (int query = 0; query < 5; query++) {
+                int source = random.nextInt(graph.size());
+                double[] expected = TestGraphs.referenceDistances(graph, source, metric);
+                long[] units = QuantizedDijkstra.distances(quantized, source);
+                for (int v = 0; v < graph.size(); v++) {
+                    String message = layout + " " + metric + " " + source + " -> " + v;
+                    if (expected[v] == Double.POSITIVE_INFINITY) {
+                        assertEquals(Long.MAX_VALUE, units[v], message);
+                    } else {
+                        assertEquals(expected[v], quantized.toMetric(units[v]), bound, message);
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void pathsAreNearlyShortest(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 2000, 42);
+        QuantizedGraph quantized = QuantizedGraph.of(graph, Metric.DISTANCE);
+        Random random = new Random(9);
+        for (int query = 0; query < 50; query++) {
+            int source = random.nextInt(graph.size());
+            int target = random.nextInt(graph.size());
+            double expected = TestGraphs.referenceDistances(graph, source, Metric.DISTANCE)[target];
+            IndexedPath path = QuantizedDijkstra.findShortestPath(quantized, source, target);
+            String message = layout + " " + source + " -> " + target;
+            assertEquals(expected == Double.POSITIVE_INFINITY, !path.isFound(), message);
+            if (path.isFound()) {
+                int edges = path.getNodes().length - 1;
+                // The rounding can pick a path up to twice the bound longer than the shortest
+                assertEquals(expected, TestGraphs.pathCost(graph, path.getNodes(), Metric.DISTANCE),
+                        2 * quantized.errorBound(edges) + 1e-9, message);
+                assertEquals(expected, path.getCost(), quantized.errorBound(graph.size() - 1), message);
+            }
+        }
+    }
+
+    @Test
+    void pooledSearchesMatchAcrossGraphSizes() {
+        // Alternating graphs makes the pooled arrays grow and then serve a smaller graph
+        QuantizedGraph small = QuantizedGraph.of(TestGraphs.indexed("grid", 500, 43), Metric.TIME);
+        QuantizedGraph large = QuantizedGraph.of(TestGraphs.indexed("geometric", 4000, 44), Metric.TIME);
+        Random random = new Random(11);
+        for (int query = 0; query < 40; query++) {
+            QuantizedGraph graph = query % 2 == 0 ? small : large;
+            int source = random.nextInt(graph.size());
+            int target = random.nextInt(graph.size());
+            long[] expected = QuantizedDijkstra.distances(graph, source);
+            IndexedPath path = QuantizedDijkstra.findShortestPath(graph, source, target);
+            assertEquals(graph.toMetric(expected[target]), path.getCost(), source + " -> " + target);
+        }
+    }
+
+    @Test
+    void pathQueriesReuseTheirWorkingArrays() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "This JVM does not report per-thread allocation");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "This JVM does not report per-thread allocation");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        IndexedGraph graph = TestGraphs.indexed("grid", 20_000, 45);
+        QuantizedGraph quantized = QuantizedGraph.of(graph, Metric.DISTANCE);
+        int queries = 100;
+        for (int source = 0; source < queries; source++) {
+            QuantizedDijkstra.findShortestPath(quantized, source, graph.target(graph.firstEdge(source)));
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int source = 0; source < queries; source++) {
+            QuantizedDijkstra.findShortestPath(quantized, source, graph.target(graph.firstEdge(source)));
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        // Queries to a neighbour only allocate their short path, far less than an array over every node
+        assertTrue(allocated < (long) queries * graph.size(), allocated + " bytes allocated by " + queries + " queries");
+    }
+
+    @Test
+    void radixHeapPollsInKeyOrder() {
+        int capacity = 500;
+        RadixHeap heap = new RadixHeap(capacity);
+        Map<Integer, Long> model = new HashMap<>();
+        Random random = new Random(10);
+        long last = 0;
+        for (int step = 0; step < 200_000; step++) {
+            if (model.isEmpty() || random.nextInt(3) > 0) {
+                int node = random.nextInt(capacity);
+                // Mostly small steps above the last key, sometimes a jump across many buckets
+                long key = last + (random.nextInt(10) == 0 ? random.nextInt(1 << 30) : random.nextInt(1000));
+                heap.insertOrDecrease(node, key);
+                model.merge(node, key, Math::min);
+            } else {
+                long min = model.values().stream().mapToLong(Long::longValue).min().getAsLong();
+                assertEquals(min, heap.peekKey());
+                int node = heap.poll();
+                assertEquals(min, model.remove(node), "polled node " + node);
+                assertFalse(heap.contains(node));
+                last = min;
+            }
+            assertEquals(model.size(), heap.size());
+        }
+        assertThrows(IllegalArgumentException.class, () -> heap.insertOrDecrease(0, -1));
+        heap.clear();
+        assertTrue(heap.isEmpty());
+    }
+}
@@ -0,0 +1,145 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RouteCacheTest {
+
+    @Test
+    void reverseQueriesAreAnsweredFromTheSameEntry() {
+        Graph graph = chain("A", "B", "C");
+        RouteCache cache = new RouteCache(graph, 64);
+        cache.put(route(graph, Metric.DISTANCE, "A", "B", "C"), graph.getVersion());
+
+        RouteResult reverse = cache.get(node(graph, "C"), node(graph, "A"), Metric.DISTANCE);
+        assertNotNull(reverse);
+        assertEquals(node(graph, "C"), reverse.getSource());
+        assertEquals(node(graph, "A"), reverse.getDestination());
+        assertEquals(List.of(node(graph, "C"), node(graph, "B"), node(graph, "A")), reverse.getPath());
+        assertEquals(2, reverse.getDistance());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getHitCount());
+
+        assertNull(cache.get(node(graph, "A"), node(graph, "C"), Metric.TIME));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void routesFromAnOlderGraphAreNotStored() {
+        Graph graph = chain("A", "B", "C");
+        RouteCache cache = new RouteCache(graph, 64);
+        long version = graph.getVersion();
+        graph.updateEdge(node(graph, "A"), node(graph, "B"), 5, 5);
+        cache.put(route(graph, Metric.DISTANCE, "A", "B"), version);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void fullSegmentsEvictTheirLeastRecentlyUsedEntry() {
+        Graph graph = new Graph();
+        // 32 entries over 16 segments leaves room for two per segment
+        RouteCache cache = new RouteCache(graph, 32);
+        Node hub = new Node("Hub");
+        List<Node> sameSegment = new ArrayList<>();
+        int segment = -1;
+        for (int i = 0; sameSegment.size() < 3; i++) {
+            Node node = new Node("N" + i);
+            int index = RouteCache.segmentIndex(new RouteKey(hub, node, Metric.DISTANCE));
+            if (segment < 0 || index == segment) {
+                segment = index;
+                sameSegment.add(node);
+            }
+        }
+        Node first = sameSegment.get(0);
+        Node second = sameSegment.get(1);
+        Node third = sameSegment.get(2);
+
+        cache.put(direct(hub, first), graph.getVersion());
+        cache.put(direct(hub, second), graph.getVersion());
+        assertNotNull(cache.get(first, hub, Metric.DISTANCE)); // Now more recently used than the second
+        cache.put(direct(hub, third), graph.getVersion());
+
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(hub, first, Metric.DISTANCE));
+        assertNull(cache.get(hub, second, Metric.DISTANCE));
+        assertNotNull(cache.get(hub, third, Metric.DISTANCE));
+    }
+
+    @Test
+    void edgeChangesDropOnlyTheRoutesTheyAffect() {
+        Graph graph = chain("A", "B", "C", "D");
+        graph.addEdge(new Edge(new Node("E"), new Node("F"), 0.2, 0.2));
+        RouteCache cache = new RouteCache(graph, 64);
+        long version = graph.getVersion();
+        cache.put(route(graph, Metric.DISTANCE, "A", "B", "C"), version);
+        cache.put(route(graph, Metric.TIME, "A", "B", "C"), version);
+        cache.put(route(graph, Metric.DISTANCE, "B", "C", "D"), version);
+        cache.put(route(graph, Metric.DISTANCE, "C", "D"), version);
+        cache.put(route(graph, Metric.DISTANCE, "E", "F"), version);
+
+        // A longer walkway only affects the routes over it, in either metric
+        graph.updateEdge(node(graph, "B"), node(graph, "A"), 3, 3);
+        assertEquals(3, cache.size());
+        assertNull(cache.get(node(graph, "A"), node(graph, "C"), Metric.DISTANCE));
+        assertNull(cache.get(node(graph, "A"), node(graph, "C"), Metric.TIME));
+
+        // A new walkway can only improve routes costing more than it does
+        graph.addEdge(new Edge(node(graph, "A"), node(graph, "D"), 1.5, 1.5));
+        assertEquals(2, cache.size());
+        assertNull(cache.get(node(graph, "B"), node(graph, "D"), Metric.DISTANCE));
+        assertNotNull(cache.get(node(graph, "C"), node(graph, "D"), Metric.DISTANCE));
+
+        graph.removeEdge(node(graph, "D"), node(graph, "C"));
+        assertEquals(1, cache.size());
+        assertNull(cache.get(node(graph, "C"), node(graph, "D"), Metric.DISTANCE));
+        assertNotNull(cache.get(node(graph, "F"), node(graph, "E"), Metric.DISTANCE));
+
+        assertEquals(4, cache.getStaleRemovalCount());
+        assertEquals(0, cache.getInvalidationCount());
+    }
+
+    /**
+     * Builds a graph joining the named nodes in a line by walkways of distance and time 1.
+     */
+    private static Graph chain(String... names) {
+        Graph graph = new Graph();
+        for (int i = 0; i + 1 < names.length; i++) {
+            graph.addEdge(new Edge(new Node(names[i]), new Node(names[i + 1]), 1, 1));
+        }
+        return graph;
+    }
+
+    private static Node node(Graph graph, String name) {
+        return graph.snapshot().getNodeByName(name);
+    }
+
+    /**
+     * Builds the route along the named nodes, costed from the graph's current walkways.
+     */
+    private static RouteResult route(Graph graph, Metric metric, String... names) {
+        GraphSnapshot snapshot = graph.snapshot();
+        List<Node> path = new ArrayList<>();
+        double distance = 0;
+        double time = 0;
+        for (String name : names) {
+            Node node = snapshot.getNodeByName(name);
+            if (!path.isEmpty()) {
+                Edge edge = snapshot.getEdge(path.get(path.size() - 1), node);
+                distance += edge.getDistance();
+                time += edge.getTime();
+            }
+            path.add(node);
+        }
+        return new RouteResult(path.get(0), path.get(path.size() - 1), metric, path, distance, time);
+    }
+
+    private static RouteResult direct(Node source, Node destination) {
+        return new RouteResult(source, destination, Metric.DISTANCE, List.of(source, destination), 1, 1);
+    }
+}
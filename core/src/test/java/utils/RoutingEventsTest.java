@@ -0,0 +1,96 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RoutingEventsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void cancelledSearchesAreRecorded() throws IOException {
+        GraphSnapshot snapshot = TestGraphs.generated("grid", 400, 161).snapshot();
+        List<Node> nodes = new ArrayList<>(snapshot.getNodes());
+        Node source = nodes.get(0);
+        Node destination = nodes.get(nodes.size() - 1);
+        CancellationToken cancelled = CancellationToken.create();
+        cancelled.cancel();
+
+        Path file = directory.resolve("searches.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("utils.ShortestPath").withThreshold(Duration.ZERO);
+            recording.start();
+            RouteResult route = Dijkstra.route(snapshot, source, destination, Metric.DISTANCE, CancellationToken.NONE);
+            assertThrows(SearchCancelledException.class,
+                    () -> Dijkstra.route(snapshot, source, destination, Metric.TIME, cancelled));
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals("utils.ShortestPath")) {
+                    events.add(event);
+                }
+            }
+            assertEquals(2, events.size());
+            events.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+            assertFalse(events.get(0).getBoolean("cancelled"));
+            assertEquals(route.getPath().size(), events.get(0).getInt("pathLength"));
+            assertTrue(events.get(1).getBoolean("cancelled"));
+            assertEquals("TIME", events.get(1).getString("metric"));
+            assertEquals(0, events.get(1).getInt("pathLength"));
+        }
+    }
+
+    @Test
+    void lookupsAreOnlyTimedWhenMeasuredOrRecorded() throws IOException {
+        Graph graph = TestGraphs.generated("grid", 100, 162);
+        Node node = graph.snapshot().getNodes().get(7);
+        Node neighbour = graph.snapshot().getNeighbourNodes(node).get(0);
+        LatencyHistogram nodeLookups = RoutingMetrics.histogram(RoutingMetrics.Operation.NODE_LOOKUP);
+        LatencyHistogram edgeLookups = RoutingMetrics.histogram(RoutingMetrics.Operation.EDGE_LOOKUP);
+        boolean wasEnabled = RoutingMetrics.isEnabled();
+        Path file = directory.resolve("lookups.jfr");
+        try (Recording recording = new Recording()) {
+            RoutingMetrics.setEnabled(false);
+            long nodeCount = nodeLookups.getCount();
+            long edgeCount = edgeLookups.getCount();
+            assertEquals(node, graph.getNodeByName(node.getName().toUpperCase()));
+            assertEquals(neighbour, graph.getEdge(node, neighbour).getDestination());
+            assertEquals(nodeCount, nodeLookups.getCount());
+            assertEquals(edgeCount, edgeLookups.getCount());
+
+            // A recording still sees lookups while the metrics are off
+            recording.enable("utils.NodeLookup").withThreshold(Duration.ZERO);
+            recording.start();
+            assertEquals(node, graph.getNodeByName(node.getName()));
+            recording.stop();
+            recording.dump(file);
+            long recorded = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("utils.NodeLookup")).count();
+            assertEquals(1, recorded);
+
+            RoutingMetrics.setEnabled(true);
+            graph.getNodeByName(node.getName());
+            graph.getEdge(node, neighbour);
+            assertEquals(nodeCount + 1, nodeLookups.getCount());
+            assertEquals(edgeCount + 1, edgeLookups.getCount());
+        } finally {
+            RoutingMetrics.setEnabled(wasEnabled);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RoutingServerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void hopsCountTheDirectWalkwaysThatPruningDrops() throws IOException, InterruptedException {
+        // The walkway A-C is longer than the detour through B in both metrics
+        Path file = Files.write(directory.resolve("landmarks.csv"), List.of(
+                "Address,A,B,C",
+                "A,0,1,3",
+                "B,1,0,1",
+                "C,3,1,0"));
+        Graph pruned = RoutingServer.loadGraph(file.toString(), true);
+        assertNull(pruned.snapshot().getEdge(pruned.getNodeByName("A"), pruned.getNodeByName("C")));
+
+        RoutingServer server = new RoutingServer(RoutingServer.loadGraph(file.toString(), false));
+        server.start(0);
+        try {
+            String hops = get(server, "/hops?from=A&to=C");
+            assertTrue(hops.contains("\"hops\":1"), hops);
+            assertTrue(hops.contains("\"path\":[\"A\",\"C\"]"), hops);
+            String route = get(server, "/route?from=A&to=C");
+            assertTrue(route.contains("\"path\":[\"A\",\"B\",\"C\"]"), route);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static String get(RoutingServer server, String pathAndQuery) throws IOException, InterruptedException {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + pathAndQuery)).build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        assertEquals(200, response.statusCode(), response.body());
+        return response.body();
+    }
+}
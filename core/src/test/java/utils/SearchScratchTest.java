@@ -0,0 +1,124 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class SearchScratchTest {
+
+    private static final int QUERIES = 10000;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void enableAllocationCounter() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "This JVM does not report per-thread allocation");
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "This JVM does not report per-thread allocation");
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void scratchSearchesMatchDijkstra(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 2000, 51);
+        Random random = new Random(11);
+        for (int query = 0; query < 20; query++) {
+            int source = random.nextInt(graph.size());
+            double[] expected = TestGraphs.referenceDistances(graph, source, Metric.DISTANCE);
+            // Consecutive searches reuse the same arrays, so stale entries would show up here
+            for (int target = 0; target < graph.size(); target += 13) {
+                String message = layout + " " + source + " -> " + target;
+                TestGraphs.assertSameCost(expected[target], IndexedDijkstra.distance(graph, source, target, Metric.DISTANCE), message);
+                IndexedPath path = IndexedDijkstra.shortestPath(graph, source, target, Metric.DISTANCE);
+                TestGraphs.assertSameCost(expected[target], path.getCost(), message);
+                if (path.isFound()) {
+                    TestGraphs.assertSameCost(expected[target], TestGraphs.pathCost(graph, path.getNodes(), Metric.DISTANCE), message);
+                }
+            }
+        }
+    }
+
+    @Test
+    void distanceQueriesDoNotAllocate() {
+        IndexedGraph graph = TestGraphs.indexed("geometric", 1000, 52);
+        int[] sources = randomNodes(graph, 1);
+        int[] targets = randomNodes(graph, 2);
+        double checksum = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            checksum += IndexedDijkstra.distance(graph, sources[i], targets[i], Metric.DISTANCE);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < QUERIES; i++) {
+            checksum += IndexedDijkstra.distance(graph, sources[i], targets[i], Metric.DISTANCE);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertEquals(0, allocated, "bytes allocated by " + QUERIES + " distance queries (checksum " + checksum + ")");
+    }
+
+    @Test
+    void distanceQueriesOnNewThreadsDoNotAllocate() throws InterruptedException {
+        // The routing server runs every request on a thread of its own
+        IndexedGraph graph = TestGraphs.indexed("geometric", 1000, 53);
+        int[] sources = randomNodes(graph, 3);
+        int[] targets = randomNodes(graph, 4);
+        for (int i = 0; i < QUERIES; i++) {
+            IndexedDijkstra.distance(graph, sources[i], targets[i], Metric.DISTANCE);
+        }
+
+        for (int request = 0; request < 20; request++) {
+            int i = request;
+            AtomicLong allocated = new AtomicLong(-1);
+            Thread thread = new Thread(() -> {
+                threads.getCurrentThreadAllocatedBytes(); // The first reading may set up the counter
+                long before = threads.getCurrentThreadAllocatedBytes();
+                IndexedDijkstra.distance(graph, sources[i], targets[i], Metric.DISTANCE);
+                allocated.set(threads.getCurrentThreadAllocatedBytes() - before);
+            });
+            thread.start();
+            thread.join();
+            assertEquals(0, allocated.get(), "bytes allocated by a query on a new thread");
+        }
+    }
+
+    @Test
+    void concurrentSearchesGetSeparateScratch() {
+        SearchScratch first = SearchScratch.acquire(100);
+        SearchScratch second = SearchScratch.acquire(100);
+        try {
+            assertNotSame(first, second);
+            first.reach(5, 1.5, -1);
+            assertEquals(Double.POSITIVE_INFINITY, second.distance(5));
+            assertEquals(1.5, first.distance(5));
+        } finally {
+            first.release();
+            second.release();
+        }
+        SearchScratch reused = SearchScratch.acquire(100);
+        try {
+            // A new search sees nothing of the previous one
+            assertEquals(Double.POSITIVE_INFINITY, reused.distance(5));
+        } finally {
+            reused.release();
+        }
+    }
+
+    private static int[] randomNodes(IndexedGraph graph, long seed) {
+        Random random = new Random(seed);
+        int[] nodes = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            nodes[i] = random.nextInt(graph.size());
+        }
+        return nodes;
+    }
+}
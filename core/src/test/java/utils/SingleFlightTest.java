@@ -0,0 +1,157 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void startExecutor() {
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShareOneComputation() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch followersAttached = new CountDownLatch(CALLERS - 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<CompletableFuture<Integer>>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            calls.add(executor.submit(() -> {
+                CompletableFuture<Integer> future = flight.execute("key", () -> {
+                    computations.incrementAndGet();
+                    GatedGraph.await(release);
+                    return 42;
+                });
+                // Only followers get here while the leader is held
+                followersAttached.countDown();
+                return future;
+            }));
+        }
+        assertTrue(followersAttached.await(10, TimeUnit.SECONDS));
+        assertEquals(1, flight.inFlightCount());
+        release.countDown();
+
+        for (Future<CompletableFuture<Integer>> call : calls) {
+            assertEquals(42, call.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1, flight.getLeaderCount());
+        assertEquals(CALLERS - 1, flight.getCoalescedCount());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void leaderFailuresReachEveryFollower() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        IllegalStateException failure = new IllegalStateException("search failed");
+        CountDownLatch followersAttached = new CountDownLatch(CALLERS - 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<CompletableFuture<Integer>>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            calls.add(executor.submit(() -> {
+                CompletableFuture<Integer> future = flight.execute("key", () -> {
+                    GatedGraph.await(release);
+                    throw failure;
+                });
+                followersAttached.countDown();
+                return future;
+            }));
+        }
+        assertTrue(followersAttached.await(10, TimeUnit.SECONDS));
+        release.countDown();
+
+        for (Future<CompletableFuture<Integer>> call : calls) {
+            CompletableFuture<Integer> future = call.get(10, TimeUnit.SECONDS);
+            ExecutionException thrown = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+            assertSame(failure, thrown.getCause());
+        }
+        assertEquals(0, flight.inFlightCount());
+        // The failed entry is gone, so the next call computes afresh
+        assertEquals(7, flight.execute("key", () -> 7).join());
+        assertEquals(2, flight.getLeaderCount());
+    }
+
+    @Test
+    void concurrentIdenticalRoutesRunOneSearch() throws Exception {
+        GatedGraph graph = GatedGraph.chain();
+        Router router = new Router(graph);
+        Node source = graph.getNodeByName("A");
+        Node destination = graph.getNodeByName("C");
+
+        List<Future<RouteResult>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            // Half the callers ask in the opposite direction, which shares the same search
+            boolean reverse = i % 2 == 1;
+            calls.add(executor.submit(() -> reverse
+                    ? router.route(destination, source, Metric.DISTANCE)
+                    : router.route(source, destination, Metric.DISTANCE)));
+        }
+        GatedGraph.waitFor(() -> router.getCoalescedCount() == CALLERS - 1, "Callers never attached to the search");
+        graph.open.countDown();
+
+        for (int i = 0; i < CALLERS; i++) {
+            RouteResult result = calls.get(i).get(10, TimeUnit.SECONDS);
+            assertEquals(i % 2 == 1 ? destination : source, result.getSource());
+            assertEquals(3, result.getPath().size());
+            assertEquals(2, result.getDistance());
+        }
+        assertEquals(1, router.getSearchCount());
+        assertEquals(CALLERS - 1, router.getCoalescedCount());
+    }
+
+    @Test
+    void failedRouteSearchesReachEveryCaller() throws Exception {
+        GatedGraph graph = GatedGraph.chain();
+        Router router = new Router(graph);
+        Node source = graph.getNodeByName("A");
+        Node destination = graph.getNodeByName("C");
+        graph.failure = new IllegalStateException("graph unavailable");
+
+        List<Future<RouteResult>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            calls.add(executor.submit(() -> router.route(source, destination, Metric.TIME)));
+        }
+        GatedGraph.waitFor(() -> router.getCoalescedCount() == CALLERS - 1, "Callers never attached to the search");
+        graph.open.countDown();
+
+        for (Future<RouteResult> call : calls) {
+            ExecutionException thrown = assertThrows(ExecutionException.class, () -> call.get(10, TimeUnit.SECONDS));
+            assertSame(graph.failure, thrown.getCause());
+        }
+        assertEquals(1, router.getSearchCount());
+
+        // Nothing is left in flight or cached, so the next query searches again
+        graph.failure = null;
+        assertEquals(2, router.route(source, destination, Metric.TIME).getTime());
+        assertEquals(2, router.getSearchCount());
+    }
+}
@@ -0,0 +1,177 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * The inputs and reference answers shared by the tests: seeded {@link GraphGenerator} graphs,
+ * the campus landmark file, and a textbook Dijkstra over a binary heap of (distance, node) entries that the optimized
+ * searches are checked against.
+ */
+final class TestGraphs {
+
+    // The generator layouts every search is checked on
+    static final String[] LAYOUTS = {"grid", "geometric", "zones"};
+
+    // Centre of the campus in degrees, where generated graphs are placed when they need locations
+    static final double CAMPUS_LATITUDE = 5.6508;
+    static final double CAMPUS_LONGITUDE = -0.1869;
+
+    // Relative difference allowed between two sums of the same weights added in another order
+    private static final double TOLERANCE = 1e-9;
+
+    private TestGraphs() {
+    }
+
+    /**
+     * Supplies {@link #LAYOUTS} to parameterized tests through
+     * {@code @MethodSource("utils.TestGraphs#layouts")}.
+     */
+    static Stream<String> layouts() {
+        return Arrays.stream(LAYOUTS);
+    }
+
+    /**
+     * Builds a synthetic graph.
+     *
+     * @param layout A {@link GraphGenerator.Layout} name, such as "grid".
+     * @param nodeCount The number of nodes.
+     * @param seed The generator seed.
+     * @return The graph.
+     */
+    static Graph generated(String layout, int nodeCount, long seed) {
+        return new GraphGenerator(seed).generate(GraphGenerator.Layout.fromName(layout), nodeCount).toGraph();
+    }
+
+    /**
+     * Builds the indexed form of a synthetic graph.
+     */
+    static IndexedGraph indexed(String layout, int nodeCount, long seed) {
+        return IndexedGraph.of(generated(layout, nodeCount, seed));
+    }
+
+    /**
+     * Builds a synthetic graph whose landmarks have locations, taken from the generator's
+     * kilometre positions around the campus centre.
+     */
+    static Graph located(String layout, int nodeCount, long seed) {
+        SyntheticGraph synthetic = new GraphGenerator(seed).generate(GraphGenerator.Layout.fromName(layout), nodeCount);
+        Graph graph = synthetic.toGraph();
+        Map<String, Integer> indexOf = new HashMap<>();
+        for (int i = 0; i < synthetic.nodeCount(); i++) {
+            indexOf.put(synthetic.name(i), i);
+        }
+        double kmPerDegree = Math.toRadians(GeoIndex.EARTH_RADIUS_METRES / 1000);
+        for (Node node : graph.snapshot().getNodes()) {
+            int i = indexOf.get(node.getName());
+            node.setLocation(CAMPUS_LATITUDE + synthetic.y(i) / kmPerDegree,
+                    CAMPUS_LONGITUDE + synthetic.x(i) / (kmPerDegree * Math.cos(Math.toRadians(CAMPUS_LATITUDE))));
+        }
+        return graph;
+    }
+
+    /**
+     * Reads the shipped campus landmark file, found in the {@code data} directory of the
+     * working directory or one of its parents.
+     *
+     * @return The campus graph, without pruning.
+     * @throws IOException If the file cannot be found or read.
+     */
+    static Graph campus() throws IOException {
+        for (Path dir = Paths.get(System.getProperty("user.dir")).toAbsolutePath(); dir != null; dir = dir.getParent()) {
+            Path candidate = dir.resolve("data").resolve("landmarksAdjacencyMatrix.csv");
+            if (Files.isRegularFile(candidate)) {
+                Graph graph = new Graph();
+                CSVParser.parseCSV(candidate.toString(), graph);
+                return graph;
+            }
+        }
+        throw new IOException("landmarksAdjacencyMatrix.csv not found");
+    }
+
+    /**
+     * Returns the path of a file in the test resources.
+     */
+    static Path resource(String name) {
+        try {
+            return Paths.get(TestGraphs.class.getResource("/" + name).toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Computes the distance from a source to every node with a plain Dijkstra search.
+     *
+     * @param graph The graph.
+     * @param source The origin index.
+     * @param metric The edge attribute to sum.
+     * @return The distances, with {@link Double#POSITIVE_INFINITY} for unreachable nodes.
+     */
+    static double[] referenceDistances(IndexedGraph graph, int source, Metric metric) {
+        double[] dist = new double[graph.size()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        queue.add(new double[] {0, source});
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int u = (int) entry[1];
+            if (entry[0] > dist[u]) {
+                continue; // Stale entry for a node already settled closer
+            }
+            for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++) {
+                int v = graph.target(e);
+                double alt = dist[u] + graph.weight(e, metric);
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    queue.add(new double[] {alt, v});
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * Sums the weights of a path's edges, taking the lightest edge between each pair of nodes.
+     *
+     * @param graph The graph.
+     * @param nodes The node indices of the path, in order.
+     * @param metric The edge attribute to sum.
+     * @return The path's cost.
+     */
+    static double pathCost(IndexedGraph graph, int[] nodes, Metric metric) {
+        double cost = 0;
+        for (int i = 1; i < nodes.length; i++) {
+            double lightest = Double.POSITIVE_INFINITY;
+            for (int e = graph.firstEdge(nodes[i - 1]); e < graph.lastEdge(nodes[i - 1]); e++) {
+                if (graph.target(e) == nodes[i]) {
+                    lightest = Math.min(lightest, graph.weight(e, metric));
+                }
+            }
+            cost += lightest;
+        }
+        return cost;
+    }
+
+    /**
+     * Asserts that two path costs are equal up to rounding, or both infinite.
+     */
+    static void assertSameCost(double expected, double actual, String message) {
+        if (expected == Double.POSITIVE_INFINITY) {
+            assertEquals(expected, actual, message);
+        } else {
+            assertEquals(expected, actual, TOLERANCE * Math.max(1, expected), message);
+        }
+    }
+}
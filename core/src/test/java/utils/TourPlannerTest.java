@@ -0,0 +1,170 @@
+package utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class TourPlannerTest {
+
+    // Float costs in the Held-Karp tables round each sum to about seven digits
+    private static final double FLOAT_TOLERANCE = 1e-4;
+
+    @Test
+    void improvementEndsOnAsymmetricDistances() {
+        double[][] d = {
+                {0, 61, 11, 82, 29, 3},
+                {50, 0, 65, 60, 62, 86},
+                {83, 78, 0, 15, 82, 7},
+                {77, 38, 87, 0, 100, 12},
+                {93, 86, 96, 79, 0, 14},
+                {58, 60, 47, 94, 39, 0},
+        };
+        for (boolean returnToStart : new boolean[] {false, true}) {
+            int[] greedy = TourPlanner.nearestNeighbour(d);
+            int[] improved = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> TourPlanner.improve(greedy.clone(), d, returnToStart));
+            assertIsTour(improved, d.length);
+            assertTrue(cost(improved, d, returnToStart) <= cost(greedy, d, returnToStart));
+        }
+    }
+
+    @Test
+    void improvementNeverMakesAsymmetricToursLonger() {
+        Random random = new Random(13);
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            for (int trial = 0; trial < 500; trial++) {
+                double[][] d = randomMatrix(random, 4 + random.nextInt(20), false);
+                boolean returnToStart = random.nextBoolean();
+                int[] greedy = TourPlanner.nearestNeighbour(d);
+                int[] improved = TourPlanner.improve(greedy.clone(), d, returnToStart);
+                assertIsTour(improved, d.length);
+                assertTrue(cost(improved, d, returnToStart) <= cost(greedy, d, returnToStart) + 1e-9, "trial " + trial);
+            }
+        });
+    }
+
+    @Test
+    void heldKarpMatchesBruteForce() {
+        Random random = new Random(14);
+        for (int trial = 0; trial < 200; trial++) {
+            double[][] d = randomMatrix(random, 1 + random.nextInt(8), trial % 2 == 0);
+            boolean returnToStart = random.nextBoolean();
+            int[] order = TourPlanner.heldKarp(d, returnToStart);
+            assertIsTour(order, d.length);
+            assertEquals(bruteForce(d, returnToStart), cost(order, d, returnToStart), FLOAT_TOLERANCE, "trial " + trial);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("utils.TestGraphs#layouts")
+    void plannedToursAreOptimalOverDijkstraDistances(String layout) {
+        IndexedGraph graph = TestGraphs.indexed(layout, 1500, 71);
+        Random random = new Random(15);
+        for (int trial = 0; trial < 5; trial++) {
+            int[] indices = random.ints(0, graph.size()).distinct().limit(7).toArray();
+            double[][] d = new double[indices.length][];
+            for (int i = 0; i < indices.length; i++) {
+                double[] all = TestGraphs.referenceDistances(graph, indices[i], Metric.DISTANCE);
+                d[i] = Arrays.stream(indices).mapToDouble(v -> all[v]).toArray();
+            }
+            List<Node> stops = new ArrayList<>();
+            for (int v : indices) {
+                stops.add(graph.node(v));
+            }
+            boolean returnToStart = trial % 2 == 0;
+            Tour tour = TourPlanner.plan(graph, stops, returnToStart, Metric.DISTANCE);
+            double expected = bruteForce(d, returnToStart);
+            assertEquals(expected == Double.POSITIVE_INFINITY, !tour.isFound(), layout + " trial " + trial);
+            if (tour.isFound()) {
+                assertTrue(tour.isExact());
+                assertEquals(stops.get(0), tour.getStops().get(0));
+                assertEquals(expected, tour.getDistance(), FLOAT_TOLERANCE * Math.max(1, expected), layout + " trial " + trial);
+            }
+        }
+    }
+
+    @Test
+    void largeToursVisitEveryStopOnce() {
+        IndexedGraph graph = TestGraphs.indexed("geometric", 2000, 72);
+        List<Node> stops = new ArrayList<>();
+        new Random(16).ints(0, graph.size()).distinct().limit(TourPlanner.MAX_EXACT_STOPS + 10)
+                .forEach(v -> stops.add(graph.node(v)));
+        Tour tour = TourPlanner.plan(graph, stops, true, Metric.DISTANCE);
+        if (tour.isFound()) {
+            assertEquals(stops.size() + 1, tour.getStops().size());
+            assertEquals(stops.get(0), tour.getStops().get(tour.getStops().size() - 1));
+            assertEquals(new HashSet<>(stops), new HashSet<>(tour.getStops()));
+        }
+    }
+
+    private static double[][] randomMatrix(Random random, int n, boolean symmetric) {
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = symmetric ? i + 1 : 0; j < n; j++) {
+                if (i != j) {
+                    d[i][j] = 1 + random.nextInt(100);
+                    if (symmetric) {
+                        d[j][i] = d[i][j];
+                    }
+                }
+            }
+        }
+        return d;
+    }
+
+    private static void assertIsTour(int[] order, int n) {
+        assertEquals(0, order[0], "the tour must start at the first stop");
+        int[] sorted = order.clone();
+        Arrays.sort(sorted);
+        int[] expected = new int[n];
+        Arrays.setAll(expected, i -> i);
+        assertArrayEquals(expected, sorted, "every stop must be visited once: " + Arrays.toString(order));
+    }
+
+    private static double cost(int[] order, double[][] d, boolean returnToStart) {
+        double total = 0;
+        for (int i = 1; i < order.length; i++) {
+            total += d[order[i - 1]][order[i]];
+        }
+        return returnToStart && order.length > 1 ? total + d[order[order.length - 1]][0] : total;
+    }
+
+    /**
+     * Returns the cost of the best tour found by trying every order of the stops after the first.
+     */
+    private static double bruteForce(double[][] d, boolean returnToStart) {
+        int[] order = new int[d.length];
+        Arrays.setAll(order, i -> i);
+        return permute(order, 1, d, returnToStart);
+    }
+
+    private static double permute(int[] order, int from, double[][] d, boolean returnToStart) {
+        if (from >= order.length - 1) {
+            return cost(order, d, returnToStart);
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = from; i < order.length; i++) {
+            swap(order, from, i);
+            best = Math.min(best, permute(order, from + 1, d, returnToStart));
+            swap(order, from, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] order, int i, int j) {
+        int swap = order[i];
+        order[i] = order[j];
+        order[j] = swap;
+    }
+}
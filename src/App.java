@@ -2,11 +2,15 @@ import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.InputMismatchException;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import utils.AsciiColors;
 import utils.CLI;
-import utils.CSVParser;
 import utils.GUI;
 import utils.Graph;
+import utils.GraphLoader;
+import utils.GraphReloader;
+import utils.RoutingMetrics;
 
 /**
  * The main application class that initializes and manages the user interface of the application.
@@ -14,12 +18,18 @@ import utils.Graph;
  */
 public class App {
 
-    // Instance of Graph to hold data from the CSV file
-    static Graph graph = new Graph();
+    // The graph being loaded from the CSV file
+    static Future<Graph> graph;
 
     /**
-     * The entry point of the application. It reads the CSV file, initializes the graph,
-     * and provides options for the user to choose the interface they wish to use.
+     * The entry point of the application. It starts reading the CSV file in the background
+     * and, while that runs, provides options for the user to choose the interface they wish
+     * to use. The chosen interface waits for the graph only when it needs it. Once loaded,
+     * the graph follows any changes to the CSV file, so searches use the latest walkways.
+     *
+     * <p>The graph keeps every walkway of the file, so the alternative routes are those of
+     * the full matrix. Run with {@code -Dgraph.prune=true} to load it through {@link utils.EdgePruner}
+     * instead, which keeps the optimal routes but lists far fewer alternatives.
      *
      * @param args Command line arguments (not used).
      */
@@ -28,13 +38,17 @@ public class App {
         // Create path to the CSV file
         String csvFilePath = Paths.get(Paths.get(System.getProperty("user.dir")).getParent().toString(), "data", "landmarksAdjacencyMatrix.csv").toString();
 
-        // Parse the CSV file to populate the graph
-        try {
-            CSVParser.parseCSV(csvFilePath, graph);
-        } catch (IOException e) {
-            System.err.println("Error reading the CSV file: " + e.getMessage());
-            return;
-        }
+        // Expose routing metrics over JMX, and dump them if asked to
+        RoutingMetrics.installFromSystemProperties();
+
+        // Parse the CSV file in the background and start Swing meanwhile
+        boolean pruneEdges = Boolean.getBoolean("graph.prune");
+        CompletableFuture<Graph> loading = GraphLoader.loadAsync(csvFilePath, pruneEdges);
+        graph = loading;
+        GUI.preload();
+
+        // Watch the file once the graph has loaded; the watcher stops when the application exits
+        loading.thenAccept(loaded -> watchForChanges(loaded, csvFilePath, pruneEdges));
 
         Scanner scanner = new Scanner(System.in);
         
@@ -51,6 +65,22 @@ public class App {
         scanner.close();
     }
 
+    /**
+     * Starts applying changes to the CSV file to the loaded graph. The application still works
+     * without it, only without picking up edits, so a failure is reported and ignored.
+     *
+     * @param loaded The graph loaded from the file.
+     * @param csvFilePath The path to the CSV file.
+     * @param pruneEdges Whether the graph was pruned when it was loaded.
+     */
+    private static void watchForChanges(Graph loaded, String csvFilePath, boolean pruneEdges) {
+        try {
+            new GraphReloader(loaded, csvFilePath, pruneEdges);
+        } catch (IOException e) {
+            System.err.println("Not watching " + csvFilePath + " for changes: " + e.getMessage());
+        }
+    }
+
     /**
      * Prompts the user for integer input and validates the input.
      * Ensures that the input is either 1 or 2.
@@ -0,0 +1,96 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Point-to-point A* search over an {@link IndexedGraph}, guided by {@link Landmarks} lower
+ * bounds or, when every landmark has a location, by a {@link GreatCircleBound}. Both
+ * heuristics are consistent, so the first time the target is settled its distance is optimal,
+ * while far fewer nodes are settled than by a plain Dijkstra search.
+ */
+public class AStar {
+
+    /**
+     * Finds the shortest path between two nodes using landmark lower bounds.
+     *
+     * @param landmarks The preprocessed landmarks, which also fix the graph and metric.
+     * @param source The source node index.
+     * @param target The target node index.
+     * @return The path, its cost and the number of settled nodes.
+     */
+    public static IndexedPath findShortestPath(Landmarks landmarks, int source, int target) {
+        return search(landmarks.getGraph(), landmarks, source, target, landmarks.getMetric());
+    }
+
+    /**
+     * Finds the shortest path between two nodes using great-circle lower bounds.
+     *
+     * @param bound The great-circle heuristic, which also fixes the graph and metric.
+     * @param source The source node index.
+     * @param target The target node index.
+     * @return The path, its cost and the number of settled nodes.
+     */
+    public static IndexedPath findShortestPath(GreatCircleBound bound, int source, int target) {
+        return search(bound.getGraph(), bound, source, target, bound.getMetric());
+    }
+
+    /**
+     * Finds the shortest path between two nodes with a zero heuristic, which is plain
+     * Dijkstra's algorithm stopped at the target. Useful as a baseline for settled-node counts.
+     *
+     * @param graph The graph to search in.
+     * @param source The source node index.
+     * @param target The target node index.
+     * @param metric The edge attribute to minimise.
+     * @return The path, its cost and the number of settled nodes.
+     */
+    public static IndexedPath findShortestPathUnguided(IndexedGraph graph, int source, int target, Metric metric) {
+        return search(graph, null, source, target, metric);
+    }
+
+    /**
+     * Runs A* from source to target.
+     *
+     * @param graph The graph to search in.
+     * @param bound The heuristic, or null for a zero heuristic.
+     * @param source The source node index.
+     * @param target The target node index.
+     * @param metric The edge attribute to minimise.
+     * @return The path, its cost and the number of settled nodes.
+     */
+    private static IndexedPath search(IndexedGraph graph, LowerBound bound, int source, int target, Metric metric) {
+        int[] offsets = graph.offsets();
+        int[] edgeTargets = graph.targets();
+        double[] weights = graph.weights(metric);
+        int n = graph.size();
+
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        int[] parent = new int[n];
+        boolean[] settled = new boolean[n];
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+
+        dist[source] = 0;
+        parent[source] = -1;
+        heap.insertOrDecrease(source, bound == null ? 0 : bound.lowerBound(source, target));
+        int settledCount = 0;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled[u] = true;
+            settledCount++;
+            if (u == target) {
+                break;
+            }
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = edgeTargets[e];
+                double alt = dist[u] + weights[e];
+                if (!settled[v] && alt < dist[v]) {
+                    dist[v] = alt;
+                    parent[v] = u;
+                    heap.insertOrDecrease(v, alt + (bound == null ? 0 : bound.lowerBound(v, target)));
+                }
+            }
+        }
+        return IndexedPath.fromParents(parent, source, target, dist[target], settledCount);
+    }
+}
@@ -0,0 +1,119 @@
+package utils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * An asynchronous facade over {@link Router} and {@link BFS} for embedding the router in
+ * other services. Every query runs on a caller-supplied executor, such as a platform thread
+ * pool or {@link VirtualThreads#newPerTaskExecutor}, and is bounded by a deadline.
+ *
+ * <p>When the deadline passes, the returned future fails with a {@link SearchCancelledException}
+ * straight away, even if the query is still queued, and the running search stops at its next
+ * cancellation check. Cancelling the returned future stops the search the same way.
+ */
+public class AsyncRouter {
+
+    // Fires deadlines for queries that are still queued or running
+    private static final ScheduledThreadPoolExecutor DEADLINES = createDeadlineTimer();
+
+    private final Router router;
+    private final Executor executor;
+
+    /**
+     * Constructs an asynchronous router.
+     *
+     * @param router The router that answers shortest-path queries.
+     * @param executor The executor that runs the searches.
+     */
+    public AsyncRouter(Router router, Executor executor) {
+        this.router = router;
+        this.executor = executor;
+    }
+
+    /**
+     * Finds the shortest route between two nodes asynchronously.
+     *
+     * @param source The starting node.
+     * @param destination The target node.
+     * @param metric The edge attribute to minimise.
+     * @param timeout The time allowed for the query, including time spent queued.
+     * @return A future completed with the route, or failed if the deadline passes first.
+     */
+    public CompletableFuture<RouteResult> route(Node source, Node destination, Metric metric, Duration timeout) {
+        return submit(timeout, token -> router.route(source, destination, metric, token));
+    }
+
+    /**
+     * Enumerates all paths between two nodes asynchronously.
+     *
+     * @param source The starting node.
+     * @param destination The target node.
+     * @param timeout The time allowed for the enumeration, including time spent queued.
+     * @return A future completed with all paths, or failed if the deadline passes first.
+     */
+    public CompletableFuture<ArrayList<ArrayList<Node>>> findAllPaths(Node source, Node destination, Duration timeout) {
+        return submit(timeout, token -> BFS.findAllPaths(router.getGraph(), source, destination, token));
+    }
+
+    /**
+     * Runs a task on the executor under a fresh token that expires after the timeout.
+     *
+     * @param timeout The time allowed for the task.
+     * @param task The task, which must check the token it is given.
+     * @param <T> The result type.
+     * @return A future completed with the task's result or failure.
+     */
+    private <T> CompletableFuture<T> submit(Duration timeout, Function<CancellationToken, T> task) {
+        CancellationToken token = CancellationToken.withTimeout(timeout);
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        ScheduledFuture<?> deadline = DEADLINES.schedule(
+                () -> future.completeExceptionally(new SearchCancelledException("Search deadline exceeded", true)),
+                timeout.toNanos(), TimeUnit.NANOSECONDS);
+
+        // Whatever completes the future first (result, deadline or caller cancel) stops the search
+        future.whenComplete((result, failure) -> {
+            token.cancel();
+            deadline.cancel(false);
+        });
+
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(task.apply(token));
+                } catch (RuntimeException | Error e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Creates the single daemon thread that fires query deadlines.
+     *
+     * @return The deadline timer.
+     */
+    private static ScheduledThreadPoolExecutor createDeadlineTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "route-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
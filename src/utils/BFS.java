@@ -20,37 +20,89 @@ public class BFS {
      * @return A list of all paths from the source to the destination.
      */
     public static ArrayList<ArrayList<Node>> findAllPaths(Graph graph, Node source, Node destination) {
+        return findAllPaths(graph, source, destination, CancellationToken.NONE);
+    }
+
+    /**
+     * Finds all possible paths from the source node to the destination node, checking the
+     * token before expanding each partial path. The number of paths grows exponentially on
+     * dense graphs, so callers should pass a token with a deadline. The search runs on a
+     * snapshot of the graph, so changes made while it runs do not affect it.
+     *
+     * @param graph The graph in which the search is to be performed.
+     * @param source The starting node for the search.
+     * @param destination The target node for the search.
+     * @param token The token that stops the search when cancelled or expired.
+     * @return A list of all paths from the source to the destination.
+     * @throws SearchCancelledException If the token is cancelled before the search finishes.
+     */
+    public static ArrayList<ArrayList<Node>> findAllPaths(Graph graph, Node source, Node destination, CancellationToken token) {
+        return findAllPaths(graph.snapshot(), source, destination, token);
+    }
+
+    /**
+     * Finds all possible paths from the source node to the destination node on one snapshot
+     * of a graph, so the caller can measure the paths on the same version they were found on.
+     *
+     * @param snapshot The snapshot in which the search is to be performed.
+     * @param source The starting node for the search.
+     * @param destination The target node for the search.
+     * @param token The token that stops the search when cancelled or expired.
+     * @return A list of all paths from the source to the destination.
+     * @throws SearchCancelledException If the token is cancelled before the search finishes.
+     */
+    public static ArrayList<ArrayList<Node>> findAllPaths(GraphSnapshot snapshot, Node source, Node destination, CancellationToken token) {
+        RoutingEvents.RouteEnumeration event = new RoutingEvents.RouteEnumeration();
+        event.begin();
+        long start = RoutingMetrics.start();
         ArrayList<ArrayList<Node>> allPaths = new ArrayList<>();
         Set<Node> visited = new HashSet<>();
 
-        Stack<PathNode> stack = new Stack<>();
-        stack.push(new PathNode(source, new ArrayList<>()));
+        boolean finished = false;
+        try {
+            Stack<PathNode> stack = new Stack<>();
+            stack.push(new PathNode(source, new ArrayList<>()));
 
-        while (!stack.isEmpty()) {
-            PathNode pathNode = stack.pop();
-            Node currentNode = pathNode.node;
-            ArrayList<Node> currentPath = pathNode.path;
+            while (!stack.isEmpty()) {
+                token.throwIfCancelled();
+                PathNode pathNode = stack.pop();
+                Node currentNode = pathNode.node;
+                ArrayList<Node> currentPath = pathNode.path;
 
-            if (currentNode.equals(destination)) {
-                ArrayList<Node> pathToAdd = new ArrayList<>(currentPath);
-                pathToAdd.add(currentNode);
-                allPaths.add(pathToAdd);
-                continue;
-            }
+                if (currentNode.equals(destination)) {
+                    ArrayList<Node> pathToAdd = new ArrayList<>(currentPath);
+                    pathToAdd.add(currentNode);
+                    allPaths.add(pathToAdd);
+                    continue;
+                }
 
-            visited.add(currentNode);
-            currentPath.add(currentNode);
+                visited.add(currentNode);
+                currentPath.add(currentNode);
 
-            for (Node neighbor : graph.getNeighbourNodes(currentNode)) {
-                if (!visited.contains(neighbor)) {
-                    ArrayList<Node> newPath = new ArrayList<>(currentPath);
-                    stack.push(new PathNode(neighbor, newPath));
+                for (Node neighbor : snapshot.getNeighbourNodes(currentNode)) {
+                    if (!visited.contains(neighbor)) {
+                        ArrayList<Node> newPath = new ArrayList<>(currentPath);
+                        stack.push(new PathNode(neighbor, newPath));
+                    }
                 }
-            }
 
-            currentPath.remove(currentPath.size() - 1);
+                currentPath.remove(currentPath.size() - 1);
+            }
+            finished = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.source = source.getName();
+                event.destination = destination.getName();
+                event.nodeCount = snapshot.size();
+                event.edgeCount = snapshot.getEdges().size();
+                event.pathCount = allPaths.size();
+                event.cancelled = !finished;
+                event.commit();
+            }
         }
 
+        RoutingMetrics.recordEnumeration(start, allPaths.size());
         return allPaths;
     }
 
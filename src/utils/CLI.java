@@ -1,7 +1,11 @@
 package utils;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 /**
  * Command Line Interface (CLI) utility for interacting with a graph.
@@ -16,6 +20,16 @@ public class CLI {
      * @param graph The graph to be used for operations.
      */
     public static void cli(Graph graph) {
+        cli(CompletableFuture.completedFuture(graph));
+    }
+
+    /**
+     * Runs the CLI interface while the graph may still be loading. The header is shown straight
+     * away and the graph is only waited for when the landmarks are listed.
+     *
+     * @param graphFuture The graph being loaded, for example by {@link GraphLoader#loadAsync(String)}.
+     */
+    public static void cli(Future<Graph> graphFuture) {
         Scanner scanner = new Scanner(System.in);
 
         String header = "\t\t\t\t\t\t _____                                                               _____ \n" +
@@ -34,25 +48,39 @@ public class CLI {
 
         System.out.println("\t\t\t\t\t\t\t\t\t      " + AsciiColors.UNDERLINE + AsciiColors.BOLD + AsciiColors.getRandomColor() + " ALL LANDMARKS " + AsciiColors.RESET + "\n");
 
+        Graph graph;
+        try {
+            graph = GraphLoader.await(graphFuture);
+        } catch (IOException e) {
+            System.err.println("Error reading the CSV file: " + e.getMessage());
+            scanner.close();
+            return;
+        }
+
         Object[] graphNodes = performNodeSelection(scanner, graph);
 
-        Node sourceNode = graph.getNodeByName((String) graphNodes[0]);
-        Node destNode = graph.getNodeByName((String) graphNodes[1]);
+        // Search one version of the graph, even if the landmark file is reloaded meanwhile
+        GraphSnapshot snapshot = graph.snapshot();
+        Node sourceNode = snapshot.getNodeByName((String) graphNodes[0]);
+        Node destNode = snapshot.getNodeByName((String) graphNodes[1]);
 
-        ArrayList<Node> shortestPath = Dijkstra.findShortestPath(graph, sourceNode, destNode);
+        RouteResult shortest = Dijkstra.route(snapshot, sourceNode, destNode, Metric.DISTANCE, CancellationToken.NONE);
 
         System.out.println(AsciiColors.RESET + "\tOPTIMAL ROUTE\n\nShortest Path: " +
-                AsciiColors.colorWrap(AsciiColors.CYAN, printPath(shortestPath)) + "\nDistance: " +
-                AsciiColors.colorWrap(AsciiColors.CYAN, String.format("%.2f", (Dijkstra.getDistance(destNode)) * 1000) + "m") + "\nTime: " +
-                AsciiColors.colorWrap(AsciiColors.CYAN, String.format("%.2f", Dijkstra.getDistance(destNode)* 1000/ 10f / CSVParser.WALKING_SPEED_MPS) + " min(s)\n"));
+                AsciiColors.colorWrap(AsciiColors.CYAN, printPath(shortest.getPath())) + "\nDistance: " +
+                AsciiColors.colorWrap(AsciiColors.CYAN, String.format("%.2f", shortest.getDistance() * 1000) + "m") + "\nTime: " +
+                AsciiColors.colorWrap(AsciiColors.CYAN, String.format("%.2f", shortest.getTime() * 1000 / 10f) + " min(s)\n"));
             
         ArrayList<ArrayList<Node>> allPaths;
         StringBuilder builder = new StringBuilder();
         System.out.println("\n\n\tVIEW FIRST 10 ROUTES\n");
-        allPaths = BFS.findAllPaths(graph, sourceNode, destNode);
-        for (ArrayList<Node> nodes : allPaths.subList(allPaths.size() - 11, allPaths.size() - 1)) {
+        allPaths = BFS.findAllPaths(snapshot, sourceNode, destNode, CancellationToken.NONE);
+        RoutingEvents.Format format = new RoutingEvents.Format();
+        format.begin();
+        List<ArrayList<Node>> shown = allPaths.subList(allPaths.size() - 11, allPaths.size() - 1);
+        for (ArrayList<Node> nodes : shown) {
             // Calculate distance in meters and time in seconds
-            double distanceInMeters = (graph.calculateDistance(nodes)) * 1000;
+            double distanceInMeters = snapshot.calculateDistance(nodes) * 1000;
             double timeInSeconds = distanceInMeters / 10f / CSVParser.WALKING_SPEED_MPS;
 
             // Format distance and time as strings
@@ -62,6 +90,7 @@ public class CLI {
             // Append formatted strings to the builder
             builder.append(AsciiColors.colorWrap(AsciiColors.CYAN, printPath(nodes)) + ",\t" + AsciiColors.colorWrap(AsciiColors.BRIGHT_GREEN, distance) + " \t" + AsciiColors.colorWrap(AsciiColors.BRIGHT_YELLOW, time) + " \n");
         }
+        RoutingEvents.commitFormat(format, "CLI", shown.size());
 
         System.out.println(builder.toString());
         scanner.close();
@@ -76,15 +105,19 @@ public class CLI {
      */
     public static Object[] performNodeSelection(Scanner scanner, Graph graph) {
         // Retrieve and sort node names
-        ArrayList<String> names = graph.nodeNamesArray(graph.getNodes());
+        GraphSnapshot snapshot = graph.snapshot();
+        ArrayList<String> names = new ArrayList<>();
+        for (Node node : snapshot.getNodes()) {
+            names.add(node.getName());
+        }
         MergeSort.mergeSortString(names); // Ensure 'MergeSort' is adapted for sorting 'String' array
 
         // Print sorted node names
         graph.printNodes(names);
 
         // Select current location
-        int currentLocationIndex = getIntegerInput(scanner, "\nPlease select your current location (by index): ", graph);
-        Node currentNode = selectNodeByNameIndex(names, currentLocationIndex, graph);
+        int currentLocationIndex = getIntegerInput(scanner, "\nPlease select your current location (by index): ", names.size());
+        Node currentNode = selectNodeByNameIndex(names, currentLocationIndex, snapshot);
         if (currentNode == null) {
             System.out.println("Invalid index for current location.");
             return null;
@@ -92,12 +125,12 @@ public class CLI {
         String sourceName = currentNode.getName();
 
         // Select destination
-        int destinationIndex = getIntegerInput(scanner, "\nSelect your destination (by index): ", graph);
+        int destinationIndex = getIntegerInput(scanner, "\nSelect your destination (by index): ", names.size());
 
         while (destinationIndex == currentLocationIndex) {
-            destinationIndex = getIntegerInput(scanner, "\nSorry, Destination and Current Location cannot be the same. Please select another location (by index): ", graph);
+            destinationIndex = getIntegerInput(scanner, "\nSorry, Destination and Current Location cannot be the same. Please select another location (by index): ", names.size());
         }
-        Node destinationNode = selectNodeByNameIndex(names, destinationIndex, graph);
+        Node destinationNode = selectNodeByNameIndex(names, destinationIndex, snapshot);
         if (destinationNode == null) {
             System.out.println("Invalid index for destination.");
             return null;
@@ -115,10 +148,10 @@ public class CLI {
      *
      * @param names The sorted list of node names.
      * @param index The index of the node to select.
-     * @param graph The graph containing the nodes.
+     * @param graph The snapshot containing the nodes.
      * @return The selected node, or null if the index is out of bounds.
      */
-    private static Node selectNodeByNameIndex(ArrayList<String> names, int index, Graph graph) {
+    private static Node selectNodeByNameIndex(ArrayList<String> names, int index, GraphSnapshot graph) {
         if (index < 0 || index >= names.size()) {
             return null; // Index out of bounds
         }
@@ -131,10 +164,10 @@ public class CLI {
      *
      * @param scanner The Scanner object to read user input.
      * @param prompt The prompt message to display.
-     * @param graph The graph used to validate the input.
+     * @param landmarkCount The number of landmarks listed, the largest valid input.
      * @return The valid integer input from the user.
      */
-    public static int getIntegerInput(Scanner scanner, String prompt, Graph graph) {
+    public static int getIntegerInput(Scanner scanner, String prompt, int landmarkCount) {
         int inputValue = -1;  // Initialize to an invalid value
         boolean validInput = false;
 
@@ -144,10 +177,10 @@ public class CLI {
                 inputValue = scanner.nextInt();
                 scanner.nextLine(); // Consume the newline character
                 // Validate that the input is within the allowed range
-                if (inputValue >= 1 && inputValue <= graph.getSize()) {
+                if (inputValue >= 1 && inputValue <= landmarkCount) {
                     validInput = true;
                 } else {
-                    System.out.println(AsciiColors.RED + "\tPlease enter a number between 1 and " + graph.getSize() + AsciiColors.RESET);
+                    System.out.println(AsciiColors.RED + "\tPlease enter a number between 1 and " + landmarkCount + AsciiColors.RESET);
                 }
             } else {
                 System.out.println(AsciiColors.RED + "\tSorry, invalid input. Please try again." + AsciiColors.RESET);
@@ -163,7 +196,7 @@ public class CLI {
      * @param path The list of nodes representing the path.
      * @return A formatted string representing the path.
      */
-    public static String printPath(ArrayList<Node> path) {
+    public static String printPath(List<Node> path) {
         boolean start = true;
         StringBuilder routeBuilder = new StringBuilder();
         for (Node n : path) {
@@ -0,0 +1,83 @@
+package utils;
+
+import java.time.Duration;
+
+/**
+ * A cooperative cancellation signal for long-running searches. Search loops call
+ * {@link #throwIfCancelled()} once per step; the search stops as soon as the token is
+ * cancelled or its deadline has passed.
+ */
+public class CancellationToken {
+
+    // A token that is never cancelled and has no deadline
+    public static final CancellationToken NONE = new CancellationToken(false, 0);
+
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    private CancellationToken(boolean hasDeadline, long deadlineNanos) {
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a token without a deadline that is only cancelled explicitly.
+     *
+     * @return The new token.
+     */
+    public static CancellationToken create() {
+        return new CancellationToken(false, 0);
+    }
+
+    /**
+     * Creates a token that cancels itself once the timeout has elapsed.
+     *
+     * @param timeout The time allowed from now.
+     * @return The new token.
+     */
+    public static CancellationToken withTimeout(Duration timeout) {
+        return new CancellationToken(true, System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Cancels the token. Has no effect on {@link #NONE}.
+     */
+    public void cancel() {
+        if (this != NONE) {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * Checks whether the deadline has passed.
+     *
+     * @return true if the token has a deadline and it has passed; false otherwise.
+     */
+    public boolean isExpired() {
+        return hasDeadline && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * Checks whether the token was cancelled or its deadline has passed.
+     *
+     * @return true if work guarded by this token should stop; false otherwise.
+     */
+    public boolean isCancelled() {
+        return cancelled || isExpired();
+    }
+
+    /**
+     * Stops the calling search if the token was cancelled or its deadline has passed.
+     *
+     * @throws SearchCancelledException If work guarded by this token should stop.
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new SearchCancelledException("Search was cancelled", false);
+        }
+        if (isExpired()) {
+            throw new SearchCancelledException("Search deadline exceeded", true);
+        }
+    }
+}
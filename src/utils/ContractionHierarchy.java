@@ -0,0 +1,512 @@
+package utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A contraction hierarchy: a preprocessed form of the graph that answers shortest-path
+ * queries by exploring only "upward" edges from both endpoints.
+ *
+ * <p>Every node has a rank from the order it was contracted in. Contracting a node adds
+ * shortcut edges between its neighbours wherever the shortest path between them ran through
+ * it. Afterwards every shortest path can be written as an upward path from the source followed
+ * by a downward path to the target, so a query runs two small Dijkstra searches, one over the
+ * upward edges from the source and one over the reversed downward edges from the target, and
+ * unpacks the shortcuts on the best meeting point back into original nodes.
+ *
+ * <p>Upward and downward edges are stored in CSR form. For node {@code u}, the upward list
+ * holds edges {@code u -> v} with {@code rank[v] > rank[u]}, and the downward list holds the
+ * sources {@code v} of edges {@code v -> u} with {@code rank[v] > rank[u]}.
+ */
+public class ContractionHierarchy {
+
+    private static final int FILE_MAGIC = 0x43480001;
+
+    private final Node[] nodes;
+    private final HashMap<Node, Integer> ids;
+    private final Metric metric;
+    private final int[] rank;
+    private final EdgeArrays up;
+    private final EdgeArrays down;
+    // Idle query scratch spaces; one more queries than this run at once get a spare that is then dropped
+    private final ArrayBlockingQueue<QueryScratch> idleScratch =
+            new ArrayBlockingQueue<>(Math.max(8, 2 * Runtime.getRuntime().availableProcessors()));
+
+    private ContractionHierarchy(Node[] nodes, Metric metric, int[] rank, EdgeArrays up, EdgeArrays down) {
+        this.nodes = nodes;
+        this.metric = metric;
+        this.rank = rank;
+        this.up = up;
+        this.down = down;
+        this.ids = new HashMap<>(nodes.length * 2);
+        for (int i = 0; i < nodes.length; i++) {
+            ids.put(nodes[i], i);
+        }
+    }
+
+    /**
+     * Preprocesses a graph into a contraction hierarchy, contracting independent nodes in parallel.
+     *
+     * @param graph The graph to preprocess.
+     * @param metric The metric to preserve shortest paths for.
+     * @return The contraction hierarchy.
+     */
+    public static ContractionHierarchy build(IndexedGraph graph, Metric metric) {
+        return new ContractionHierarchyBuilder(graph, metric).build();
+    }
+
+    /**
+     * Assembles the CSR arrays from the edges recorded while contracting each node.
+     */
+    static ContractionHierarchy assemble(IndexedGraph graph, Metric metric, int[] rank,
+                                         ContractionHierarchyBuilder.AdjacencyList[] upLists,
+                                         ContractionHierarchyBuilder.AdjacencyList[] downLists) {
+        Node[] nodes = new Node[graph.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graph.node(i);
+        }
+        return new ContractionHierarchy(nodes, metric, rank, EdgeArrays.of(upLists), EdgeArrays.of(downLists));
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return The node count.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the total number of upward and downward edges, including shortcuts.
+     *
+     * @return The edge count.
+     */
+    public int edgeCount() {
+        return up.targets.length + down.targets.length;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Returns the index of a node.
+     *
+     * @param node The node.
+     * @return The node's index, or -1 if the node is not in the hierarchy.
+     */
+    public int indexOf(Node node) {
+        Integer id = ids.get(node);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the node with the given index.
+     *
+     * @param index The node index.
+     * @return The node.
+     */
+    public Node node(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the position at which a node was contracted; higher ranks are more important.
+     */
+    int rank(int index) {
+        return rank[index];
+    }
+
+    /**
+     * Returns the shortest-path cost between two nodes without unpacking the path.
+     *
+     * @param source The source node index.
+     * @param target The target node index.
+     * @return The cost, or {@link Double#POSITIVE_INFINITY} if unreachable.
+     */
+    public double distance(int source, int target) {
+        QueryScratch query = acquireScratch();
+        try {
+            query.run(source, target);
+            return query.best;
+        } finally {
+            idleScratch.offer(query);
+        }
+    }
+
+    /**
+     * Finds the shortest path between two nodes and unpacks it into original nodes.
+     *
+     * @param source The source node index.
+     * @param target The target node index.
+     * @return The path, its cost and the number of nodes settled by both searches.
+     */
+    public IndexedPath findShortestPath(int source, int target) {
+        QueryScratch query = acquireScratch();
+        try {
+            query.run(source, target);
+            if (query.meeting < 0) {
+                return new IndexedPath(new int[0], Double.POSITIVE_INFINITY, query.settled);
+            }
+            ArrayList<Integer> path = new ArrayList<>();
+            path.add(source);
+            for (int[] edge : query.hierarchyEdges(source, target)) {
+                unpack(edge[0], edge[1], path);
+            }
+            int[] result = new int[path.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = path.get(i);
+            }
+            return new IndexedPath(result, query.best, query.settled);
+        } finally {
+            idleScratch.offer(query);
+        }
+    }
+
+    /**
+     * Finds the shortest route between two nodes.
+     *
+     * @param source The starting node.
+     * @param destination The target node.
+     * @return The route, with an empty path if the destination cannot be reached.
+     * @throws IllegalArgumentException If either node is not in the hierarchy.
+     */
+    public RouteResult route(Node source, Node destination) {
+        int s = indexOf(source);
+        int t = indexOf(destination);
+        if (s < 0 || t < 0) {
+            throw new IllegalArgumentException("Node is not in the hierarchy: " + (s < 0 ? source : destination));
+        }
+        ArrayList<Integer> indices = new ArrayList<>();
+        indices.add(s);
+        double primary = 0;
+        double secondary = 0;
+        QueryScratch query = acquireScratch();
+        try {
+            query.run(s, t);
+            if (query.meeting < 0) {
+                return new RouteResult(source, destination, metric, new ArrayList<>(),
+                        Double.MAX_VALUE, Double.MAX_VALUE);
+            }
+            for (int[] edge : query.hierarchyEdges(s, t)) {
+                int position = findEdge(edge[0], edge[1]);
+                EdgeArrays arrays = rank[edge[0]] < rank[edge[1]] ? up : down;
+                primary += arrays.weights[position];
+                secondary += arrays.secondary[position];
+                unpack(edge[0], edge[1], indices);
+            }
+        } finally {
+            idleScratch.offer(query);
+        }
+        ArrayList<Node> path = new ArrayList<>(indices.size());
+        for (int index : indices) {
+            path.add(nodes[index]);
+        }
+        double distance = metric == Metric.TIME ? secondary : primary;
+        double time = metric == Metric.TIME ? primary : secondary;
+        return new RouteResult(source, destination, metric, path, distance, time);
+    }
+
+    /**
+     * Takes an idle query scratch space, or makes one if none is idle. The caller must offer it
+     * back to {@link #idleScratch} once it has read the query's results. The spaces are pooled
+     * rather than kept per thread, since the routing server runs every request on a new virtual
+     * thread and a thread-local space would be allocated for each request.
+     */
+    private QueryScratch acquireScratch() {
+        QueryScratch query = idleScratch.poll();
+        return query != null ? query : new QueryScratch(nodes.length);
+    }
+
+    /**
+     * Finds the hierarchy edge {@code a -> b}. It is stored as an upward edge of {@code a}
+     * when {@code b} ranks higher, and as a downward edge of {@code b} otherwise.
+     *
+     * @param a The edge's source index.
+     * @param b The edge's target index.
+     * @return The edge position in the upward or downward arrays.
+     */
+    private int findEdge(int a, int b) {
+        if (rank[a] < rank[b]) {
+            return up.find(a, b);
+        }
+        return down.find(b, a);
+    }
+
+    /**
+     * Expands the hierarchy edge {@code a -> b} into original edges, appending every node after
+     * {@code a} to the path. Uses an explicit stack since shortcuts can nest deeply.
+     *
+     * @param a The edge's source index.
+     * @param b The edge's target index.
+     * @param path The path to append to.
+     */
+    private void unpack(int a, int b, ArrayList<Integer> path) {
+        ArrayList<int[]> stack = new ArrayList<>();
+        stack.add(new int[] {a, b});
+        while (!stack.isEmpty()) {
+            int[] edge = stack.remove(stack.size() - 1);
+            int position = findEdge(edge[0], edge[1]);
+            int middle = rank[edge[0]] < rank[edge[1]] ? up.middles[position] : down.middles[position];
+            if (middle < 0) {
+                path.add(edge[1]);
+            } else {
+                // Push the second half first so the first half is expanded first
+                stack.add(new int[] {middle, edge[1]});
+                stack.add(new int[] {edge[0], middle});
+            }
+        }
+    }
+
+    /**
+     * Writes the hierarchy to a binary file.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            output.writeInt(FILE_MAGIC);
+            output.writeUTF(metric.name());
+            output.writeInt(nodes.length);
+            for (Node node : nodes) {
+                output.writeUTF(node.getName());
+            }
+            writeInts(output, rank);
+            up.write(output);
+            down.write(output);
+        }
+    }
+
+    /**
+     * Reads a hierarchy previously written with {@link #save(Path)}.
+     *
+     * @param file The file to read.
+     * @return The contraction hierarchy.
+     * @throws IOException If the file cannot be read or is not a hierarchy file.
+     */
+    public static ContractionHierarchy load(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (input.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a contraction hierarchy file: " + file);
+            }
+            Metric metric = Metric.valueOf(input.readUTF());
+            Node[] nodes = new Node[input.readInt()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = new Node(input.readUTF());
+            }
+            int[] rank = readInts(input, nodes.length);
+            EdgeArrays up = EdgeArrays.read(input, nodes.length);
+            EdgeArrays down = EdgeArrays.read(input, nodes.length);
+            return new ContractionHierarchy(nodes, metric, rank, up, down);
+        }
+    }
+
+    private static void writeInts(DataOutputStream output, int[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES);
+        buffer.asIntBuffer().put(values);
+        output.write(buffer.array());
+    }
+
+    private static void writeDoubles(DataOutputStream output, double[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Double.BYTES);
+        buffer.asDoubleBuffer().put(values);
+        output.write(buffer.array());
+    }
+
+    private static int[] readInts(DataInputStream input, int length) throws IOException {
+        byte[] bytes = new byte[length * Integer.BYTES];
+        input.readFully(bytes);
+        int[] values = new int[length];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(values);
+        return values;
+    }
+
+    private static double[] readDoubles(DataInputStream input, int length) throws IOException {
+        byte[] bytes = new byte[length * Double.BYTES];
+        input.readFully(bytes);
+        double[] values = new double[length];
+        ByteBuffer.wrap(bytes).asDoubleBuffer().get(values);
+        return values;
+    }
+
+    /**
+     * One direction of the hierarchy's edges in CSR form.
+     */
+    private static class EdgeArrays {
+        final int[] offsets;
+        final int[] targets;
+        final double[] weights;
+        final double[] secondary;
+        final int[] middles;
+
+        EdgeArrays(int[] offsets, int[] targets, double[] weights, double[] secondary, int[] middles) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.secondary = secondary;
+            this.middles = middles;
+        }
+
+        static EdgeArrays of(ContractionHierarchyBuilder.AdjacencyList[] lists) {
+            int[] offsets = new int[lists.length + 1];
+            for (int v = 0; v < lists.length; v++) {
+                offsets[v + 1] = offsets[v] + lists[v].size;
+            }
+            int count = offsets[lists.length];
+            int[] targets = new int[count];
+            double[] weights = new double[count];
+            double[] secondary = new double[count];
+            int[] middles = new int[count];
+            for (int v = 0; v < lists.length; v++) {
+                ContractionHierarchyBuilder.AdjacencyList list = lists[v];
+                System.arraycopy(list.nodes, 0, targets, offsets[v], list.size);
+                System.arraycopy(list.weights, 0, weights, offsets[v], list.size);
+                System.arraycopy(list.secondary, 0, secondary, offsets[v], list.size);
+                System.arraycopy(list.middles, 0, middles, offsets[v], list.size);
+            }
+            return new EdgeArrays(offsets, targets, weights, secondary, middles);
+        }
+
+        int find(int node, int target) {
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                if (targets[e] == target) {
+                    return e;
+                }
+            }
+            throw new IllegalStateException("Missing hierarchy edge " + node + " -> " + target);
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeInt(targets.length);
+            writeInts(output, offsets);
+            writeInts(output, targets);
+            writeDoubles(output, weights);
+            writeDoubles(output, secondary);
+            writeInts(output, middles);
+        }
+
+        static EdgeArrays read(DataInputStream input, int nodeCount) throws IOException {
+            int count = input.readInt();
+            return new EdgeArrays(readInts(input, nodeCount + 1), readInts(input, count),
+                    readDoubles(input, count), readDoubles(input, count), readInts(input, count));
+        }
+    }
+
+    /**
+     * Working state for one bidirectional upward search at a time. Epoch stamps mark which
+     * entries belong to the current query, so the arrays never need clearing.
+     */
+    private class QueryScratch {
+        final double[] forwardDist;
+        final double[] backwardDist;
+        final int[] forwardParent;
+        final int[] backwardParent;
+        final int[] forwardStamp;
+        final int[] backwardStamp;
+        final IndexedMinHeap forwardHeap;
+        final IndexedMinHeap backwardHeap;
+        int epoch;
+        double best;
+        int meeting;
+        int settled;
+
+        QueryScratch(int size) {
+            forwardDist = new double[size];
+            backwardDist = new double[size];
+            forwardParent = new int[size];
+            backwardParent = new int[size];
+            forwardStamp = new int[size];
+            backwardStamp = new int[size];
+            forwardHeap = new IndexedMinHeap(size);
+            backwardHeap = new IndexedMinHeap(size);
+        }
+
+        /**
+         * Runs both upward searches, alternating on the smaller key, until neither can improve
+         * on the best meeting point found so far.
+         */
+        void run(int source, int target) {
+            if (++epoch == 0) {
+                // The stamp wrapped around, so old entries could look current again
+                Arrays.fill(forwardStamp, 0);
+                Arrays.fill(backwardStamp, 0);
+                epoch = 1;
+            }
+            forwardHeap.clear();
+            backwardHeap.clear();
+            best = Double.POSITIVE_INFINITY;
+            meeting = -1;
+            settled = 0;
+
+            forwardDist[source] = 0;
+            forwardParent[source] = -1;
+            forwardStamp[source] = epoch;
+            forwardHeap.insertOrDecrease(source, 0);
+            backwardDist[target] = 0;
+            backwardParent[target] = -1;
+            backwardStamp[target] = epoch;
+            backwardHeap.insertOrDecrease(target, 0);
+
+            while (!forwardHeap.isEmpty() || !backwardHeap.isEmpty()) {
+                double forwardKey = forwardHeap.isEmpty() ? Double.POSITIVE_INFINITY : forwardHeap.peekKey();
+                double backwardKey = backwardHeap.isEmpty() ? Double.POSITIVE_INFINITY : backwardHeap.peekKey();
+                if (Math.min(forwardKey, backwardKey) >= best) {
+                    break;
+                }
+                if (forwardKey <= backwardKey) {
+                    step(forwardHeap, forwardDist, forwardParent, forwardStamp, backwardDist, backwardStamp, up);
+                } else {
+                    step(backwardHeap, backwardDist, backwardParent, backwardStamp, forwardDist, forwardStamp, down);
+                }
+            }
+        }
+
+        private void step(IndexedMinHeap heap, double[] dist, int[] parent, int[] stamp,
+                          double[] otherDist, int[] otherStamp, EdgeArrays edges) {
+            int u = heap.poll();
+            settled++;
+            if (otherStamp[u] == epoch && dist[u] + otherDist[u] < best) {
+                best = dist[u] + otherDist[u];
+                meeting = u;
+            }
+            for (int e = edges.offsets[u]; e < edges.offsets[u + 1]; e++) {
+                int v = edges.targets[e];
+                double alt = dist[u] + edges.weights[e];
+                if (stamp[v] != epoch || alt < dist[v]) {
+                    dist[v] = alt;
+                    parent[v] = u;
+                    stamp[v] = epoch;
+                    heap.insertOrDecrease(v, alt);
+                }
+            }
+        }
+
+        /**
+         * Lists the hierarchy edges on the best path, from source to target.
+         *
+         * @return The edges as {from, to} pairs.
+         */
+        ArrayList<int[]> hierarchyEdges(int source, int target) {
+            ArrayList<int[]> edges = new ArrayList<>();
+            for (int v = meeting; v != source; v = forwardParent[v]) {
+                edges.add(0, new int[] {forwardParent[v], v});
+            }
+            for (int v = meeting; v != target; v = backwardParent[v]) {
+                edges.add(new int[] {v, backwardParent[v]});
+            }
+            return edges;
+        }
+    }
+}
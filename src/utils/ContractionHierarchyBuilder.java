@@ -0,0 +1,366 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Builds a {@link ContractionHierarchy} by contracting nodes in rounds.
+ *
+ * <p>Each round picks an independent set of nodes whose priority (edge difference plus the
+ * number of already contracted neighbours) is lower than that of all their neighbours. The
+ * shortcuts for every node in the set are found in parallel with read-only witness searches
+ * that ignore all nodes of the round, and are then applied sequentially. Ignoring the whole
+ * round keeps the contraction exact: any witness that was found avoids every removed node.
+ */
+class ContractionHierarchyBuilder {
+
+    // Witness searches give up after this many edge relaxations; giving up only adds extra shortcuts
+    private static final int CONTRACTION_RELAX_LIMIT = 50000;
+
+    // Priority estimates use a much cheaper search, since they are recomputed after every round
+    private static final int SIMULATION_RELAX_LIMIT = 100;
+
+    private final IndexedGraph graph;
+    private final Metric metric;
+    private final int n;
+    private final AdjacencyList[] out;
+    private final AdjacencyList[] in;
+    private final AdjacencyList[] up;
+    private final AdjacencyList[] down;
+    private final boolean[] contracted;
+    private final boolean[] inRound;
+    private final int[] deletedNeighbours;
+    private final int[] priority;
+    private final int[] rank;
+    private final ThreadLocal<WitnessSearch> witnessSearches;
+
+    /**
+     * Prepares the builder with a mutable copy of the graph's edges.
+     *
+     * @param graph The graph to contract.
+     * @param metric The metric to preserve shortest paths for.
+     */
+    ContractionHierarchyBuilder(IndexedGraph graph, Metric metric) {
+        this.graph = graph;
+        this.metric = metric;
+        this.n = graph.size();
+        this.out = new AdjacencyList[n];
+        this.in = new AdjacencyList[n];
+        this.up = new AdjacencyList[n];
+        this.down = new AdjacencyList[n];
+        this.contracted = new boolean[n];
+        this.inRound = new boolean[n];
+        this.deletedNeighbours = new int[n];
+        this.priority = new int[n];
+        this.rank = new int[n];
+        this.witnessSearches = ThreadLocal.withInitial(() -> new WitnessSearch(n));
+
+        Metric secondary = metric == Metric.TIME ? Metric.DISTANCE : Metric.TIME;
+        for (int v = 0; v < n; v++) {
+            out[v] = new AdjacencyList();
+            in[v] = new AdjacencyList();
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++) {
+                int v = graph.target(e);
+                if (u == v) {
+                    continue;
+                }
+                out[u].add(v, graph.weight(e, metric), graph.weight(e, secondary), -1);
+                in[v].add(u, graph.weight(e, metric), graph.weight(e, secondary), -1);
+            }
+        }
+    }
+
+    /**
+     * Contracts every node and assembles the hierarchy.
+     *
+     * @return The contraction hierarchy.
+     */
+    ContractionHierarchy build() {
+        IntStream.range(0, n).parallel().forEach(v -> priority[v] = computePriority(v));
+
+        int nextRank = 0;
+        boolean[] touched = new boolean[n];
+        while (nextRank < n) {
+            int[] round = IntStream.range(0, n).parallel()
+                    .filter(v -> !contracted[v] && isLocalMinimum(v))
+                    .toArray();
+            for (int v : round) {
+                inRound[v] = true;
+            }
+
+            // An ordered stream keeps the shortcuts of round[i] at index i
+            List<List<double[]>> shortcuts = IntStream.range(0, round.length).parallel()
+                    .mapToObj(i -> (List<double[]>) findShortcuts(round[i], CONTRACTION_RELAX_LIMIT))
+                    .collect(Collectors.toList());
+
+            for (int i = 0; i < round.length; i++) {
+                int v = round[i];
+                up[v] = out[v].copy();
+                down[v] = in[v].copy();
+                contracted[v] = true;
+                rank[v] = nextRank++;
+                // Detach the node from its neighbours so their lists only hold remaining nodes
+                for (int j = 0; j < up[v].size; j++) {
+                    in[up[v].nodes[j]].remove(v);
+                }
+                for (int j = 0; j < down[v].size; j++) {
+                    out[down[v].nodes[j]].remove(v);
+                }
+                markNeighbours(up[v], touched);
+                markNeighbours(down[v], touched);
+                for (double[] shortcut : shortcuts.get(i)) {
+                    int from = (int) shortcut[0];
+                    int to = (int) shortcut[1];
+                    out[from].addOrImprove(to, shortcut[2], shortcut[3], v);
+                    in[to].addOrImprove(from, shortcut[2], shortcut[3], v);
+                }
+            }
+            for (int v : round) {
+                inRound[v] = false;
+                out[v] = null;
+                in[v] = null;
+            }
+
+            int[] changed = IntStream.range(0, n).filter(v -> touched[v] && !contracted[v]).toArray();
+            Arrays.fill(touched, false);
+            IntStream.of(changed).parallel().forEach(v -> priority[v] = computePriority(v));
+        }
+
+        return ContractionHierarchy.assemble(graph, metric, rank, up, down);
+    }
+
+    /**
+     * Counts a contraction for every neighbour of a node that was just contracted.
+     *
+     * @param neighbours The contracted node's remaining neighbours.
+     * @param touched Marks the nodes whose priority must be recomputed.
+     */
+    private void markNeighbours(AdjacencyList neighbours, boolean[] touched) {
+        for (int i = 0; i < neighbours.size; i++) {
+            touched[neighbours.nodes[i]] = true;
+            deletedNeighbours[neighbours.nodes[i]]++;
+        }
+    }
+
+    /**
+     * Checks whether a node's priority is lower than that of all its remaining neighbours,
+     * breaking ties by index.
+     *
+     * @param v The node index.
+     * @return true if the node may be contracted in this round; false otherwise.
+     */
+    private boolean isLocalMinimum(int v) {
+        return isLowerThanAll(v, out[v]) && isLowerThanAll(v, in[v]);
+    }
+
+    private boolean isLowerThanAll(int v, AdjacencyList neighbours) {
+        for (int i = 0; i < neighbours.size; i++) {
+            int w = neighbours.nodes[i];
+            if (priority[w] < priority[v] || (priority[w] == priority[v] && w < v)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the contraction priority of a node from a cheap simulated contraction.
+     *
+     * @param v The node index.
+     * @return The edge difference plus the number of contracted neighbours.
+     */
+    private int computePriority(int v) {
+        int shortcuts = findShortcuts(v, SIMULATION_RELAX_LIMIT).size();
+        return shortcuts - out[v].size - in[v].size + deletedNeighbours[v];
+    }
+
+    /**
+     * Finds the shortcuts needed to contract a node: one for every pair of neighbours
+     * (u, w) whose shortest connection runs through it.
+     *
+     * @param v The node index.
+     * @param relaxLimit The number of edge relaxations each witness search may perform.
+     * @return The shortcuts as {from, to, weight, secondary weight} arrays.
+     */
+    private ArrayList<double[]> findShortcuts(int v, int relaxLimit) {
+        ArrayList<double[]> shortcuts = new ArrayList<>();
+        AdjacencyList incoming = in[v];
+        AdjacencyList outgoing = out[v];
+
+        WitnessSearch witness = witnessSearches.get();
+        for (int i = 0; i < incoming.size; i++) {
+            int u = incoming.nodes[i];
+            witness.run(u, v, incoming.weights[i], outgoing, relaxLimit);
+            for (int j = 0; j < outgoing.size; j++) {
+                int w = outgoing.nodes[j];
+                if (w == u) {
+                    continue;
+                }
+                double via = incoming.weights[i] + outgoing.weights[j];
+                if (witness.distance(w) > via) {
+                    shortcuts.add(new double[] {u, w, via, incoming.secondary[i] + outgoing.secondary[j]});
+                }
+            }
+        }
+        return shortcuts;
+    }
+
+    /**
+     * A bounded local Dijkstra search that looks for paths avoiding the node being contracted.
+     * Each thread owns one instance; epoch stamps avoid clearing the arrays between searches.
+     */
+    private class WitnessSearch {
+        private final double[] dist;
+        private final int[] stamp;
+        private final double[] needed;
+        private final int[] neededStamp;
+        private final IndexedMinHeap heap;
+        private int epoch;
+
+        WitnessSearch(int size) {
+            dist = new double[size];
+            stamp = new int[size];
+            needed = new double[size];
+            neededStamp = new int[size];
+            heap = new IndexedMinHeap(size);
+        }
+
+        /**
+         * Searches from a source without passing through the excluded node or any node of the
+         * current round. The search stops once every target has a path no longer than its
+         * path through the excluded node, or when the distance or relaxation limit is reached.
+         *
+         * @param source The search origin, an in-neighbour of the excluded node.
+         * @param excluded The node being contracted.
+         * @param toExcluded The weight of the edge from the source to the excluded node.
+         * @param targets The out-neighbours of the excluded node.
+         * @param relaxLimit The number of edge relaxations the search may perform.
+         */
+        void run(int source, int excluded, double toExcluded, AdjacencyList targets, int relaxLimit) {
+            epoch++;
+            heap.clear();
+
+            int unresolved = 0;
+            double limit = 0;
+            for (int j = 0; j < targets.size; j++) {
+                int w = targets.nodes[j];
+                if (w == source) {
+                    continue;
+                }
+                needed[w] = toExcluded + targets.weights[j];
+                neededStamp[w] = epoch;
+                limit = Math.max(limit, needed[w]);
+                unresolved++;
+            }
+            if (unresolved == 0) {
+                return;
+            }
+
+            dist[source] = 0;
+            stamp[source] = epoch;
+            heap.insertOrDecrease(source, 0);
+            int relaxed = 0;
+            while (!heap.isEmpty() && heap.peekKey() <= limit && relaxed < relaxLimit) {
+                int x = heap.poll();
+                AdjacencyList edges = out[x];
+                for (int i = 0; i < edges.size && relaxed < relaxLimit; i++, relaxed++) {
+                    int y = edges.nodes[i];
+                    if (y == excluded || inRound[y]) {
+                        continue;
+                    }
+                    double alt = dist[x] + edges.weights[i];
+                    if (stamp[y] != epoch || alt < dist[y]) {
+                        dist[y] = alt;
+                        stamp[y] = epoch;
+                        heap.insertOrDecrease(y, alt);
+                        if (neededStamp[y] == epoch && alt <= needed[y]) {
+                            neededStamp[y] = 0; // A witness for this target is known
+                            if (--unresolved == 0) {
+                                return;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        double distance(int node) {
+            return stamp[node] == epoch ? dist[node] : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * A growable list of weighted edges to neighbouring nodes, with the middle node of each
+     * shortcut (-1 for original edges).
+     */
+    static class AdjacencyList {
+        int size;
+        int[] nodes = new int[4];
+        double[] weights = new double[4];
+        double[] secondary = new double[4];
+        int[] middles = new int[4];
+
+        void add(int node, double weight, double secondaryWeight, int middle) {
+            if (size == nodes.length) {
+                int capacity = size * 2;
+                nodes = Arrays.copyOf(nodes, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                secondary = Arrays.copyOf(secondary, capacity);
+                middles = Arrays.copyOf(middles, capacity);
+            }
+            nodes[size] = node;
+            weights[size] = weight;
+            secondary[size] = secondaryWeight;
+            middles[size] = middle;
+            size++;
+        }
+
+        /**
+         * Adds an edge, or replaces the existing edge to the same node if the new one is shorter.
+         */
+        void addOrImprove(int node, double weight, double secondaryWeight, int middle) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    if (weight < weights[i]) {
+                        weights[i] = weight;
+                        secondary[i] = secondaryWeight;
+                        middles[i] = middle;
+                    }
+                    return;
+                }
+            }
+            add(node, weight, secondaryWeight, middle);
+        }
+
+        /**
+         * Removes the edge to a node, if present, by moving the last edge into its place.
+         */
+        void remove(int node) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    size--;
+                    nodes[i] = nodes[size];
+                    weights[i] = weights[size];
+                    secondary[i] = secondary[size];
+                    middles[i] = middles[size];
+                    return;
+                }
+            }
+        }
+
+        AdjacencyList copy() {
+            AdjacencyList copy = new AdjacencyList();
+            copy.size = size;
+            copy.nodes = Arrays.copyOf(nodes, Math.max(size, 1));
+            copy.weights = Arrays.copyOf(weights, Math.max(size, 1));
+            copy.secondary = Arrays.copyOf(secondary, Math.max(size, 1));
+            copy.middles = Arrays.copyOf(middles, Math.max(size, 1));
+            return copy;
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package utils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.PriorityQueue;
 
 /**
  * A utility class to implement Dijkstra's algorithm for finding the shortest path
  * in a weighted graph.
+ *
+ * <p>{@link #findShortestPath} keeps its state in static fields for {@link #getDistance},
+ * so it must only be used from one thread at a time. {@link #route} keeps all of its
+ * state local and is safe to call concurrently on a graph that is no longer being modified.
  */
 public class Dijkstra {
     // Track all unvisited nodes in the graph
@@ -32,6 +38,12 @@ public class Dijkstra {
             return path;
         }
 
+        RoutingEvents.ShortestPath event = new RoutingEvents.ShortestPath();
+        event.begin();
+        long start = RoutingMetrics.start();
+        long settled = 0;
+        long relaxed = 0;
+
         // Initialize distances and previous nodes
         for (Node node : graph.getNodes()) {
             distanceMap.put(node, Double.MAX_VALUE);
@@ -46,11 +58,13 @@ public class Dijkstra {
         Node minNode;
         while ((minNode = findVertexWithMinDist()) != null) {
             unvisited.remove(minNode);
+            settled++;
 
             // Update distances to neighboring nodes
             ArrayList<Edge> edges = graph.getDestinationEdges(minNode);
             for (Edge edge : edges) {
                 if (unvisited.contains(edge.getDestination())) {
+                    relaxed++;
                     double alt = distanceMap.get(minNode) + edge.getDistance();
                     if (alt < distanceMap.get(edge.getDestination())) {
                         distanceMap.put(edge.getDestination(), alt);
@@ -60,7 +74,22 @@ public class Dijkstra {
             }
         }
 
-        return getShortestPath(source, destination);
+        ArrayList<Node> path = getShortestPath(source, destination);
+        // The legacy search scans for the closest node instead of using a heap
+        RoutingMetrics.recordSearch(start, settled, relaxed, 0);
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = source.getName();
+            event.destination = destination.getName();
+            event.metric = Metric.DISTANCE.name();
+            event.nodeCount = graph.getSize();
+            event.edgeCount = graph.getEdges().size();
+            event.nodesSettled = settled;
+            event.edgesRelaxed = relaxed;
+            event.pathLength = distanceMap.get(destination) == Double.MAX_VALUE ? 0 : path.size();
+            event.commit();
+        }
+        return path;
     }
 
     /**
@@ -108,4 +137,154 @@ public class Dijkstra {
         }
         return minNode;
     }
+
+    /**
+     * Finds the shortest route between two nodes without touching any shared state.
+     * Uses a binary heap with lazy deletion, so each query costs O(E log V).
+     *
+     * @param graph The graph to search in.
+     * @param source The starting node.
+     * @param destination The target node.
+     * @param metric The edge attribute to minimise.
+     * @return The route, with an empty path if the destination cannot be reached.
+     */
+    public static RouteResult route(Graph graph, Node source, Node destination, Metric metric) {
+        return route(graph, source, destination, metric, CancellationToken.NONE);
+    }
+
+    /**
+     * Finds the shortest route between two nodes, checking the token before settling each node.
+     *
+     * @param graph The graph to search in.
+     * @param source The starting node.
+     * @param destination The target node.
+     * @param metric The edge attribute to minimise.
+     * @param token The token that stops the search when cancelled or expired.
+     * @return The route, with an empty path if the destination cannot be reached.
+     * @throws SearchCancelledException If the token is cancelled before the search finishes.
+     */
+    public static RouteResult route(Graph graph, Node source, Node destination, Metric metric, CancellationToken token) {
+        return route(graph.snapshot(), source, destination, metric, token);
+    }
+
+    /**
+     * Finds the shortest route between two nodes on one snapshot of a graph, checking the
+     * token before settling each node. The search takes no locks and is unaffected by
+     * changes made to the graph while it runs.
+     *
+     * @param graph The snapshot to search in.
+     * @param source The starting node.
+     * @param destination The target node.
+     * @param metric The edge attribute to minimise.
+     * @param token The token that stops the search when cancelled or expired.
+     * @return The route, with an empty path if the destination cannot be reached.
+     * @throws SearchCancelledException If the token is cancelled before the search finishes.
+     */
+    public static RouteResult route(GraphSnapshot graph, Node source, Node destination, Metric metric, CancellationToken token) {
+        RoutingEvents.ShortestPath event = new RoutingEvents.ShortestPath();
+        event.begin();
+        long start = RoutingMetrics.start();
+        long settled = 0;
+        long relaxed = 0;
+        long heapOperations = 1;
+        int pathLength = 0;
+        boolean finished = false;
+        try {
+            HashMap<Node, Double> distances = new HashMap<>();
+            HashMap<Node, Edge> previousEdge = new HashMap<>();
+            PriorityQueue<QueueEntry> queue = new PriorityQueue<>();
+
+            distances.put(source, 0d);
+            queue.add(new QueueEntry(source, 0d));
+
+            while (!queue.isEmpty()) {
+                token.throwIfCancelled();
+                QueueEntry entry = queue.poll();
+                heapOperations++;
+                if (entry.distance > distances.get(entry.node)) {
+                    continue; // Stale entry, the node was already settled with a shorter distance
+                }
+                settled++;
+                if (entry.node.equals(destination)) {
+                    break;
+                }
+
+                for (Edge edge : graph.outgoingEdges(entry.node)) {
+                    relaxed++;
+                    double alt = entry.distance + metric.weight(edge);
+                    Double known = distances.get(edge.getDestination());
+                    if (known == null || alt < known) {
+                        distances.put(edge.getDestination(), alt);
+                        previousEdge.put(edge.getDestination(), edge);
+                        queue.add(new QueueEntry(edge.getDestination(), alt));
+                        heapOperations++;
+                    }
+                }
+            }
+            RoutingMetrics.recordSearch(start, settled, relaxed, heapOperations);
+            finished = true;
+
+            if (!distances.containsKey(destination)) {
+                return new RouteResult(source, destination, metric, new ArrayList<>(), Double.MAX_VALUE, Double.MAX_VALUE);
+            }
+
+            // Walk the predecessor edges back to the source, summing both attributes
+            ArrayList<Node> path = new ArrayList<>();
+            double distance = 0;
+            double time = 0;
+            Node current = destination;
+            path.add(current);
+            while (!current.equals(source)) {
+                Edge edge = previousEdge.get(current);
+                distance += edge.getDistance();
+                time += edge.getTime();
+                current = edge.getSource();
+                path.add(current);
+            }
+            Collections.reverse(path);
+            pathLength = path.size();
+            return new RouteResult(source, destination, metric, path, distance, time);
+        } finally {
+            // Also written for a search stopped by its token, so cancelled searches show up in recordings
+            commit(event, graph, source, destination, metric, settled, relaxed, pathLength, !finished);
+        }
+    }
+
+    /**
+     * Ends a search event and writes it if a recording wants it.
+     */
+    private static void commit(RoutingEvents.ShortestPath event, GraphSnapshot graph, Node source, Node destination,
+                               Metric metric, long settled, long relaxed, int pathLength, boolean cancelled) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = source.getName();
+            event.destination = destination.getName();
+            event.metric = metric.name();
+            event.nodeCount = graph.size();
+            event.edgeCount = graph.getEdges().size();
+            event.nodesSettled = settled;
+            event.edgesRelaxed = relaxed;
+            event.pathLength = pathLength;
+            event.cancelled = cancelled;
+            event.commit();
+        }
+    }
+
+    /**
+     * Helper class to store a node and its tentative distance in the priority queue.
+     */
+    private static class QueueEntry implements Comparable<QueueEntry> {
+        final Node node;
+        final double distance;
+
+        QueueEntry(Node node, double distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(QueueEntry other) {
+            return Double.compare(distance, other.distance);
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Computes many-to-many shortest-path distances. Instead of one point-to-point search per
+ * (source, target) pair, it runs one Dijkstra search per distinct source, in parallel across
+ * cores, and stops each search as soon as every requested target has been settled.
+ */
+public class DistanceMatrix {
+
+    /**
+     * Computes the distances from every source to every target.
+     *
+     * @param graph The graph to search in.
+     * @param sources The origins, one per row. Duplicates are searched only once.
+     * @param targets The destinations, one per column.
+     * @param metric The edge attribute to sum.
+     * @return A dense matrix where {@code [i][j]} is the distance from {@code sources.get(i)}
+     *         to {@code targets.get(j)}, or {@link Double#POSITIVE_INFINITY} if unreachable.
+     * @throws IllegalArgumentException If a source or target is not in the graph.
+     */
+    public static double[][] distanceMatrix(IndexedGraph graph, List<Node> sources, List<Node> targets, Metric metric) {
+        return distanceMatrix(graph, graph.indicesOf(sources), graph.indicesOf(targets), metric);
+    }
+
+    /**
+     * Computes the distances from every source index to every target index.
+     *
+     * @param graph The graph to search in.
+     * @param sources The origin indices, one per row. Duplicates are searched only once.
+     * @param targets The destination indices, one per column.
+     * @param metric The edge attribute to sum.
+     * @return A dense matrix where {@code [i][j]} is the distance from {@code sources[i]}
+     *         to {@code targets[j]}, or {@link Double#POSITIVE_INFINITY} if unreachable.
+     */
+    public static double[][] distanceMatrix(IndexedGraph graph, int[] sources, int[] targets, Metric metric) {
+        if (targets.length == 0) {
+            return new double[sources.length][0]; // No search could stop early, and none is needed
+        }
+
+        // Group duplicate sources so each distinct origin is searched once
+        HashMap<Integer, Integer> firstRowOf = new HashMap<>();
+        int[] distinctRows = IntStream.range(0, sources.length)
+                .filter(row -> firstRowOf.putIfAbsent(sources[row], row) == null)
+                .toArray();
+
+        // Mark each distinct target once; the search stops when all of them are settled
+        boolean[] isTarget = new boolean[graph.size()];
+        int distinctTargets = 0;
+        for (int target : targets) {
+            if (!isTarget[target]) {
+                isTarget[target] = true;
+                distinctTargets++;
+            }
+        }
+        int targetCount = distinctTargets;
+
+        double[][] matrix = new double[sources.length][];
+        IntStream.of(distinctRows).parallel().forEach(row -> {
+            double[] dist = IndexedDijkstra.boundedDistances(graph, sources[row], isTarget, targetCount, metric);
+            double[] values = new double[targets.length];
+            for (int column = 0; column < targets.length; column++) {
+                values[column] = dist[targets[column]];
+            }
+            matrix[row] = values;
+        });
+
+        for (int row = 0; row < sources.length; row++) {
+            if (matrix[row] == null) {
+                matrix[row] = Arrays.copyOf(matrix[firstRowOf.get(sources[row])], targets.length);
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,435 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shortest-path trees from a set of source nodes that stay correct while walkways are closed,
+ * reopened or change length, without being recomputed from scratch.
+ *
+ * <p>The trees listen to their {@link Graph} and repair themselves after every
+ * {@link Graph#removeEdge} and {@link Graph#updateEdge}, in the manner of Ramalingam and Reps:
+ * <ul>
+ *     <li>When a walkway gets longer or is removed, only trees that use it change, and in those
+ *     only the subtree below it. That subtree is reset and re-seeded from its unaffected
+ *     in-neighbours, then finished with a Dijkstra search confined to the subtree.</li>
+ *     <li>When a walkway gets shorter, a tree changes only if the walkway now improves one of its
+ *     endpoints, and a Dijkstra search spreads the improvement outward from there.</li>
+ * </ul>
+ *
+ * <p>Repaired trees are published as new arrays, so queries never wait for a repair and always
+ * see a consistent tree. Adding nodes or edges to the graph is not repaired incrementally; the
+ * trees are rebuilt on the next change, or straight away by {@link #refresh()}.
+ *
+ * <p>Tracking every node as a source gives an all-pairs distance table that stays current.
+ */
+public class DynamicShortestPaths implements GraphListener, AutoCloseable {
+
+    private final Graph graph;
+    private final Metric metric;
+    private final List<Node> sourceNodes;
+
+    // Working state, only touched while holding this object's lock
+    private IndexedGraph indexed;
+    private double[] weights;
+    private int[] reverseOffsets;
+    private int[] reverseSources;
+    private int[] reverseEdges;
+    private IndexedMinHeap heap;
+    private boolean[] affected;
+
+    private volatile State state;
+    private volatile long repairCount;
+    private volatile long rebuildCount;
+    private volatile long repairedTreeCount;
+    private volatile long repairedNodeCount;
+
+    /**
+     * Builds shortest-path trees from the given sources and starts tracking changes to the graph.
+     *
+     * @param graph The graph.
+     * @param metric The edge attribute to minimise.
+     * @param sources The source nodes.
+     */
+    public DynamicShortestPaths(Graph graph, Metric metric, Collection<Node> sources) {
+        this.graph = graph;
+        this.metric = metric;
+        this.sourceNodes = new ArrayList<>(sources);
+        synchronized (this) {
+            graph.addListener(this);
+            rebuild();
+        }
+    }
+
+    /**
+     * Builds a shortest-path tree from every node, giving an all-pairs table that stays current.
+     *
+     * @param graph The graph.
+     * @param metric The edge attribute to minimise.
+     * @return The dynamic all-pairs table.
+     */
+    public static DynamicShortestPaths forAllNodes(Graph graph, Metric metric) {
+        return new DynamicShortestPaths(graph, metric, new ArrayList<>(graph.getNodes()));
+    }
+
+    /**
+     * Returns the current shortest distance from a tracked source.
+     *
+     * @param source A tracked source node.
+     * @param destination Any node.
+     * @return The distance, or {@link Double#POSITIVE_INFINITY} if the destination cannot be reached.
+     * @throws IllegalArgumentException If the source is not tracked or the destination is unknown.
+     */
+    public double distance(Node source, Node destination) {
+        State current = state;
+        return current.tree(source).dist[current.index(destination)];
+    }
+
+    /**
+     * Returns the current shortest path from a tracked source.
+     *
+     * @param source A tracked source node.
+     * @param destination Any node.
+     * @return The nodes from source to destination, or an empty list if the destination cannot be reached.
+     * @throws IllegalArgumentException If the source is not tracked or the destination is unknown.
+     */
+    public List<Node> path(Node source, Node destination) {
+        State current = state;
+        Tree tree = current.tree(source);
+        int target = current.index(destination);
+        ArrayList<Node> path = new ArrayList<>();
+        if (tree.dist[target] == Double.POSITIVE_INFINITY) {
+            return path;
+        }
+        for (int v = target; v >= 0; v = tree.parent[v]) {
+            path.add(current.graph.node(v));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Returns the number of edge changes that were applied by repairing the trees.
+     *
+     * @return The repair count.
+     */
+    public long getRepairCount() {
+        return repairCount;
+    }
+
+    /**
+     * Returns the number of times every tree was rebuilt from scratch, including the initial build.
+     *
+     * @return The rebuild count.
+     */
+    public long getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * Returns the number of individual trees that had to change across all repairs.
+     *
+     * @return The repaired tree count.
+     */
+    public long getRepairedTreeCount() {
+        return repairedTreeCount;
+    }
+
+    /**
+     * Returns the number of tree nodes whose distance was reset or improved across all repairs.
+     *
+     * @return The repaired node count.
+     */
+    public long getRepairedNodeCount() {
+        return repairedNodeCount;
+    }
+
+    /**
+     * Repairs the trees after an edge change. Called by the graph.
+     *
+     * @param change The change to the graph.
+     */
+    @Override
+    public synchronized void edgeChanged(EdgeChange change) {
+        if (change.getVersion() <= state.version) {
+            return; // Already reflected by a rebuild
+        }
+        int a = indexed.indexOf(change.getSource());
+        int b = indexed.indexOf(change.getDestination());
+        int forward = a < 0 || b < 0 ? -1 : indexed.edgeBetween(a, b);
+        int backward = a < 0 || b < 0 ? -1 : indexed.edgeBetween(b, a);
+        if (change.getVersion() != state.version + 1 || forward < 0 || backward < 0) {
+            rebuild(); // Other modifications happened that cannot be repaired incrementally
+            return;
+        }
+
+        double oldWeight = weights[forward];
+        double newWeight = change.newWeight(metric);
+        weights[forward] = newWeight;
+        weights[backward] = newWeight;
+        int[] from = {a, b};
+        int[] to = {b, a};
+
+        State current = state;
+        Tree[] trees = current.trees.clone();
+        for (int i = 0; i < trees.length; i++) {
+            Tree repaired = newWeight > oldWeight
+                    ? repairIncrease(trees[i], from, to)
+                    : repairDecrease(trees[i], from, to);
+            if (repaired != trees[i]) {
+                trees[i] = repaired;
+                repairedTreeCount++;
+            }
+        }
+        state = new State(current.graph, current.treeOf, trees, change.getVersion());
+        repairCount++;
+    }
+
+    /**
+     * Rebuilds every tree if the graph has changed in a way that was not repaired incrementally,
+     * such as nodes or edges being added.
+     */
+    public synchronized void refresh() {
+        if (graph.getVersion() != state.version) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Stops tracking changes to the graph.
+     */
+    @Override
+    public void close() {
+        graph.removeListener(this);
+    }
+
+    /**
+     * Recomputes the indexed graph, the reverse edges and every tree.
+     */
+    private void rebuild() {
+        indexed = IndexedGraph.of(graph);
+        int n = indexed.size();
+        int[] offsets = indexed.offsets();
+        int[] targets = indexed.targets();
+        weights = indexed.weights(metric).clone();
+
+        reverseOffsets = new int[n + 1];
+        for (int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        reverseSources = new int[targets.length];
+        reverseEdges = new int[targets.length];
+        int[] next = Arrays.copyOf(reverseOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int slot = next[targets[e]]++;
+                reverseSources[slot] = u;
+                reverseEdges[slot] = e;
+            }
+        }
+        heap = new IndexedMinHeap(n);
+        affected = new boolean[n];
+
+        int[] treeOf = new int[n];
+        Arrays.fill(treeOf, -1);
+        ArrayList<Tree> trees = new ArrayList<>();
+        for (Node node : sourceNodes) {
+            int s = indexed.indexOf(node);
+            if (s >= 0 && treeOf[s] < 0) {
+                treeOf[s] = trees.size();
+                trees.add(buildTree(s));
+            }
+        }
+        state = new State(indexed, treeOf, trees.toArray(new Tree[0]), indexed.getVersion());
+        rebuildCount++;
+    }
+
+    private Tree buildTree(int source) {
+        int n = indexed.size();
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        dist[source] = 0;
+        heap.insertOrDecrease(source, 0);
+        propagate(dist, parent, null);
+        return new Tree(dist, parent);
+    }
+
+    /**
+     * Repairs a tree after the given directed edges got longer or were removed.
+     *
+     * @return The repaired tree, or the same tree if it does not use any of the edges.
+     */
+    private Tree repairIncrease(Tree tree, int[] from, int[] to) {
+        boolean usesEdge = false;
+        for (int i = 0; i < from.length; i++) {
+            usesEdge |= tree.parent[to[i]] == from[i];
+        }
+        if (!usesEdge) {
+            return tree;
+        }
+        double[] dist = tree.dist.clone();
+        int[] parent = tree.parent.clone();
+        int[] offsets = indexed.offsets();
+        int[] targets = indexed.targets();
+
+        // Collect the subtrees hanging below the changed edges
+        int[] subtree = new int[dist.length];
+        int size = 0;
+        for (int i = 0; i < from.length; i++) {
+            if (parent[to[i]] == from[i] && !affected[to[i]]) {
+                affected[to[i]] = true;
+                subtree[size++] = to[i];
+            }
+        }
+        for (int k = 0; k < size; k++) {
+            int x = subtree[k];
+            for (int e = offsets[x]; e < offsets[x + 1]; e++) {
+                int y = targets[e];
+                if (parent[y] == x && !affected[y]) {
+                    affected[y] = true;
+                    subtree[size++] = y;
+                }
+            }
+        }
+
+        // Re-seed each affected node from its best unaffected in-neighbour
+        for (int k = 0; k < size; k++) {
+            int y = subtree[k];
+            dist[y] = Double.POSITIVE_INFINITY;
+            parent[y] = -1;
+            for (int r = reverseOffsets[y]; r < reverseOffsets[y + 1]; r++) {
+                int z = reverseSources[r];
+                double candidate = dist[z] + weights[reverseEdges[r]];
+                if (!affected[z] && candidate < dist[y]) {
+                    dist[y] = candidate;
+                    parent[y] = z;
+                }
+            }
+            if (dist[y] < Double.POSITIVE_INFINITY) {
+                heap.insertOrDecrease(y, dist[y]);
+            }
+        }
+        propagate(dist, parent, affected);
+
+        for (int k = 0; k < size; k++) {
+            affected[subtree[k]] = false;
+        }
+        repairedNodeCount += size;
+        return new Tree(dist, parent);
+    }
+
+    /**
+     * Repairs a tree after the given directed edges got shorter.
+     *
+     * @return The repaired tree, or the same tree if no distance improves.
+     */
+    private Tree repairDecrease(Tree tree, int[] from, int[] to) {
+        double[] dist = null;
+        int[] parent = null;
+        for (int i = 0; i < from.length; i++) {
+            int e = indexed.edgeBetween(from[i], to[i]);
+            double[] current = dist == null ? tree.dist : dist;
+            double candidate = current[from[i]] + weights[e];
+            if (candidate < current[to[i]]) {
+                if (dist == null) {
+                    dist = tree.dist.clone();
+                    parent = tree.parent.clone();
+                }
+                dist[to[i]] = candidate;
+                parent[to[i]] = from[i];
+                heap.insertOrDecrease(to[i], candidate);
+            }
+        }
+        if (dist == null) {
+            return tree;
+        }
+        repairedNodeCount += propagate(dist, parent, null);
+        return new Tree(dist, parent);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from the nodes already in the heap.
+     *
+     * @param dist The distances to improve.
+     * @param parent The parents to update alongside.
+     * @param only If not null, only nodes marked here may change.
+     * @return The number of nodes settled.
+     */
+    private int propagate(double[] dist, int[] parent, boolean[] only) {
+        int[] offsets = indexed.offsets();
+        int[] targets = indexed.targets();
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            int x = heap.poll();
+            settled++;
+            for (int e = offsets[x]; e < offsets[x + 1]; e++) {
+                int y = targets[e];
+                double alt = dist[x] + weights[e];
+                if (alt < dist[y] && (only == null || only[y])) {
+                    dist[y] = alt;
+                    parent[y] = x;
+                    heap.insertOrDecrease(y, alt);
+                }
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * One shortest-path tree. Never modified after it is published.
+     */
+    private static class Tree {
+        final double[] dist;
+        final int[] parent;
+
+        Tree(double[] dist, int[] parent) {
+            this.dist = dist;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * Everything a query needs, published as a whole after each repair or rebuild.
+     */
+    private static class State {
+        final IndexedGraph graph;
+        final int[] treeOf;
+        final Tree[] trees;
+        final long version;
+
+        State(IndexedGraph graph, int[] treeOf, Tree[] trees, long version) {
+            this.graph = graph;
+            this.treeOf = treeOf;
+            this.trees = trees;
+            this.version = version;
+        }
+
+        Tree tree(Node source) {
+            int s = index(source);
+            if (treeOf[s] < 0) {
+                throw new IllegalArgumentException("Not a tracked source: " + source);
+            }
+            return trees[treeOf[s]];
+        }
+
+        int index(Node node) {
+            int index = graph.indexOf(node);
+            if (index < 0) {
+                throw new IllegalArgumentException("Node is not in the graph: " + node);
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package utils;
+
+/**
+ * Describes a change to the walkway between two nodes: the distance and time before and after
+ * the change, in both directions. A new walkway has infinite distance and time before the
+ * change, and a removed walkway has infinite distance and time afterwards.
+ */
+public class EdgeChange {
+    private final Node source;
+    private final Node destination;
+    private final double oldDistance;
+    private final double oldTime;
+    private final double newDistance;
+    private final double newTime;
+    private final long version;
+
+    /**
+     * Constructs a change description.
+     *
+     * @param source One end of the walkway.
+     * @param destination The other end of the walkway.
+     * @param oldDistance The distance before the change, or {@link Double#POSITIVE_INFINITY} if added.
+     * @param oldTime The time before the change, or {@link Double#POSITIVE_INFINITY} if added.
+     * @param newDistance The distance after the change, or {@link Double#POSITIVE_INFINITY} if removed.
+     * @param newTime The time after the change, or {@link Double#POSITIVE_INFINITY} if removed.
+     * @param version The graph version produced by the change.
+     */
+    public EdgeChange(Node source, Node destination, double oldDistance, double oldTime,
+                      double newDistance, double newTime, long version) {
+        this.source = source;
+        this.destination = destination;
+        this.oldDistance = oldDistance;
+        this.oldTime = oldTime;
+        this.newDistance = newDistance;
+        this.newTime = newTime;
+        this.version = version;
+    }
+
+    public Node getSource() {
+        return source;
+    }
+
+    public Node getDestination() {
+        return destination;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks whether the walkway is new.
+     *
+     * @return true if the nodes were not connected before; false otherwise.
+     */
+    public boolean isAddition() {
+        return oldDistance == Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Checks whether the walkway was removed.
+     *
+     * @return true if the walkway no longer exists; false if it was updated.
+     */
+    public boolean isRemoval() {
+        return newDistance == Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the weight of the walkway before the change.
+     *
+     * @param metric The edge attribute.
+     * @return The old weight, or {@link Double#POSITIVE_INFINITY} if the walkway was added.
+     */
+    public double oldWeight(Metric metric) {
+        return metric == Metric.TIME ? oldTime : oldDistance;
+    }
+
+    /**
+     * Returns the weight of the walkway after the change.
+     *
+     * @param metric The edge attribute.
+     * @return The new weight, or {@link Double#POSITIVE_INFINITY} if the walkway was removed.
+     */
+    public double newWeight(Metric metric) {
+        return metric == Metric.TIME ? newTime : newDistance;
+    }
+
+    /**
+     * Checks whether the change connects the given pair of consecutive path nodes, in either direction.
+     *
+     * @param from A node on a path.
+     * @param to The next node on the path.
+     * @return true if the pair is this walkway; false otherwise.
+     */
+    public boolean connects(Node from, Node to) {
+        return (from.equals(source) && to.equals(destination)) || (from.equals(destination) && to.equals(source));
+    }
+
+    @Override
+    public String toString() {
+        return source.getName() + " <-> " + destination.getName() + ": "
+                + (isAddition() ? "added" : String.valueOf(oldDistance)) + " -> "
+                + (isRemoval() ? "removed" : String.valueOf(newDistance)) + " (version " + version + ")";
+    }
+}
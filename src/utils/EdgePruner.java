@@ -0,0 +1,127 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Removes walkways that no shortest path needs. The landmark file is a complete distance
+ * matrix, so most of its walkways are longer than some detour through a third landmark.
+ *
+ * <p>A walkway (u, v) is dropped when, for both distance and time, there is a landmark w with
+ * w(u, w) + w(w, v) no longer than w(u, v), where both legs are strictly shorter than the
+ * walkway itself. Every dropped walkway is then replaced by legs that are shorter still, and
+ * those are either kept or replaced by even shorter legs in turn, so shortest-path distances
+ * are exactly the same as in the full graph. Only the set of alternative routes shrinks.
+ *
+ * <p>The checks for different source landmarks are independent and run in parallel, in blocks
+ * of landmarks that each reuse their own working rows.
+ */
+public class EdgePruner {
+
+    // Tasks per core, so a task with slow rows does not leave the other cores idle
+    private static final int TASKS_PER_CORE = 4;
+
+    /**
+     * Builds a copy of a graph without its redundant walkways. The graph's walkways must be
+     * two-way with the same weights in both directions, as {@link Graph#addEdge(Edge)} makes them.
+     *
+     * @param graph The graph to prune.
+     * @return A new graph with every node and only the walkways some shortest path may need.
+     */
+    public static Graph prune(Graph graph) {
+        GraphSnapshot snapshot = graph.snapshot();
+        IndexedGraph indexed = IndexedGraph.of(snapshot);
+        boolean[] keep = keptEdges(indexed);
+
+        Graph pruned = new Graph();
+        for (Node node : snapshot.getNodes()) {
+            pruned.addNode(node);
+        }
+        for (int u = 0; u < indexed.size(); u++) {
+            Node source = indexed.node(u);
+            for (int e = indexed.firstEdge(u); e < indexed.lastEdge(u); e++) {
+                int v = indexed.target(e);
+                // Each walkway is added once, from its lower end, and addEdge adds the reverse
+                if (u < v && (keep[e] || keep[indexed.edgeBetween(v, u)])) {
+                    pruned.addEdge(shortestEdge(snapshot, source, indexed.node(v)).clone());
+                }
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * Decides which edges to keep.
+     *
+     * @param graph The indexed graph.
+     * @return For each edge position, true if the edge is kept; false if it is redundant.
+     */
+    static boolean[] keptEdges(IndexedGraph graph) {
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double[] distances = graph.weights(Metric.DISTANCE);
+        double[] times = graph.weights(Metric.TIME);
+        boolean[] keep = new boolean[targets.length];
+
+        // Each task owns a block of source landmarks and two dense rows of their edge weights,
+        // so w(u, w) is a single array read; the rows are cleared after each landmark
+        int tasks = Math.max(1, Math.min(n, TASKS_PER_CORE * Runtime.getRuntime().availableProcessors()));
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            double[] fromUDistance = new double[n];
+            double[] fromUTime = new double[n];
+            Arrays.fill(fromUDistance, Double.POSITIVE_INFINITY);
+            Arrays.fill(fromUTime, Double.POSITIVE_INFINITY);
+            for (int u = (int) ((long) n * task / tasks), end = (int) ((long) n * (task + 1) / tasks); u < end; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    fromUDistance[targets[e]] = distances[e];
+                    fromUTime[targets[e]] = times[e];
+                }
+
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    keep[e] = !isDominated(u, v, distances[e], fromUDistance, offsets, targets, distances)
+                            || !isDominated(u, v, times[e], fromUTime, offsets, targets, times);
+                }
+
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    fromUDistance[targets[e]] = Double.POSITIVE_INFINITY;
+                    fromUTime[targets[e]] = Double.POSITIVE_INFINITY;
+                }
+            }
+        });
+        return keep;
+    }
+
+    /**
+     * Checks whether some detour u -> w -> v is no longer than the edge (u, v), using two legs
+     * that are each strictly shorter than it. Since the walkways are two-way, the leg w -> v
+     * has the same weight as the edge v -> w.
+     */
+    private static boolean isDominated(int u, int v, double weight, double[] fromU,
+                                       int[] offsets, int[] targets, double[] weights) {
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+            int w = targets[e];
+            double leg = weights[e];
+            if (w == u || leg >= weight) {
+                continue;
+            }
+            double first = fromU[w];
+            if (first < weight && first + leg <= weight) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Edge shortestEdge(GraphSnapshot snapshot, Node source, Node destination) {
+        Edge shortest = null;
+        for (Edge edge : snapshot.outgoingEdges(source)) {
+            if (edge.getDestination().equals(destination)
+                    && (shortest == null || edge.getDistance() < shortest.getDistance())) {
+                shortest = edge;
+            }
+        }
+        return shortest;
+    }
+}
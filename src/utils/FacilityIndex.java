@@ -0,0 +1,242 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers "where is the nearest hall?" style questions over an {@link IndexedGraph}, with the
+ * landmarks of each category from {@link LandmarkCategories} indexed by node.
+ *
+ * <p>The K nearest members of a category are found with one Dijkstra search from the asking
+ * landmark that stops as soon as K members have been settled, rather than one search per
+ * member. For the single nearest member there is also a table per category and metric, built
+ * by one search run backwards from every member at once; after that each answer is just a
+ * walk along the table's next-hop pointers. A landmark that belongs to the category is its
+ * own nearest member, at distance 0.
+ */
+public class FacilityIndex {
+
+    private final IndexedGraph graph;
+    private final LandmarkCategories categories;
+    private final Map<String, boolean[]> isMember = new ConcurrentHashMap<>();
+    private final Map<String, Integer> memberCount = new ConcurrentHashMap<>();
+    private final Map<String, NearestTable> tables = new ConcurrentHashMap<>();
+
+    // The graph's edges by target, for searching backwards from the members
+    private final int[] reverseOffsets;
+    private final int[] reverseSources;
+    private final int[] reverseEdges;
+
+    /**
+     * Indexes the category members of a graph.
+     *
+     * @param graph The graph to search in.
+     * @param categories The categories of its landmarks.
+     */
+    public FacilityIndex(IndexedGraph graph, LandmarkCategories categories) {
+        this.graph = graph;
+        this.categories = categories;
+        int n = graph.size();
+        for (int v = 0; v < n; v++) {
+            for (String category : categories.categoriesOf(graph.node(v))) {
+                isMember.computeIfAbsent(category, c -> new boolean[n])[v] = true;
+                memberCount.merge(category, 1, Integer::sum);
+            }
+        }
+
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        reverseOffsets = new int[n + 1];
+        for (int e = 0; e < targets.length; e++) {
+            reverseOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        reverseSources = new int[targets.length];
+        reverseEdges = new int[targets.length];
+        int[] fill = Arrays.copyOf(reverseOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int slot = fill[targets[e]]++;
+                reverseSources[slot] = u;
+                reverseEdges[slot] = e;
+            }
+        }
+    }
+
+    public IndexedGraph getGraph() {
+        return graph;
+    }
+
+    public LandmarkCategories getCategories() {
+        return categories;
+    }
+
+    /**
+     * Returns the categories with at least one landmark in the graph.
+     *
+     * @return The category names, in no particular order.
+     */
+    public Set<String> categoryNames() {
+        return Collections.unmodifiableSet(memberCount.keySet());
+    }
+
+    /**
+     * Returns the number of landmarks in a category.
+     *
+     * @param category The category.
+     * @return The member count, 0 for an unknown category.
+     */
+    public int memberCount(String category) {
+        return memberCount.getOrDefault(category.toLowerCase(Locale.ROOT), 0);
+    }
+
+    /**
+     * Finds the K members of a category closest to a landmark with one bounded search.
+     *
+     * @param source The landmark asking.
+     * @param category The category to look for, in any case.
+     * @param k The number of members wanted.
+     * @param metric The edge attribute to minimise.
+     * @return Up to K routes to the closest members, nearest first; fewer if fewer are reachable.
+     * @throws IllegalArgumentException If the source is not in the graph.
+     */
+    public List<RouteResult> nearest(Node source, String category, int k, Metric metric) {
+        boolean[] members = isMember.get(category.toLowerCase(Locale.ROOT));
+        List<RouteResult> routes = new ArrayList<>();
+        if (members == null || k <= 0) {
+            return routes;
+        }
+        int from = graph.indexOf(source);
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double[] weights = graph.weights(metric);
+        SearchScratch scratch = SearchScratch.acquire(graph.size());
+        try {
+            IndexedMinHeap heap = scratch.heap;
+
+            int[] found = new int[Math.min(k, memberCount(category))];
+            int foundCount = 0;
+            scratch.reach(from, 0, -1);
+            heap.insertOrDecrease(from, 0);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                scratch.settled++;
+                if (members[u]) {
+                    found[foundCount++] = u;
+                    if (foundCount == found.length) {
+                        break;
+                    }
+                }
+                double du = scratch.dist[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    double alt = du + weights[e];
+                    if (alt < scratch.distance(v)) {
+                        scratch.reach(v, alt, u);
+                        heap.insertOrDecrease(v, alt);
+                    }
+                }
+            }
+            for (int i = 0; i < foundCount; i++) {
+                routes.add(IndexedPath.fromParents(scratch.parent, from, found[i], scratch.distance(found[i]), scratch.settled)
+                        .toRouteResult(graph, from, found[i], metric));
+            }
+            return routes;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Finds the closest member of a category using the category's precomputed table, building
+     * the table with one backward search from all members on first use.
+     *
+     * @param source The landmark asking.
+     * @param category The category to look for.
+     * @param metric The edge attribute to minimise.
+     * @return The route to the closest member, or null if no member is reachable.
+     * @throws IllegalArgumentException If the source is not in the graph.
+     */
+    public RouteResult nearest(Node source, String category, Metric metric) {
+        String key = category.toLowerCase(Locale.ROOT);
+        boolean[] members = isMember.get(key);
+        if (members == null) {
+            return null;
+        }
+        NearestTable table = tables.computeIfAbsent(key + '/' + metric, unused -> buildTable(members, metric));
+        int from = graph.indexOf(source);
+        if (table.next[from] == NearestTable.UNREACHED) {
+            return null;
+        }
+        int length = 1;
+        for (int v = from; table.next[v] >= 0; v = table.next[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        path[0] = from;
+        for (int i = 1; i < length; i++) {
+            path[i] = table.next[path[i - 1]];
+        }
+        return new IndexedPath(path, table.distance[from], 0).toRouteResult(graph, from, path[length - 1], metric);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm backwards from every member at once, so each node ends up with
+     * its distance to the closest member and the first step towards it.
+     */
+    private NearestTable buildTable(boolean[] members, Metric metric) {
+        int n = graph.size();
+        double[] weights = graph.weights(metric);
+        double[] distance = new double[n];
+        int[] next = new int[n];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(next, NearestTable.UNREACHED);
+        boolean[] settled = new boolean[n];
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        for (int v = 0; v < n; v++) {
+            if (members[v]) {
+                distance[v] = 0;
+                next[v] = -1;
+                heap.insertOrDecrease(v, 0);
+            }
+        }
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            settled[v] = true;
+            for (int i = reverseOffsets[v]; i < reverseOffsets[v + 1]; i++) {
+                int u = reverseSources[i];
+                double alt = distance[v] + weights[reverseEdges[i]];
+                if (!settled[u] && alt < distance[u]) {
+                    distance[u] = alt;
+                    next[u] = v;
+                    heap.insertOrDecrease(u, alt);
+                }
+            }
+        }
+        return new NearestTable(distance, next);
+    }
+
+    /**
+     * Each node's distance to the closest member of one category, and the next node on the way.
+     */
+    private static final class NearestTable {
+        // Marks a node from which no member can be reached; -1 marks a member itself
+        static final int UNREACHED = -2;
+
+        final double[] distance;
+        final int[] next;
+
+        NearestTable(double[] distance, int[] next) {
+            this.distance = distance;
+            this.next = next;
+        }
+    }
+}
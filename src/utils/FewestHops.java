@@ -0,0 +1,288 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Breadth-first search over an {@link IndexedGraph} for routes with the fewest intermediate
+ * landmarks, regardless of how long the walkways are. Such routes have the fewest turns to
+ * describe and to check, which suits first-time visitors and accessible wayfinding.
+ *
+ * <p>The search advances one level at a time and uses the direction-optimizing strategy of
+ * Beamer et al. While the frontier is small it works top-down, claiming the unvisited
+ * neighbours of each frontier node. Once the frontier's edges outnumber a fraction of the
+ * unvisited nodes' edges, it switches to bottom-up: each unvisited node looks for any
+ * neighbour in the frontier and stops at the first, which skips most edges of the large
+ * middle levels. It switches back when the frontier shrinks again. Visited and frontier sets
+ * are bitmaps of one bit per node, and on large graphs each level is split across cores. The
+ * graph is assumed symmetric, as {@link Graph} always is, so a node's neighbours are also the
+ * nodes that reach it.
+ */
+public class FewestHops {
+
+    // Go bottom-up once the frontier's edges exceed the unvisited nodes' edges divided by this
+    private static final int ALPHA = 14;
+
+    // Go back top-down once the frontier has fewer nodes than the graph divided by this
+    private static final int BETA = 24;
+
+    // Smallest level, in edges or bitmap words times 64, worth splitting across threads
+    private static final int PARALLEL_WORK = 1 << 14;
+
+    // Frontier nodes or bitmap words handed to one parallel task
+    private static final int CHUNK = 1024;
+
+    /**
+     * Finds a route between two nodes with the fewest edges.
+     *
+     * @param graph The graph to search in.
+     * @param source The source node index.
+     * @param target The target node index.
+     * @return The path, with the number of edges as its cost and the number of visited nodes
+     *         as its settled count; not found if the target is unreachable.
+     */
+    public static IndexedPath shortestPath(IndexedGraph graph, int source, int target) {
+        Search search = new Search(graph, source);
+        search.run(target);
+        int hops = search.depth[target];
+        return IndexedPath.fromParents(search.parent, source, target, hops < 0 ? Double.POSITIVE_INFINITY : hops, search.visitedCount);
+    }
+
+    /**
+     * Counts the fewest edges from a node to every node.
+     *
+     * @param graph The graph to search in.
+     * @param source The source node index.
+     * @return The hop count of each node, or -1 for nodes that cannot be reached.
+     */
+    public static int[] hopCounts(IndexedGraph graph, int source) {
+        Search search = new Search(graph, source);
+        search.run(-1);
+        return search.depth;
+    }
+
+    /**
+     * The state of one search: each node's parent and depth, the visited bitmap, and every
+     * node in the order it was visited, whose last stretch is the current top-down frontier.
+     */
+    private static final class Search {
+        final int n;
+        final int source;
+        final int[] offsets;
+        final int[] targets;
+        final int[] parent;
+        final int[] depth;
+        final AtomicLongArray visited;
+        final int words;
+        final int[] queue;
+        int head;
+        int tail;
+        int visitedCount;
+
+        Search(IndexedGraph graph, int source) {
+            n = graph.size();
+            this.source = source;
+            offsets = graph.offsets();
+            targets = graph.targets();
+            parent = new int[n];
+            depth = new int[n];
+            Arrays.fill(parent, -1);
+            Arrays.fill(depth, -1);
+            words = (n + 63) >>> 6;
+            visited = new AtomicLongArray(words);
+            queue = new int[n];
+            depth[source] = 0;
+            visited.setPlain(source >>> 6, 1L << source);
+            queue[tail++] = source;
+            visitedCount = 1;
+        }
+
+        /**
+         * Expands level by level until the target, if any, is reached or nothing is left.
+         */
+        void run(int target) {
+            long[] frontierBits = null;
+            int frontierSize = 1;
+            long frontierEdges = degree(source);
+            long unvisitedEdges = targets.length - frontierEdges;
+            boolean bottomUp = false;
+            int level = 0;
+            while (frontierSize > 0 && (target < 0 || depth[target] < 0)) {
+                long[] stats = new long[2]; // Nodes and edges of the next frontier
+                // A frontier too small to stay bottom-up is not worth turning around
+                if (!bottomUp && frontierSize >= n / BETA && frontierEdges > unvisitedEdges / ALPHA) {
+                    bottomUp = true;
+                    frontierBits = toBits();
+                }
+                if (bottomUp) {
+                    frontierBits = bottomUpStep(frontierBits, level, stats);
+                    // Stay bottom-up while the frontier is growing or still large
+                    if (stats[0] < frontierSize && stats[0] < n / BETA) {
+                        bottomUp = false;
+                        appendAll(frontierBits);
+                    }
+                } else {
+                    topDownStep(level, frontierEdges, stats);
+                }
+                frontierSize = (int) stats[0];
+                frontierEdges = stats[1];
+                unvisitedEdges -= frontierEdges;
+                visitedCount += frontierSize;
+                level++;
+            }
+        }
+
+        /**
+         * Claims the unvisited neighbours of every node in {@code queue[head, tail)}, whose
+         * edges number {@code edges}, and appends them, splitting the frontier across threads
+         * when it has many edges.
+         */
+        private void topDownStep(int level, long edges, long[] stats) {
+            int start = head;
+            int end = tail;
+            int size = end - start;
+            int chunks = (size + CHUNK - 1) / CHUNK;
+            if (chunks == 1 || edges < PARALLEL_WORK) {
+                // One thread: plain bitmap updates and direct appends
+                for (int i = start; i < end; i++) {
+                    int u = queue[i];
+                    for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                        int v = targets[e];
+                        long bits = visited.getPlain(v >>> 6);
+                        if ((bits & (1L << v)) == 0) {
+                            visited.setPlain(v >>> 6, bits | 1L << v);
+                            parent[v] = u;
+                            depth[v] = level + 1;
+                            queue[tail++] = v;
+                        }
+                    }
+                }
+            } else {
+                int[][] claimed = IntStream.range(0, chunks).parallel().mapToObj(c -> {
+                    int[] local = new int[CHUNK];
+                    int count = 0;
+                    for (int i = start + c * CHUNK, stop = Math.min(end, i + CHUNK); i < stop; i++) {
+                        int u = queue[i];
+                        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                            int v = targets[e];
+                            if (claim(v)) {
+                                parent[v] = u;
+                                depth[v] = level + 1;
+                                if (count == local.length) {
+                                    local = Arrays.copyOf(local, count * 2);
+                                }
+                                local[count++] = v;
+                            }
+                        }
+                    }
+                    return Arrays.copyOf(local, count);
+                }).toArray(int[][]::new);
+                for (int[] part : claimed) {
+                    System.arraycopy(part, 0, queue, tail, part.length);
+                    tail += part.length;
+                }
+            }
+            head = end;
+            stats[0] = tail - end;
+            for (int i = end; i < tail; i++) {
+                stats[1] += degree(queue[i]);
+            }
+        }
+
+        /**
+         * Lets every unvisited node look for a parent in the frontier. Each task owns whole
+         * bitmap words, so only it writes the visited and next-frontier bits of its nodes.
+         */
+        private long[] bottomUpStep(long[] frontierBits, int level, long[] stats) {
+            long[] next = new long[words];
+            int chunks = (words + CHUNK - 1) / CHUNK;
+            IntStream range = IntStream.range(0, chunks);
+            boolean parallel = chunks > 1 && (long) words * 64 >= PARALLEL_WORK;
+            long[] perChunk = new long[chunks * 2];
+            (parallel ? range.parallel() : range).forEach(c -> {
+                long nodes = 0;
+                long edges = 0;
+                for (int w = c * CHUNK, end = Math.min(words, w + CHUNK); w < end; w++) {
+                    long unvisited = ~visited.getPlain(w);
+                    if (w == words - 1 && (n & 63) != 0) {
+                        unvisited &= (1L << (n & 63)) - 1;
+                    }
+                    long found = 0;
+                    while (unvisited != 0) {
+                        int bit = Long.numberOfTrailingZeros(unvisited);
+                        unvisited &= unvisited - 1;
+                        int v = (w << 6) + bit;
+                        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                            int u = targets[e];
+                            if ((frontierBits[u >>> 6] & (1L << u)) != 0) {
+                                parent[v] = u;
+                                depth[v] = level + 1;
+                                found |= 1L << bit;
+                                nodes++;
+                                edges += degree(v);
+                                break;
+                            }
+                        }
+                    }
+                    if (found != 0) {
+                        visited.setPlain(w, visited.getPlain(w) | found);
+                        next[w] = found;
+                    }
+                }
+                perChunk[c * 2] = nodes;
+                perChunk[c * 2 + 1] = edges;
+            });
+            for (int c = 0; c < chunks; c++) {
+                stats[0] += perChunk[c * 2];
+                stats[1] += perChunk[c * 2 + 1];
+            }
+            return next;
+        }
+
+        /**
+         * Atomically marks a node visited.
+         *
+         * @return true if this call marked it, false if it was already visited.
+         */
+        private boolean claim(int v) {
+            int w = v >>> 6;
+            long bit = 1L << v;
+            long bits = visited.get(w);
+            while ((bits & bit) == 0) {
+                if (visited.compareAndSet(w, bits, bits | bit)) {
+                    return true;
+                }
+                bits = visited.get(w);
+            }
+            return false;
+        }
+
+        private int degree(int v) {
+            return offsets[v + 1] - offsets[v];
+        }
+
+        /**
+         * Returns the current top-down frontier as a bitmap.
+         */
+        private long[] toBits() {
+            long[] bits = new long[words];
+            for (int i = head; i < tail; i++) {
+                bits[queue[i] >>> 6] |= 1L << queue[i];
+            }
+            return bits;
+        }
+
+        /**
+         * Makes the nodes of a bitmap frontier the next top-down frontier.
+         */
+        private void appendAll(long[] bits) {
+            head = tail;
+            for (int w = 0; w < words; w++) {
+                for (long b = bits[w]; b != 0; b &= b - 1) {
+                    queue[tail++] = (w << 6) + Long.numberOfTrailingZeros(b);
+                }
+            }
+        }
+    }
+}
@@ -20,6 +20,9 @@ import java.awt.event.KeyEvent;
 import java.awt.geom.RoundRectangle2D;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 
@@ -34,12 +37,37 @@ public class GUI {
     public static ArrayList<Object[]> allRoutes;
     static int heightFromTop;
 
+    /**
+     * Starts Swing and loads its look and feel on the event dispatch thread, so that opening
+     * the window later is quick. Does nothing when no display is available.
+     */
+    public static void preload() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            UIManager.getLookAndFeelDefaults();
+            new JTextArea().getFontMetrics(new Font("Monospace", Font.BOLD, 15));
+        });
+    }
+
     /**
      * Initializes and displays the GUI for the UG Navigator.
      *
      * @param graph The graph representing the map of nodes and edges.
      */
     public static void gui(Graph graph) {
+        gui(CompletableFuture.completedFuture(graph));
+    }
+
+    /**
+     * Initializes and displays the GUI for the UG Navigator while the graph is still loading.
+     * The window opens straight away and searching is enabled once the graph is ready.
+     *
+     * @param graphFuture The graph being loaded, for example by {@link GraphLoader#loadAsync(String)}.
+     */
+    public static void gui(Future<Graph> graphFuture) {
+        AtomicReference<Graph> loadedGraph = new AtomicReference<>();
         SwingUtilities.invokeLater(() -> {
             // Create the main frame
             JFrame frame = new JFrame("UG Navigator");
@@ -53,7 +81,8 @@ public class GUI {
             String placeHolderOne = "Current Location...";
             String placeHolderTwo = "Destination...";
     
-            ArrayList<String> nodeNames = graph.getNodeNames();
+            // The landmark names are filled in once the graph has loaded
+            ArrayList<String> nodeNames = new ArrayList<>();
             RoundedSearchBarExample searchBarPanel1 = new RoundedSearchBarExample(nodeNames, placeHolderOne);
             RoundedSearchBarExample searchBarPanel2 = new RoundedSearchBarExample(nodeNames, placeHolderTwo);
     
@@ -71,7 +100,8 @@ public class GUI {
             optimalPanel.add(optimalRoute, BorderLayout.CENTER);
     
             JButton actionButton = new JButton();
-            actionButton.setText("Search for The Best Route...");
+            actionButton.setText("Loading Landmarks...");
+            actionButton.setEnabled(false);
             allRoutes = new ArrayList<>();
     
             // Define column names
@@ -106,6 +136,8 @@ public class GUI {
                 public void actionPerformed(ActionEvent e) {
                     String currentLocationName = searchBarPanel1.searchBar.getText();
                     String destinationName = searchBarPanel2.searchBar.getText();
+                    // Search one version of the graph, even if the landmark file is reloaded meanwhile
+                    GraphSnapshot snapshot = loadedGraph.get().snapshot();
             
                     if (currentLocationName.equals(destinationName)) {
                         JOptionPane.showMessageDialog(null, "Please choose another Location, Since Both Current\nLocation and Destination Can Not Be The Same.", "Warning", JOptionPane.WARNING_MESSAGE);
@@ -113,8 +145,8 @@ public class GUI {
                     }
             
                     // Retrieve the corresponding Node objects
-                    Node currentLocation = graph.getNodeByName(currentLocationName);
-                    Node destination = graph.getNodeByName(destinationName);
+                    Node currentLocation = snapshot.getNodeByName(currentLocationName);
+                    Node destination = snapshot.getNodeByName(destinationName);
             
                     if (currentLocation == null || destination == null) {
                         JOptionPane.showMessageDialog(null, "One or both locations are invalid. Please try again.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -127,19 +159,22 @@ public class GUI {
 
             
                     // Use a SwingWorker to perform background tasks
-                    SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+                    SwingWorker<RouteResult, Void> worker = new SwingWorker<RouteResult, Void>() {
                         @Override
-                        protected Void doInBackground() throws Exception {
-                            ArrayList<ArrayList<Node>> allPaths = BFS.findAllPaths(graph, currentLocation, destination);
+                        protected RouteResult doInBackground() throws Exception {
+                            ArrayList<ArrayList<Node>> allPaths = BFS.findAllPaths(snapshot, currentLocation, destination, CancellationToken.NONE);
                             allRoutes.clear();
             
                             // Iterate over all paths
+                            RoutingEvents.Format format = new RoutingEvents.Format();
+                            format.begin();
                             for (ArrayList<Node> nodes : allPaths) {
-                                allRoutes.add(getAllRoutes(nodes, ((graph.calculateDistance(nodes)) * 100), ((graph.calculateDistance(nodes) * 100 / 10f / CSVParser.WALKING_SPEED_MPS))));
+                                allRoutes.add(getAllRoutes(nodes, ((snapshot.calculateDistance(nodes)) * 100), ((snapshot.calculateDistance(nodes) * 100 / 10f / CSVParser.WALKING_SPEED_MPS))));
                             }
+                            RoutingEvents.commitFormat(format, "GUI routes", allRoutes.size());
             
                             MergeSort.mergeSort(allRoutes);
-                            return null;
+                            return Dijkstra.route(snapshot, currentLocation, destination, Metric.DISTANCE, CancellationToken.NONE);
                         }
             
                         @Override
@@ -147,14 +182,21 @@ public class GUI {
                             try {
                                 // Update the table model and JTextArea when background task is finished
                                 tableModel.setRowCount(0); // Clear existing rows
+                                RoutingEvents.Format format = new RoutingEvents.Format();
+                                format.begin();
                                 for (Object[] route : allRoutes) {
                                     route[1] = String.format("%.2f", route[1]) + "m";
                                     route[2] = String.format("%.2f", (route[2])) + "min(s)";
                                     tableModel.addRow(route); // Add updated rows
                                 }
+                                RoutingEvents.commitFormat(format, "GUI table", allRoutes.size());
             
-                                optimalRoute.setText("Optimal Route: " + printPath(Dijkstra.findShortestPath(graph, currentLocation, destination)) + "\nDistance: " + String.format("%.2f", (Dijkstra.getDistance(destination))*1000) + "m \nApproximate Time: " + String.format("%.2f", Dijkstra.getDistance(destination) * 1000 / 10f / CSVParser.WALKING_SPEED_MPS) + " min(s)\n");
+                                RouteResult optimal = get();
+                                optimalRoute.setText("Optimal Route: " + printPath(optimal.getPath()) + "\nDistance: " + String.format("%.2f", optimal.getDistance() * 100) + "m \nApproximate Time: " + String.format("%.2f", optimal.getTime() * 100 / 10f) + " min(s)\n");
             
+                            } catch (Exception ex) {
+                                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                                optimalRoute.setText("The route could not be calculated: " + cause.getMessage());
                             } finally {
                                 // Re-enable the action button after processing
                                 actionButton.setEnabled(true);
@@ -184,6 +226,34 @@ public class GUI {
     
             // Make the frame visible
             frame.setVisible(true);
+
+            // Wait for the graph in the background, then enable searching
+            new SwingWorker<Graph, Void>() {
+                @Override
+                protected Graph doInBackground() throws Exception {
+                    return GraphLoader.await(graphFuture);
+                }
+
+                @Override
+                protected void done() {
+                    try {
+                        Graph graph = get();
+                        loadedGraph.set(graph);
+                        ArrayList<String> names = new ArrayList<>();
+                        for (Node node : graph.snapshot().getNodes()) {
+                            names.add(node.getName());
+                        }
+                        searchBarPanel1.setSuggestions(names);
+                        searchBarPanel2.setSuggestions(names);
+                        actionButton.setText("Search for The Best Route...");
+                        actionButton.setEnabled(true);
+                    } catch (Exception e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        actionButton.setText("Landmarks Unavailable");
+                        JOptionPane.showMessageDialog(frame, "Error reading the CSV file: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
         });
     }
     
@@ -376,6 +446,17 @@ public class GUI {
 
 
 
+        /**
+         * Replaces the suggestions, for example once the landmarks have loaded.
+         *
+         * @param suggestions The new suggestions.
+         */
+        void setSuggestions(List<String> suggestions) {
+            allSuggestions.clear();
+            allSuggestions.addAll(suggestions);
+            filterList();
+        }
+
         private void filterList() {
             String query = searchBar.getText().toLowerCase();
             // Filter the list based on the query
@@ -493,7 +574,7 @@ public class GUI {
      * @param path The list of nodes representing the path.
      * @return A string representation of the path.
      */
-    public static String printPath(ArrayList<Node> path) {
+    public static String printPath(List<Node> path) {
         boolean start = true;
         StringBuilder routeBuilder = new StringBuilder();
         for (Node n : path) {
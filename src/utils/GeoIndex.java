@@ -0,0 +1,284 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A KD-tree over the landmarks of an {@link IndexedGraph} that have a location, for snapping a
+ * GPS fix to the closest landmarks so a route can start from where a phone is.
+ *
+ * <p>Each landmark is stored as a point on the unit sphere. The straight-line (chord) distance
+ * between two such points grows with their great-circle distance, so the K nearest by chord are
+ * exactly the K nearest on the Earth's surface, without the distortions of a flat projection.
+ * The tree is balanced and kept in flat arrays: the landmark at the middle of each range
+ * splits it along the axis in which the range is widest. A query visits a few dozen points
+ * rather than every landmark.
+ */
+public class GeoIndex {
+
+    // Mean Earth radius in metres
+    public static final double EARTH_RADIUS_METRES = 6_371_008.8;
+
+    private final IndexedGraph graph;
+    // Node indices in tree order, and their unit vectors at the same positions
+    private final int[] order;
+    private final double[] points;
+    // Split axis (0, 1 or 2) of the range whose middle is at each position
+    private final byte[] axis;
+
+    /**
+     * Indexes the located landmarks of a graph.
+     *
+     * @param graph The graph whose landmarks to index. Landmarks without a location are left out.
+     */
+    public GeoIndex(IndexedGraph graph) {
+        this.graph = graph;
+        int located = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            if (graph.node(v).hasLocation()) {
+                located++;
+            }
+        }
+        order = new int[located];
+        double[] unsorted = new double[located * 3];
+        for (int v = 0, i = 0; v < graph.size(); v++) {
+            Node node = graph.node(v);
+            if (node.hasLocation()) {
+                order[i] = v;
+                toUnitVector(node.getLatitude(), node.getLongitude(), unsorted, i * 3);
+                i++;
+            }
+        }
+        // Build over positions into the unsorted points, then lay the points out in tree order
+        int[] positions = new int[located];
+        for (int i = 0; i < located; i++) {
+            positions[i] = i;
+        }
+        axis = new byte[located];
+        build(positions, unsorted, 0, located);
+        points = new double[located * 3];
+        int[] nodes = order.clone();
+        for (int i = 0; i < located; i++) {
+            order[i] = nodes[positions[i]];
+            System.arraycopy(unsorted, positions[i] * 3, points, i * 3, 3);
+        }
+    }
+
+    public IndexedGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Returns the number of landmarks in the index.
+     *
+     * @return The number of located landmarks.
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Finds the landmarks closest to a position.
+     *
+     * @param latitude The latitude in degrees.
+     * @param longitude The longitude in degrees.
+     * @param k The number of landmarks wanted.
+     * @return Up to K landmarks with their great-circle distances, nearest first.
+     */
+    public List<Snap> nearest(double latitude, double longitude, int k) {
+        int[] found = new int[Math.max(0, Math.min(k, order.length))];
+        double[] chords = new double[found.length];
+        int count = nearest(latitude, longitude, found, chords);
+        List<Snap> snaps = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            snaps.add(new Snap(graph.node(order[found[i]]), chordToMetres(Math.sqrt(chords[i]))));
+        }
+        return snaps;
+    }
+
+    /**
+     * Fills the given arrays with the tree positions and squared chord lengths of the closest
+     * landmarks, nearest first.
+     *
+     * @return The number of landmarks found, at most the length of the arrays.
+     */
+    private int nearest(double latitude, double longitude, int[] found, double[] chords) {
+        if (found.length == 0) {
+            return 0;
+        }
+        double[] query = new double[3];
+        toUnitVector(latitude, longitude, query, 0);
+        int[] count = new int[1];
+        search(query, 0, order.length, found, chords, count);
+        return count[0];
+    }
+
+    /**
+     * Visits the tree range {@code [lo, hi)}, skipping any half that cannot hold a closer point.
+     */
+    private void search(double[] query, int lo, int hi, int[] found, double[] chords, int[] count) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = query[0] - points[mid * 3];
+        double dy = query[1] - points[mid * 3 + 1];
+        double dz = query[2] - points[mid * 3 + 2];
+        offer(mid, dx * dx + dy * dy + dz * dz, found, chords, count);
+
+        double split = query[axis[mid]] - points[mid * 3 + axis[mid]];
+        boolean lowFirst = split < 0;
+        search(query, lowFirst ? lo : mid + 1, lowFirst ? mid : hi, found, chords, count);
+        if (count[0] < found.length || split * split < chords[count[0] - 1]) {
+            search(query, lowFirst ? mid + 1 : lo, lowFirst ? hi : mid, found, chords, count);
+        }
+    }
+
+    /**
+     * Inserts a candidate into the sorted list of the closest points if it is close enough.
+     */
+    private static void offer(int position, double chord, int[] found, double[] chords, int[] count) {
+        int size = count[0];
+        if (size == found.length && chord >= chords[size - 1]) {
+            return;
+        }
+        int i = size == found.length ? size - 1 : size++;
+        for (; i > 0 && chords[i - 1] > chord; i--) {
+            found[i] = found[i - 1];
+            chords[i] = chords[i - 1];
+        }
+        found[i] = position;
+        chords[i] = chord;
+        count[0] = size;
+    }
+
+    /**
+     * Arranges {@code positions[lo, hi)} so that the middle entry splits the rest along the
+     * widest axis, then does the same for both halves.
+     */
+    private void build(int[] positions, double[] unsorted, int lo, int hi) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        byte widest = 0;
+        double widestSpread = -1;
+        for (byte a = 0; a < 3; a++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                double value = unsorted[positions[i] * 3 + a];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > widestSpread) {
+                widestSpread = max - min;
+                widest = a;
+            }
+        }
+        int mid = (lo + hi) >>> 1;
+        select(positions, unsorted, widest, lo, hi - 1, mid);
+        axis[mid] = widest;
+        build(positions, unsorted, lo, mid);
+        build(positions, unsorted, mid + 1, hi);
+    }
+
+    /**
+     * Partially sorts {@code positions[lo, hi]} by one coordinate so that the entry at
+     * {@code k} is in its sorted place (quickselect).
+     */
+    private static void select(int[] positions, double[] unsorted, int a, int lo, int hi, int k) {
+        while (lo < hi) {
+            double pivot = unsorted[positions[(lo + hi) >>> 1] * 3 + a];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (unsorted[positions[i] * 3 + a] < pivot) {
+                    i++;
+                }
+                while (unsorted[positions[j] * 3 + a] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = positions[i];
+                    positions[i++] = positions[j];
+                    positions[j--] = swap;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the point on the unit sphere for a latitude and longitude into {@code out[offset..offset+2]}.
+     */
+    static void toUnitVector(double latitude, double longitude, double[] out, int offset) {
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        out[offset] = Math.cos(phi) * Math.cos(lambda);
+        out[offset + 1] = Math.cos(phi) * Math.sin(lambda);
+        out[offset + 2] = Math.sin(phi);
+    }
+
+    /**
+     * Converts the straight-line distance between two points on the unit sphere into the
+     * great-circle distance between them on the Earth.
+     */
+    static double chordToMetres(double chord) {
+        return 2 * EARTH_RADIUS_METRES * Math.asin(Math.min(1, chord / 2));
+    }
+
+    /**
+     * Computes the great-circle distance between two positions with the haversine formula.
+     *
+     * @param latitude1 The first latitude in degrees.
+     * @param longitude1 The first longitude in degrees.
+     * @param latitude2 The second latitude in degrees.
+     * @param longitude2 The second longitude in degrees.
+     * @return The distance in metres.
+     */
+    public static double greatCircleMetres(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dPhi = Math.toRadians(latitude2 - latitude1);
+        double dLambda = Math.toRadians(longitude2 - longitude1);
+        double h = Math.sin(dPhi / 2) * Math.sin(dPhi / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(dLambda / 2) * Math.sin(dLambda / 2);
+        return 2 * EARTH_RADIUS_METRES * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    /**
+     * A landmark found near a position, with how far it is in a straight line.
+     */
+    public static final class Snap {
+        private final Node node;
+        private final double metres;
+
+        Snap(Node node, double metres) {
+            this.node = node;
+            this.metres = metres;
+        }
+
+        public Node getNode() {
+            return node;
+        }
+
+        /**
+         * Returns the great-circle distance from the position to the landmark.
+         *
+         * @return The distance in metres.
+         */
+        public double getMetres() {
+            return metres;
+        }
+
+        @Override
+        public String toString() {
+            return node + " (" + Math.round(metres) + " m)";
+        }
+    }
+}
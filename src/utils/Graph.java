@@ -1,16 +1,31 @@
 package utils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a graph with nodes and edges.
+ *
+ * <p>Concurrent readers should search an immutable {@link GraphSnapshot} from {@link #snapshot()}
+ * rather than the live collections returned by the older accessors, which are not safe to read
+ * while the graph is being changed.
  */
 public class Graph {
     private final HashMap<Node, ArrayList<Node>> adjacencyList = new HashMap<>();
-    private final ArrayList<Edge> edges = new ArrayList<>();
+    // Every edge, or null after a walkway was removed or updated until getEdges() gathers them again
+    private volatile ArrayList<Edge> edges = new ArrayList<>();
+    private final HashMap<Node, ArrayList<Edge>> outgoingEdges = new HashMap<>();
+    private final CopyOnWriteArrayList<GraphListener> listeners = new CopyOnWriteArrayList<>();
+    private final HashSet<Node> changedSinceSnapshot = new HashSet<>();
+    private volatile GraphSnapshot snapshot;
     private int nodeSize = 0;
+    private volatile long version = 0;
 
     /**
      * Adds a node to the graph if it doesn't already exist.
@@ -18,14 +33,37 @@ public class Graph {
      * @param node The node to be added.
      */
     public void addNode(Node node) {
-        if (!adjacencyList.containsKey(node)) {
-            adjacencyList.put(node, new ArrayList<>());
-            nodeSize++;
+        long addedAt;
+        synchronized (this) {
+            if (!insertNode(node)) {
+                return;
+            }
+            addedAt = ++version;
+        }
+        for (GraphListener listener : listeners) {
+            listener.nodeAdded(node, addedAt);
+        }
+    }
+
+    /**
+     * Adds a node without changing the version. Must be called holding the lock.
+     *
+     * @return true if the node was added; false if it already existed.
+     */
+    private boolean insertNode(Node node) {
+        if (adjacencyList.containsKey(node)) {
+            return false;
         }
+        adjacencyList.put(node, new ArrayList<>());
+        outgoingEdges.put(node, new ArrayList<>());
+        changedSinceSnapshot.add(node);
+        nodeSize++;
+        return true;
     }
 
     /**
-     * Returns the adjacency list of the graph.
+     * Returns the adjacency list of the graph. This is the live map, which is not safe to read
+     * while the graph is being changed; concurrent readers should use {@link #snapshot()}.
      *
      * @return The adjacency list.
      */
@@ -39,19 +77,293 @@ public class Graph {
      * @param edge The edge to be added.
      */
     public void addEdge(Edge edge) {
-        addNode(edge.getSource());
-        addNode(edge.getDestination());
+        notifyListeners(insertEdge(edge));
+    }
+
+    /**
+     * Adds an edge and its reverse without publishing a snapshot.
+     *
+     * @return The change to the walkway, or null if the edge was already in the graph.
+     */
+    private synchronized EdgeChange insertEdge(Edge edge) {
+        // New endpoints are covered by the version change of the edge itself
+        insertNode(edge.getSource());
+        insertNode(edge.getDestination());
 
-        if (edges.contains(edge)) return;
+        // The same edge object always sits in its source's list, so only that list needs checking
+        if (outgoingEdges.get(edge.getSource()).contains(edge)) return null;
+        Edge before = shortestEdge(edge.getSource(), edge.getDestination());
 
-        edges.add(edge);
         Edge reverseEdge = edge.clone();
         reverseEdge.setSource(edge.getDestination());
         reverseEdge.setDestination(edge.getSource());
-        edges.add(reverseEdge);
+        if (edges != null) {
+            edges.add(edge);
+            edges.add(reverseEdge);
+        }
+        outgoingEdges.get(edge.getSource()).add(edge);
+        outgoingEdges.get(reverseEdge.getSource()).add(reverseEdge);
 
         adjacencyList.get(edge.getSource()).add(edge.getDestination());
         adjacencyList.get(edge.getDestination()).add(edge.getSource());
+        changedSinceSnapshot.add(edge.getSource());
+        changedSinceSnapshot.add(edge.getDestination());
+        version++;
+
+        Edge after = before == null || edge.getDistance() < before.getDistance() ? edge : before;
+        return new EdgeChange(edge.getSource(), edge.getDestination(),
+                before == null ? Double.POSITIVE_INFINITY : before.getDistance(),
+                before == null ? Double.POSITIVE_INFINITY : before.getTime(),
+                after.getDistance(), after.getTime(), version);
+    }
+
+    /**
+     * Applies a set of differences to the graph as one atomic change: readers see either the
+     * old snapshot or the new one, never a partly updated graph. Listeners are then told about
+     * each changed walkway in order.
+     *
+     * <p>Nodes missing from the new data are kept, without any edges, since nodes are never
+     * removed. New nodes without any edges are added afterwards, since no route can reach them.
+     * Walkways are joined to the graph's existing nodes of the same name rather than to the
+     * diff's nodes, so state set on a node, such as its location, survives a reload.
+     *
+     * @param diff The differences, typically from {@link GraphDiff#between}.
+     * @return The changes that were made.
+     */
+    public List<EdgeChange> apply(GraphDiff diff) {
+        ArrayList<EdgeChange> changes = new ArrayList<>();
+        synchronized (this) {
+            // The diff's edges usually join freshly parsed nodes, so they are rebuilt between the
+            // graph's own nodes, keeping anything set on those such as their locations
+            HashMap<Node, Node> known = new HashMap<>(adjacencyList.size() * 2);
+            for (Node node : adjacencyList.keySet()) {
+                known.put(node, node);
+            }
+            for (Edge edge : diff.getRemovedEdges()) {
+                addIfChanged(changes, replaceEdgesUnpublished(bind(known, edge.getSource()),
+                        bind(known, edge.getDestination()), null));
+            }
+            for (Edge edge : diff.getUpdatedEdges()) {
+                Node source = bind(known, edge.getSource());
+                Node destination = bind(known, edge.getDestination());
+                addIfChanged(changes, replaceEdgesUnpublished(source, destination,
+                        new Edge(source, destination, edge.getDistance(), edge.getTime())));
+            }
+            for (Edge edge : diff.getAddedEdges()) {
+                addIfChanged(changes, insertEdge(new Edge(bind(known, edge.getSource()),
+                        bind(known, edge.getDestination()), edge.getDistance(), edge.getTime())));
+            }
+            publish();
+        }
+        for (EdgeChange change : changes) {
+            notifyListeners(change);
+        }
+        for (Node node : diff.getAddedNodes()) {
+            addNode(node);
+        }
+        return changes;
+    }
+
+    /**
+     * Returns the graph's own node with the same name, or the node itself if the graph has none.
+     */
+    private static Node bind(Map<Node, Node> known, Node node) {
+        return known.getOrDefault(node, node);
+    }
+
+    private static void addIfChanged(List<EdgeChange> changes, EdgeChange change) {
+        if (change != null) {
+            changes.add(change);
+        }
+    }
+
+    /**
+     * Returns an immutable snapshot of the graph as it is now, for searching without locks.
+     *
+     * <p>Removing or updating an edge, or applying a {@link GraphDiff}, publishes a new snapshot
+     * straight away. Nodes and edges added while loading are published together by the first
+     * call after them, so loading a graph does not build a snapshot per edge.
+     *
+     * @return The current snapshot.
+     */
+    public GraphSnapshot snapshot() {
+        GraphSnapshot current = snapshot;
+        if (current != null && current.getVersion() == version) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null || snapshot.getVersion() != version) {
+                publish();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Builds and publishes a snapshot of the current version. Must be called holding the lock.
+     */
+    private void publish() {
+        snapshot = GraphSnapshot.next(snapshot, adjacencyList.keySet(), outgoingEdges, adjacencyList,
+                changedSinceSnapshot, version);
+        changedSinceSnapshot.clear();
+    }
+
+    /**
+     * Removes every edge between two nodes, in both directions, as when a walkway is closed.
+     * The nodes themselves stay in the graph.
+     *
+     * <p>The affected edge and neighbour lists are replaced rather than modified, so searches
+     * already iterating over them finish on the graph as it was when they started.
+     *
+     * @param source One end of the walkway.
+     * @param destination The other end of the walkway.
+     * @return true if an edge was removed; false if the nodes were not connected.
+     */
+    public boolean removeEdge(Node source, Node destination) {
+        return notifyListeners(replaceEdges(source, destination, null));
+    }
+
+    /**
+     * Changes the distance and time of the walkway between two nodes, in both directions.
+     * Any parallel edges between the nodes are replaced by a single edge with the new values.
+     *
+     * <p>The affected edge and neighbour lists are replaced rather than modified, so searches
+     * already iterating over them finish on the graph as it was when they started.
+     *
+     * @param source One end of the walkway.
+     * @param destination The other end of the walkway.
+     * @param distance The new distance.
+     * @param time The new time.
+     * @return true if the edge was updated; false if the nodes were not connected.
+     */
+    public boolean updateEdge(Node source, Node destination, double distance, double time) {
+        return notifyListeners(replaceEdges(source, destination, new Edge(source, destination, distance, time)));
+    }
+
+    /**
+     * Registers a listener to be told about edges added, removed or updated from now on.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(GraphListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(GraphListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Finds the shortest of the edges from source to destination, the one searches use.
+     */
+    private Edge shortestEdge(Node source, Node destination) {
+        Edge shortest = null;
+        for (Edge edge : outgoingEdges(source)) {
+            if (edge.getDestination().equals(destination)
+                    && (shortest == null || edge.getDistance() < shortest.getDistance())) {
+                shortest = edge;
+            }
+        }
+        return shortest;
+    }
+
+    /**
+     * Replaces the edges between two nodes and publishes a new snapshot.
+     *
+     * @return The change, or null if the nodes were not connected.
+     */
+    private synchronized EdgeChange replaceEdges(Node source, Node destination, Edge replacement) {
+        EdgeChange change = replaceEdgesUnpublished(source, destination, replacement);
+        if (change != null) {
+            publish();
+        }
+        return change;
+    }
+
+    /**
+     * Swaps in new lists without the edges between two nodes, plus the given edge and its
+     * reverse if one is given, and bumps the version. Must be called holding the lock.
+     *
+     * @return The change, or null if the nodes were not connected.
+     */
+    private EdgeChange replaceEdgesUnpublished(Node source, Node destination, Edge replacement) {
+        Edge shortest = shortestEdge(source, destination);
+        if (shortest == null) {
+            return null;
+        }
+
+        ArrayList<Edge> fromSource = withoutEdgesTo(outgoingEdges.get(source), destination);
+        ArrayList<Edge> fromDestination = withoutEdgesTo(outgoingEdges.get(destination), source);
+        ArrayList<Node> sourceNeighbours = new ArrayList<>(adjacencyList.get(source));
+        ArrayList<Node> destinationNeighbours = new ArrayList<>(adjacencyList.get(destination));
+        sourceNeighbours.removeIf(destination::equals);
+        destinationNeighbours.removeIf(source::equals);
+
+        if (replacement != null) {
+            Edge reverse = replacement.clone();
+            reverse.setSource(destination);
+            reverse.setDestination(source);
+            fromSource.add(replacement);
+            fromDestination.add(reverse);
+            sourceNeighbours.add(destination);
+            destinationNeighbours.add(source);
+        }
+
+        // Gathering every edge again is left to the next getEdges(), so a batch of k changes
+        // costs O(k) here rather than a copy of the edge list per change
+        edges = null;
+        outgoingEdges.put(source, fromSource);
+        outgoingEdges.put(destination, fromDestination);
+        adjacencyList.put(source, sourceNeighbours);
+        adjacencyList.put(destination, destinationNeighbours);
+        changedSinceSnapshot.add(source);
+        changedSinceSnapshot.add(destination);
+        version++;
+
+        return new EdgeChange(source, destination, shortest.getDistance(), shortest.getTime(),
+                replacement == null ? Double.POSITIVE_INFINITY : replacement.getDistance(),
+                replacement == null ? Double.POSITIVE_INFINITY : replacement.getTime(), version);
+    }
+
+    private static ArrayList<Edge> withoutEdgesTo(ArrayList<Edge> outgoing, Node destination) {
+        ArrayList<Edge> remaining = new ArrayList<>(outgoing.size());
+        for (Edge edge : outgoing) {
+            if (!edge.getDestination().equals(destination)) {
+                remaining.add(edge);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Tells the listeners about a change. Called without holding the lock, so a slow listener
+     * never delays other writers or snapshot readers.
+     *
+     * @return true if there was a change; false if the change is null.
+     */
+    private boolean notifyListeners(EdgeChange change) {
+        if (change == null) {
+            return false;
+        }
+        for (GraphListener listener : listeners) {
+            listener.edgeChanged(change);
+        }
+        return true;
+    }
+
+    /**
+     * Returns a counter that increases every time a node or edge is added, removed or updated,
+     * so that derived data such as cached routes can tell whether it is still current.
+     *
+     * @return The modification count of the graph.
+     */
+    public long getVersion() {
+        return version;
     }
 
     /**
@@ -78,13 +390,19 @@ public class Graph {
      * @return The list of outgoing edges from the source node.
      */
     public ArrayList<Edge> getDestinationEdges(Node source) {
-        ArrayList<Edge> destinationEdges = new ArrayList<>();
-        for (Edge edge : edges) {
-            if (edge.getSource().equals(source)) {
-                destinationEdges.add(edge);
-            }
-        }
-        return destinationEdges;
+        return new ArrayList<>(outgoingEdges(source));
+    }
+
+    /**
+     * Returns a read-only view of the edges leaving a node, without copying them.
+     * Intended for search algorithms that only iterate over the edges.
+     *
+     * @param source The source node.
+     * @return The outgoing edges of the source node, or an empty list if the node is unknown.
+     */
+    List<Edge> outgoingEdges(Node source) {
+        ArrayList<Edge> outgoing = outgoingEdges.get(source);
+        return outgoing == null ? Collections.emptyList() : Collections.unmodifiableList(outgoing);
     }
 
     /**
@@ -105,8 +423,18 @@ public class Graph {
      * @return The edge between the two nodes, or null if no such edge exists.
      */
     public Edge getEdge(Node source, Node destination) {
-        for (Edge edge : edges) {
-            if (edge.getSource().equals(source) && edge.getDestination().equals(destination)) {
+        if (!RoutingMetrics.isEnabled()) {
+            return findEdge(source, destination); // Not measured, so skip the timestamps
+        }
+        long start = RoutingMetrics.start();
+        Edge found = findEdge(source, destination);
+        RoutingMetrics.record(RoutingMetrics.Operation.EDGE_LOOKUP, start);
+        return found;
+    }
+
+    private Edge findEdge(Node source, Node destination) {
+        for (Edge edge : outgoingEdges(source)) {
+            if (edge.getDestination().equals(destination)) {
                 return edge;
             }
         }
@@ -120,6 +448,25 @@ public class Graph {
      * @return The node with the specified name, or null if no such node exists.
      */
     public Node getNodeByName(String name) {
+        RoutingEvents.NodeLookup event = new RoutingEvents.NodeLookup();
+        if (!event.isEnabled() && !RoutingMetrics.isEnabled()) {
+            return findNodeByName(name); // Neither recorded nor measured, so skip the timestamps
+        }
+        event.begin();
+        long start = RoutingMetrics.start();
+        Node found = findNodeByName(name);
+        RoutingMetrics.record(RoutingMetrics.Operation.NODE_LOOKUP, start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.name = name;
+            event.found = found != null;
+            event.nodeCount = adjacencyList.size();
+            event.commit();
+        }
+        return found;
+    }
+
+    private Node findNodeByName(String name) {
         for (Node node : adjacencyList.keySet()) {
             if (node.getName().equalsIgnoreCase(name)) {
                 return node;
@@ -230,12 +577,27 @@ public class Graph {
     }
 
     /**
-     * Returns the list of all edges in the graph.
+     * Returns the list of all edges in the graph. This is the live list, which is not safe to
+     * read while the graph is being changed; concurrent readers should use {@link #snapshot()}.
+     * After a walkway is removed or updated the list is gathered again from the per-node lists.
      *
      * @return The list of edges.
      */
     public ArrayList<Edge> getEdges() {
-        return edges;
+        ArrayList<Edge> all = edges;
+        if (all == null) {
+            synchronized (this) {
+                if (edges == null) {
+                    ArrayList<Edge> gathered = new ArrayList<>();
+                    for (ArrayList<Edge> outgoing : outgoingEdges.values()) {
+                        gathered.addAll(outgoing);
+                    }
+                    edges = gathered;
+                }
+                all = edges;
+            }
+        }
+        return all;
     }
 
     /**
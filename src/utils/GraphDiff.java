@@ -0,0 +1,160 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The differences between two versions of the landmark data, as walkways added, removed or
+ * changed in length. Each walkway is listed once, although the graph stores both directions.
+ * Apply a diff with {@link Graph#apply(GraphDiff)}.
+ */
+public class GraphDiff {
+    private final List<Node> addedNodes;
+    private final List<Node> missingNodes;
+    private final List<Edge> addedEdges;
+    private final List<Edge> removedEdges;
+    private final List<Edge> updatedEdges;
+
+    private GraphDiff(List<Node> addedNodes, List<Node> missingNodes, List<Edge> addedEdges,
+                      List<Edge> removedEdges, List<Edge> updatedEdges) {
+        this.addedNodes = Collections.unmodifiableList(addedNodes);
+        this.missingNodes = Collections.unmodifiableList(missingNodes);
+        this.addedEdges = Collections.unmodifiableList(addedEdges);
+        this.removedEdges = Collections.unmodifiableList(removedEdges);
+        this.updatedEdges = Collections.unmodifiableList(updatedEdges);
+    }
+
+    /**
+     * Compares two snapshots. Between each pair of nodes only the shortest edge counts, as in a search.
+     *
+     * @param current The graph as it is.
+     * @param next The graph as it should become.
+     * @return The differences needed to turn current into next.
+     */
+    public static GraphDiff between(GraphSnapshot current, GraphSnapshot next) {
+        ArrayList<Node> addedNodes = new ArrayList<>();
+        ArrayList<Node> missingNodes = new ArrayList<>();
+        ArrayList<Edge> addedEdges = new ArrayList<>();
+        ArrayList<Edge> removedEdges = new ArrayList<>();
+        ArrayList<Edge> updatedEdges = new ArrayList<>();
+
+        LinkedHashSet<Node> allNodes = new LinkedHashSet<>(current.getNodes());
+        for (Node node : next.getNodes()) {
+            if (allNodes.add(node)) {
+                addedNodes.add(node);
+            }
+        }
+        for (Node node : current.getNodes()) {
+            if (!next.contains(node)) {
+                missingNodes.add(node);
+            }
+        }
+
+        for (Node node : allNodes) {
+            Map<Node, Edge> before = shortestEdges(current.outgoingEdges(node));
+            Map<Node, Edge> after = shortestEdges(next.outgoingEdges(node));
+            for (Map.Entry<Node, Edge> entry : before.entrySet()) {
+                if (!isListedFrom(node, entry.getKey())) {
+                    continue;
+                }
+                Edge old = entry.getValue();
+                Edge replacement = after.get(entry.getKey());
+                if (replacement == null) {
+                    removedEdges.add(old);
+                } else if (replacement.getDistance() != old.getDistance() || replacement.getTime() != old.getTime()) {
+                    updatedEdges.add(replacement);
+                }
+            }
+            for (Map.Entry<Node, Edge> entry : after.entrySet()) {
+                if (isListedFrom(node, entry.getKey()) && !before.containsKey(entry.getKey())) {
+                    addedEdges.add(entry.getValue());
+                }
+            }
+        }
+        return new GraphDiff(addedNodes, missingNodes, addedEdges, removedEdges, updatedEdges);
+    }
+
+    /**
+     * Lists each walkway from the endpoint whose name comes first, so it appears only once.
+     */
+    private static boolean isListedFrom(Node node, Node other) {
+        return node.getName().compareTo(other.getName()) <= 0;
+    }
+
+    private static Map<Node, Edge> shortestEdges(List<Edge> edges) {
+        HashMap<Node, Edge> shortest = new HashMap<>();
+        for (Edge edge : edges) {
+            Edge known = shortest.get(edge.getDestination());
+            if (known == null || edge.getDistance() < known.getDistance()) {
+                shortest.put(edge.getDestination(), edge);
+            }
+        }
+        return shortest;
+    }
+
+    /**
+     * Returns the nodes that only exist in the new data.
+     *
+     * @return The new nodes.
+     */
+    public List<Node> getAddedNodes() {
+        return addedNodes;
+    }
+
+    /**
+     * Returns the nodes that no longer appear in the new data. Applying the diff removes their
+     * edges but keeps the nodes themselves.
+     *
+     * @return The missing nodes.
+     */
+    public List<Node> getMissingNodes() {
+        return missingNodes;
+    }
+
+    /**
+     * Returns the walkways that only exist in the new data.
+     *
+     * @return The added edges.
+     */
+    public List<Edge> getAddedEdges() {
+        return addedEdges;
+    }
+
+    /**
+     * Returns the walkways that no longer exist in the new data.
+     *
+     * @return The removed edges, as they were before the change.
+     */
+    public List<Edge> getRemovedEdges() {
+        return removedEdges;
+    }
+
+    /**
+     * Returns the walkways whose distance or time changed, with their new values.
+     *
+     * @return The updated edges.
+     */
+    public List<Edge> getUpdatedEdges() {
+        return updatedEdges;
+    }
+
+    /**
+     * Checks whether the two versions describe the same graph.
+     *
+     * @return true if there are no differences; false otherwise.
+     */
+    public boolean isEmpty() {
+        return addedNodes.isEmpty() && addedEdges.isEmpty() && removedEdges.isEmpty() && updatedEdges.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "GraphDiff[addedNodes=" + addedNodes.size() + ", missingNodes=" + missingNodes.size()
+                + ", addedEdges=" + addedEdges.size() + ", removedEdges=" + removedEdges.size()
+                + ", updatedEdges=" + updatedEdges.size() + "]";
+    }
+}
@@ -0,0 +1,472 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * Generates synthetic campus graphs for scaling tests, from a hundred to a million nodes.
+ * The same seed, layout and size always give the same graph, so benchmarks, load tests and
+ * differential tests can be repeated exactly.
+ *
+ * <p>Landmarks are placed on a plane about {@value #SPACING} km apart, as on the real campus,
+ * and every walkway is up to 30% longer than the straight line between its ends. Apart from
+ * the complete layout, graphs are sparse and always connected.
+ */
+public class GraphGenerator {
+
+    /**
+     * The ways landmarks and walkways can be laid out.
+     */
+    public enum Layout {
+        // A square grid of walkways, each landmark joined to its four neighbours
+        GRID,
+        // Landmarks scattered at random, joined to every landmark within a fixed radius
+        GEOMETRIC,
+        // Dense clusters of landmarks, like faculties, joined by a few longer walkways
+        ZONES,
+        // Every pair of landmarks joined directly, like the shipped distance matrix
+        COMPLETE;
+
+        /**
+         * Finds a layout by name, ignoring case.
+         *
+         * @param name The layout name.
+         * @return The layout.
+         * @throws IllegalArgumentException If no layout has that name.
+         */
+        public static Layout fromName(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    // Typical distance between neighbouring landmarks, in kilometres
+    static final double SPACING = 0.1;
+    // Largest complete graph, since its walkway count grows with the square of the node count
+    public static final int MAX_COMPLETE_NODES = 2_000;
+    // Average number of walkways per landmark in the geometric and zone layouts
+    private static final double AVERAGE_DEGREE = 6;
+    // How much longer than the straight line a walkway can be
+    private static final double MAX_DETOUR = 0.3;
+    // Upper bound on the spatial index's cells along each axis
+    private static final int MAX_CELLS_PER_AXIS = 2048;
+
+    private final long seed;
+
+    /**
+     * Constructs a generator.
+     *
+     * @param seed The seed every generated graph is derived from.
+     */
+    public GraphGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generates a graph with the given layout, using the default number of zones.
+     *
+     * @param layout The layout.
+     * @param nodeCount The number of landmarks.
+     * @return The graph.
+     */
+    public SyntheticGraph generate(Layout layout, int nodeCount) {
+        switch (layout) {
+            case GRID:
+                return grid(nodeCount);
+            case GEOMETRIC:
+                return geometric(nodeCount);
+            case ZONES:
+                return zones(nodeCount, Math.max(2, (int) Math.round(Math.cbrt(nodeCount))));
+            default:
+                return complete(nodeCount);
+        }
+    }
+
+    /**
+     * Generates a grid. Landmarks fill the rows of a square grid in order, so the last row may
+     * be partly empty, and each is moved by up to half the spacing from its grid point.
+     *
+     * @param nodeCount The number of landmarks.
+     * @return The grid graph.
+     */
+    public SyntheticGraph grid(int nodeCount) {
+        checkNodeCount(nodeCount);
+        Random random = new Random(seed);
+        int side = (int) Math.ceil(Math.sqrt(nodeCount));
+        double[] x = new double[nodeCount];
+        double[] y = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            x[i] = (i % side + random.nextDouble() * 0.5) * SPACING;
+            y[i] = (i / side + random.nextDouble() * 0.5) * SPACING;
+        }
+        SyntheticGraph graph = new SyntheticGraph(names("N", nodeCount), x, y);
+        for (int i = 0; i < nodeCount; i++) {
+            int right = i + 1;
+            int down = i + side;
+            if (i % side != side - 1 && right < nodeCount) {
+                graph.addWalkway(i, right, Math.hypot(x[i] - x[right], y[i] - y[right]));
+            }
+            if (down < nodeCount) {
+                graph.addWalkway(i, down, Math.hypot(x[i] - x[down], y[i] - y[down]));
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Generates a random geometric graph: landmarks scattered uniformly over a square, each
+     * joined to every landmark within the radius that gives about six walkways per landmark.
+     * Any parts left unconnected are joined by their closest pair of landmarks.
+     *
+     * @param nodeCount The number of landmarks.
+     * @return The geometric graph.
+     */
+    public SyntheticGraph geometric(int nodeCount) {
+        checkNodeCount(nodeCount);
+        Random random = new Random(seed);
+        double side = SPACING * Math.sqrt(nodeCount);
+        double[] x = new double[nodeCount];
+        double[] y = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            x[i] = random.nextDouble() * side;
+            y[i] = random.nextDouble() * side;
+        }
+        SyntheticGraph graph = new SyntheticGraph(names("N", nodeCount), x, y);
+        double radius = SPACING * Math.sqrt(AVERAGE_DEGREE / Math.PI);
+        connectWithin(graph, x, y, radius, random);
+        return graph;
+    }
+
+    /**
+     * Generates a campus of zones: landmarks gathered in clusters around random zone centres,
+     * joined within each cluster like a geometric graph, with neighbouring zones joined by
+     * the walkways between their closest landmarks.
+     *
+     * @param nodeCount The number of landmarks.
+     * @param zoneCount The number of zones.
+     * @return The zoned graph.
+     */
+    public SyntheticGraph zones(int nodeCount, int zoneCount) {
+        checkNodeCount(nodeCount);
+        if (zoneCount < 1 || zoneCount > nodeCount) {
+            throw new IllegalArgumentException("Zone count must be between 1 and " + nodeCount + ": " + zoneCount);
+        }
+        Random random = new Random(seed);
+        double side = SPACING * Math.sqrt(nodeCount);
+        double spread = side / (3 * Math.sqrt(zoneCount));
+        double[] centreX = new double[zoneCount];
+        double[] centreY = new double[zoneCount];
+        for (int zone = 0; zone < zoneCount; zone++) {
+            centreX[zone] = random.nextDouble() * side;
+            centreY[zone] = random.nextDouble() * side;
+        }
+
+        String[] names = new String[nodeCount];
+        double[] x = new double[nodeCount];
+        double[] y = new double[nodeCount];
+        int[] numberInZone = new int[zoneCount];
+        for (int i = 0; i < nodeCount; i++) {
+            int zone = i % zoneCount;
+            names[i] = "Z" + zone + "-" + numberInZone[zone]++;
+            x[i] = centreX[zone] + random.nextGaussian() * spread;
+            y[i] = centreY[zone] + random.nextGaussian() * spread;
+        }
+        SyntheticGraph graph = new SyntheticGraph(names, x, y);
+        // The radius that gives the average degree at the density of a zone
+        double radius = spread * Math.sqrt(2 * AVERAGE_DEGREE * zoneCount / nodeCount);
+        connectWithin(graph, x, y, radius, random);
+        return graph;
+    }
+
+    /**
+     * Generates a complete graph over landmarks scattered uniformly over a square, like the
+     * shipped distance matrix.
+     *
+     * @param nodeCount The number of landmarks, at most {@link #MAX_COMPLETE_NODES}.
+     * @return The complete graph.
+     */
+    public SyntheticGraph complete(int nodeCount) {
+        checkNodeCount(nodeCount);
+        if (nodeCount > MAX_COMPLETE_NODES) {
+            throw new IllegalArgumentException("Too many nodes for a complete graph: " + nodeCount + " > " + MAX_COMPLETE_NODES);
+        }
+        Random random = new Random(seed);
+        double side = SPACING * Math.sqrt(nodeCount);
+        double[] x = new double[nodeCount];
+        double[] y = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            x[i] = random.nextDouble() * side;
+            y[i] = random.nextDouble() * side;
+        }
+        SyntheticGraph graph = new SyntheticGraph(names("L", nodeCount), x, y);
+        for (int u = 0; u < nodeCount; u++) {
+            for (int v = u + 1; v < nodeCount; v++) {
+                graph.addWalkway(u, v, walkwayLength(x, y, u, v, random));
+            }
+        }
+        return graph;
+    }
+
+    private static void checkNodeCount(int nodeCount) {
+        if (nodeCount < 1) {
+            throw new IllegalArgumentException("Node count must be positive: " + nodeCount);
+        }
+    }
+
+    private static String[] names(String prefix, int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = prefix + i;
+        }
+        return names;
+    }
+
+    private static double walkwayLength(double[] x, double[] y, int u, int v, Random random) {
+        return Math.hypot(x[u] - x[v], y[u] - y[v]) * (1 + random.nextDouble() * MAX_DETOUR);
+    }
+
+    /**
+     * Joins every pair of landmarks within a radius, then joins whatever parts are left apart.
+     */
+    private static void connectWithin(SyntheticGraph graph, double[] x, double[] y, double radius, Random random) {
+        SpatialIndex index = new SpatialIndex(x, y, radius);
+        UnionFind parts = new UnionFind(x.length);
+        for (int u = 0; u < x.length; u++) {
+            int column = index.column(x[u]);
+            int row = index.row(y[u]);
+            for (int c = Math.max(0, column - 1); c <= Math.min(index.columns - 1, column + 1); c++) {
+                for (int r = Math.max(0, row - 1); r <= Math.min(index.rows - 1, row + 1); r++) {
+                    int cell = r * index.columns + c;
+                    for (int k = index.cellStart[cell]; k < index.cellStart[cell + 1]; k++) {
+                        int v = index.cellNodes[k];
+                        if (v > u && Math.hypot(x[u] - x[v], y[u] - y[v]) <= radius) {
+                            graph.addWalkway(u, v, walkwayLength(x, y, u, v, random));
+                            parts.union(u, v);
+                        }
+                    }
+                }
+            }
+        }
+        connectParts(graph, x, y, index, parts, random);
+    }
+
+    /**
+     * Joins separate parts of the graph until it is connected. In each round, every part
+     * other than the largest is joined from its landmark nearest the largest part's centre to
+     * the closest landmark outside it.
+     */
+    private static void connectParts(SyntheticGraph graph, double[] x, double[] y, SpatialIndex index,
+                                     UnionFind parts, Random random) {
+        while (parts.count > 1) {
+            int n = x.length;
+            int[] size = new int[n];
+            double[] sumX = new double[n];
+            double[] sumY = new double[n];
+            for (int u = 0; u < n; u++) {
+                int root = parts.find(u);
+                size[root]++;
+                sumX[root] += x[u];
+                sumY[root] += y[u];
+            }
+            int largest = 0;
+            for (int u = 1; u < n; u++) {
+                if (size[u] > size[largest]) {
+                    largest = u;
+                }
+            }
+            double targetX = sumX[largest] / size[largest];
+            double targetY = sumY[largest] / size[largest];
+
+            // The landmark of each smaller part that is closest to the largest part's centre
+            int[] closest = new int[n];
+            Arrays.fill(closest, -1);
+            ArrayList<Integer> roots = new ArrayList<>();
+            for (int u = 0; u < n; u++) {
+                int root = parts.find(u);
+                if (root == largest) {
+                    continue;
+                }
+                if (closest[root] < 0) {
+                    roots.add(root);
+                    closest[root] = u;
+                } else if (Math.hypot(x[u] - targetX, y[u] - targetY)
+                        < Math.hypot(x[closest[root]] - targetX, y[closest[root]] - targetY)) {
+                    closest[root] = u;
+                }
+            }
+            for (int root : roots) {
+                int u = closest[root];
+                int v = index.nearest(x, y, u, candidate -> parts.find(candidate) != parts.find(u));
+                if (v >= 0 && parts.union(u, v)) {
+                    graph.addWalkway(u, v, walkwayLength(x, y, u, v, random));
+                }
+            }
+        }
+    }
+
+    /**
+     * Landmarks bucketed into square cells, for finding the landmarks near a point.
+     */
+    private static final class SpatialIndex {
+        private final double minX;
+        private final double minY;
+        private final double cellSize;
+        private final int columns;
+        private final int rows;
+        private final int[] cellStart;
+        private final int[] cellNodes;
+
+        SpatialIndex(double[] x, double[] y, double minimumCellSize) {
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < x.length; i++) {
+                minX = Math.min(minX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxX = Math.max(maxX, x[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            double extent = Math.max(maxX - minX, maxY - minY);
+            this.minX = minX;
+            this.minY = minY;
+            this.cellSize = Math.max(minimumCellSize, extent / MAX_CELLS_PER_AXIS);
+            this.columns = (int) ((maxX - minX) / cellSize) + 1;
+            this.rows = (int) ((maxY - minY) / cellSize) + 1;
+
+            // Counting sort of the landmarks by cell
+            cellStart = new int[columns * rows + 1];
+            int[] cellOf = new int[x.length];
+            for (int i = 0; i < x.length; i++) {
+                cellOf[i] = row(y[i]) * columns + column(x[i]);
+                cellStart[cellOf[i] + 1]++;
+            }
+            for (int cell = 0; cell < columns * rows; cell++) {
+                cellStart[cell + 1] += cellStart[cell];
+            }
+            cellNodes = new int[x.length];
+            int[] fill = Arrays.copyOf(cellStart, columns * rows);
+            for (int i = 0; i < x.length; i++) {
+                cellNodes[fill[cellOf[i]]++] = i;
+            }
+        }
+
+        int column(double px) {
+            return Math.min(columns - 1, (int) ((px - minX) / cellSize));
+        }
+
+        int row(double py) {
+            return Math.min(rows - 1, (int) ((py - minY) / cellSize));
+        }
+
+        /**
+         * Finds the closest landmark to another that passes a test, searching outwards one
+         * ring of cells at a time.
+         *
+         * @return The closest accepted landmark, or -1 if none is accepted.
+         */
+        int nearest(double[] x, double[] y, int from, IntPredicate accept) {
+            int column = column(x[from]);
+            int row = row(y[from]);
+            int best = -1;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            int maxRing = Math.max(columns, rows);
+            for (int ring = 0; ring <= maxRing; ring++) {
+                // Anything in this ring or beyond is at least (ring - 1) cells away
+                if (best >= 0 && bestDistance <= (ring - 1) * cellSize) {
+                    break;
+                }
+                for (int c = column - ring; c <= column + ring; c++) {
+                    for (int r = row - ring; r <= row + ring; r++) {
+                        boolean onRing = Math.abs(c - column) == ring || Math.abs(r - row) == ring;
+                        if (!onRing || c < 0 || r < 0 || c >= columns || r >= rows) {
+                            continue;
+                        }
+                        int cell = r * columns + c;
+                        for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                            int v = cellNodes[k];
+                            double distance = Math.hypot(x[from] - x[v], y[from] - y[v]);
+                            if (distance < bestDistance && accept.test(v)) {
+                                best = v;
+                                bestDistance = distance;
+                            }
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Tracks which landmarks are already connected.
+     */
+    private static final class UnionFind {
+        private final int[] parent;
+        private int count;
+
+        UnionFind(int size) {
+            parent = new int[size];
+            for (int i = 0; i < size; i++) {
+                parent[i] = i;
+            }
+            count = size;
+        }
+
+        int find(int node) {
+            while (parent[node] != node) {
+                parent[node] = parent[parent[node]];
+                node = parent[node];
+            }
+            return node;
+        }
+
+        boolean union(int a, int b) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) {
+                return false;
+            }
+            parent[rootB] = rootA;
+            count--;
+            return true;
+        }
+    }
+
+    /**
+     * Generates a graph and writes it to a file, or prints its size if no file is given.
+     *
+     * @param args The layout (grid, geometric, zones or complete), the number of landmarks,
+     *             and optionally the seed (default 1), an output file and the format
+     *             ({@code edges}, the default, or {@code matrix}).
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: GraphGenerator <grid|geometric|zones|complete> <nodes> [seed] [file] [edges|matrix]");
+            return;
+        }
+        Layout layout = Layout.fromName(args[0]);
+        int nodeCount = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        long start = System.nanoTime();
+        SyntheticGraph graph = new GraphGenerator(seed).generate(layout, nodeCount);
+        System.out.printf("Generated %s %s in %.0f ms%n", layout.name().toLowerCase(Locale.ROOT), graph,
+                (System.nanoTime() - start) / 1e6);
+        if (args.length > 3) {
+            Path file = Path.of(args[3]);
+            try {
+                if (args.length > 4 && args[4].equalsIgnoreCase("matrix")) {
+                    graph.writeMatrixCsv(file);
+                } else {
+                    graph.writeEdgeListCsv(file);
+                }
+                System.out.println("Written to " + file);
+            } catch (IOException e) {
+                System.err.println("Error writing " + file + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package utils;
+
+/**
+ * Receives notifications about edges added to, removed from or updated in a {@link Graph}, so that
+ * derived data such as cached routes and shortest-path trees can be repaired incrementally.
+ */
+public interface GraphListener {
+
+    /**
+     * Called after an edge has been added, removed or updated, on the thread that changed the
+     * graph. Changes made by concurrent writers may arrive out of
+     * order, so implementations should compare versions.
+     *
+     * @param change The change, including the graph version it produced.
+     */
+    void edgeChanged(EdgeChange change);
+
+    /**
+     * Called after a node without any edges has been added. Nodes added together with an edge
+     * are reported only through {@link #edgeChanged(EdgeChange)}. A new node cannot change any
+     * existing route, so the default does nothing.
+     *
+     * @param node The new node.
+     * @param version The graph version produced by the addition.
+     */
+    default void nodeAdded(Node node, long version) {
+    }
+}
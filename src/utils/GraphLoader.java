@@ -0,0 +1,88 @@
+package utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Loads the landmark graph on a background thread, so the application can show its prompt,
+ * start Swing and wait for the user while the CSV file is being read. The future completes
+ * once the graph is parsed, optionally stripped of redundant walkways by {@link EdgePruner},
+ * and its first snapshot has been published, which leaves nothing for the first route query
+ * to build.
+ */
+public class GraphLoader {
+
+    /**
+     * Starts loading a graph from a CSV file with every walkway.
+     *
+     * @param csvFilePath The path to the CSV file.
+     * @return A future completed with the loaded graph, or exceptionally if the file cannot be read.
+     */
+    public static CompletableFuture<Graph> loadAsync(String csvFilePath) {
+        return loadAsync(csvFilePath, false);
+    }
+
+    /**
+     * Starts loading a graph from a CSV file. Pruning keeps every shortest path but drops
+     * walkways, so fewer alternative routes are enumerated from the pruned graph.
+     *
+     * @param csvFilePath The path to the CSV file.
+     * @param pruneEdges true to remove redundant walkways with {@link EdgePruner#prune(Graph)}; false to keep them all.
+     * @return A future completed with the loaded graph, or exceptionally if the file cannot be read.
+     */
+    public static CompletableFuture<Graph> loadAsync(String csvFilePath, boolean pruneEdges) {
+        CompletableFuture<Graph> future = new CompletableFuture<>();
+        Thread loader = new Thread(() -> {
+            try {
+                Graph graph = new Graph();
+                CSVParser.parseCSV(csvFilePath, graph);
+                if (pruneEdges) {
+                    graph = EdgePruner.prune(graph);
+                }
+                graph.snapshot();
+                future.complete(graph);
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, "graph-loader");
+        loader.setDaemon(true);
+        loader.start();
+        return future;
+    }
+
+    /**
+     * Waits for a graph to finish loading.
+     *
+     * @param graph The graph being loaded.
+     * @return The loaded graph.
+     * @throws IOException If the graph could not be loaded.
+     */
+    public static Graph await(Future<Graph> graph) throws IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return graph.get();
+                } catch (InterruptedException e) {
+                    interrupted = true; // Keep waiting; the caller cannot continue without the graph
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Error loading the graph: " + cause, cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the landmark CSV file and applies any changes to a live graph without a restart.
+ *
+ * <p>When the file changes, the new data is parsed into a separate graph on a background
+ * thread while the current graph keeps serving queries. The two are then compared and the
+ * differences applied with {@link Graph#apply(GraphDiff)}, so readers switch from the old
+ * snapshot to the new one in a single step and a {@link RouteCache} only drops the routes
+ * the changed walkways can affect. A file that cannot be read or holds no walkways is
+ * reported and ignored, keeping the current graph. If the graph was pruned with
+ * {@link EdgePruner}, the new data is pruned the same way before it is compared.
+ */
+public class GraphReloader implements AutoCloseable {
+
+    // How long the file must stay unchanged before it is read, since editors write in several steps
+    private static final long QUIET_MILLIS = 250;
+
+    private final Graph graph;
+    private final Path file;
+    private final boolean pruneEdges;
+    private final WatchService watchService;
+    private final Thread watcher;
+
+    private volatile GraphDiff lastDiff;
+    private volatile int reloadCount;
+    private volatile int failureCount;
+
+    /**
+     * Starts watching a file for changes to a graph loaded from it with every walkway.
+     *
+     * @param graph The graph to keep in step with the file.
+     * @param csvFilePath The CSV file the graph was loaded from.
+     * @throws IOException If the file's directory cannot be watched.
+     */
+    public GraphReloader(Graph graph, String csvFilePath) throws IOException {
+        this(graph, csvFilePath, false);
+    }
+
+    /**
+     * Starts watching a file for changes.
+     *
+     * @param graph The graph to keep in step with the file.
+     * @param csvFilePath The CSV file the graph was loaded from.
+     * @param pruneEdges true if the graph was pruned with {@link EdgePruner#prune(Graph)}; false otherwise.
+     * @throws IOException If the file's directory cannot be watched.
+     */
+    public GraphReloader(Graph graph, String csvFilePath, boolean pruneEdges) throws IOException {
+        this.graph = graph;
+        this.file = Path.of(csvFilePath).toAbsolutePath();
+        this.pruneEdges = pruneEdges;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.watcher = new Thread(this::watch, "graph-reloader");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Waits for changes to the file and reloads it once it has been quiet for a moment.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+                // Keep collecting events until the writes stop
+                while ((key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(key);
+                }
+                if (changed) {
+                    reloadNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed by close()
+        }
+    }
+
+    /**
+     * Takes the events from a watch key and resets it.
+     *
+     * @return true if any event may concern the watched file; false otherwise.
+     */
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true; // Events were lost, so the file may have changed
+            } else if (file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Reads the file and applies its differences to the graph straight away.
+     *
+     * @return The differences applied, or null if the file could not be loaded.
+     */
+    public synchronized GraphDiff reloadNow() {
+        Graph fresh = new Graph();
+        try {
+            CSVParser.parseCSV(file.toString(), fresh);
+        } catch (IOException | RuntimeException e) {
+            failureCount++;
+            System.err.println("Error reloading " + file + ": " + e.getMessage());
+            return null;
+        }
+        if (fresh.getEdges().isEmpty()) {
+            // Most likely read halfway through being written; the next change event retries
+            failureCount++;
+            System.err.println("Ignoring " + file + ": it holds no walkways");
+            return null;
+        }
+
+        if (pruneEdges) {
+            fresh = EdgePruner.prune(fresh);
+        }
+        GraphDiff diff = GraphDiff.between(graph.snapshot(), fresh.snapshot());
+        if (!diff.isEmpty()) {
+            graph.apply(diff);
+        }
+        lastDiff = diff;
+        reloadCount++;
+        return diff;
+    }
+
+    /**
+     * Returns the differences found by the latest successful reload.
+     *
+     * @return The latest diff, or null if the file has not been reloaded yet.
+     */
+    public GraphDiff getLastDiff() {
+        return lastDiff;
+    }
+
+    /**
+     * Returns how many times the file has been reloaded successfully, including reloads that found no changes.
+     *
+     * @return The reload count.
+     */
+    public int getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * Returns how many reloads were abandoned because the file could not be loaded.
+     *
+     * @return The failure count.
+     */
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Stops watching the file.
+     *
+     * @throws IOException If the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        watcher.interrupt();
+    }
+}
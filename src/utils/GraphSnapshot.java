@@ -0,0 +1,242 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable view of a {@link Graph} at one version.
+ *
+ * <p>Readers obtain the current snapshot from {@link Graph#snapshot()} with a single volatile
+ * read and can then search it for as long as they like without locks: later changes to the
+ * graph produce a new snapshot and never touch this one. Consecutive snapshots share the edge
+ * and neighbour lists of every node that did not change between them.
+ *
+ * <p>The {@link Edge} objects are shared with the graph, which never modifies an edge after
+ * adding it, so they must not be modified through a snapshot either.
+ */
+public class GraphSnapshot {
+
+    // Nodes per copy-on-write chunk of the per-node lists
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK = 1 << CHUNK_BITS;
+
+    private final List<Node> nodes;
+    // Position of each node in the nodes list, shared by consecutive snapshots with the same nodes
+    private final Map<Node, Integer> index;
+    // The lists of node i are in lists[i >>> CHUNK_BITS][i & (CHUNK - 1)]
+    private final NodeLists[][] lists;
+    private final long version;
+    private volatile List<Edge> edges;
+
+    private GraphSnapshot(List<Node> nodes, Map<Node, Integer> index, NodeLists[][] lists, long version) {
+        this.nodes = nodes;
+        this.index = index;
+        this.lists = lists;
+        this.version = version;
+    }
+
+    /**
+     * Builds the next snapshot, copying the lists of the changed nodes and sharing the rest.
+     * While the set of nodes stays the same, only the chunks holding changed nodes and the
+     * small array pointing at the chunks are copied, so publishing a change to one walkway
+     * costs a few hundred bytes rather than a pass over the whole graph.
+     *
+     * @param previous The previous snapshot, or null to copy every list.
+     * @param nodes The graph's nodes.
+     * @param outgoingEdges The graph's live outgoing edge lists.
+     * @param adjacencyList The graph's live neighbour lists.
+     * @param changed The nodes whose lists changed since the previous snapshot; ignored if previous is null.
+     * @param version The graph version the snapshot represents.
+     * @return The new snapshot.
+     */
+    static GraphSnapshot next(GraphSnapshot previous, Set<Node> nodes, Map<Node, ArrayList<Edge>> outgoingEdges,
+                              Map<Node, ArrayList<Node>> adjacencyList, Set<Node> changed, long version) {
+        if (previous != null && previous.nodes.size() == nodes.size()) {
+            // Same nodes: share the index and every chunk without a changed node
+            NodeLists[][] lists = previous.lists.clone();
+            boolean[] copied = new boolean[lists.length];
+            for (Node node : changed) {
+                int i = previous.index.get(node);
+                int chunk = i >>> CHUNK_BITS;
+                if (!copied[chunk]) {
+                    lists[chunk] = lists[chunk].clone();
+                    copied[chunk] = true;
+                }
+                lists[chunk][i & (CHUNK - 1)] = new NodeLists(outgoingEdges.get(node), adjacencyList.get(node));
+            }
+            return new GraphSnapshot(previous.nodes, previous.index, lists, version);
+        }
+
+        List<Node> nodeList = Collections.unmodifiableList(new ArrayList<>(nodes));
+        HashMap<Node, Integer> index = new HashMap<>(nodeList.size() * 2);
+        NodeLists[][] lists = new NodeLists[(nodeList.size() + CHUNK - 1) >>> CHUNK_BITS][];
+        for (int chunk = 0; chunk < lists.length; chunk++) {
+            lists[chunk] = new NodeLists[Math.min(CHUNK, nodeList.size() - (chunk << CHUNK_BITS))];
+        }
+        for (int i = 0; i < nodeList.size(); i++) {
+            Node node = nodeList.get(i);
+            index.put(node, i);
+            NodeLists reused = previous == null || changed.contains(node) ? null : previous.listsOf(node);
+            lists[i >>> CHUNK_BITS][i & (CHUNK - 1)] = reused != null ? reused
+                    : new NodeLists(outgoingEdges.get(node), adjacencyList.get(node));
+        }
+        return new GraphSnapshot(nodeList, Collections.unmodifiableMap(index), lists, version);
+    }
+
+    /**
+     * Returns the lists of a node, or null if the node is not in the snapshot.
+     */
+    private NodeLists listsOf(Node node) {
+        Integer i = index.get(node);
+        return i == null ? null : lists[i >>> CHUNK_BITS][i & (CHUNK - 1)];
+    }
+
+    /**
+     * Returns the chunk holding a node's lists, so tests can check which chunks are shared.
+     */
+    Object[] chunkOf(Node node) {
+        return lists[index.get(node) >>> CHUNK_BITS];
+    }
+
+    /**
+     * Returns the graph version this snapshot represents.
+     *
+     * @return The version, as returned by {@link Graph#getVersion()}.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns every node.
+     *
+     * @return An unmodifiable list of the nodes.
+     */
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return The node count.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Checks whether a node is in the snapshot.
+     *
+     * @param node The node.
+     * @return true if the node exists at this version; false otherwise.
+     */
+    public boolean contains(Node node) {
+        return index.containsKey(node);
+    }
+
+    /**
+     * Returns the edges leaving a node.
+     *
+     * @param source The source node.
+     * @return An unmodifiable list of the outgoing edges, or an empty list if the node is unknown.
+     */
+    public List<Edge> outgoingEdges(Node source) {
+        NodeLists found = listsOf(source);
+        return found == null ? Collections.emptyList() : found.outgoing;
+    }
+
+    /**
+     * Returns the neighbours of a node.
+     *
+     * @param source The source node.
+     * @return An unmodifiable list of the neighbouring nodes, or an empty list if the node is unknown.
+     */
+    public List<Node> getNeighbourNodes(Node source) {
+        NodeLists found = listsOf(source);
+        return found == null ? Collections.emptyList() : found.neighbours;
+    }
+
+    /**
+     * Gets the edge between two nodes.
+     *
+     * @param source The source node.
+     * @param destination The destination node.
+     * @return The edge between the two nodes, or null if no such edge exists.
+     */
+    public Edge getEdge(Node source, Node destination) {
+        for (Edge edge : outgoingEdges(source)) {
+            if (edge.getDestination().equals(destination)) {
+                return edge;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sums the distances of the edges along a path.
+     *
+     * @param nodes The nodes of the path, in order.
+     * @return The path's distance, skipping steps with no edge at this version.
+     */
+    public double calculateDistance(List<Node> nodes) {
+        double distance = 0;
+        for (int i = 0; i < nodes.size() - 1; i++) {
+            Edge edge = getEdge(nodes.get(i), nodes.get(i + 1));
+            if (edge != null) {
+                distance += edge.getDistance();
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Finds a node by its name, ignoring case.
+     *
+     * @param name The name of the node.
+     * @return The node with the specified name, or null if no such node exists.
+     */
+    public Node getNodeByName(String name) {
+        for (Node node : nodes) {
+            if (node.getName().equalsIgnoreCase(name)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns every edge, gathered from the per-node lists the first time it is called.
+     *
+     * @return An unmodifiable list of the edges.
+     */
+    public List<Edge> getEdges() {
+        List<Edge> all = edges;
+        if (all == null) {
+            ArrayList<Edge> gathered = new ArrayList<>();
+            for (Node node : nodes) {
+                gathered.addAll(outgoingEdges(node));
+            }
+            all = Collections.unmodifiableList(gathered);
+            edges = all;
+        }
+        return all;
+    }
+
+    /**
+     * Immutable copies of one node's outgoing edges and neighbours.
+     */
+    private static final class NodeLists {
+        final List<Edge> outgoing;
+        final List<Node> neighbours;
+
+        NodeLists(List<Edge> outgoing, List<Node> neighbours) {
+            this.outgoing = List.copyOf(outgoing);
+            this.neighbours = List.copyOf(neighbours);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package utils;
+
+/**
+ * An A* heuristic from geographic coordinates: the great-circle distance between a node and
+ * the target, converted into the units of the metric being minimised.
+ *
+ * <p>Edge weights are not necessarily metres, and time is not distance, so the conversion
+ * factor is measured from the graph itself: it is the smallest ratio of an edge's weight to
+ * the great-circle distance between its ends. No path can then cost less than the factor
+ * times the great-circle distance between its ends, which makes the bound consistent, like
+ * the {@link Landmarks} one, but without any preprocessing searches. It needs a location for
+ * every node, because a node without one could be anywhere.
+ */
+public class GreatCircleBound implements LowerBound {
+
+    private final IndexedGraph graph;
+    private final Metric metric;
+    private final double[] points;
+    private final double scale;
+
+    private GreatCircleBound(IndexedGraph graph, Metric metric, double[] points, double scale) {
+        this.graph = graph;
+        this.metric = metric;
+        this.points = points;
+        this.scale = scale;
+    }
+
+    /**
+     * Measures the conversion factor from a graph whose nodes all have a location.
+     *
+     * @param graph The graph to route on.
+     * @param metric The metric the bounds are measured in.
+     * @return The heuristic.
+     * @throws IllegalArgumentException If some node has no location.
+     */
+    public static GreatCircleBound build(IndexedGraph graph, Metric metric) {
+        int n = graph.size();
+        double[] points = new double[n * 3];
+        for (int v = 0; v < n; v++) {
+            Node node = graph.node(v);
+            if (!node.hasLocation()) {
+                throw new IllegalArgumentException("No location for " + node.getName());
+            }
+            GeoIndex.toUnitVector(node.getLatitude(), node.getLongitude(), points, v * 3);
+        }
+
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double[] weights = graph.weights(metric);
+        double scale = Double.POSITIVE_INFINITY;
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                double metres = metres(points, u, targets[e]);
+                if (metres > 0) {
+                    scale = Math.min(scale, weights[e] / metres);
+                }
+            }
+        }
+        // Without an edge between distinct positions there is nothing to measure
+        return new GreatCircleBound(graph, metric, points, scale == Double.POSITIVE_INFINITY ? 0 : scale);
+    }
+
+    /**
+     * Returns a lower bound on the cost between two nodes.
+     *
+     * @param v The first node index.
+     * @param t The second node index.
+     * @return The great-circle distance between them in the units of the metric.
+     */
+    @Override
+    public double lowerBound(int v, int t) {
+        return scale * metres(points, v, t);
+    }
+
+    public IndexedGraph getGraph() {
+        return graph;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Returns the factor that converts metres into the units of the metric.
+     *
+     * @return The metric's cost per great-circle metre, never more than any edge's.
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    private static double metres(double[] points, int u, int v) {
+        double dx = points[u * 3] - points[v * 3];
+        double dy = points[u * 3 + 1] - points[v * 3 + 1];
+        double dz = points[u * 3 + 2] - points[v * 3 + 2];
+        return GeoIndex.chordToMetres(Math.sqrt(dx * dx + dy * dy + dz * dz));
+    }
+}
@@ -0,0 +1,387 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * A 2-hop hub-labeling distance oracle.
+ *
+ * <p>Every node {@code v} stores two labels: an outgoing label of hubs {@code h} with the
+ * distance {@code v -> h}, and an incoming label of hubs with the distance {@code h -> v}.
+ * The labels cover every shortest path, meaning that for any pair {@code (s, t)} some hub on a
+ * shortest {@code s -> t} path appears in both the outgoing label of {@code s} and the incoming
+ * label of {@code t}. A distance query is therefore a single merge of two short sorted arrays,
+ * with no graph search and no shared mutable state.
+ *
+ * <p>The labels are built with pruned Dijkstra searches: hubs are processed from most to least
+ * important, and a search from a hub stops expanding a node as soon as the labels built so far
+ * already give a distance at least as short. Hubs are identified by their position in this
+ * order, so appending labels in processing order keeps every label sorted by hub id.
+ *
+ * <p>Labels are stored in CSR form: the entries of node {@code v} are
+ * {@code hubs[offsets[v]..offsets[v + 1])} with the matching {@code distances}.
+ */
+public class HubLabels {
+
+    private final IndexedGraph graph;
+    private final Metric metric;
+    private final int[] order;
+    private final int[] outOffsets;
+    private final int[] outHubs;
+    private final double[] outDistances;
+    private final int[] inOffsets;
+    private final int[] inHubs;
+    private final double[] inDistances;
+    private final long buildMillis;
+
+    private HubLabels(IndexedGraph graph, Metric metric, int[] order, LabelLists out, LabelLists in, long buildMillis) {
+        this.graph = graph;
+        this.metric = metric;
+        this.order = order;
+        this.outOffsets = out.offsets();
+        this.outHubs = out.hubs(outOffsets);
+        this.outDistances = out.distances(outOffsets);
+        this.inOffsets = in.offsets();
+        this.inHubs = in.hubs(inOffsets);
+        this.inDistances = in.distances(inOffsets);
+        this.buildMillis = buildMillis;
+    }
+
+    /**
+     * Builds hub labels, treating nodes with more edges as more important hubs.
+     * This order suits small dense graphs such as the campus graph; on large sparse graphs it
+     * produces very large labels, and the contraction order should be used instead.
+     *
+     * @param graph The graph to index.
+     * @param metric The edge attribute to measure distances in.
+     * @return The hub labels.
+     */
+    public static HubLabels build(IndexedGraph graph, Metric metric) {
+        int[] degree = new int[graph.size()];
+        for (int u = 0; u < graph.size(); u++) {
+            for (int e = graph.firstEdge(u); e < graph.lastEdge(u); e++) {
+                degree[u]++;
+                degree[graph.target(e)]++;
+            }
+        }
+        Integer[] byDegree = IntStream.range(0, graph.size()).boxed().toArray(Integer[]::new);
+        Arrays.sort(byDegree, Comparator.comparingInt((Integer v) -> -degree[v]).thenComparingInt(v -> v));
+        return build(graph, metric, Arrays.stream(byDegree).mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Builds hub labels, processing hubs from the highest contraction rank down. Contraction
+     * order puts the nodes that many shortest paths pass through first, which keeps labels
+     * small on large sparse graphs.
+     *
+     * @param graph The graph to index.
+     * @param hierarchy A contraction hierarchy built from the same graph.
+     * @return The hub labels, using the hierarchy's metric.
+     * @throws IllegalArgumentException If the hierarchy has a different number of nodes.
+     */
+    public static HubLabels build(IndexedGraph graph, ContractionHierarchy hierarchy) {
+        if (hierarchy.size() != graph.size()) {
+            throw new IllegalArgumentException("The hierarchy was built from a different graph");
+        }
+        int[] byRank = new int[graph.size()];
+        for (int v = 0; v < byRank.length; v++) {
+            byRank[byRank.length - 1 - hierarchy.rank(v)] = v;
+        }
+        return build(graph, hierarchy.getMetric(), byRank);
+    }
+
+    /**
+     * Runs the pruned searches in the given hub order.
+     */
+    private static HubLabels build(IndexedGraph graph, Metric metric, int[] order) {
+        long start = System.nanoTime();
+        int n = graph.size();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double[] weights = graph.weights(metric);
+
+        // Reverse CSR for the backward searches
+        int[] reverseOffsets = new int[n + 1];
+        for (int e = 0; e < targets.length; e++) {
+            reverseOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        int[] reverseSources = new int[targets.length];
+        double[] reverseWeights = new double[targets.length];
+        int[] next = Arrays.copyOf(reverseOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int slot = next[targets[e]]++;
+                reverseSources[slot] = u;
+                reverseWeights[slot] = weights[e];
+            }
+        }
+
+        LabelLists out = new LabelLists(n);
+        LabelLists in = new LabelLists(n);
+        PrunedSearch search = new PrunedSearch(n);
+        for (int hub = 0; hub < n; hub++) {
+            int h = order[hub];
+            // Forward search: the hub reaches v, so it joins v's incoming label
+            search.run(h, hub, offsets, targets, weights, out, in);
+            // Backward search: v reaches the hub, so it joins v's outgoing label
+            search.run(h, hub, reverseOffsets, reverseSources, reverseWeights, in, out);
+        }
+        return new HubLabels(graph, metric, order, out, in, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns the shortest-path distance between two nodes.
+     *
+     * @param source The source node index.
+     * @param target The target node index.
+     * @return The distance, or {@link Double#POSITIVE_INFINITY} if unreachable.
+     */
+    public double distance(int source, int target) {
+        int i = outOffsets[source];
+        int iEnd = outOffsets[source + 1];
+        int j = inOffsets[target];
+        int jEnd = inOffsets[target + 1];
+        double best = Double.POSITIVE_INFINITY;
+        while (i < iEnd && j < jEnd) {
+            int a = outHubs[i];
+            int b = inHubs[j];
+            if (a == b) {
+                best = Math.min(best, outDistances[i++] + inDistances[j++]);
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the shortest-path distance between two nodes.
+     *
+     * @param source The source node.
+     * @param destination The target node.
+     * @return The distance, or {@link Double#POSITIVE_INFINITY} if unreachable.
+     * @throws IllegalArgumentException If either node is not in the graph.
+     */
+    public double distance(Node source, Node destination) {
+        int s = graph.indexOf(source);
+        int t = graph.indexOf(destination);
+        if (s < 0 || t < 0) {
+            throw new IllegalArgumentException("Node is not in the graph: " + (s < 0 ? source : destination));
+        }
+        return distance(s, t);
+    }
+
+    /**
+     * Returns the graph the labels were built from.
+     *
+     * @return The indexed graph.
+     */
+    public IndexedGraph getGraph() {
+        return graph;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Returns the node that acts as the given hub.
+     *
+     * @param hub The hub id stored in the labels.
+     * @return The node index.
+     */
+    public int hubNode(int hub) {
+        return order[hub];
+    }
+
+    /**
+     * Returns the total number of (hub, distance) entries across all outgoing and incoming labels.
+     *
+     * @return The entry count.
+     */
+    public long labelEntries() {
+        return (long) outHubs.length + inHubs.length;
+    }
+
+    /**
+     * Returns the average number of entries per label.
+     *
+     * @return The average label size.
+     */
+    public double averageLabelSize() {
+        return graph.size() == 0 ? 0 : labelEntries() / (2.0 * graph.size());
+    }
+
+    /**
+     * Returns the number of entries in the largest label.
+     *
+     * @return The maximum label size.
+     */
+    public int maxLabelSize() {
+        int max = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            max = Math.max(max, Math.max(outOffsets[v + 1] - outOffsets[v], inOffsets[v + 1] - inOffsets[v]));
+        }
+        return max;
+    }
+
+    /**
+     * Returns the memory taken by the label arrays.
+     *
+     * @return The index size in bytes.
+     */
+    public long sizeInBytes() {
+        return labelEntries() * (Integer.BYTES + Double.BYTES)
+                + (long) (outOffsets.length + inOffsets.length + order.length) * Integer.BYTES;
+    }
+
+    /**
+     * Returns how long building the labels took.
+     *
+     * @return The build time in milliseconds.
+     */
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HubLabels[nodes=%d, entries=%d, avg=%.1f, max=%d, size=%.1fKB, build=%dms]",
+                graph.size(), labelEntries(), averageLabelSize(), maxLabelSize(), sizeInBytes() / 1024.0, buildMillis);
+    }
+
+    /**
+     * A Dijkstra search from one hub that skips nodes whose distance is already covered by
+     * earlier hubs. The distance array is reset through the list of touched nodes.
+     */
+    private static class PrunedSearch {
+        private final double[] dist;
+        private final double[] hubDistance;
+        private final int[] touched;
+        private final IndexedMinHeap heap;
+
+        PrunedSearch(int size) {
+            dist = new double[size];
+            hubDistance = new double[size];
+            touched = new int[size];
+            heap = new IndexedMinHeap(size);
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(hubDistance, Double.POSITIVE_INFINITY);
+        }
+
+        /**
+         * Searches from a hub and adds it to the labels of every node it is needed for.
+         *
+         * @param h The hub's node index.
+         * @param hub The hub id.
+         * @param offsets The CSR offsets to search over.
+         * @param targets The CSR edge targets.
+         * @param weights The CSR edge weights.
+         * @param hubSide The labels holding the hub's own distances on the near side.
+         * @param reached The labels to add the hub to.
+         */
+        void run(int h, int hub, int[] offsets, int[] targets, double[] weights, LabelLists hubSide, LabelLists reached) {
+            // Index the hub's existing label so each pruning check is one pass over the other label
+            for (int i = 0; i < hubSide.sizes[h]; i++) {
+                hubDistance[hubSide.hubs[h][i]] = hubSide.distances[h][i];
+            }
+
+            int touchedCount = 0;
+            dist[h] = 0;
+            touched[touchedCount++] = h;
+            heap.insertOrDecrease(h, 0);
+            while (!heap.isEmpty()) {
+                int v = heap.poll();
+                double d = dist[v];
+                if (isCovered(v, d, reached)) {
+                    continue;
+                }
+                reached.add(v, hub, d);
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    double alt = d + weights[e];
+                    if (alt < dist[w]) {
+                        if (dist[w] == Double.POSITIVE_INFINITY) {
+                            touched[touchedCount++] = w;
+                        }
+                        dist[w] = alt;
+                        heap.insertOrDecrease(w, alt);
+                    }
+                }
+            }
+
+            for (int i = 0; i < touchedCount; i++) {
+                dist[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            for (int i = 0; i < hubSide.sizes[h]; i++) {
+                hubDistance[hubSide.hubs[h][i]] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        private boolean isCovered(int v, double d, LabelLists reached) {
+            int[] hubs = reached.hubs[v];
+            double[] distances = reached.distances[v];
+            for (int i = 0; i < reached.sizes[v]; i++) {
+                if (hubDistance[hubs[i]] + distances[i] <= d) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Growable per-node labels used while building, flattened into CSR arrays at the end.
+     */
+    private static class LabelLists {
+        final int[] sizes;
+        final int[][] hubs;
+        final double[][] distances;
+
+        LabelLists(int size) {
+            sizes = new int[size];
+            hubs = new int[size][4];
+            distances = new double[size][4];
+        }
+
+        void add(int v, int hub, double distance) {
+            if (sizes[v] == hubs[v].length) {
+                hubs[v] = Arrays.copyOf(hubs[v], sizes[v] * 2);
+                distances[v] = Arrays.copyOf(distances[v], sizes[v] * 2);
+            }
+            hubs[v][sizes[v]] = hub;
+            distances[v][sizes[v]] = distance;
+            sizes[v]++;
+        }
+
+        int[] offsets() {
+            int[] offsets = new int[sizes.length + 1];
+            for (int v = 0; v < sizes.length; v++) {
+                offsets[v + 1] = offsets[v] + sizes[v];
+            }
+            return offsets;
+        }
+
+        int[] hubs(int[] offsets) {
+            int[] flat = new int[offsets[sizes.length]];
+            for (int v = 0; v < sizes.length; v++) {
+                System.arraycopy(hubs[v], 0, flat, offsets[v], sizes[v]);
+            }
+            return flat;
+        }
+
+        double[] distances(int[] offsets) {
+            double[] flat = new double[offsets[sizes.length]];
+            for (int v = 0; v < sizes.length; v++) {
+                System.arraycopy(distances[v], 0, flat, offsets[v], sizes[v]);
+            }
+            return flat;
+        }
+    }
+}
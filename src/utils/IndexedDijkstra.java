@@ -0,0 +1,135 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra's algorithm over an {@link IndexedGraph}, working entirely on primitive arrays.
+ * These single-source searches are the building blocks for distance matrices and for the
+ * preprocessing of the faster point-to-point engines.
+ */
+public class IndexedDijkstra {
+
+    /**
+     * Computes the distance from a source to every node.
+     *
+     * @param graph The graph to search in.
+     * @param source The origin index.
+     * @param metric The edge attribute to sum.
+     * @return The distances, with {@link Double#POSITIVE_INFINITY} for unreachable nodes.
+     */
+    public static double[] distances(IndexedGraph graph, int source, Metric metric) {
+        return boundedDistances(graph, source, null, 0, metric);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from one source until every marked target is settled.
+     *
+     * @param graph The graph to search in.
+     * @param source The origin index.
+     * @param isTarget Marks the node indices that must be settled, or null to settle every node.
+     * @param targetCount The number of marked nodes.
+     * @param metric The edge attribute to sum.
+     * @return The distances; entries are only guaranteed final for marked targets.
+     */
+    public static double[] boundedDistances(IndexedGraph graph, int source, boolean[] isTarget, int targetCount, Metric metric) {
+        int[] offsets = graph.offsets();
+        int[] edgeTargets = graph.targets();
+        double[] weights = graph.weights(metric);
+
+        double[] dist = new double[graph.size()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        boolean[] settled = new boolean[graph.size()];
+        IndexedMinHeap heap = new IndexedMinHeap(graph.size());
+
+        dist[source] = 0;
+        heap.insertOrDecrease(source, 0);
+        int remaining = targetCount;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled[u] = true;
+            if (isTarget != null && isTarget[u] && --remaining == 0) {
+                break;
+            }
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = edgeTargets[e];
+                double alt = dist[u] + weights[e];
+                if (!settled[v] && alt < dist[v]) {
+                    dist[v] = alt;
+                    heap.insertOrDecrease(v, alt);
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * Computes the distance between two nodes without allocating, using a pooled
+     * {@link SearchScratch}.
+     *
+     * @param graph The graph to search in.
+     * @param source The origin index.
+     * @param target The target index.
+     * @param metric The edge attribute to sum.
+     * @return The distance, or {@link Double#POSITIVE_INFINITY} if unreachable.
+     */
+    public static double distance(IndexedGraph graph, int source, int target, Metric metric) {
+        SearchScratch scratch = SearchScratch.acquire(graph.size());
+        try {
+            search(graph, source, target, metric, scratch);
+            return scratch.distance(target);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Finds the shortest path between two nodes using a pooled {@link SearchScratch}. The
+     * returned path is the only allocation.
+     *
+     * @param graph The graph to search in.
+     * @param source The origin index.
+     * @param target The target index.
+     * @param metric The edge attribute to sum.
+     * @return The path, its cost and the number of settled nodes.
+     */
+    public static IndexedPath shortestPath(IndexedGraph graph, int source, int target, Metric metric) {
+        SearchScratch scratch = SearchScratch.acquire(graph.size());
+        try {
+            search(graph, source, target, metric, scratch);
+            return IndexedPath.fromParents(scratch.parent, source, target, scratch.distance(target), scratch.settled);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from source until the target is settled, leaving the
+     * distances and parents in the given scratch space.
+     */
+    private static void search(IndexedGraph graph, int source, int target, Metric metric, SearchScratch scratch) {
+        int[] offsets = graph.offsets();
+        int[] edgeTargets = graph.targets();
+        double[] weights = graph.weights(metric);
+        IndexedMinHeap heap = scratch.heap;
+
+        scratch.reach(source, 0, -1);
+        heap.insertOrDecrease(source, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            scratch.settled++;
+            if (u == target) {
+                break;
+            }
+            double du = scratch.dist[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = edgeTargets[e];
+                double alt = du + weights[e];
+                // Settled nodes already have a distance no larger than alt
+                if (alt < scratch.distance(v)) {
+                    scratch.reach(v, alt, u);
+                    heap.insertOrDecrease(v, alt);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * An immutable, integer-indexed copy of a {@link Graph} in compressed sparse row (CSR) form.
+ * Nodes are numbered 0..n-1 in name order, and the edges leaving node {@code u} occupy
+ * positions {@code firstEdge(u)} to {@code lastEdge(u) - 1} of the primitive edge arrays.
+ * Search algorithms that run many queries use this form to avoid hashing and boxing.
+ *
+ * <p>Parallel edges between the same pair of nodes are collapsed into the shortest one,
+ * which is the only one a shortest-path search would ever use.
+ */
+public class IndexedGraph {
+    private final Node[] nodes;
+    private final HashMap<Node, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] distances;
+    private final double[] times;
+    private final long version;
+
+    private IndexedGraph(Node[] nodes, HashMap<Node, Integer> ids, int[] offsets, int[] targets,
+                         double[] distances, double[] times, long version) {
+        this.nodes = nodes;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.distances = distances;
+        this.times = times;
+        this.version = version;
+    }
+
+    /**
+     * Builds the indexed form of the graph's current snapshot.
+     *
+     * @param graph The graph to index.
+     * @return The indexed graph.
+     */
+    public static IndexedGraph of(Graph graph) {
+        return of(graph.snapshot());
+    }
+
+    /**
+     * Builds the indexed form of a graph snapshot.
+     *
+     * @param graph The snapshot to index.
+     * @return The indexed graph, with the snapshot's version.
+     */
+    public static IndexedGraph of(GraphSnapshot graph) {
+        long version = graph.getVersion();
+        ArrayList<Node> sorted = new ArrayList<>(graph.getNodes());
+        sorted.sort((a, b) -> a.getName().compareTo(b.getName()));
+        Node[] nodes = sorted.toArray(new Node[0]);
+        HashMap<Node, Integer> ids = new HashMap<>(nodes.length * 2);
+        for (int i = 0; i < nodes.length; i++) {
+            ids.put(nodes[i], i);
+        }
+
+        int edgeCount = 0;
+        for (Node node : nodes) {
+            edgeCount += graph.outgoingEdges(node).size();
+        }
+
+        int[] offsets = new int[nodes.length + 1];
+        int[] targets = new int[edgeCount];
+        double[] distances = new double[edgeCount];
+        double[] times = new double[edgeCount];
+        // Position of the edge to each target within the current node's row, to collapse parallel edges
+        int[] slot = new int[nodes.length];
+        Arrays.fill(slot, -1);
+
+        int next = 0;
+        for (int u = 0; u < nodes.length; u++) {
+            offsets[u] = next;
+            for (Edge edge : graph.outgoingEdges(nodes[u])) {
+                int v = ids.get(edge.getDestination());
+                if (slot[v] >= offsets[u]) {
+                    if (edge.getDistance() < distances[slot[v]]) {
+                        distances[slot[v]] = edge.getDistance();
+                        times[slot[v]] = edge.getTime();
+                    }
+                    continue;
+                }
+                slot[v] = next;
+                targets[next] = v;
+                distances[next] = edge.getDistance();
+                times[next] = edge.getTime();
+                next++;
+            }
+        }
+        offsets[nodes.length] = next;
+
+        return new IndexedGraph(nodes, ids, offsets, Arrays.copyOf(targets, next),
+                Arrays.copyOf(distances, next), Arrays.copyOf(times, next), version);
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return The node count.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the number of directed edges after parallel edges were collapsed.
+     *
+     * @return The edge count.
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the version of the source graph this index was built from.
+     *
+     * @return The source graph's version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the index of a node.
+     *
+     * @param node The node.
+     * @return The node's index, or -1 if the node is not in the graph.
+     */
+    public int indexOf(Node node) {
+        Integer id = ids.get(node);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the indices of several nodes.
+     *
+     * @param nodes The nodes.
+     * @return Their indices, in the same order.
+     * @throws IllegalArgumentException If a node is not in the graph.
+     */
+    public int[] indicesOf(List<Node> nodes) {
+        int[] indices = new int[nodes.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = indexOf(nodes.get(i));
+            if (indices[i] < 0) {
+                throw new IllegalArgumentException("Node is not in the graph: " + nodes.get(i));
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the node with the given index.
+     *
+     * @param index The node index.
+     * @return The node.
+     */
+    public Node node(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * Returns the position of the first edge leaving a node.
+     *
+     * @param u The node index.
+     * @return The first edge position.
+     */
+    public int firstEdge(int u) {
+        return offsets[u];
+    }
+
+    /**
+     * Returns the position just past the last edge leaving a node.
+     *
+     * @param u The node index.
+     * @return The end edge position (exclusive).
+     */
+    public int lastEdge(int u) {
+        return offsets[u + 1];
+    }
+
+    /**
+     * Returns the node an edge leads to.
+     *
+     * @param edge The edge position.
+     * @return The target node index.
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Finds the edge from one node to another.
+     *
+     * @param u The source node index.
+     * @param v The target node index.
+     * @return The edge position, or -1 if there is no such edge.
+     */
+    public int edgeBetween(int u, int v) {
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+            if (targets[e] == v) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the weight of an edge under a metric.
+     *
+     * @param edge The edge position.
+     * @param metric The metric.
+     * @return The edge's distance or time.
+     */
+    public double weight(int edge, Metric metric) {
+        return metric == Metric.TIME ? times[edge] : distances[edge];
+    }
+
+    /**
+     * Returns the whole weight array for a metric, for use in tight search loops.
+     * The array is shared and must not be modified.
+     *
+     * @param metric The metric.
+     * @return The edge weights, indexed by edge position.
+     */
+    double[] weights(Metric metric) {
+        return metric == Metric.TIME ? times : distances;
+    }
+
+    /**
+     * Returns the CSR row offsets. The array is shared and must not be modified.
+     *
+     * @return The offsets, of length {@code size() + 1}.
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the CSR edge targets. The array is shared and must not be modified.
+     *
+     * @return The targets, indexed by edge position.
+     */
+    int[] targets() {
+        return targets;
+    }
+}
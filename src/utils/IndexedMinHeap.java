@@ -0,0 +1,138 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of node indices ordered by double keys, with decrease-key support.
+ * Each node can be in the heap at most once. Used by the primitive search algorithms
+ * instead of a {@link java.util.PriorityQueue} of boxed entries.
+ */
+public class IndexedMinHeap {
+    private final int[] heap;
+    private final double[] keys;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * Constructs an empty heap for node indices 0..capacity-1.
+     *
+     * @param capacity The number of nodes.
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new double[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether a node is currently in the heap.
+     *
+     * @param node The node index.
+     * @return true if the node is in the heap; false otherwise.
+     */
+    public boolean contains(int node) {
+        return positions[node] >= 0;
+    }
+
+    /**
+     * Inserts a node, or lowers its key if it is already in the heap with a larger key.
+     *
+     * @param node The node index.
+     * @param key The node's key.
+     */
+    public void insertOrDecrease(int node, double key) {
+        int position = positions[node];
+        if (position < 0) {
+            position = size++;
+            heap[position] = node;
+            positions[node] = position;
+        } else if (key >= keys[node]) {
+            return;
+        }
+        keys[node] = key;
+        siftUp(position);
+    }
+
+    /**
+     * Returns the key of the node at the top of the heap.
+     *
+     * @return The smallest key.
+     */
+    public double peekKey() {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Removes and returns the node with the smallest key.
+     *
+     * @return The node index.
+     */
+    public int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Removes every node from the heap in time proportional to the number of nodes in it.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int node = heap[position];
+        double key = keys[node];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int parentNode = heap[parent];
+            if (keys[parentNode] <= key) {
+                break;
+            }
+            heap[position] = parentNode;
+            positions[parentNode] = position;
+            position = parent;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+
+    private void siftDown(int position) {
+        int node = heap[position];
+        double key = keys[node];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+}
@@ -0,0 +1,95 @@
+package utils;
+
+import java.util.ArrayList;
+
+/**
+ * The result of a point-to-point search over an {@link IndexedGraph}: the node indices on the
+ * path, its cost, and how many nodes the search settled to find it.
+ */
+public class IndexedPath {
+    private final int[] nodes;
+    private final double cost;
+    private final int settledNodes;
+
+    /**
+     * Constructs a search result.
+     *
+     * @param nodes The node indices from source to target, or an empty array if unreachable.
+     * @param cost The path cost, or {@link Double#POSITIVE_INFINITY} if unreachable.
+     * @param settledNodes The number of nodes the search settled.
+     */
+    public IndexedPath(int[] nodes, double cost, int settledNodes) {
+        this.nodes = nodes;
+        this.cost = cost;
+        this.settledNodes = settledNodes;
+    }
+
+    /**
+     * Builds a result by following parent pointers back from the target.
+     *
+     * @param parent The parent of each node on the search tree, -1 for the source.
+     * @param source The source index.
+     * @param target The target index.
+     * @param cost The cost of reaching the target.
+     * @param settledNodes The number of nodes the search settled.
+     * @return The search result.
+     */
+    static IndexedPath fromParents(int[] parent, int source, int target, double cost, int settledNodes) {
+        if (cost == Double.POSITIVE_INFINITY) {
+            return new IndexedPath(new int[0], cost, settledNodes);
+        }
+        int length = 1;
+        for (int v = target; v != source; v = parent[v]) {
+            length++;
+        }
+        int[] nodes = new int[length];
+        int v = target;
+        for (int i = length - 1; i >= 0; i--) {
+            nodes[i] = v;
+            v = i > 0 ? parent[v] : v;
+        }
+        return new IndexedPath(nodes, cost, settledNodes);
+    }
+
+    public int[] getNodes() {
+        return nodes;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public int getSettledNodes() {
+        return settledNodes;
+    }
+
+    public boolean isFound() {
+        return nodes.length > 0;
+    }
+
+    /**
+     * Converts the result into a {@link RouteResult} with both distance and time totals.
+     *
+     * @param graph The graph the search ran on.
+     * @param source The source node index, used when the path is empty.
+     * @param target The target node index, used when the path is empty.
+     * @param metric The metric the search minimised.
+     * @return The route result.
+     */
+    public RouteResult toRouteResult(IndexedGraph graph, int source, int target, Metric metric) {
+        if (!isFound()) {
+            return new RouteResult(graph.node(source), graph.node(target), metric, new ArrayList<>(), Double.MAX_VALUE, Double.MAX_VALUE);
+        }
+        ArrayList<Node> path = new ArrayList<>(nodes.length);
+        double distance = 0;
+        double time = 0;
+        path.add(graph.node(nodes[0]));
+        for (int i = 1; i < nodes.length; i++) {
+            int edge = graph.edgeBetween(nodes[i - 1], nodes[i]);
+            distance += graph.weight(edge, Metric.DISTANCE);
+            time += graph.weight(edge, Metric.TIME);
+            path.add(graph.node(nodes[i]));
+        }
+        return new RouteResult(graph.node(source), graph.node(target), metric, path, distance, time);
+    }
+}
@@ -0,0 +1,119 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The landmarks reachable from an origin within a budget, such as "everything within a
+ * 10-minute walk", found by {@link IsochroneSearch}. Each landmark carries its cost from the
+ * origin and the landmark it is reached from, so the walking route to any of them can be drawn.
+ */
+public class Isochrone {
+    private final Node origin;
+    private final Metric metric;
+    private final double budget;
+    private final List<Node> nodes;
+    private final double[] costs;
+    private final int[] parents;
+    private final Map<Node, Integer> positions = new HashMap<>();
+
+    /**
+     * Constructs an isochrone.
+     *
+     * @param origin The landmark the search started from.
+     * @param metric The edge attribute the budget is measured in.
+     * @param budget The largest cost included.
+     * @param nodes The reachable landmarks in order of increasing cost, starting with the origin.
+     * @param costs The cost of each landmark, in the same order.
+     * @param parents The position in {@code nodes} of the landmark each one is reached from, -1 for the origin.
+     */
+    public Isochrone(Node origin, Metric metric, double budget, List<Node> nodes, double[] costs, int[] parents) {
+        this.origin = origin;
+        this.metric = metric;
+        this.budget = budget;
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        this.costs = costs;
+        this.parents = parents;
+        for (int i = 0; i < nodes.size(); i++) {
+            positions.put(nodes.get(i), i);
+        }
+    }
+
+    public Node getOrigin() {
+        return origin;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public double getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns the reachable landmarks.
+     *
+     * @return The landmarks in order of increasing cost, starting with the origin.
+     */
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of reachable landmarks, counting the origin.
+     *
+     * @return The number of landmarks within the budget.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Checks whether a landmark is within the budget.
+     *
+     * @param node The landmark.
+     * @return true if the landmark can be reached within the budget.
+     */
+    public boolean contains(Node node) {
+        return positions.containsKey(node);
+    }
+
+    /**
+     * Returns the cost of reaching a landmark.
+     *
+     * @param node The landmark.
+     * @return The cost, or {@link Double#MAX_VALUE} if the landmark is outside the budget.
+     */
+    public double getCost(Node node) {
+        Integer position = positions.get(node);
+        return position == null ? Double.MAX_VALUE : costs[position];
+    }
+
+    /**
+     * Returns the route from the origin to a reachable landmark.
+     *
+     * @param node The landmark.
+     * @return The nodes from the origin to the landmark, or an empty list if it is outside the budget.
+     */
+    public List<Node> getPath(Node node) {
+        ArrayList<Node> path = new ArrayList<>();
+        Integer position = positions.get(node);
+        if (position == null) {
+            return path;
+        }
+        for (int i = position; i >= 0; i = parents[i]) {
+            path.add(nodes.get(i));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return "Isochrone from " + origin + " within " + budget + " " + metric.name().toLowerCase() + ": " + nodes;
+    }
+}
@@ -0,0 +1,103 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Finds every landmark within a walking-time or distance budget of an origin, for "what can I
+ * reach in 10 minutes?" maps.
+ *
+ * <p>This is Dijkstra's algorithm over an {@link IndexedGraph} that never queues a node whose
+ * tentative cost is over the budget, so the search stops by itself once the reachable area is
+ * exhausted. It runs in a pooled {@link SearchScratch}, whose arrays need no clearing, so
+ * a query only touches the nodes it reaches and their edges: a small radius on a large graph
+ * costs about as much as the same radius on a small one. Batches of origins are searched in
+ * parallel, one search per thread at a time.
+ */
+public class IsochroneSearch {
+
+    /**
+     * Finds the landmarks reachable from one origin within a budget.
+     *
+     * @param graph The graph to search in.
+     * @param origin The landmark to start from.
+     * @param budget The largest cost to include, in the units of the metric.
+     * @param metric The edge attribute to sum, time for a walking radius.
+     * @return The reachable landmarks and their costs, always including the origin.
+     * @throws IllegalArgumentException If the origin is not in the graph or the budget is negative.
+     */
+    public static Isochrone reachable(IndexedGraph graph, Node origin, double budget, Metric metric) {
+        if (budget < 0 || Double.isNaN(budget)) {
+            throw new IllegalArgumentException("The budget must not be negative: " + budget);
+        }
+        int source = graph.indexOf(origin);
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double[] weights = graph.weights(metric);
+        SearchScratch scratch = SearchScratch.acquire(graph.size());
+        try {
+            IndexedMinHeap heap = scratch.heap;
+
+            // Settled nodes in order
+            int[] order = new int[16];
+            scratch.reach(source, 0, -1);
+            heap.insertOrDecrease(source, 0);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                if (scratch.settled == order.length) {
+                    order = Arrays.copyOf(order, order.length * 2);
+                }
+                order[scratch.settled++] = u;
+                double du = scratch.dist[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    double alt = du + weights[e];
+                    if (alt <= budget && alt < scratch.distance(v)) {
+                        scratch.reach(v, alt, u);
+                        heap.insertOrDecrease(v, alt);
+                    }
+                }
+            }
+
+            int count = scratch.settled;
+            List<Node> nodes = new ArrayList<>(count);
+            double[] costs = new double[count];
+            int[] parents = new int[count];
+            for (int i = 0; i < count; i++) {
+                int v = order[i];
+                nodes.add(graph.node(v));
+                costs[i] = scratch.dist[v];
+                parents[i] = scratch.parent[v];
+                // The search is over, so the parent entry can hold v's position instead
+                scratch.parent[v] = i;
+            }
+            for (int i = 0; i < count; i++) {
+                // Every parent was settled before its child, so its entry is a position by now
+                parents[i] = parents[i] < 0 ? -1 : scratch.parent[parents[i]];
+            }
+            return new Isochrone(origin, metric, budget, nodes, costs, parents);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Finds the landmarks reachable within a budget from each of several origins, searching
+     * the origins in parallel.
+     *
+     * @param graph The graph to search in.
+     * @param origins The landmarks to start from.
+     * @param budget The largest cost to include, in the units of the metric.
+     * @param metric The edge attribute to sum.
+     * @return One isochrone per origin, in the order given.
+     * @throws IllegalArgumentException If an origin is not in the graph or the budget is negative.
+     */
+    public static List<Isochrone> reachable(IndexedGraph graph, List<Node> origins, double budget, Metric metric) {
+        Isochrone[] results = new Isochrone[origins.size()];
+        IntStream.range(0, results.length).parallel()
+                .forEach(i -> results[i] = reachable(graph, origins.get(i), budget, metric));
+        return Arrays.asList(results);
+    }
+}
@@ -0,0 +1,69 @@
+package utils;
+
+import java.util.Collection;
+
+/**
+ * Minimal helpers for writing JSON text without an external library.
+ */
+public class Json {
+
+    /**
+     * Quotes and escapes a string as a JSON string literal.
+     *
+     * @param value The string to quote.
+     * @return The JSON string literal, or {@code null} if the value is null.
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder builder = new StringBuilder(value.length() + 2);
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': builder.append("\\\""); break;
+                case '\\': builder.append("\\\\"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                case '\t': builder.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Formats a number as a JSON number, mapping non-finite values to null.
+     *
+     * @param value The number to format.
+     * @return The JSON number text.
+     */
+    public static String number(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+
+    /**
+     * Formats a collection of strings as a JSON array of string literals.
+     *
+     * @param values The strings to format.
+     * @return The JSON array text.
+     */
+    public static String stringArray(Collection<String> values) {
+        StringBuilder builder = new StringBuilder("[");
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                builder.append(',');
+            }
+            builder.append(quote(value));
+            first = false;
+        }
+        return builder.append(']').toString();
+    }
+}
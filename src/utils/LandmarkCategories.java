@@ -0,0 +1,139 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Assigns landmarks to facility categories such as {@code hall}, {@code department} or
+ * {@code library}. Categories come from keywords in the landmark names, for example "Akuafo
+ * Hall Legon" is a hall, and can be extended from a side file for landmarks whose names do not
+ * say what they are. A landmark may belong to several categories, or to none.
+ *
+ * <p>The side file is CSV with the header {@value #HEADER} and one assignment per line; a
+ * landmark listed several times gets every category given. Categories are lower case.
+ */
+public class LandmarkCategories {
+
+    // First line of a category file
+    public static final String HEADER = "landmark,category";
+
+    // Category, then the name pattern that assigns it, then an optional pattern that vetoes it
+    private static final String[][] NAME_RULES = {
+            {"hall", "\\bhall\\b", "conference hall|great hall"},
+            {"hostel", "\\bhostels?\\b|\\bcourt\\b|pentagon block", null},
+            {"department", "\\bdepartment\\b", null},
+            {"school", "\\bschool\\b", null},
+            {"college", "\\bcollege\\b|\\bfaculty\\b", null},
+            {"institute", "\\binstitu", null},
+            {"library", "\\blibrary\\b", null},
+            {"bookshop", "\\bbookshop\\b", null},
+            {"canteen", "\\bcanteen\\b|night market", null},
+            {"bank", "\\bbank(ing)?\\b", "audi"},
+            {"hospital", "\\bhospital\\b|\\bclinic\\b", null},
+            {"sports", "\\bsports?\\b|stadium|athletic|swimming|basketball|\\bfield\\b", null},
+            {"worship", "\\bmosque\\b|\\bchapel\\b|\\bchurch\\b", null},
+            {"venue", "conference|auditorium|audiotorium|great hall", null},
+            {"transport", "\\btaxi\\b|\\bbus stop\\b|\\bstation\\b", null},
+    };
+
+    private static final Pattern[] INCLUDE = new Pattern[NAME_RULES.length];
+    private static final Pattern[] EXCLUDE = new Pattern[NAME_RULES.length];
+
+    static {
+        for (int i = 0; i < NAME_RULES.length; i++) {
+            INCLUDE[i] = Pattern.compile(NAME_RULES[i][1], Pattern.CASE_INSENSITIVE);
+            EXCLUDE[i] = NAME_RULES[i][2] == null ? null : Pattern.compile(NAME_RULES[i][2], Pattern.CASE_INSENSITIVE);
+        }
+    }
+
+    // Extra categories from a side file, by lower-case landmark name
+    private final Map<String, Set<String>> assigned;
+
+    private LandmarkCategories(Map<String, Set<String>> assigned) {
+        this.assigned = assigned;
+    }
+
+    /**
+     * Returns the categories given by landmark names alone.
+     *
+     * @return The name-based categories.
+     */
+    public static LandmarkCategories fromNames() {
+        return new LandmarkCategories(Collections.emptyMap());
+    }
+
+    /**
+     * Reads a category file and combines it with the name-based categories. Landmarks in the
+     * file need not be in any graph yet; they are matched by name when an index is built.
+     *
+     * @param file The category file.
+     * @return The combined categories.
+     * @throws IOException If the file cannot be read or a line is malformed.
+     */
+    public static LandmarkCategories load(Path file) throws IOException {
+        Map<String, Set<String>> assigned = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            reader.readLine(); // Skip the header
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] values = line.split(",\\s*");
+                if (values.length < 2 || values[1].trim().isEmpty()) {
+                    throw new IOException("Expected landmark and category on line " + lineNumber + ": " + line);
+                }
+                assigned.computeIfAbsent(values[0].trim().toLowerCase(Locale.ROOT), name -> new TreeSet<>())
+                        .add(values[1].trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return new LandmarkCategories(assigned);
+    }
+
+    /**
+     * Returns the categories of a landmark.
+     *
+     * @param node The landmark.
+     * @return The categories, possibly empty, in alphabetical order.
+     */
+    public Set<String> categoriesOf(Node node) {
+        Set<String> categories = new TreeSet<>();
+        String name = node.getName();
+        for (int i = 0; i < NAME_RULES.length; i++) {
+            if (INCLUDE[i].matcher(name).find() && (EXCLUDE[i] == null || !EXCLUDE[i].matcher(name).find())) {
+                categories.add(NAME_RULES[i][0]);
+            }
+        }
+        categories.addAll(assigned.getOrDefault(name.toLowerCase(Locale.ROOT), Collections.emptySet()));
+        return categories;
+    }
+
+    /**
+     * Groups landmarks by category.
+     *
+     * @param nodes The landmarks to group.
+     * @return The landmarks of each category, in the order given, with categories in alphabetical order.
+     */
+    public Map<String, Set<Node>> group(Iterable<Node> nodes) {
+        Map<String, Set<Node>> groups = new TreeMap<>();
+        for (Node node : nodes) {
+            for (String category : categoriesOf(node)) {
+                groups.computeIfAbsent(category, c -> new LinkedHashSet<>()).add(node);
+            }
+        }
+        return groups;
+    }
+}
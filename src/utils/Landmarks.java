@@ -0,0 +1,123 @@
+package utils;
+
+/**
+ * Preprocessed landmark distances for ALT (A*, landmarks, triangle inequality) searches.
+ *
+ * <p>A few anchor nodes on the periphery of the graph are chosen by farthest-point selection,
+ * and exact distances from each anchor to every node are stored. Because the graph is
+ * symmetric, for any anchor {@code L} the triangle inequality gives the lower bound
+ * {@code d(v, t) >= |d(L, t) - d(L, v)|}, and the largest of these bounds over all anchors is
+ * a consistent A* heuristic.
+ */
+public class Landmarks implements LowerBound {
+
+    // Default number of anchors; more anchors give tighter bounds but cost memory and time
+    public static final int DEFAULT_COUNT = 8;
+
+    private final IndexedGraph graph;
+    private final Metric metric;
+    private final int[] anchors;
+    // Node-major distances: anchorDistances[v * anchors.length + i] is d(anchors[i], v)
+    private final double[] anchorDistances;
+
+    private Landmarks(IndexedGraph graph, Metric metric, int[] anchors, double[] anchorDistances) {
+        this.graph = graph;
+        this.metric = metric;
+        this.anchors = anchors;
+        this.anchorDistances = anchorDistances;
+    }
+
+    /**
+     * Chooses anchors by farthest-point selection and precomputes their distances.
+     * The first anchor is the node farthest from node 0; each further anchor is the node
+     * farthest from all anchors chosen so far.
+     *
+     * @param graph The graph to preprocess. It must be symmetric, as {@link Graph} always is.
+     * @param count The number of anchors to choose.
+     * @param metric The metric the distances are measured in.
+     * @return The landmark distances.
+     */
+    public static Landmarks build(IndexedGraph graph, int count, Metric metric) {
+        int n = graph.size();
+        int k = Math.max(0, Math.min(count, n));
+        int[] anchors = new int[k];
+        double[] anchorDistances = new double[n * k];
+        if (k == 0) {
+            return new Landmarks(graph, metric, anchors, anchorDistances);
+        }
+
+        double[] nearestAnchor = new double[n];
+        int next = farthest(IndexedDijkstra.distances(graph, 0, metric));
+        for (int i = 0; i < k; i++) {
+            anchors[i] = next;
+            double[] dist = IndexedDijkstra.distances(graph, next, metric);
+            for (int v = 0; v < n; v++) {
+                anchorDistances[v * k + i] = dist[v];
+                nearestAnchor[v] = i == 0 ? dist[v] : Math.min(nearestAnchor[v], dist[v]);
+            }
+            // Chosen anchors are at distance 0 from themselves, so they are never picked again
+            next = farthest(nearestAnchor);
+        }
+        return new Landmarks(graph, metric, anchors, anchorDistances);
+    }
+
+    /**
+     * Returns the reachable node with the largest value.
+     *
+     * @param values The value of each node.
+     * @return The index of the farthest node.
+     */
+    private static int farthest(double[] values) {
+        int best = 0;
+        double bestValue = -1;
+        for (int v = 0; v < values.length; v++) {
+            if (values[v] != Double.POSITIVE_INFINITY && values[v] > bestValue) {
+                best = v;
+                bestValue = values[v];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns a lower bound on the distance between two nodes.
+     *
+     * @param v The first node index.
+     * @param t The second node index.
+     * @return The largest triangle-inequality bound over all anchors, or 0 without anchors.
+     */
+    @Override
+    public double lowerBound(int v, int t) {
+        int k = anchors.length;
+        double bound = 0;
+        for (int i = 0; i < k; i++) {
+            double toTarget = anchorDistances[t * k + i];
+            double toNode = anchorDistances[v * k + i];
+            if (toTarget == Double.POSITIVE_INFINITY || toNode == Double.POSITIVE_INFINITY) {
+                continue; // The anchor lies in another component and says nothing about this pair
+            }
+            double difference = Math.abs(toTarget - toNode);
+            if (difference > bound) {
+                bound = difference;
+            }
+        }
+        return bound;
+    }
+
+    public IndexedGraph getGraph() {
+        return graph;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Returns the chosen anchor nodes.
+     *
+     * @return A copy of the anchor indices.
+     */
+    public int[] getAnchors() {
+        return anchors.clone();
+    }
+}
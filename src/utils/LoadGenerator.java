@@ -0,0 +1,479 @@
+package utils;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * An in-process load generator: it replays a query trace against the routing code from many
+ * threads at once and reports throughput, latency percentiles and the garbage collection
+ * pauses seen during the run. Unlike {@link LoadTestClient} there is no HTTP in the way, so
+ * the numbers are those of the router itself, for capacity planning and for catching
+ * regressions between builds.
+ *
+ * <p>Queries are either read from a trace file (see {@link QueryTrace}) or synthesized with
+ * Zipf-skewed landmark popularity. By default every thread sends its next query as soon as
+ * the previous one returns. With {@code --rate} queries are instead issued on a fixed
+ * schedule and each latency is measured from the moment the query was due, so a stalled
+ * router shows up as queueing delay rather than as fewer, faster samples.
+ *
+ * <p>Options, all optional:
+ * <ul>
+ *   <li>{@code --graph campus|<layout>-N|<file>} - the landmark file, a generated graph such as
+ *       {@code zones-10000}, or a matrix or edge list CSV file (default campus).</li>
+ *   <li>{@code --trace <file>} - replay this trace instead of synthesizing one.</li>
+ *   <li>{@code --write-trace <file>} - save the trace used, for replaying later.</li>
+ *   <li>{@code --queries N} - measured queries (default 100000); {@code --warmup N} more run first (default 20000).</li>
+ *   <li>{@code --zipf S} - the popularity skew of a synthesized trace, 0 for uniform (default 1.0).</li>
+ *   <li>{@code --time-share F} - the fraction of synthesized queries minimising time (default 0.2).</li>
+ *   <li>{@code --seed N} - the seed for synthesized traces and graphs (default 42).</li>
+ *   <li>{@code --threads N} - concurrent callers (default 64).</li>
+ *   <li>{@code --platform} or {@code --virtual} - the kind of thread to use (default virtual when available).</li>
+ *   <li>{@code --api router|search|indexed|quantized} - {@link Router} with its cache, a plain
+ *       {@link Dijkstra} search per query, {@link IndexedDijkstra}, or {@link QuantizedDijkstra} on
+ *       integer weights (default router).</li>
+ *   <li>{@code --cache-size N} - the router's cache size (default {@link Router#DEFAULT_CACHE_SIZE}).</li>
+ *   <li>{@code --rate Q} - issue Q queries per second in total instead of as fast as possible.</li>
+ *   <li>{@code --duration S} - stop the measured run after S seconds even if queries remain.</li>
+ *   <li>{@code --json} - print the report as a single JSON object.</li>
+ * </ul>
+ */
+public class LoadGenerator {
+
+    /**
+     * Runs the load test.
+     *
+     * @param args The options described in the class documentation.
+     */
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: LoadGenerator [--graph campus|<layout>-N|<file>] [--trace file] [--write-trace file]"
+                    + " [--queries N] [--warmup N] [--zipf S] [--time-share F] [--seed N] [--threads N] [--platform|--virtual]"
+                    + " [--api router|search|indexed|quantized] [--cache-size N] [--rate Q] [--duration S] [--json]");
+            return;
+        }
+
+        Graph graph;
+        QueryTrace trace;
+        try {
+            graph = loadGraph(options.graph, options.seed);
+            trace = options.trace != null
+                    ? QueryTrace.read(Paths.get(options.trace), graph)
+                    : QueryTrace.zipf(graph.snapshot().getNodes(), options.queries + options.warmup, options.zipf,
+                            options.timeShare, options.seed);
+            if (options.writeTrace != null) {
+                trace.write(Paths.get(options.writeTrace));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error preparing the load test: " + e.getMessage());
+            return;
+        }
+        if (trace.size() == 0) {
+            System.err.println("The trace has no queries.");
+            return;
+        }
+
+        Router router = options.api.equals("router") ? new Router(graph, options.cacheSize) : null;
+        IntConsumer api = api(options.api, graph, router, trace);
+        boolean virtual = options.virtual && VirtualThreads.isAvailable();
+
+        // Warm up on the start of the trace, then measure on the queries after it
+        run(api, trace, 0, options.warmup, options.threads, virtual, options.rate, 0, new LatencyHistogram());
+        RouterCounts before = RouterCounts.of(router);
+        LatencyHistogram latencies = new LatencyHistogram();
+        GcMonitor gc = new GcMonitor();
+        gc.start();
+        Result result = run(api, trace, options.warmup, options.queries, options.threads, virtual,
+                options.rate, options.durationSeconds, latencies);
+        gc.stop();
+        RouterCounts cache = router == null ? null : RouterCounts.of(router).minus(before);
+
+        if (options.json) {
+            System.out.println(toJson(options, graph, virtual, cache, result, latencies, gc));
+        } else {
+            printReport(options, graph, trace, virtual, cache, result, latencies, gc);
+        }
+    }
+
+    /**
+     * Loads the graph an option names. Files are pruned only with {@code -Dgraph.prune=true}, as
+     * the routing server prunes them.
+     */
+    private static Graph loadGraph(String name, long seed) throws IOException {
+        if (name.equals("campus")) {
+            name = Paths.get(Paths.get(System.getProperty("user.dir")).getParent().toString(), "data", "landmarksAdjacencyMatrix.csv").toString();
+        } else if (!Files.exists(Paths.get(name)) && name.lastIndexOf('-') > 0) {
+            int dash = name.lastIndexOf('-');
+            GraphGenerator.Layout layout = GraphGenerator.Layout.fromName(name.substring(0, dash));
+            return new GraphGenerator(seed).generate(layout, Integer.parseInt(name.substring(dash + 1))).toGraph();
+        }
+        Graph parsed = new Graph();
+        String header;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(name))) {
+            header = reader.readLine();
+        }
+        if (CSVParser.EDGE_LIST_HEADER.equals(header == null ? null : header.trim())) {
+            CSVParser.parseEdgeListCSV(name, parsed);
+        } else {
+            CSVParser.parseCSV(name, parsed);
+        }
+        return Boolean.getBoolean("graph.prune") ? EdgePruner.prune(parsed) : parsed;
+    }
+
+    /**
+     * Returns the routing call that answers query {@code i} of the trace.
+     */
+    private static IntConsumer api(String name, Graph graph, Router router, QueryTrace trace) {
+        switch (name) {
+            case "router":
+                return i -> router.route(trace.source(i), trace.destination(i), trace.metric(i));
+            case "search":
+                GraphSnapshot snapshot = graph.snapshot();
+                return i -> Dijkstra.route(snapshot, trace.source(i), trace.destination(i), trace.metric(i), CancellationToken.NONE);
+            default:
+                IndexedGraph indexed = IndexedGraph.of(graph);
+                int[] sources = new int[trace.size()];
+                int[] destinations = new int[trace.size()];
+                for (int i = 0; i < trace.size(); i++) {
+                    sources[i] = indexed.indexOf(trace.source(i));
+                    destinations[i] = indexed.indexOf(trace.destination(i));
+                }
+                if (name.equals("quantized")) {
+                    // Quantized once per metric up front, as the weights would be kept in production
+                    EnumMap<Metric, QuantizedGraph> quantized = new EnumMap<>(Metric.class);
+                    for (Metric metric : Metric.values()) {
+                        quantized.put(metric, QuantizedGraph.of(indexed, metric));
+                    }
+                    return i -> QuantizedDijkstra.findShortestPath(quantized.get(trace.metric(i)), sources[i], destinations[i]);
+                }
+                return i -> IndexedDijkstra.shortestPath(indexed, sources[i], destinations[i], trace.metric(i));
+        }
+    }
+
+    /**
+     * Runs queries from a number of threads until all are done or the time limit passes.
+     *
+     * @param api The routing call.
+     * @param trace The trace; queries past its end wrap around to its start.
+     * @param offset The trace position of the first query.
+     * @param count The number of queries.
+     * @param threads The number of concurrent callers.
+     * @param virtual Whether the callers are virtual threads.
+     * @param rate The total queries per second to issue, or 0 to issue as fast as possible.
+     * @param durationSeconds The time limit, or 0 for none.
+     * @param latencies The histogram that receives each query's latency.
+     * @return The counts and elapsed time.
+     */
+    private static Result run(IntConsumer api, QueryTrace trace, int offset, int count, int threads, boolean virtual,
+                              double rate, double durationSeconds, LatencyHistogram latencies) {
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(threads);
+        ExecutorService executor = virtual
+                ? VirtualThreads.newPerTaskExecutor("load-generator")
+                : Executors.newFixedThreadPool(threads, daemonThreads());
+
+        long start = System.nanoTime();
+        long deadline = durationSeconds > 0 ? start + (long) (durationSeconds * 1e9) : Long.MAX_VALUE;
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    int i;
+                    while ((i = next.getAndIncrement()) < count) {
+                        long due = rate > 0 ? start + (long) (i * 1e9 / rate) : System.nanoTime();
+                        long wait;
+                        while ((wait = due - System.nanoTime()) > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        if (due > deadline) {
+                            break;
+                        }
+                        try {
+                            api.accept((offset + i) % trace.size());
+                            completed.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.record(System.nanoTime() - due);
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdownNow();
+        return new Result(completed.get(), errors.get(), elapsed);
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "load-generator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static void printReport(Options options, Graph graph, QueryTrace trace, boolean virtual, RouterCounts cache,
+                                    Result result, LatencyHistogram latencies, GcMonitor gc) {
+        System.out.println("Graph:       " + options.graph + " (" + graph.getSize() + " landmarks)");
+        System.out.println("Workload:    " + (options.trace != null ? "trace " + options.trace + " (" + trace.size() + " queries)"
+                : String.format(Locale.ROOT, "zipf %.2f, %.0f%% by time", options.zipf, options.timeShare * 100))
+                + ", api " + options.api
+                + (options.rate > 0 ? String.format(Locale.ROOT, ", %.0f queries/s offered", options.rate) : ", closed loop"));
+        System.out.println("Threads:     " + options.threads + (virtual ? " virtual" : " platform")
+                + (options.virtual && !virtual ? " (virtual threads need JDK 21)" : ""));
+        System.out.println(String.format(Locale.ROOT, "Completed:   %d (%d errors) in %.2f s",
+                result.completed, result.errors, result.elapsedNanos / 1e9));
+        System.out.println(String.format(Locale.ROOT, "Throughput:  %.0f queries/s", result.throughput()));
+        System.out.println(String.format(Locale.ROOT, "Latency:     p50 %s  p99 %s  p99.9 %s  max %s",
+                formatMillis(latencies.valueAtPercentile(0.50)), formatMillis(latencies.valueAtPercentile(0.99)),
+                formatMillis(latencies.valueAtPercentile(0.999)), formatMillis(latencies.getMax())));
+        System.out.println(String.format(Locale.ROOT, "GC pauses:   %d, %s total, p99 %s, max %s",
+                gc.pauses.getCount(), formatMillis(gc.totalPauseNanos), formatMillis(gc.pauses.valueAtPercentile(0.99)),
+                formatMillis(gc.pauses.getMax())));
+        if (cache != null) {
+            System.out.println(String.format(Locale.ROOT, "Cache:       %.1f%% hits, %d searches, %d coalesced",
+                    cache.hitRate() * 100, cache.searches, cache.coalesced));
+        }
+    }
+
+    private static String toJson(Options options, Graph graph, boolean virtual, RouterCounts cache,
+                                 Result result, LatencyHistogram latencies, GcMonitor gc) {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"graph\":").append(Json.quote(options.graph));
+        json.append(",\"landmarks\":").append(graph.getSize());
+        json.append(",\"api\":").append(Json.quote(options.api));
+        json.append(",\"trace\":").append(options.trace != null ? Json.quote(options.trace) : "null");
+        json.append(",\"zipf\":").append(Json.number(options.zipf));
+        json.append(",\"threads\":").append(options.threads);
+        json.append(",\"virtualThreads\":").append(virtual);
+        json.append(",\"offeredRate\":").append(Json.number(options.rate));
+        json.append(",\"completed\":").append(result.completed);
+        json.append(",\"errors\":").append(result.errors);
+        json.append(",\"elapsedSeconds\":").append(Json.number(result.elapsedNanos / 1e9));
+        json.append(",\"throughput\":").append(Json.number(result.throughput()));
+        json.append(",\"latencyMillis\":{");
+        json.append("\"mean\":").append(Json.number(latencies.getMean() / 1e6));
+        json.append(",\"p50\":").append(Json.number(latencies.valueAtPercentile(0.50) / 1e6));
+        json.append(",\"p99\":").append(Json.number(latencies.valueAtPercentile(0.99) / 1e6));
+        json.append(",\"p999\":").append(Json.number(latencies.valueAtPercentile(0.999) / 1e6));
+        json.append(",\"max\":").append(Json.number(latencies.getMax() / 1e6));
+        json.append("},\"gcPauses\":{");
+        json.append("\"count\":").append(gc.pauses.getCount());
+        json.append(",\"totalMillis\":").append(Json.number(gc.totalPauseNanos / 1e6));
+        json.append(",\"p99Millis\":").append(Json.number(gc.pauses.valueAtPercentile(0.99) / 1e6));
+        json.append(",\"maxMillis\":").append(Json.number(gc.pauses.getMax() / 1e6));
+        json.append("}");
+        if (cache != null) {
+            json.append(",\"cacheHits\":").append(cache.hits);
+            json.append(",\"cacheMisses\":").append(cache.misses);
+            json.append(",\"searches\":").append(cache.searches);
+            json.append(",\"coalesced\":").append(cache.coalesced);
+        }
+        return json.append("}").toString();
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3fms", nanos / 1e6);
+    }
+
+    /**
+     * The outcome of one run.
+     */
+    private static final class Result {
+        final long completed;
+        final long errors;
+        final long elapsedNanos;
+
+        Result(long completed, long errors, long elapsedNanos) {
+            this.completed = completed;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        double throughput() {
+            return elapsedNanos == 0 ? 0 : completed / (elapsedNanos / 1e9);
+        }
+    }
+
+    /**
+     * The router's cumulative cache and search counters at one moment.
+     */
+    private static final class RouterCounts {
+        final long hits;
+        final long misses;
+        final long searches;
+        final long coalesced;
+
+        RouterCounts(long hits, long misses, long searches, long coalesced) {
+            this.hits = hits;
+            this.misses = misses;
+            this.searches = searches;
+            this.coalesced = coalesced;
+        }
+
+        static RouterCounts of(Router router) {
+            return router == null ? null : new RouterCounts(router.getCache().getHitCount(), router.getCache().getMissCount(),
+                    router.getSearchCount(), router.getCoalescedCount());
+        }
+
+        RouterCounts minus(RouterCounts earlier) {
+            return new RouterCounts(hits - earlier.hits, misses - earlier.misses, searches - earlier.searches,
+                    coalesced - earlier.coalesced);
+        }
+
+        double hitRate() {
+            return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        }
+    }
+
+    /**
+     * Collects the stop-the-world pauses the collectors report while it is started. Collectors
+     * that also report their concurrent cycles, such as ZGC and Shenandoah, report them under
+     * a separate bean that is left out.
+     */
+    private static final class GcMonitor implements NotificationListener {
+        final LatencyHistogram pauses = new LatencyHistogram();
+        volatile long totalPauseNanos;
+        private final List<NotificationEmitter> emitters = new ArrayList<>();
+
+        void start() {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                String name = collector.getName();
+                if (collector instanceof NotificationEmitter && !name.contains("Cycles") && !name.contains("Concurrent")) {
+                    ((NotificationEmitter) collector).addNotificationListener(this, null, null);
+                    emitters.add((NotificationEmitter) collector);
+                }
+            }
+        }
+
+        void stop() {
+            for (NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(this);
+                } catch (ListenerNotFoundException e) {
+                    // Already removed
+                }
+            }
+            emitters.clear();
+        }
+
+        @Override
+        public synchronized void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long nanos = TimeUnit.MILLISECONDS.toNanos(info.getGcInfo().getDuration());
+            pauses.record(nanos);
+            totalPauseNanos += nanos;
+        }
+    }
+
+    /**
+     * The parsed command line.
+     */
+    private static final class Options {
+        String graph = "campus";
+        String trace;
+        String writeTrace;
+        int queries = 100_000;
+        int warmup = 20_000;
+        double zipf = 1.0;
+        double timeShare = 0.2;
+        long seed = 42;
+        int threads = 64;
+        boolean virtual = true;
+        String api = "router";
+        int cacheSize = Router.DEFAULT_CACHE_SIZE;
+        double rate;
+        double durationSeconds;
+        boolean json;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                switch (option) {
+                    case "--platform":
+                        options.virtual = false;
+                        continue;
+                    case "--virtual":
+                        options.virtual = true;
+                        continue;
+                    case "--json":
+                        options.json = true;
+                        continue;
+                    default:
+                        break;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                try {
+                    switch (option) {
+                        case "--graph": options.graph = value; break;
+                        case "--trace": options.trace = value; break;
+                        case "--write-trace": options.writeTrace = value; break;
+                        case "--queries": options.queries = Integer.parseInt(value); break;
+                        case "--warmup": options.warmup = Integer.parseInt(value); break;
+                        case "--zipf": options.zipf = Double.parseDouble(value); break;
+                        case "--time-share": options.timeShare = Double.parseDouble(value); break;
+                        case "--seed": options.seed = Long.parseLong(value); break;
+                        case "--threads": options.threads = Integer.parseInt(value); break;
+                        case "--api": options.api = value.toLowerCase(Locale.ROOT); break;
+                        case "--cache-size": options.cacheSize = Integer.parseInt(value); break;
+                        case "--rate": options.rate = Double.parseDouble(value); break;
+                        case "--duration": options.durationSeconds = Double.parseDouble(value); break;
+                        default: throw new IllegalArgumentException("Unknown option: " + option);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Not a number for " + option + ": " + value);
+                }
+            }
+            if (!options.api.equals("router") && !options.api.equals("search") && !options.api.equals("indexed")
+                    && !options.api.equals("quantized")) {
+                throw new IllegalArgumentException("Unknown api: " + options.api);
+            }
+            if (options.threads < 1 || options.queries < 0 || options.warmup < 0 || options.rate < 0) {
+                throw new IllegalArgumentException("Threads must be positive and counts and rates not negative");
+            }
+            return options;
+        }
+    }
+}
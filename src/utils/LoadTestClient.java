@@ -0,0 +1,128 @@
+package utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local load generator for {@link RoutingServer}. It fetches the landmark list once,
+ * then fires random {@code /route} requests with a fixed number in flight and reports
+ * throughput and latency percentiles.
+ */
+public class LoadTestClient {
+
+    /**
+     * Runs the load test.
+     *
+     * @param args Optional base URL (default http://localhost:8080), total request count
+     *             (default 20000) and concurrency (default 256).
+     * @throws Exception If the landmark list cannot be fetched or the run is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int totalRequests = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("load-test");
+        HttpClient client = HttpClient.newBuilder().executor(executor).build();
+        List<String> names = fetchNodeNames(client, baseUrl);
+        if (names.size() < 2) {
+            System.err.println("The server reported fewer than two landmarks.");
+            return;
+        }
+
+        long[] latencies = new long[totalRequests];
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch finished = new CountDownLatch(totalRequests);
+        Random random = new Random(42);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < totalRequests; i++) {
+            String from = names.get(random.nextInt(names.size()));
+            String to = names.get(random.nextInt(names.size()));
+            URI uri = URI.create(baseUrl + "/route?from=" + URLEncoder.encode(from, StandardCharsets.UTF_8)
+                    + "&to=" + URLEncoder.encode(to, StandardCharsets.UTF_8));
+
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            client.sendAsync(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (failure != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                        finished.countDown();
+                    });
+        }
+        finished.await();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.println("Requests:    " + totalRequests + " (" + errors.get() + " errors)");
+        System.out.println("Concurrency: " + concurrency);
+        System.out.println("Throughput:  " + String.format("%.0f", totalRequests / elapsedSeconds) + " req/s");
+        System.out.println("Latency p50: " + formatMillis(percentile(latencies, 0.50))
+                + "  p99: " + formatMillis(percentile(latencies, 0.99))
+                + "  max: " + formatMillis(latencies[latencies.length - 1]));
+    }
+
+    /**
+     * Fetches the landmark names from the server's {@code /nodes} endpoint.
+     *
+     * @param client The HTTP client.
+     * @param baseUrl The server's base URL.
+     * @return The landmark names.
+     * @throws IOException If the request fails.
+     * @throws InterruptedException If the request is interrupted.
+     */
+    private static List<String> fetchNodeNames(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/nodes")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        List<String> names = new ArrayList<>();
+        // The body is a flat JSON array of strings; landmark names contain no escaped quotes
+        for (String part : response.body().split("\"")) {
+            if (!part.isEmpty() && !part.equals("[") && !part.equals("]") && !part.equals(",")) {
+                names.add(part);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns the value at a percentile of a sorted array.
+     *
+     * @param sorted The sorted values.
+     * @param percentile The percentile as a fraction between 0 and 1.
+     * @return The value at that percentile.
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * Formats a nanosecond duration as milliseconds.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The formatted duration.
+     */
+    private static String formatMillis(long nanos) {
+        return String.format("%.2fms", nanos / 1e6);
+    }
+}
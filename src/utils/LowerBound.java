@@ -0,0 +1,18 @@
+package utils;
+
+/**
+ * A lower bound on the cost between two nodes of an {@link IndexedGraph}, used as the A*
+ * heuristic by {@link AStar}. Implementations must be consistent: for every edge (u, v),
+ * {@code lowerBound(u, t) <= weight(u, v) + lowerBound(v, t)}.
+ */
+interface LowerBound {
+
+    /**
+     * Returns a lower bound on the cost between two nodes.
+     *
+     * @param v The first node index.
+     * @param t The second node index.
+     * @return A value no larger than the cost of the cheapest path from v to t.
+     */
+    double lowerBound(int v, int t);
+}
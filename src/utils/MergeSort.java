@@ -19,8 +19,11 @@ public class MergeSort {
         if (list.size() < 2) {
             return; // Base case: a list of zero or one elements is already sorted
         }
+        RoutingEvents.Sort event = new RoutingEvents.Sort();
+        event.begin();
         ArrayList<Object[]> tempList = new ArrayList<>(list);
         mergeSort(list, tempList, 0, list.size() - 1);
+        commit(event, "routes", list.size());
     }
 
     /**
@@ -117,8 +120,11 @@ public class MergeSort {
         if (list.size() < 2) {
             return; // Base case: a list of zero or one elements is already sorted
         }
+        RoutingEvents.Sort event = new RoutingEvents.Sort();
+        event.begin();
         ArrayList<String> tempList = new ArrayList<>(list);
         mergeSortString(list, tempList, 0, list.size() - 1);
+        commit(event, "names", list.size());
     }
 
     /**
@@ -179,4 +185,16 @@ public class MergeSort {
         mergeSortString(keyList); // Reuse the sorting method for Strings
         return keyList;
     }
+
+    /**
+     * Ends a sort event and writes it if a recording wants it.
+     */
+    private static void commit(RoutingEvents.Sort event, String kind, int elementCount) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.elementCount = elementCount;
+            event.commit();
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package utils;
+
+/**
+ * The edge attribute a route is optimised for.
+ */
+public enum Metric {
+    DISTANCE,
+    TIME;
+
+    /**
+     * Returns the weight of an edge under this metric.
+     *
+     * @param edge The edge to weigh.
+     * @return The edge's distance or traversal time.
+     */
+    public double weight(Edge edge) {
+        return this == TIME ? edge.getTime() : edge.getDistance();
+    }
+
+    /**
+     * Parses a metric name, ignoring case.
+     *
+     * @param name The metric name, for example "distance" or "time".
+     * @return The matching metric, or DISTANCE if the name is null or empty.
+     * @throws IllegalArgumentException If the name is not a known metric.
+     */
+    public static Metric parse(String name) {
+        if (name == null || name.isEmpty()) {
+            return DISTANCE;
+        }
+        return Metric.valueOf(name.trim().toUpperCase());
+    }
+}
@@ -3,10 +3,13 @@ package utils;
 /**
  * The Node class represents a node in a graph or network with a unique name.
  * It provides methods to access the node's name, compare nodes for equality,
- * and get a string representation of the node.
+ * and get a string representation of the node. A node may also have a geographic location,
+ * which does not take part in equality.
  */
 public class Node {
     private String name;
+    private double latitude = Double.NaN;
+    private double longitude = Double.NaN;
 
     /**
      * Constructs a Node with the specified name.
@@ -26,6 +29,49 @@ public class Node {
         return name;
     }
 
+    /**
+     * Sets the node's geographic location, typically from a coordinates file loaded by
+     * {@link NodeCoordinates}.
+     *
+     * @param latitude The latitude in degrees, from -90 to 90.
+     * @param longitude The longitude in degrees, from -180 to 180.
+     * @throws IllegalArgumentException If either value is out of range.
+     */
+    public void setLocation(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Invalid location for " + name + ": " + latitude + ", " + longitude);
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * Checks whether the node's geographic location is known.
+     *
+     * @return true if a location has been set.
+     */
+    public boolean hasLocation() {
+        return !Double.isNaN(latitude);
+    }
+
+    /**
+     * Returns the node's latitude.
+     *
+     * @return The latitude in degrees, or NaN if the location is unknown.
+     */
+    public double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Returns the node's longitude.
+     *
+     * @return The longitude in degrees, or NaN if the location is unknown.
+     */
+    public double getLongitude() {
+        return longitude;
+    }
+
     /**
      * Checks if this node is equal to another object.
      * Nodes are considered equal if they have the same name.
@@ -42,6 +88,16 @@ public class Node {
         return false;
     }
 
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}, based on the node's name.
+     *
+     * @return The hash code of the node's name.
+     */
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
     /**
      * Returns a string representation of the node, which is its name.
      *
@@ -0,0 +1,70 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Loads the geographic locations of landmarks from a side file kept next to the adjacency
+ * matrix, since the matrix itself only has names. Landmarks the file does not list simply
+ * have no location; nothing is guessed for them.
+ *
+ * <p>The file format is CSV with the header {@value #HEADER} and one landmark per line, with
+ * the latitude and longitude in decimal degrees (WGS84, as reported by phone GPS). The last two
+ * columns are the coordinates, so landmark names may themselves contain commas.
+ */
+public class NodeCoordinates {
+
+    // First line of a coordinates file
+    public static final String HEADER = "landmark,latitude,longitude";
+
+    /**
+     * Reads a coordinates file and sets the location of each listed landmark of the graph.
+     *
+     * @param file The coordinates file.
+     * @param graph The graph whose landmarks to locate.
+     * @return The number of landmarks located.
+     * @throws IOException If the file cannot be read, or a line is malformed or names an unknown landmark.
+     */
+    public static int load(Path file, Graph graph) throws IOException {
+        Map<String, Node> byName = new HashMap<>();
+        for (Node node : graph.snapshot().getNodes()) {
+            byName.put(node.getName().toLowerCase(Locale.ROOT), node);
+        }
+        int located = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            reader.readLine(); // Skip the header
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                int lonComma = line.lastIndexOf(',');
+                int latComma = lonComma > 0 ? line.lastIndexOf(',', lonComma - 1) : -1;
+                if (latComma <= 0) {
+                    throw new IOException("Expected landmark, latitude and longitude on line " + lineNumber + ": " + line);
+                }
+                String name = line.substring(0, latComma).trim();
+                Node node = byName.get(name.toLowerCase(Locale.ROOT));
+                if (node == null) {
+                    throw new IOException("Unknown landmark on line " + lineNumber + ": " + name);
+                }
+                try {
+                    node.setLocation(Double.parseDouble(line.substring(latComma + 1, lonComma).trim()),
+                            Double.parseDouble(line.substring(lonComma + 1).trim()));
+                } catch (IllegalArgumentException e) {
+                    // Also covers NumberFormatException
+                    throw new IOException("Invalid coordinates on line " + lineNumber + ": " + line);
+                }
+                located++;
+            }
+        }
+        return located;
+    }
+}
@@ -0,0 +1,166 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Dijkstra's algorithm over a {@link QuantizedGraph}, with integer distances kept in a
+ * {@link RadixHeap}. Costs match the double-precision searches in {@link IndexedDijkstra} and
+ * {@link AStar} to within {@link QuantizedGraph#errorBound(int)}.
+ */
+public class QuantizedDijkstra {
+
+    /**
+     * Computes the integer distance from a source to every node.
+     *
+     * @param graph The quantized graph.
+     * @param source The origin index.
+     * @return The distances in integer units, with {@link Long#MAX_VALUE} for unreachable nodes.
+     */
+    public static long[] distances(QuantizedGraph graph, int source) {
+        Scratch scratch = Scratch.acquire(graph.size());
+        try {
+            search(graph, source, -1, scratch);
+            long[] dist = new long[graph.size()];
+            for (int v = 0; v < dist.length; v++) {
+                dist[v] = scratch.distance(v);
+            }
+            return dist;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Finds the shortest path between two nodes, stopping once the target is settled. The
+     * search runs in pooled working arrays, so the returned path is the only allocation.
+     *
+     * @param graph The quantized graph.
+     * @param source The source node index.
+     * @param target The target node index.
+     * @return The path, its cost converted back to the metric's units and the number of settled nodes.
+     */
+    public static IndexedPath findShortestPath(QuantizedGraph graph, int source, int target) {
+        Scratch scratch = Scratch.acquire(graph.size());
+        try {
+            int settled = search(graph, source, target, scratch);
+            return IndexedPath.fromParents(scratch.parent, source, target, graph.toMetric(scratch.distance(target)), settled);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Runs the search, leaving the distances and parents in the given scratch space.
+     *
+     * @param graph The quantized graph.
+     * @param source The origin index.
+     * @param target The index to stop at, or -1 to settle every reachable node.
+     * @param scratch The working arrays, freshly acquired.
+     * @return The number of settled nodes.
+     */
+    private static int search(QuantizedGraph graph, int source, int target, Scratch scratch) {
+        IndexedGraph indexed = graph.getGraph();
+        int[] offsets = indexed.offsets();
+        int[] edgeTargets = indexed.targets();
+        int[] weights = graph.weights();
+        RadixHeap heap = scratch.heap;
+
+        scratch.reach(source, 0, -1);
+        heap.insertOrDecrease(source, 0);
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            long d = scratch.dist[u];
+            settled++;
+            if (u == target) {
+                break;
+            }
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = edgeTargets[e];
+                long alt = d + weights[e];
+                if (alt < scratch.distance(v)) {
+                    scratch.reach(v, alt, u);
+                    heap.insertOrDecrease(v, alt);
+                }
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * Reusable working arrays for one search at a time, shared through a bounded pool like
+     * {@link SearchScratch}. Entries are paired with the epoch of the search that wrote them,
+     * so starting a search only empties the heap and increments the epoch.
+     */
+    private static final class Scratch {
+
+        // Idle scratch spaces; one more searches than this run at once get a spare that is then dropped
+        private static final ArrayBlockingQueue<Scratch> POOL =
+                new ArrayBlockingQueue<>(Math.max(8, 2 * Runtime.getRuntime().availableProcessors()));
+
+        long[] dist;
+        int[] parent;
+        RadixHeap heap;
+        private int[] stamp;
+        private int epoch;
+
+        private Scratch(int size) {
+            allocate(size);
+        }
+
+        /**
+         * Takes a scratch space from the pool, or makes one if none is idle, ready for a new
+         * search over a graph of the given size.
+         */
+        static Scratch acquire(int size) {
+            Scratch scratch = POOL.poll();
+            if (scratch == null) {
+                scratch = new Scratch(size);
+            } else if (scratch.stamp.length < size) {
+                scratch.allocate(size);
+            }
+            scratch.begin();
+            return scratch;
+        }
+
+        /**
+         * Returns this scratch space to the pool. It must not be used afterwards.
+         */
+        void release() {
+            POOL.offer(this); // Dropped if the pool is already full
+        }
+
+        private void allocate(int size) {
+            dist = new long[size];
+            parent = new int[size];
+            stamp = new int[size];
+            heap = new RadixHeap(size);
+            epoch = 0;
+        }
+
+        private void begin() {
+            // A search that stopped at its target leaves nodes behind in the heap
+            heap.clear();
+            if (++epoch == 0) {
+                // The stamp wrapped around, so old entries could look current again
+                Arrays.fill(stamp, 0);
+                epoch = 1;
+            }
+        }
+
+        /**
+         * Returns a node's tentative distance in the current search, or {@link Long#MAX_VALUE}
+         * if the node has not been reached.
+         */
+        long distance(int node) {
+            return stamp[node] == epoch ? dist[node] : Long.MAX_VALUE;
+        }
+
+        void reach(int node, long distance, int from) {
+            dist[node] = distance;
+            parent[node] = from;
+            stamp[node] = epoch;
+        }
+    }
+}
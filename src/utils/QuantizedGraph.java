@@ -0,0 +1,122 @@
+package utils;
+
+/**
+ * An {@link IndexedGraph} whose edge weights for one metric are rounded to fixed-point integers,
+ * so that searches can use integer bucket queues instead of comparing doubles.
+ *
+ * <p>Each weight is multiplied by a scale and rounded to the nearest integer. With the default
+ * scale a distance of {@code 0.768476252} kilometres becomes {@code 768476} millimetres. Every
+ * edge is off by at most half a unit, so a path of {@code k} edges is off by at most
+ * {@code k / 2} units; see {@link #errorBound(int)}.
+ */
+public class QuantizedGraph {
+
+    // Kilometre distances become whole millimetres
+    public static final double DEFAULT_SCALE = 1_000_000;
+
+    private final IndexedGraph graph;
+    private final Metric metric;
+    private final double scale;
+    private final int[] weights;
+    private final int maxWeight;
+
+    private QuantizedGraph(IndexedGraph graph, Metric metric, double scale, int[] weights, int maxWeight) {
+        this.graph = graph;
+        this.metric = metric;
+        this.scale = scale;
+        this.weights = weights;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Quantizes a graph's weights using {@link #DEFAULT_SCALE}.
+     *
+     * @param graph The graph.
+     * @param metric The edge attribute to quantize.
+     * @return The quantized graph.
+     */
+    public static QuantizedGraph of(IndexedGraph graph, Metric metric) {
+        return of(graph, metric, DEFAULT_SCALE);
+    }
+
+    /**
+     * Quantizes a graph's weights.
+     *
+     * @param graph The graph.
+     * @param metric The edge attribute to quantize.
+     * @param scale The number of integer units per unit of the metric.
+     * @return The quantized graph.
+     * @throws IllegalArgumentException If the scale is not positive, or a weight is negative,
+     *                                  not finite or too large for an int at this scale.
+     */
+    public static QuantizedGraph of(IndexedGraph graph, Metric metric, double scale) {
+        if (!(scale > 0)) {
+            throw new IllegalArgumentException("Scale must be positive: " + scale);
+        }
+        double[] source = graph.weights(metric);
+        int[] weights = new int[source.length];
+        int maxWeight = 0;
+        for (int e = 0; e < source.length; e++) {
+            double scaled = Math.rint(source[e] * scale);
+            if (!(scaled >= 0 && scaled <= Integer.MAX_VALUE)) {
+                throw new IllegalArgumentException("Edge weight " + source[e] + " cannot be quantized at scale " + scale);
+            }
+            weights[e] = (int) scaled;
+            maxWeight = Math.max(maxWeight, weights[e]);
+        }
+        return new QuantizedGraph(graph, metric, scale, weights, maxWeight);
+    }
+
+    public IndexedGraph getGraph() {
+        return graph;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public int size() {
+        return graph.size();
+    }
+
+    /**
+     * Returns the largest quantized edge weight.
+     *
+     * @return The maximum weight in integer units.
+     */
+    public int getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Converts an integer path cost back into the metric's units.
+     *
+     * @param units The cost in integer units.
+     * @return The cost, or {@link Double#POSITIVE_INFINITY} for {@link Long#MAX_VALUE}.
+     */
+    public double toMetric(long units) {
+        return units == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : units / scale;
+    }
+
+    /**
+     * Returns the largest possible difference between the quantized and the exact cost of a
+     * shortest path with the given number of edges.
+     *
+     * @param edges The number of edges on the path.
+     * @return The error bound in the metric's units.
+     */
+    public double errorBound(int edges) {
+        return edges * 0.5 / scale;
+    }
+
+    /**
+     * Returns the quantized weights, indexed like {@link IndexedGraph#targets()}.
+     */
+    int[] weights() {
+        return weights;
+    }
+}
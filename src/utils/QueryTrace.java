@@ -0,0 +1,206 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A sequence of route queries to replay against a graph, either read from a file or
+ * synthesized with a Zipf-skewed choice of landmarks: a few landmarks such as the main gate
+ * or the library appear in most queries, and the rest only rarely.
+ *
+ * <p>The file format is CSV with the header {@value #HEADER} and one query per line; the
+ * metric column may be left out, in which case the query minimises distance.
+ */
+public class QueryTrace {
+
+    // First line of a trace file
+    public static final String HEADER = "source,destination,metric";
+
+    private final Node[] sources;
+    private final Node[] destinations;
+    private final Metric[] metrics;
+
+    private QueryTrace(Node[] sources, Node[] destinations, Metric[] metrics) {
+        this.sources = sources;
+        this.destinations = destinations;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Synthesizes a trace whose sources and destinations are drawn independently from a Zipf
+     * distribution over the landmarks, never with the same landmark at both ends. The
+     * popularity order of the landmarks is a seeded shuffle, so it does not follow the order
+     * of the graph.
+     *
+     * @param nodes The landmarks to choose from; at least two.
+     * @param count The number of queries.
+     * @param exponent The Zipf exponent: 0 for a uniform choice, about 1 for typical popularity skew.
+     * @param timeShare The fraction of queries that minimise walking time instead of distance.
+     * @param seed The seed, so the same arguments always give the same trace.
+     * @return The trace.
+     * @throws IllegalArgumentException If there are fewer than two landmarks or an argument is out of range.
+     */
+    public static QueryTrace zipf(List<Node> nodes, int count, double exponent, double timeShare, long seed) {
+        if (nodes.size() < 2) {
+            throw new IllegalArgumentException("At least two landmarks are needed");
+        }
+        if (count < 0 || exponent < 0 || timeShare < 0 || timeShare > 1) {
+            throw new IllegalArgumentException("Invalid trace parameters: count=" + count + ", exponent=" + exponent + ", timeShare=" + timeShare);
+        }
+        Random random = new Random(seed);
+        List<Node> byPopularity = new ArrayList<>(nodes);
+        Collections.shuffle(byPopularity, random);
+
+        // Cumulative weights of rank k, proportional to 1 / (k + 1)^exponent
+        double[] cumulative = new double[byPopularity.size()];
+        double total = 0;
+        for (int k = 0; k < cumulative.length; k++) {
+            total += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = total;
+        }
+
+        Node[] sources = new Node[count];
+        Node[] destinations = new Node[count];
+        Metric[] metrics = new Metric[count];
+        for (int i = 0; i < count; i++) {
+            Node source = byPopularity.get(sample(cumulative, total, random));
+            Node destination;
+            do {
+                destination = byPopularity.get(sample(cumulative, total, random));
+            } while (destination.equals(source));
+            sources[i] = source;
+            destinations[i] = destination;
+            metrics[i] = random.nextDouble() < timeShare ? Metric.TIME : Metric.DISTANCE;
+        }
+        return new QueryTrace(sources, destinations, metrics);
+    }
+
+    /**
+     * Draws a rank with probability proportional to its weight.
+     */
+    private static int sample(double[] cumulative, double total, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    /**
+     * Reads a trace file, resolving landmark names against a graph.
+     *
+     * @param file The trace file.
+     * @param graph The graph the queries will run on.
+     * @return The trace.
+     * @throws IOException If the file cannot be read, a line is malformed or names an unknown landmark.
+     */
+    public static QueryTrace read(Path file, Graph graph) throws IOException {
+        // Index the names once; a lookup per line would be quadratic on large graphs
+        Map<String, Node> byName = new HashMap<>();
+        for (Node node : graph.snapshot().getNodes()) {
+            byName.put(node.getName().toLowerCase(Locale.ROOT), node);
+        }
+        List<Node> sources = new ArrayList<>();
+        List<Node> destinations = new ArrayList<>();
+        List<Metric> metrics = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            reader.readLine(); // Skip the header
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] values = line.split(",\\s*");
+                if (values.length < 2) {
+                    throw new IOException("Expected source and destination on line " + lineNumber + ": " + line);
+                }
+                sources.add(resolve(byName, values[0], lineNumber));
+                destinations.add(resolve(byName, values[1], lineNumber));
+                try {
+                    metrics.add(values.length > 2 ? Metric.parse(values[2]) : Metric.DISTANCE);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Unknown metric on line " + lineNumber + ": " + values[2]);
+                }
+            }
+        }
+        return new QueryTrace(sources.toArray(new Node[0]), destinations.toArray(new Node[0]), metrics.toArray(new Metric[0]));
+    }
+
+    private static Node resolve(Map<String, Node> byName, String name, int lineNumber) throws IOException {
+        Node node = byName.get(name.trim().toLowerCase(Locale.ROOT));
+        if (node == null) {
+            throw new IOException("Unknown landmark on line " + lineNumber + ": " + name);
+        }
+        return node;
+    }
+
+    /**
+     * Writes the trace in the format {@link #read(Path, Graph)} accepts.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int i = 0; i < sources.length; i++) {
+                writer.write(sources[i].getName());
+                writer.write(',');
+                writer.write(destinations[i].getName());
+                writer.write(',');
+                writer.write(metrics[i].name().toLowerCase(Locale.ROOT));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of queries.
+     *
+     * @return The query count.
+     */
+    public int size() {
+        return sources.length;
+    }
+
+    /**
+     * Returns the starting landmark of a query.
+     *
+     * @param query The query index.
+     * @return The source node.
+     */
+    public Node source(int query) {
+        return sources[query];
+    }
+
+    /**
+     * Returns the target landmark of a query.
+     *
+     * @param query The query index.
+     * @return The destination node.
+     */
+    public Node destination(int query) {
+        return destinations[query];
+    }
+
+    /**
+     * Returns the edge attribute a query minimises.
+     *
+     * @param query The query index.
+     * @return The metric.
+     */
+    public Metric metric(int query) {
+        return metrics[query];
+    }
+}
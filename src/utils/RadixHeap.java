@@ -0,0 +1,167 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * A monotone priority queue of node indices with non-negative long keys and decrease-key
+ * support, the integer counterpart of {@link IndexedMinHeap}.
+ *
+ * <p>Nodes are kept in 65 buckets by the highest bit in which their key differs from the last
+ * key removed. Removing the minimum only redistributes the first non-empty bucket, and every
+ * node it holds moves to a strictly lower bucket, so a node moves at most 64 times. Inserting
+ * and decreasing keys compare no keys at all. This only works because Dijkstra's algorithm
+ * never inserts a key smaller than the last one removed.
+ */
+public class RadixHeap {
+    private static final int BUCKETS = 65;
+
+    private final int[][] buckets = new int[BUCKETS][];
+    private final int[] bucketSizes = new int[BUCKETS];
+    private final long[] keys;
+    private final int[] bucketOf;
+    private final int[] positions;
+    private long last;
+    private int size;
+
+    /**
+     * Constructs an empty heap for node indices 0..capacity-1.
+     *
+     * @param capacity The number of nodes.
+     */
+    public RadixHeap(int capacity) {
+        keys = new long[capacity];
+        bucketOf = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(bucketOf, -1);
+        for (int b = 0; b < BUCKETS; b++) {
+            buckets[b] = new int[4];
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether a node is currently in the heap.
+     *
+     * @param node The node index.
+     * @return true if the node is in the heap; false otherwise.
+     */
+    public boolean contains(int node) {
+        return bucketOf[node] >= 0;
+    }
+
+    /**
+     * Inserts a node, or lowers its key if it is already in the heap with a larger key.
+     *
+     * @param node The node index.
+     * @param key The node's key, no smaller than the last key removed.
+     * @throws IllegalArgumentException If the key is smaller than the last key removed.
+     */
+    public void insertOrDecrease(int node, long key) {
+        if (key < last) {
+            throw new IllegalArgumentException("Key " + key + " is smaller than the last removed key " + last);
+        }
+        if (bucketOf[node] >= 0) {
+            if (key >= keys[node]) {
+                return;
+            }
+            removeFromBucket(node);
+        } else {
+            size++;
+        }
+        keys[node] = key;
+        addToBucket(bucket(key), node);
+    }
+
+    /**
+     * Returns the smallest key in the heap.
+     *
+     * @return The smallest key.
+     */
+    public long peekKey() {
+        refill();
+        return last;
+    }
+
+    /**
+     * Removes and returns a node with the smallest key.
+     *
+     * @return The node index.
+     */
+    public int poll() {
+        refill();
+        int node = buckets[0][--bucketSizes[0]];
+        bucketOf[node] = -1;
+        size--;
+        return node;
+    }
+
+    /**
+     * Removes every node and resets the minimum key to zero, in time proportional to the
+     * number of nodes in the heap.
+     */
+    public void clear() {
+        for (int b = 0; b < BUCKETS; b++) {
+            for (int i = 0; i < bucketSizes[b]; i++) {
+                bucketOf[buckets[b][i]] = -1;
+            }
+            bucketSizes[b] = 0;
+        }
+        size = 0;
+        last = 0;
+    }
+
+    private int bucket(long key) {
+        return key == last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    /**
+     * Makes sure bucket 0 holds the nodes with the smallest key, by moving the smallest key of
+     * the first non-empty bucket into {@code last} and redistributing that bucket.
+     */
+    private void refill() {
+        if (bucketSizes[0] > 0) {
+            return;
+        }
+        int b = 1;
+        while (bucketSizes[b] == 0) {
+            b++;
+        }
+        int[] bucket = buckets[b];
+        int count = bucketSizes[b];
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, keys[bucket[i]]);
+        }
+        last = min;
+        bucketSizes[b] = 0;
+        for (int i = 0; i < count; i++) {
+            // Every node lands in a lower bucket, because its key now agrees with last above bit b
+            addToBucket(bucket(keys[bucket[i]]), bucket[i]);
+        }
+    }
+
+    private void addToBucket(int b, int node) {
+        int count = bucketSizes[b];
+        if (count == buckets[b].length) {
+            buckets[b] = Arrays.copyOf(buckets[b], count * 2);
+        }
+        buckets[b][count] = node;
+        bucketOf[node] = b;
+        positions[node] = count;
+        bucketSizes[b] = count + 1;
+    }
+
+    private void removeFromBucket(int node) {
+        int b = bucketOf[node];
+        int moved = buckets[b][--bucketSizes[b]];
+        buckets[b][positions[node]] = moved;
+        positions[moved] = positions[node];
+    }
+}
@@ -0,0 +1,268 @@
+package utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache of shortest-path results keyed by (source, destination, metric).
+ *
+ * <p>A route and its reverse share one {@link RouteKey}, so results for the opposite
+ * direction are answered by reversing the cached path.
+ *
+ * <p>The cache is split into independently locked segments, each evicting its least recently
+ * used entry when full. The cache listens to its graph and, for every edge added, removed or
+ * updated, drops only the routes the change can affect, so reloading the data does not leave
+ * a cold cache behind. A route is only stored if it was computed on the graph version the
+ * cache is in step with. If the cache ever misses a change, it drops everything.
+ *
+ * <p>Between a change being published and the cache being told about it, a lookup can still
+ * return a route from just before the change, exactly as a search that started just before
+ * the change would.
+ */
+public class RouteCache implements GraphListener {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private volatile long graphVersion;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder staleRemovals = new LongAdder();
+
+    /**
+     * Constructs a cache for routes on the given graph.
+     *
+     * @param graph The graph the cached routes were computed on.
+     * @param maximumSize The maximum number of entries held across all segments.
+     */
+    public RouteCache(Graph graph, int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maximumSize);
+        }
+        this.graphVersion = graph.getVersion();
+        int segmentCapacity = Math.max(1, (maximumSize + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+        graph.addListener(this);
+    }
+
+    /**
+     * Looks up a cached route, reversing a cached route in the opposite direction if needed.
+     *
+     * @param source The starting node.
+     * @param destination The target node.
+     * @param metric The metric the route is optimised for.
+     * @return The cached route, or null if none is cached for the current graph.
+     */
+    public RouteResult get(Node source, Node destination, Metric metric) {
+        RouteKey key = new RouteKey(source, destination, metric);
+        RouteResult cached;
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        RoutingMetrics.recordCacheLookup(cached != null);
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return RouteKey.orient(cached, source);
+    }
+
+    /**
+     * Stores a route, provided it was computed on the graph version the cache is in step with.
+     *
+     * @param result The route to cache.
+     * @param computedAtVersion The version of the graph snapshot the route was computed on.
+     */
+    public void put(RouteResult result, long computedAtVersion) {
+        RouteKey key = new RouteKey(result.getSource(), result.getDestination(), result.getMetric());
+        RouteResult canonical = RouteKey.orient(result, key.first);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            // Checked under the segment lock: a change publishes its version before sweeping,
+            // so either this sees the new version or the sweep sees this entry
+            if (computedAtVersion != graphVersion) {
+                return; // Computed on a graph the cache has not caught up with, or that has since changed
+            }
+            segment.put(key, canonical);
+        }
+    }
+
+    /**
+     * Removes every entry from the cache.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * Drops the cached routes that an edge change can make wrong, keeping all others.
+     *
+     * <p>A route that uses the changed walkway always goes, since its cost changed. If the
+     * walkway got longer or was removed, no other route is affected. If it got shorter, a
+     * route can only improve if it currently costs more than the new walkway alone.
+     *
+     * @param change The change to the graph.
+     */
+    @Override
+    public void edgeChanged(EdgeChange change) {
+        synchronized (this) {
+            if (change.getVersion() <= graphVersion) {
+                return; // Already covered by dropping everything
+            }
+            boolean missedChange = change.getVersion() != graphVersion + 1;
+            // Publish the version first so no route from before the change is stored after
+            // its segment has been swept
+            graphVersion = change.getVersion();
+            if (missedChange) {
+                // An earlier change has not arrived yet, so nothing cached can be trusted
+                invalidateAll();
+                return;
+            }
+            for (Segment segment : segments) {
+                synchronized (segment) {
+                    Iterator<RouteResult> iterator = segment.values().iterator();
+                    while (iterator.hasNext()) {
+                        if (isAffected(iterator.next(), change)) {
+                            iterator.remove();
+                            staleRemovals.increment();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps the cache in step with the graph version. A new node cannot change any cached route.
+     *
+     * @param node The new node.
+     * @param version The graph version produced by the addition.
+     */
+    @Override
+    public void nodeAdded(Node node, long version) {
+        synchronized (this) {
+            if (version == graphVersion + 1) {
+                graphVersion = version;
+            } else if (version > graphVersion) {
+                graphVersion = version;
+                invalidateAll();
+            }
+        }
+    }
+
+    private static boolean isAffected(RouteResult result, EdgeChange change) {
+        List<Node> path = result.getPath();
+        for (int i = 0; i + 1 < path.size(); i++) {
+            if (change.connects(path.get(i), path.get(i + 1))) {
+                return true;
+            }
+        }
+        Metric metric = result.getMetric();
+        double newWeight = change.newWeight(metric);
+        return newWeight < change.oldWeight(metric) && result.getCost() > newWeight;
+    }
+
+    /**
+     * Returns the number of entries currently cached.
+     *
+     * @return The cache size.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Returns the number of entries dropped individually because an edge change affected them.
+     *
+     * @return The number of stale entries removed.
+     */
+    public long getStaleRemovalCount() {
+        return staleRemovals.sum();
+    }
+
+    /**
+     * Returns the fraction of lookups that were answered from the cache.
+     *
+     * @return The hit rate between 0 and 1, or 0 if there were no lookups.
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteCache[size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", hitRate=" + String.format("%.3f", getHitRate()) + ", evictions=" + getEvictionCount()
+                + ", invalidations=" + getInvalidationCount() + ", staleRemovals=" + getStaleRemovalCount() + "]";
+    }
+
+    private Segment segmentFor(RouteKey key) {
+        return segments[segmentIndex(key)];
+    }
+
+    static int segmentIndex(RouteKey key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1);
+    }
+
+    /**
+     * One independently locked part of the cache, evicting in least-recently-used order.
+     */
+    private class Segment extends LinkedHashMap<RouteKey, RouteResult> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RouteKey, RouteResult> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
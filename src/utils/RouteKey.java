@@ -0,0 +1,51 @@
+package utils;
+
+/**
+ * Identifies a route query by its two endpoints and metric. The endpoints are stored in
+ * canonical (name) order, so a route and its reverse map to the same key; this is valid
+ * because {@link Graph#addEdge} makes every edge symmetric.
+ */
+class RouteKey {
+    final Node first;
+    final Node second;
+    final Metric metric;
+
+    /**
+     * Constructs the key for a query in either direction.
+     *
+     * @param source The starting node.
+     * @param destination The target node.
+     * @param metric The metric the route is optimised for.
+     */
+    RouteKey(Node source, Node destination, Metric metric) {
+        boolean inOrder = source.getName().compareTo(destination.getName()) <= 0;
+        this.first = inOrder ? source : destination;
+        this.second = inOrder ? destination : source;
+        this.metric = metric;
+    }
+
+    /**
+     * Orients a route computed for this key to start at the given source.
+     *
+     * @param result A route between this key's two nodes, in either direction.
+     * @param source The node the caller wants the route to start from.
+     * @return The route starting at the source.
+     */
+    static RouteResult orient(RouteResult result, Node source) {
+        return result.getSource().equals(source) ? result : result.reversed();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof RouteKey)) {
+            return false;
+        }
+        RouteKey other = (RouteKey) obj;
+        return first.equals(other.first) && second.equals(other.second) && metric == other.metric;
+    }
+
+    @Override
+    public int hashCode() {
+        return (first.hashCode() * 31 + second.hashCode()) * 31 + metric.ordinal();
+    }
+}
@@ -0,0 +1,96 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The immutable outcome of a single route query: the path found between two nodes
+ * together with its total distance and walking time.
+ */
+public class RouteResult {
+    private final Node source;
+    private final Node destination;
+    private final Metric metric;
+    private final List<Node> path;
+    private final double distance;
+    private final double time;
+
+    /**
+     * Constructs a route result.
+     *
+     * @param source The starting node.
+     * @param destination The target node.
+     * @param metric The metric the route was optimised for.
+     * @param path The nodes on the route, or an empty list if the destination is unreachable.
+     * @param distance The total distance of the route.
+     * @param time The total time of the route.
+     */
+    public RouteResult(Node source, Node destination, Metric metric, List<Node> path, double distance, double time) {
+        this.source = source;
+        this.destination = destination;
+        this.metric = metric;
+        this.path = Collections.unmodifiableList(new ArrayList<>(path));
+        this.distance = distance;
+        this.time = time;
+    }
+
+    public Node getSource() {
+        return source;
+    }
+
+    public Node getDestination() {
+        return destination;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public List<Node> getPath() {
+        return path;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the cost of the route under the metric it was optimised for.
+     *
+     * @return The route's distance or time.
+     */
+    public double getCost() {
+        return metric == Metric.TIME ? time : distance;
+    }
+
+    /**
+     * Checks whether a route to the destination was found.
+     *
+     * @return true if the path is non-empty; false otherwise.
+     */
+    public boolean isFound() {
+        return !path.isEmpty();
+    }
+
+    /**
+     * Returns the same route travelled in the opposite direction. Valid because
+     * {@link Graph#addEdge} always stores an edge in both directions with equal weights.
+     *
+     * @return The reversed route.
+     */
+    public RouteResult reversed() {
+        ArrayList<Node> reversedPath = new ArrayList<>(path);
+        Collections.reverse(reversedPath);
+        return new RouteResult(destination, source, metric, reversedPath, distance, time);
+    }
+
+    @Override
+    public String toString() {
+        return CLI.printPath(path) + " Distance: " + distance + " Time: " + time;
+    }
+}
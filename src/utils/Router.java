@@ -0,0 +1,296 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The routing API shared by the interfaces and the HTTP service. It answers shortest-path
+ * queries on one graph and keeps recently computed routes in a {@link RouteCache}.
+ * Cache misses for the same route that arrive while it is being computed share that one
+ * computation through a {@link SingleFlight}, in either direction.
+ */
+public class Router {
+
+    // Default number of routes kept in the cache
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+
+    // How often a query waiting on another caller's search re-checks its own token
+    private static final long AWAIT_POLL_MILLIS = 5;
+
+    private final Graph graph;
+    private final RouteCache cache;
+    private final SingleFlight<RouteKey, RouteResult> inFlight = new SingleFlight<>();
+    private volatile IndexedGraph indexedGraph;
+    private volatile LandmarkCategories categories = LandmarkCategories.fromNames();
+    private volatile FacilityIndex facilityIndex;
+    private volatile GeoIndex geoIndex;
+
+    /**
+     * Constructs a router with a cache of the default size.
+     *
+     * @param graph The graph to route on.
+     */
+    public Router(Graph graph) {
+        this(graph, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a router with a cache of the given size.
+     *
+     * @param graph The graph to route on.
+     * @param cacheSize The maximum number of cached routes.
+     */
+    public Router(Graph graph, int cacheSize) {
+        this.graph = graph;
+        this.cache = new RouteCache(graph, cacheSize);
+    }
+
+    /**
+     * Finds the shortest route between two nodes, answering from the cache when possible.
+     *
+     * @param source The starting node.
+     * @param destination The target node.
+     * @param metric The edge attribute to minimise.
+     * @return The route, with an empty path if the destination cannot be reached.
+     */
+    public RouteResult route(Node source, Node destination, Metric metric) {
+        return route(source, destination, metric, CancellationToken.NONE);
+    }
+
+    /**
+     * Finds the shortest route between two nodes, stopping early when the token is cancelled.
+     * If this query attached to another caller's search and that search was cancelled,
+     * the query runs its own search under its own token.
+     *
+     * @param source The starting node.
+     * @param destination The target node.
+     * @param metric The edge attribute to minimise.
+     * @param token The token that stops the search when cancelled or expired.
+     * @return The route, with an empty path if the destination cannot be reached.
+     * @throws SearchCancelledException If the token is cancelled before a route is found.
+     */
+    public RouteResult route(Node source, Node destination, Metric metric, CancellationToken token) {
+        RouteResult cached = cache.get(source, destination, metric);
+        if (cached != null) {
+            return cached;
+        }
+
+        RouteKey key = new RouteKey(source, destination, metric);
+        while (true) {
+            token.throwIfCancelled();
+            try {
+                CompletableFuture<RouteResult> shared = inFlight.execute(key, () -> {
+                    GraphSnapshot snapshot = graph.snapshot();
+                    RouteResult computed = Dijkstra.route(snapshot, key.first, key.second, metric, token);
+                    // Cache before the in-flight entry is removed so late arrivals always find one of them
+                    cache.put(computed, snapshot.getVersion());
+                    return computed;
+                });
+                return RouteKey.orient(await(shared, token), source);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof SearchCancelledException && !token.isCancelled()) {
+                    continue; // The shared search belonged to a caller that gave up; run our own
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Computes distances from every source to every target with one bounded search per
+     * distinct source. See {@link DistanceMatrix}.
+     *
+     * @param sources The origins, one per row.
+     * @param targets The destinations, one per column.
+     * @param metric The edge attribute to sum.
+     * @return The dense distance matrix, with {@link Double#POSITIVE_INFINITY} for unreachable pairs.
+     */
+    public double[][] distanceMatrix(List<Node> sources, List<Node> targets, Metric metric) {
+        return DistanceMatrix.distanceMatrix(getIndexedGraph(), sources, targets, metric);
+    }
+
+    /**
+     * Plans the best order in which to visit several stops. See {@link TourPlanner}.
+     *
+     * @param stops The stops; the first is where the tour starts.
+     * @param returnToStart Whether the tour ends back at the first stop.
+     * @param metric The edge attribute to minimise.
+     * @return The tour, with the full route of each leg.
+     */
+    public Tour planTour(List<Node> stops, boolean returnToStart, Metric metric) {
+        return TourPlanner.plan(getIndexedGraph(), stops, returnToStart, metric);
+    }
+
+    /**
+     * Finds the route with the fewest intermediate landmarks. See {@link FewestHops}.
+     *
+     * @param source The starting node.
+     * @param destination The target node.
+     * @return The route, labelled with the distance metric and carrying both distance and
+     *         time totals, with an empty path if the destination cannot be reached.
+     */
+    public RouteResult fewestHops(Node source, Node destination) {
+        IndexedGraph indexed = getIndexedGraph();
+        int from = indexed.indexOf(source);
+        int to = indexed.indexOf(destination);
+        return FewestHops.shortestPath(indexed, from, to).toRouteResult(indexed, from, to, Metric.DISTANCE);
+    }
+
+    /**
+     * Finds the landmarks reachable from an origin within a budget. See {@link IsochroneSearch}.
+     *
+     * @param origin The landmark to start from.
+     * @param budget The largest cost to include, in the units of the metric.
+     * @param metric The edge attribute to sum, time for a walking radius.
+     * @return The reachable landmarks and their costs.
+     */
+    public Isochrone reachable(Node origin, double budget, Metric metric) {
+        return IsochroneSearch.reachable(getIndexedGraph(), origin, budget, metric);
+    }
+
+    /**
+     * Finds the landmarks reachable within a budget from each of several origins in parallel.
+     *
+     * @param origins The landmarks to start from.
+     * @param budget The largest cost to include, in the units of the metric.
+     * @param metric The edge attribute to sum.
+     * @return One isochrone per origin, in the order given.
+     */
+    public List<Isochrone> reachable(List<Node> origins, double budget, Metric metric) {
+        return IsochroneSearch.reachable(getIndexedGraph(), origins, budget, metric);
+    }
+
+    /**
+     * Returns the indexed form of the graph, rebuilding it if the graph has changed since
+     * it was last built.
+     *
+     * @return The indexed graph.
+     */
+    public IndexedGraph getIndexedGraph() {
+        IndexedGraph current = indexedGraph;
+        if (current == null || current.getVersion() != graph.getVersion()) {
+            current = IndexedGraph.of(graph);
+            indexedGraph = current;
+        }
+        return current;
+    }
+
+    /**
+     * Finds the K landmarks of a category closest to a landmark. See {@link FacilityIndex}.
+     *
+     * @param source The landmark asking.
+     * @param category The category to look for, such as "hall" or "library".
+     * @param k The number of landmarks wanted.
+     * @param metric The edge attribute to minimise.
+     * @return Up to K routes, nearest first.
+     */
+    public List<RouteResult> nearestFacilities(Node source, String category, int k, Metric metric) {
+        if (k == 1) {
+            RouteResult nearest = getFacilityIndex().nearest(source, category, metric);
+            return nearest == null ? new ArrayList<>() : new ArrayList<>(List.of(nearest));
+        }
+        return getFacilityIndex().nearest(source, category, k, metric);
+    }
+
+    /**
+     * Returns the category index of the current graph, rebuilding it if the graph or the
+     * categories have changed since it was last built.
+     *
+     * @return The facility index.
+     */
+    public FacilityIndex getFacilityIndex() {
+        FacilityIndex current = facilityIndex;
+        IndexedGraph indexed = getIndexedGraph();
+        if (current == null || current.getGraph() != indexed || current.getCategories() != categories) {
+            current = new FacilityIndex(indexed, categories);
+            facilityIndex = current;
+        }
+        return current;
+    }
+
+    /**
+     * Finds the landmarks closest to a GPS position, for starting a route from it. Only
+     * landmarks with a location take part. See {@link GeoIndex}.
+     *
+     * @param latitude The latitude in degrees.
+     * @param longitude The longitude in degrees.
+     * @param k The number of landmarks wanted.
+     * @return Up to K landmarks with their straight-line distances, nearest first.
+     */
+    public List<GeoIndex.Snap> snap(double latitude, double longitude, int k) {
+        GeoIndex current = geoIndex;
+        IndexedGraph indexed = getIndexedGraph();
+        if (current == null || current.getGraph() != indexed) {
+            current = new GeoIndex(indexed);
+            geoIndex = current;
+        }
+        return current.nearest(latitude, longitude, k);
+    }
+
+    /**
+     * Replaces the landmark categories, for example with ones loaded from a category file.
+     *
+     * @param categories The categories to use from now on.
+     */
+    public void setCategories(LandmarkCategories categories) {
+        this.categories = categories;
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public RouteCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns how many cache misses ran a search themselves.
+     *
+     * @return The number of searches performed.
+     */
+    public long getSearchCount() {
+        return inFlight.getLeaderCount();
+    }
+
+    /**
+     * Returns how many cache misses attached to an identical search already in flight.
+     *
+     * @return The number of coalesced queries.
+     */
+    public long getCoalescedCount() {
+        return inFlight.getCoalescedCount();
+    }
+
+    /**
+     * Waits for a shared search to finish while honouring the caller's own token.
+     *
+     * @param future The shared search.
+     * @param token The caller's token.
+     * @return The search result.
+     * @throws CompletionException If the shared search failed.
+     * @throws SearchCancelledException If the caller's token is cancelled while waiting.
+     */
+    private static RouteResult await(CompletableFuture<RouteResult> future, CancellationToken token) {
+        while (true) {
+            try {
+                return future.get(AWAIT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                token.throwIfCancelled();
+            } catch (ExecutionException e) {
+                throw new CompletionException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SearchCancelledException("Interrupted while waiting for a shared search", false);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for each phase of answering a route request, so a slow request
+ * can be broken down into name resolution, search, route enumeration, sorting and formatting
+ * in a recording, next to the JVM's own GC and lock events. Nodes are identified by name.
+ *
+ * <p>The events are only written while a recording with them enabled is running, for example
+ * {@code java -XX:StartFlightRecording:filename=routing.jfr ...}; otherwise creating and
+ * timing one costs next to nothing. Fields are filled in only after
+ * {@link Event#shouldCommit()}, so a disabled event never builds its strings.
+ */
+public final class RoutingEvents {
+
+    private static final String CATEGORY = "Campus Navigation";
+
+    private RoutingEvents() {
+    }
+
+    /**
+     * Resolving a landmark name to its node.
+     */
+    @Name("utils.NodeLookup")
+    @Label("Node Lookup")
+    @Category({CATEGORY, "Routing"})
+    @Description("Resolving a landmark name to a node")
+    @StackTrace(false)
+    public static final class NodeLookup extends Event {
+        @Label("Name")
+        public String name;
+
+        @Label("Found")
+        public boolean found;
+
+        @Label("Node Count")
+        public int nodeCount;
+    }
+
+    /**
+     * One shortest-path search.
+     */
+    @Name("utils.ShortestPath")
+    @Label("Shortest Path Search")
+    @Category({CATEGORY, "Routing"})
+    @Description("A single-pair shortest-path search")
+    public static final class ShortestPath extends Event {
+        @Label("Source")
+        public String source;
+
+        @Label("Destination")
+        public String destination;
+
+        @Label("Metric")
+        public String metric;
+
+        @Label("Node Count")
+        public int nodeCount;
+
+        @Label("Edge Count")
+        public int edgeCount;
+
+        @Label("Nodes Settled")
+        public long nodesSettled;
+
+        @Label("Edges Relaxed")
+        public long edgesRelaxed;
+
+        @Label("Path Length")
+        @Description("Nodes on the path found, 0 if the destination is unreachable or the search was cancelled")
+        public int pathLength;
+
+        @Label("Cancelled")
+        public boolean cancelled;
+    }
+
+    /**
+     * Enumerating every simple route between two landmarks.
+     */
+    @Name("utils.RouteEnumeration")
+    @Label("Route Enumeration")
+    @Category({CATEGORY, "Routing"})
+    @Description("Enumerating all simple routes between two landmarks")
+    public static final class RouteEnumeration extends Event {
+        @Label("Source")
+        public String source;
+
+        @Label("Destination")
+        public String destination;
+
+        @Label("Node Count")
+        public int nodeCount;
+
+        @Label("Edge Count")
+        public int edgeCount;
+
+        @Label("Paths Found")
+        public int pathCount;
+
+        @Label("Cancelled")
+        public boolean cancelled;
+    }
+
+    /**
+     * Sorting routes or landmark names.
+     */
+    @Name("utils.Sort")
+    @Label("Sort")
+    @Category({CATEGORY, "Presentation"})
+    @Description("Sorting routes by distance or landmark names")
+    @StackTrace(false)
+    public static final class Sort extends Event {
+        @Label("Kind")
+        @Description("What was sorted: routes or names")
+        public String kind;
+
+        @Label("Element Count")
+        public int elementCount;
+    }
+
+    /**
+     * Turning routes into text for one of the user interfaces.
+     */
+    @Name("utils.Format")
+    @Label("Route Formatting")
+    @Category({CATEGORY, "Presentation"})
+    @Description("Formatting routes for display")
+    @StackTrace(false)
+    public static final class Format extends Event {
+        @Label("Interface")
+        public String userInterface;
+
+        @Label("Route Count")
+        public int routeCount;
+    }
+
+    /**
+     * Ends a formatting event and writes it if a recording wants it.
+     *
+     * @param event The event, begun before formatting started.
+     * @param userInterface The interface and view the routes were formatted for.
+     * @param routeCount The number of routes formatted.
+     */
+    static void commitFormat(Format event, String userInterface, int routeCount) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.userInterface = userInterface;
+            event.routeCount = routeCount;
+            event.commit();
+        }
+    }
+
+    /**
+     * Reading a landmark file into a graph.
+     */
+    @Name("utils.GraphLoad")
+    @Label("Graph Load")
+    @Category({CATEGORY, "Loading"})
+    @Description("Parsing a landmark CSV file into a graph")
+    @StackTrace(false)
+    public static final class GraphLoad extends Event {
+        @Label("File")
+        public String file;
+
+        @Label("Format")
+        @Description("matrix or edge list")
+        public String format;
+
+        @Label("File Size")
+        @DataAmount
+        public long fileSize;
+
+        @Label("Node Count")
+        public int nodeCount;
+
+        @Label("Edge Count")
+        public int edgeCount;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+}
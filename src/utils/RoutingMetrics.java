@@ -0,0 +1,437 @@
+package utils;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide routing metrics: a latency histogram per operation plus counters of the work
+ * searches do. They can be read directly, through JMX, as text or JSON, or dumped
+ * periodically.
+ *
+ * <p>Searches count their work in local variables and publish it once per query, so the
+ * cost per query is a couple of clock reads and a few uncontended adds. Recording can be
+ * switched off at runtime, or at startup with {@code -Drouting.metrics=false}, after which
+ * it costs one volatile read per operation.
+ */
+public class RoutingMetrics {
+
+    /**
+     * The operations whose latency is recorded.
+     */
+    public enum Operation {
+        SHORTEST_PATH("shortestPath"),
+        ROUTE_ENUMERATION("routeEnumeration"),
+        CSV_PARSE("csvParse"),
+        EDGE_LOOKUP("edgeLookup"),
+        NODE_LOOKUP("nodeLookup");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Returns the name used in JSON and JMX.
+         *
+         * @return The camel-case name.
+         */
+        public String key() {
+            return key;
+        }
+    }
+
+    /**
+     * The JMX view of one operation's latency histogram, in microseconds.
+     */
+    public interface LatencyMXBean {
+        long getCount();
+
+        double getMeanMicros();
+
+        double getP50Micros();
+
+        double getP99Micros();
+
+        double getP999Micros();
+
+        double getMaxMicros();
+    }
+
+    /**
+     * The JMX view of the search counters, with a switch for recording.
+     */
+    public interface CountersMXBean {
+        boolean isEnabled();
+
+        void setEnabled(boolean enabled);
+
+        long getNodesSettled();
+
+        long getEdgesRelaxed();
+
+        long getHeapOperations();
+
+        long getPathsEnumerated();
+
+        long getCacheHits();
+
+        long getCacheMisses();
+
+        void reset();
+    }
+
+    private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("routing.metrics"));
+
+    private static final EnumMap<Operation, LatencyHistogram> HISTOGRAMS = new EnumMap<>(Operation.class);
+    private static final LongAdder NODES_SETTLED = new LongAdder();
+    private static final LongAdder EDGES_RELAXED = new LongAdder();
+    private static final LongAdder HEAP_OPERATIONS = new LongAdder();
+    private static final LongAdder PATHS_ENUMERATED = new LongAdder();
+    private static final LongAdder CACHE_HITS = new LongAdder();
+    private static final LongAdder CACHE_MISSES = new LongAdder();
+
+    private static ScheduledExecutorService reporter;
+
+    static {
+        for (Operation operation : Operation.values()) {
+            HISTOGRAMS.put(operation, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Checks whether metrics are being recorded.
+     *
+     * @return true if recording is on; false otherwise.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches recording on or off. Values already recorded are kept.
+     *
+     * @param on true to record; false to stop recording.
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return The start time to pass to a record method, or 0 if recording is off.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the latency of an operation.
+     *
+     * @param operation The operation.
+     * @param start The value returned by {@link #start()}.
+     */
+    public static void record(Operation operation, long start) {
+        if (start != 0 && enabled) {
+            HISTOGRAMS.get(operation).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a finished shortest-path search.
+     *
+     * @param start The value returned by {@link #start()}.
+     * @param settled The number of nodes settled.
+     * @param relaxed The number of edges relaxed.
+     * @param heapOperations The number of priority queue insertions and removals.
+     */
+    public static void recordSearch(long start, long settled, long relaxed, long heapOperations) {
+        if (start != 0 && enabled) {
+            HISTOGRAMS.get(Operation.SHORTEST_PATH).record(System.nanoTime() - start);
+            NODES_SETTLED.add(settled);
+            EDGES_RELAXED.add(relaxed);
+            HEAP_OPERATIONS.add(heapOperations);
+        }
+    }
+
+    /**
+     * Records a finished route enumeration.
+     *
+     * @param start The value returned by {@link #start()}.
+     * @param paths The number of paths found.
+     */
+    public static void recordEnumeration(long start, long paths) {
+        if (start != 0 && enabled) {
+            HISTOGRAMS.get(Operation.ROUTE_ENUMERATION).record(System.nanoTime() - start);
+            PATHS_ENUMERATED.add(paths);
+        }
+    }
+
+    /**
+     * Records a route cache lookup.
+     *
+     * @param hit true if the route was cached; false otherwise.
+     */
+    public static void recordCacheLookup(boolean hit) {
+        if (enabled) {
+            (hit ? CACHE_HITS : CACHE_MISSES).increment();
+        }
+    }
+
+    /**
+     * Returns the latency histogram of an operation.
+     *
+     * @param operation The operation.
+     * @return The live histogram.
+     */
+    public static LatencyHistogram histogram(Operation operation) {
+        return HISTOGRAMS.get(operation);
+    }
+
+    public static long getNodesSettled() {
+        return NODES_SETTLED.sum();
+    }
+
+    public static long getEdgesRelaxed() {
+        return EDGES_RELAXED.sum();
+    }
+
+    public static long getHeapOperations() {
+        return HEAP_OPERATIONS.sum();
+    }
+
+    public static long getPathsEnumerated() {
+        return PATHS_ENUMERATED.sum();
+    }
+
+    public static long getCacheHits() {
+        return CACHE_HITS.sum();
+    }
+
+    public static long getCacheMisses() {
+        return CACHE_MISSES.sum();
+    }
+
+    /**
+     * Clears every histogram and counter.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+        NODES_SETTLED.reset();
+        EDGES_RELAXED.reset();
+        HEAP_OPERATIONS.reset();
+        PATHS_ENUMERATED.reset();
+        CACHE_HITS.reset();
+        CACHE_MISSES.reset();
+    }
+
+    /**
+     * Formats the metrics as readable text, one operation or counter per line.
+     *
+     * @return The text.
+     */
+    public static String toText() {
+        StringBuilder builder = new StringBuilder("Routing metrics").append(enabled ? "" : " (recording off)").append('\n');
+        for (Operation operation : Operation.values()) {
+            builder.append(String.format("  %-17s %s%n", operation.key(), HISTOGRAMS.get(operation)));
+        }
+        builder.append(String.format(Locale.ROOT, "  nodesSettled=%d edgesRelaxed=%d heapOperations=%d pathsEnumerated=%d cacheHits=%d cacheMisses=%d%n",
+                getNodesSettled(), getEdgesRelaxed(), getHeapOperations(), getPathsEnumerated(), getCacheHits(), getCacheMisses()));
+        return builder.toString();
+    }
+
+    /**
+     * Formats the metrics as a JSON object, with latencies in microseconds.
+     *
+     * @return The JSON text.
+     */
+    public static String toJson() {
+        StringBuilder builder = new StringBuilder("{\"enabled\":").append(enabled).append(",\"latency\":{");
+        boolean first = true;
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = HISTOGRAMS.get(operation);
+            builder.append(first ? "" : ",").append(Json.quote(operation.key()))
+                    .append(":{\"count\":").append(histogram.getCount())
+                    .append(",\"meanMicros\":").append(Json.number(histogram.getMean() / 1e3))
+                    .append(",\"p50Micros\":").append(Json.number(histogram.valueAtPercentile(0.50) / 1e3))
+                    .append(",\"p99Micros\":").append(Json.number(histogram.valueAtPercentile(0.99) / 1e3))
+                    .append(",\"p999Micros\":").append(Json.number(histogram.valueAtPercentile(0.999) / 1e3))
+                    .append(",\"maxMicros\":").append(Json.number(histogram.getMax() / 1e3))
+                    .append('}');
+            first = false;
+        }
+        return builder.append("},\"nodesSettled\":").append(getNodesSettled())
+                .append(",\"edgesRelaxed\":").append(getEdgesRelaxed())
+                .append(",\"heapOperations\":").append(getHeapOperations())
+                .append(",\"pathsEnumerated\":").append(getPathsEnumerated())
+                .append(",\"cacheHits\":").append(getCacheHits())
+                .append(",\"cacheMisses\":").append(getCacheMisses())
+                .append('}').toString();
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, under {@code utils:type=RoutingMetrics}.
+     * Registering again has no effect.
+     */
+    public static synchronized void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName countersName = new ObjectName("utils:type=RoutingMetrics,name=counters");
+            if (server.isRegistered(countersName)) {
+                return;
+            }
+            server.registerMBean(new Counters(), countersName);
+            for (Operation operation : Operation.values()) {
+                server.registerMBean(new Latency(HISTOGRAMS.get(operation)),
+                        new ObjectName("utils:type=RoutingMetrics,name=" + operation.key()));
+            }
+        } catch (JMException e) {
+            System.err.println("Error registering routing metrics with JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints the metrics periodically on a daemon thread, replacing any earlier schedule.
+     *
+     * @param periodSeconds The time between dumps.
+     * @param json true to print JSON, one object per line; false for text.
+     * @param out The stream to print to.
+     */
+    public static synchronized void startReporting(long periodSeconds, boolean json, PrintStream out) {
+        stopReporting();
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "routing-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> out.println(json ? toJson() : toText()),
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic dump, if one is running.
+     */
+    public static synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    /**
+     * Registers the MBeans and, if {@code -Drouting.metrics.dump=<seconds>} is set, starts a
+     * periodic dump to standard error, as JSON if {@code -Drouting.metrics.format=json}.
+     * Does nothing if metrics are switched off.
+     */
+    public static void installFromSystemProperties() {
+        if (!enabled) {
+            return;
+        }
+        registerMBeans();
+        String period = System.getProperty("routing.metrics.dump");
+        if (period != null) {
+            try {
+                startReporting(Long.parseLong(period.trim()), "json".equalsIgnoreCase(System.getProperty("routing.metrics.format")), System.err);
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring routing.metrics.dump, not a number of seconds: " + period);
+            }
+        }
+    }
+
+    private static final class Latency implements LatencyMXBean {
+        private final LatencyHistogram histogram;
+
+        Latency(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return histogram.getMean() / 1e3;
+        }
+
+        @Override
+        public double getP50Micros() {
+            return histogram.valueAtPercentile(0.50) / 1e3;
+        }
+
+        @Override
+        public double getP99Micros() {
+            return histogram.valueAtPercentile(0.99) / 1e3;
+        }
+
+        @Override
+        public double getP999Micros() {
+            return histogram.valueAtPercentile(0.999) / 1e3;
+        }
+
+        @Override
+        public double getMaxMicros() {
+            return histogram.getMax() / 1e3;
+        }
+    }
+
+    private static final class Counters implements CountersMXBean {
+        @Override
+        public boolean isEnabled() {
+            return RoutingMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            RoutingMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public long getNodesSettled() {
+            return RoutingMetrics.getNodesSettled();
+        }
+
+        @Override
+        public long getEdgesRelaxed() {
+            return RoutingMetrics.getEdgesRelaxed();
+        }
+
+        @Override
+        public long getHeapOperations() {
+            return RoutingMetrics.getHeapOperations();
+        }
+
+        @Override
+        public long getPathsEnumerated() {
+            return RoutingMetrics.getPathsEnumerated();
+        }
+
+        @Override
+        public long getCacheHits() {
+            return RoutingMetrics.getCacheHits();
+        }
+
+        @Override
+        public long getCacheMisses() {
+            return RoutingMetrics.getCacheMisses();
+        }
+
+        @Override
+        public void reset() {
+            RoutingMetrics.reset();
+        }
+    }
+}
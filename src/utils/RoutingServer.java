@@ -0,0 +1,537 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A headless HTTP front end for the router, built on the JDK's embedded HTTP server.
+ * Every request is handled on its own virtual thread (or a pooled platform thread on
+ * JDKs without virtual threads) and all requests share one graph. The graph may change while
+ * the server is running, for example through a {@link GraphReloader}; every request searches
+ * the snapshot current when it arrives.
+ *
+ * <p>Endpoints, all answering GET with JSON:
+ * <ul>
+ *   <li>{@code /route?from=A&to=B[&metric=distance|time]} - the shortest path and its cost.</li>
+ *   <li>{@code /distance?from=A&to=B[&metric=distance|time]} - only the cost.</li>
+ *   <li>{@code /hops?from=A&to=B} - the route with the fewest intermediate landmarks.</li>
+ *   <li>{@code /nodes} - the names of all landmarks.</li>
+ *   <li>{@code /nearest?from=A&category=hall[&k=1][&metric=distance|time]} - routes to the K
+ *       closest landmarks of a category, nearest first.</li>
+ *   <li>{@code /reachable?from=A&within=600[&metric=time|distance]} - every landmark within a
+ *       walking-time (the default) or distance budget, with its cost.</li>
+ *   <li>{@code /snap?lat=5.65&lon=-0.19[&k=1]} - the K located landmarks closest to a GPS
+ *       position, with their straight-line distances in metres.</li>
+ *   <li>{@code /categories} - each landmark category and how many landmarks it has.</li>
+ *   <li>{@code /metrics} - latency percentiles and search counters from {@link RoutingMetrics}.</li>
+ * </ul>
+ */
+public class RoutingServer {
+
+    private final Router router;
+    private volatile NodeDirectory nodeDirectory;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Constructs a server over a fully loaded graph.
+     *
+     * @param graph The graph to route on. It is only read from, never modified by the server.
+     */
+    public RoutingServer(Graph graph) {
+        this(new Router(graph));
+    }
+
+    /**
+     * Constructs a server answering queries through an existing router.
+     *
+     * @param router The router to answer queries with.
+     */
+    public RoutingServer(Router router) {
+        this.router = router;
+        this.nodeDirectory = new NodeDirectory(router.getGraph().snapshot());
+    }
+
+    /**
+     * Returns the landmark names and lookup table for the current graph, rebuilding them if
+     * landmarks have been added since they were last built.
+     *
+     * @return The current node directory.
+     */
+    private NodeDirectory nodeDirectory() {
+        NodeDirectory directory = nodeDirectory;
+        GraphSnapshot snapshot = router.getGraph().snapshot();
+        if (directory.size != snapshot.size()) {
+            directory = new NodeDirectory(snapshot);
+            nodeDirectory = directory;
+        }
+        return directory;
+    }
+
+    /**
+     * Binds the server to a port and starts accepting requests.
+     *
+     * @param port The TCP port to listen on, or 0 for an ephemeral port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        executor = VirtualThreads.newPerTaskExecutor("routing-http");
+        server.setExecutor(executor);
+        server.createContext("/route", exchange -> handle(exchange, this::route));
+        server.createContext("/distance", exchange -> handle(exchange, this::distance));
+        server.createContext("/hops", exchange -> handle(exchange, this::hops));
+        server.createContext("/nodes", exchange -> handle(exchange, query -> nodeDirectory().json));
+        server.createContext("/nearest", exchange -> handle(exchange, this::nearest));
+        server.createContext("/reachable", exchange -> handle(exchange, this::reachable));
+        server.createContext("/snap", exchange -> handle(exchange, this::snap));
+        server.createContext("/categories", exchange -> handle(exchange, query -> categories()));
+        server.createContext("/metrics", exchange -> handle(exchange, query -> RoutingMetrics.toJson()));
+        server.start();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return The bound port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, waiting up to the given delay for in-flight requests to finish.
+     *
+     * @param delaySeconds The maximum time to wait, in seconds.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * Computes the full route for a {@code /route} request.
+     *
+     * @param query The decoded query parameters.
+     * @return The JSON response body.
+     */
+    private String route(Map<String, String> query) {
+        RouteResult result = resolveAndRoute(query);
+        ArrayList<String> names = new ArrayList<>();
+        for (Node node : result.getPath()) {
+            names.add(node.getName());
+        }
+        return "{\"from\":" + Json.quote(result.getSource().getName())
+                + ",\"to\":" + Json.quote(result.getDestination().getName())
+                + ",\"metric\":" + Json.quote(result.getMetric().name().toLowerCase())
+                + ",\"found\":" + result.isFound()
+                + ",\"distance\":" + Json.number(result.getDistance())
+                + ",\"time\":" + Json.number(result.getTime())
+                + ",\"path\":" + Json.stringArray(names) + "}";
+    }
+
+    /**
+     * Computes only the route cost for a {@code /distance} request.
+     *
+     * @param query The decoded query parameters.
+     * @return The JSON response body.
+     */
+    private String distance(Map<String, String> query) {
+        RouteResult result = resolveAndRoute(query);
+        return "{\"from\":" + Json.quote(result.getSource().getName())
+                + ",\"to\":" + Json.quote(result.getDestination().getName())
+                + ",\"metric\":" + Json.quote(result.getMetric().name().toLowerCase())
+                + ",\"found\":" + result.isFound()
+                + ",\"distance\":" + Json.number(result.getDistance())
+                + ",\"time\":" + Json.number(result.getTime()) + "}";
+    }
+
+    /**
+     * Computes the route with the fewest intermediate landmarks for a {@code /hops} request.
+     *
+     * @param query The decoded query parameters.
+     * @return The JSON response body.
+     */
+    private String hops(Map<String, String> query) {
+        RouteResult result = router.fewestHops(resolveNode(query, "from"), resolveNode(query, "to"));
+        ArrayList<String> names = new ArrayList<>();
+        for (Node node : result.getPath()) {
+            names.add(node.getName());
+        }
+        return "{\"from\":" + Json.quote(result.getSource().getName())
+                + ",\"to\":" + Json.quote(result.getDestination().getName())
+                + ",\"found\":" + result.isFound()
+                + ",\"hops\":" + Math.max(-1, names.size() - 1)
+                + ",\"distance\":" + Json.number(result.getDistance())
+                + ",\"time\":" + Json.number(result.getTime())
+                + ",\"path\":" + Json.stringArray(names) + "}";
+    }
+
+    /**
+     * Finds the closest landmarks of a category for a {@code /nearest} request.
+     *
+     * @param query The decoded query parameters.
+     * @return The JSON response body.
+     */
+    private String nearest(Map<String, String> query) {
+        Node source = resolveNode(query, "from");
+        String category = query.get("category");
+        if (category == null || category.isEmpty()) {
+            throw new RequestException(400, "Missing parameter: category");
+        }
+        if (router.getFacilityIndex().memberCount(category) == 0) {
+            throw new RequestException(404, "Unknown category: " + category);
+        }
+        int k;
+        try {
+            k = query.containsKey("k") ? Integer.parseInt(query.get("k")) : 1;
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "Invalid k: " + query.get("k"));
+        }
+        if (k < 1) {
+            throw new RequestException(400, "k must be at least 1");
+        }
+        Metric metric = parseMetric(query);
+
+        StringBuilder facilities = new StringBuilder("[");
+        for (RouteResult result : router.nearestFacilities(source, category, k, metric)) {
+            ArrayList<String> names = new ArrayList<>();
+            for (Node node : result.getPath()) {
+                names.add(node.getName());
+            }
+            if (facilities.length() > 1) {
+                facilities.append(',');
+            }
+            facilities.append("{\"name\":").append(Json.quote(result.getDestination().getName()))
+                    .append(",\"distance\":").append(Json.number(result.getDistance()))
+                    .append(",\"time\":").append(Json.number(result.getTime()))
+                    .append(",\"path\":").append(Json.stringArray(names)).append('}');
+        }
+        return "{\"from\":" + Json.quote(source.getName())
+                + ",\"category\":" + Json.quote(category.toLowerCase())
+                + ",\"metric\":" + Json.quote(metric.name().toLowerCase())
+                + ",\"facilities\":" + facilities.append(']') + "}";
+    }
+
+    /**
+     * Finds every landmark within a budget for a {@code /reachable} request.
+     *
+     * @param query The decoded query parameters.
+     * @return The JSON response body, with landmarks in order of increasing cost.
+     */
+    private String reachable(Map<String, String> query) {
+        Node origin = resolveNode(query, "from");
+        String within = query.get("within");
+        if (within == null || within.isEmpty()) {
+            throw new RequestException(400, "Missing parameter: within");
+        }
+        double budget;
+        try {
+            budget = Double.parseDouble(within);
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "Invalid budget: " + within);
+        }
+        if (!(budget >= 0) || Double.isInfinite(budget)) {
+            throw new RequestException(400, "The budget must be a non-negative number");
+        }
+        Metric metric = query.containsKey("metric") ? parseMetric(query) : Metric.TIME;
+
+        Isochrone isochrone = router.reachable(origin, budget, metric);
+        StringBuilder reached = new StringBuilder("[");
+        for (Node node : isochrone.getNodes()) {
+            if (reached.length() > 1) {
+                reached.append(',');
+            }
+            reached.append("{\"name\":").append(Json.quote(node.getName()))
+                    .append(",\"cost\":").append(Json.number(isochrone.getCost(node))).append('}');
+        }
+        return "{\"from\":" + Json.quote(origin.getName())
+                + ",\"metric\":" + Json.quote(metric.name().toLowerCase())
+                + ",\"within\":" + Json.number(budget)
+                + ",\"reachable\":" + reached.append(']') + "}";
+    }
+
+    /**
+     * Finds the landmarks closest to a position for a {@code /snap} request.
+     *
+     * @param query The decoded query parameters.
+     * @return The JSON response body, nearest landmark first.
+     */
+    private String snap(Map<String, String> query) {
+        double latitude = parseCoordinate(query, "lat", 90);
+        double longitude = parseCoordinate(query, "lon", 180);
+        int k;
+        try {
+            k = query.containsKey("k") ? Integer.parseInt(query.get("k")) : 1;
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "Invalid k: " + query.get("k"));
+        }
+        if (k < 1) {
+            throw new RequestException(400, "k must be at least 1");
+        }
+        StringBuilder landmarks = new StringBuilder("[");
+        for (GeoIndex.Snap snap : router.snap(latitude, longitude, k)) {
+            if (landmarks.length() > 1) {
+                landmarks.append(',');
+            }
+            landmarks.append("{\"name\":").append(Json.quote(snap.getNode().getName()))
+                    .append(",\"metres\":").append(Json.number(snap.getMetres())).append('}');
+        }
+        return "{\"lat\":" + Json.number(latitude) + ",\"lon\":" + Json.number(longitude)
+                + ",\"landmarks\":" + landmarks.append(']') + "}";
+    }
+
+    /**
+     * Parses a latitude or longitude parameter.
+     *
+     * @param query The decoded query parameters.
+     * @param parameter The parameter name.
+     * @param limit The largest absolute value allowed.
+     * @return The value in degrees.
+     * @throws RequestException If the parameter is missing or out of range.
+     */
+    private static double parseCoordinate(Map<String, String> query, String parameter, double limit) {
+        String value = query.get(parameter);
+        if (value == null || value.isEmpty()) {
+            throw new RequestException(400, "Missing parameter: " + parameter);
+        }
+        double degrees;
+        try {
+            degrees = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "Invalid " + parameter + ": " + value);
+        }
+        if (!(Math.abs(degrees) <= limit)) {
+            throw new RequestException(400, "Invalid " + parameter + ": " + value);
+        }
+        return degrees;
+    }
+
+    /**
+     * Lists the landmark categories for a {@code /categories} request.
+     *
+     * @return The JSON response body, an object from category to landmark count.
+     */
+    private String categories() {
+        FacilityIndex index = router.getFacilityIndex();
+        StringBuilder json = new StringBuilder("{");
+        for (String category : new TreeSet<>(index.categoryNames())) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(Json.quote(category)).append(':').append(index.memberCount(category));
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Resolves the {@code from}, {@code to} and {@code metric} parameters and runs the search.
+     *
+     * @param query The decoded query parameters.
+     * @return The route between the two named nodes.
+     * @throws RequestException If a parameter is missing or names an unknown node.
+     */
+    private RouteResult resolveAndRoute(Map<String, String> query) {
+        Node source = resolveNode(query, "from");
+        Node destination = resolveNode(query, "to");
+        return router.route(source, destination, parseMetric(query));
+    }
+
+    /**
+     * Parses the optional {@code metric} parameter.
+     *
+     * @param query The decoded query parameters.
+     * @return The metric, distance if none is given.
+     * @throws RequestException If the metric is unknown.
+     */
+    private static Metric parseMetric(Map<String, String> query) {
+        try {
+            return Metric.parse(query.get("metric"));
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, "Unknown metric: " + query.get("metric"));
+        }
+    }
+
+    /**
+     * Looks up the node named by a query parameter.
+     *
+     * @param query The decoded query parameters.
+     * @param parameter The parameter holding the node name.
+     * @return The node.
+     * @throws RequestException If the parameter is missing or the node does not exist.
+     */
+    private Node resolveNode(Map<String, String> query, String parameter) {
+        String name = query.get(parameter);
+        if (name == null || name.isEmpty()) {
+            throw new RequestException(400, "Missing parameter: " + parameter);
+        }
+        Node node = nodeDirectory().byName.get(name.toLowerCase());
+        if (node == null) {
+            throw new RequestException(404, "Unknown landmark: " + name);
+        }
+        return node;
+    }
+
+    /**
+     * Runs a handler for a GET request and writes its JSON response, mapping failures to
+     * JSON error bodies with a matching status code.
+     *
+     * @param exchange The HTTP exchange.
+     * @param handler The handler producing the response body from the query parameters.
+     * @throws IOException If the response cannot be written.
+     */
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                throw new RequestException(405, "Only GET is supported");
+            }
+            body = handler.handle(parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (RequestException e) {
+            status = e.status;
+            body = "{\"error\":" + Json.quote(e.getMessage()) + "}";
+        } catch (RuntimeException e) {
+            status = 500;
+            body = "{\"error\":" + Json.quote(String.valueOf(e.getMessage())) + "}";
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Decodes a raw URL query string into a parameter map.
+     *
+     * @param rawQuery The raw query string, possibly null.
+     * @return The decoded parameters.
+     */
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Produces a JSON response body from decoded query parameters.
+     */
+    private interface Handler {
+        String handle(Map<String, String> query);
+    }
+
+    /**
+     * Signals a client error that should be reported with a specific HTTP status.
+     */
+    private static class RequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * The landmark names, sorted for {@code /nodes}, and a case-insensitive lookup by name.
+     * Nodes are never removed from a graph, so the node count tells whether it is out of date.
+     */
+    private static final class NodeDirectory {
+        private final int size;
+        private final Map<String, Node> byName = new HashMap<>();
+        private final String json;
+
+        NodeDirectory(GraphSnapshot snapshot) {
+            this.size = snapshot.size();
+            ArrayList<String> names = new ArrayList<>(size);
+            for (Node node : snapshot.getNodes()) {
+                names.add(node.getName());
+                byName.put(node.getName().toLowerCase(), node);
+            }
+            Collections.sort(names);
+            this.json = Json.stringArray(names);
+        }
+    }
+
+    /**
+     * Reads the landmark graph to serve. Pruning keeps every shortest distance but not hop
+     * counts: a direct walkway with a detour shorter in both metrics is dropped, so {@code /hops}
+     * would route through the detour. It is therefore only done when asked for, as in the
+     * desktop application.
+     *
+     * @param csvFilePath The path to the CSV file.
+     * @param pruneEdges true to remove redundant walkways with {@link EdgePruner#prune(Graph)}; false to keep them all.
+     * @return The graph.
+     * @throws IOException If the file cannot be read.
+     */
+    static Graph loadGraph(String csvFilePath, boolean pruneEdges) throws IOException {
+        Graph parsed = new Graph();
+        CSVParser.parseCSV(csvFilePath, parsed);
+        return pruneEdges ? EdgePruner.prune(parsed) : parsed;
+    }
+
+    /**
+     * Loads the landmark graph and serves it over HTTP until the process is stopped, reloading
+     * the CSV file whenever it changes. Run with {@code -Dgraph.prune=true} to serve the graph
+     * through {@link EdgePruner}, which speeds up the weighted searches but lengthens some
+     * {@code /hops} routes.
+     *
+     * @param args Optional port (default 8080) followed by an optional CSV file path.
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String csvFilePath = args.length > 1 ? args[1]
+                : Paths.get(Paths.get(System.getProperty("user.dir")).getParent().toString(), "data", "landmarksAdjacencyMatrix.csv").toString();
+
+        RoutingMetrics.installFromSystemProperties();
+        try {
+            boolean pruneEdges = Boolean.getBoolean("graph.prune");
+            Graph graph = loadGraph(csvFilePath, pruneEdges);
+            // Locations for GPS snapping, if the file exists; landmarks it does not list have none
+            Path coordinatesFile = Paths.get(csvFilePath).resolveSibling("landmarkCoordinates.csv");
+            if (Files.exists(coordinatesFile)) {
+                NodeCoordinates.load(coordinatesFile, graph);
+            }
+            RoutingServer routingServer = new RoutingServer(graph);
+            // Categories for landmarks whose names do not say what they are, if the file exists
+            Path categoryFile = Paths.get(csvFilePath).resolveSibling("landmarkCategories.csv");
+            if (Files.exists(categoryFile)) {
+                routingServer.router.setCategories(LandmarkCategories.load(categoryFile));
+            }
+            routingServer.start(port);
+            new GraphReloader(graph, csvFilePath, pruneEdges); // Watches the file until the process exits
+            System.out.println("Routing server listening on port " + routingServer.getPort()
+                    + " with " + graph.getSize() + " landmarks"
+                    + (VirtualThreads.isAvailable() ? " (virtual threads)" : " (platform threads)"));
+        } catch (IOException e) {
+            System.err.println("Error starting the routing server: " + e.getMessage());
+        }
+    }
+}
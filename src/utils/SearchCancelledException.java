@@ -0,0 +1,31 @@
+package utils;
+
+/**
+ * Thrown by a search that stopped early because its {@link CancellationToken} was cancelled
+ * or its deadline passed.
+ */
+public class SearchCancelledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean timedOut;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param message The detail message.
+     * @param timedOut true if the search stopped because its deadline passed.
+     */
+    public SearchCancelledException(String message, boolean timedOut) {
+        super(message);
+        this.timedOut = timedOut;
+    }
+
+    /**
+     * Checks whether the search stopped because its deadline passed rather than an explicit cancel.
+     *
+     * @return true if the deadline was exceeded; false otherwise.
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+}
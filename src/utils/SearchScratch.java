@@ -0,0 +1,102 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Reusable working arrays for point-to-point searches over an {@link IndexedGraph}.
+ *
+ * <p>A search normally needs a distance and a parent entry for every node, reset before each
+ * query. Here each entry is paired with the epoch of the search that wrote it, and starting a
+ * new search just increments the epoch, so the arrays are never cleared and are only
+ * reallocated when they are first used for a larger graph. Steady-state queries allocate
+ * nothing besides their result.
+ *
+ * <p>The scratch spaces are shared through a bounded pool rather than kept per thread, since
+ * the routing server runs every request on a new virtual thread and a thread-local copy would
+ * be allocated for each request. A search takes one with {@link #acquire(int)} and must give it
+ * back with {@link #release()} once it has read its results.
+ */
+class SearchScratch {
+
+    // Idle scratch spaces; one more searches than this run at once get a spare that is then dropped
+    private static final ArrayBlockingQueue<SearchScratch> POOL =
+            new ArrayBlockingQueue<>(Math.max(8, 2 * Runtime.getRuntime().availableProcessors()));
+
+    double[] dist;
+    int[] parent;
+    IndexedMinHeap heap;
+    int settled;
+    private int[] stamp;
+    private int epoch;
+
+    private SearchScratch(int size) {
+        allocate(size);
+    }
+
+    /**
+     * Takes a scratch space from the pool, or makes one if none is idle, ready for a new
+     * search over a graph of the given size.
+     *
+     * @param size The number of nodes in the graph to be searched.
+     * @return The scratch space, for the caller's use only until it calls {@link #release()}.
+     */
+    static SearchScratch acquire(int size) {
+        SearchScratch scratch = POOL.poll();
+        if (scratch == null) {
+            scratch = new SearchScratch(size);
+        } else if (scratch.stamp.length < size) {
+            scratch.allocate(size);
+        }
+        scratch.begin();
+        return scratch;
+    }
+
+    /**
+     * Returns this scratch space to the pool. It must not be used afterwards.
+     */
+    void release() {
+        POOL.offer(this); // Dropped if the pool is already full
+    }
+
+    private void allocate(int size) {
+        dist = new double[size];
+        parent = new int[size];
+        stamp = new int[size];
+        heap = new IndexedMinHeap(size);
+        epoch = 0;
+    }
+
+    private void begin() {
+        heap.clear();
+        settled = 0;
+        if (++epoch == 0) {
+            // The stamp wrapped around, so old entries could look current again
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * Returns a node's tentative distance in the current search.
+     *
+     * @param node The node index.
+     * @return The distance, or {@link Double#POSITIVE_INFINITY} if the node has not been reached.
+     */
+    double distance(int node) {
+        return stamp[node] == epoch ? dist[node] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Records a node's tentative distance and parent in the current search.
+     *
+     * @param node The node index.
+     * @param distance The distance.
+     * @param from The parent node index, or -1 for the source.
+     */
+    void reach(int node, double distance, int from) {
+        dist[node] = distance;
+        parent[node] = from;
+        stamp[node] = epoch;
+    }
+}
@@ -0,0 +1,76 @@
+package utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations of the same key into one. The first caller for a key
+ * becomes its leader and runs the computation; every caller that arrives while it is still
+ * running attaches to the leader's {@link CompletableFuture} instead of recomputing.
+ *
+ * @param <K> The key type, which must implement equals and hashCode.
+ * @param <V> The result type.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    /**
+     * Returns the in-flight computation for a key, starting it on the calling thread if
+     * there is none. The leader's call returns once the computation has finished; followers
+     * get the shared future immediately.
+     *
+     * @param key The key identifying the computation.
+     * @param computation The computation to run if no call for the key is in flight.
+     * @return A future completed with the computation's result or failure.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            followers.increment();
+            return existing;
+        }
+
+        leaders.increment();
+        try {
+            future.complete(computation.get());
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, future);
+        }
+        return future;
+    }
+
+    /**
+     * Returns the number of keys currently being computed.
+     *
+     * @return The number of in-flight computations.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Returns how many calls ran their computation themselves.
+     *
+     * @return The number of leader calls.
+     */
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+
+    /**
+     * Returns how many calls attached to a computation that was already in flight.
+     *
+     * @return The number of coalesced calls.
+     */
+    public long getCoalescedCount() {
+        return followers.sum();
+    }
+}
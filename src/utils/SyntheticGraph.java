@@ -0,0 +1,200 @@
+package utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A graph made by {@link GraphGenerator}, held as plain arrays so that graphs with millions
+ * of nodes can be written to disk without building a {@link Graph} first. Each node has a
+ * name and a position in kilometres, and each walkway is stored once although it is two-way.
+ */
+public class SyntheticGraph {
+
+    // Largest graph written as a dense matrix; the file grows with the square of the node count
+    public static final int MAX_MATRIX_NODES = 10_000;
+
+    private final String[] names;
+    private final double[] x;
+    private final double[] y;
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private double[] distances = new double[16];
+    private int walkwayCount;
+
+    SyntheticGraph(String[] names, double[] x, double[] y) {
+        this.names = names;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Adds a two-way walkway. Must only be called while the graph is being generated.
+     */
+    void addWalkway(int u, int v, double distance) {
+        if (walkwayCount == from.length) {
+            int capacity = walkwayCount * 2;
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+        }
+        from[walkwayCount] = u;
+        to[walkwayCount] = v;
+        distances[walkwayCount] = distance;
+        walkwayCount++;
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return The node count.
+     */
+    public int nodeCount() {
+        return names.length;
+    }
+
+    /**
+     * Returns the number of walkways, each counted once.
+     *
+     * @return The walkway count.
+     */
+    public int walkwayCount() {
+        return walkwayCount;
+    }
+
+    /**
+     * Returns the name of a node.
+     *
+     * @param node The node index.
+     * @return The node's name.
+     */
+    public String name(int node) {
+        return names[node];
+    }
+
+    /**
+     * Returns the east-west position of a node.
+     *
+     * @param node The node index.
+     * @return The position in kilometres.
+     */
+    public double x(int node) {
+        return x[node];
+    }
+
+    /**
+     * Returns the north-south position of a node.
+     *
+     * @param node The node index.
+     * @return The position in kilometres.
+     */
+    public double y(int node) {
+        return y[node];
+    }
+
+    /**
+     * Builds a {@link Graph} with every node and walkway, with times derived from distances
+     * as {@link CSVParser} derives them.
+     *
+     * @return The graph.
+     */
+    public Graph toGraph() {
+        Node[] nodes = new Node[names.length];
+        Graph graph = new Graph();
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new Node(names[i]);
+            graph.addNode(nodes[i]);
+        }
+        for (int i = 0; i < walkwayCount; i++) {
+            graph.addEdge(new Edge(nodes[from[i]], nodes[to[i]], distances[i], distances[i] / CSVParser.WALKING_SPEED_MPS));
+        }
+        return graph;
+    }
+
+    /**
+     * Writes the graph as a dense distance matrix in the format of the landmark file, readable
+     * with {@link CSVParser#parseCSV(String, Graph)}. Unconnected pairs are written as 0.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     * @throws IllegalStateException If the graph has more than {@link #MAX_MATRIX_NODES} nodes.
+     */
+    public void writeMatrixCsv(Path file) throws IOException {
+        int n = names.length;
+        if (n > MAX_MATRIX_NODES) {
+            throw new IllegalStateException("Too many nodes for a dense matrix: " + n + " > " + MAX_MATRIX_NODES);
+        }
+        // One row at a time: the walkways leaving each node, as offsets into a sorted order
+        int[] start = new int[n + 1];
+        for (int i = 0; i < walkwayCount; i++) {
+            start[from[i] + 1]++;
+            start[to[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] neighbour = new int[walkwayCount * 2];
+        double[] weight = new double[walkwayCount * 2];
+        int[] fill = Arrays.copyOf(start, n);
+        for (int i = 0; i < walkwayCount; i++) {
+            neighbour[fill[from[i]]] = to[i];
+            weight[fill[from[i]]++] = distances[i];
+            neighbour[fill[to[i]]] = from[i];
+            weight[fill[to[i]]++] = distances[i];
+        }
+
+        double[] row = new double[n];
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("Address");
+            for (String name : names) {
+                writer.write(',');
+                writer.write(name);
+            }
+            writer.newLine();
+            for (int u = 0; u < n; u++) {
+                for (int e = start[u]; e < start[u + 1]; e++) {
+                    int v = neighbour[e];
+                    row[v] = row[v] == 0 ? weight[e] : Math.min(row[v], weight[e]);
+                }
+                writer.write(names[u]);
+                for (int v = 0; v < n; v++) {
+                    writer.write(',');
+                    writer.write(row[v] == 0 ? "0" : Double.toString(row[v]));
+                }
+                writer.newLine();
+                for (int e = start[u]; e < start[u + 1]; e++) {
+                    row[neighbour[e]] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the graph as an edge list, one walkway per line, readable with
+     * {@link CSVParser#parseEdgeListCSV(String, Graph)}. Suitable for any size of graph.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeEdgeListCsv(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(CSVParser.EDGE_LIST_HEADER);
+            writer.newLine();
+            for (int i = 0; i < walkwayCount; i++) {
+                writer.write(names[from[i]]);
+                writer.write(',');
+                writer.write(names[to[i]]);
+                writer.write(',');
+                writer.write(Double.toString(distances[i]));
+                writer.newLine();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SyntheticGraph[nodes=" + names.length + ", walkways=" + walkwayCount + "]";
+    }
+}
@@ -0,0 +1,119 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of planning a multi-stop tour with {@link TourPlanner}: the order in which to
+ * visit the stops, the shortest route for each leg between consecutive stops, and the whole
+ * walk as one path.
+ */
+public class Tour {
+    private final List<Node> stops;
+    private final List<RouteResult> legs;
+    private final Metric metric;
+    private final boolean exact;
+
+    /**
+     * Constructs a tour.
+     *
+     * @param stops The stops in visiting order, starting with the start and, for a round trip,
+     *              ending with it again; empty if no tour exists.
+     * @param legs The route between each pair of consecutive stops.
+     * @param metric The metric the tour was optimised for.
+     * @param exact Whether the order is proven optimal rather than found by a heuristic.
+     */
+    public Tour(List<Node> stops, List<RouteResult> legs, Metric metric, boolean exact) {
+        this.stops = Collections.unmodifiableList(new ArrayList<>(stops));
+        this.legs = Collections.unmodifiableList(new ArrayList<>(legs));
+        this.metric = metric;
+        this.exact = exact;
+    }
+
+    public List<Node> getStops() {
+        return stops;
+    }
+
+    public List<RouteResult> getLegs() {
+        return legs;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Checks whether the visiting order is optimal. Tours with more than
+     * {@link TourPlanner#MAX_EXACT_STOPS} stops are planned heuristically and usually, but not
+     * always, optimal.
+     *
+     * @return true if the order was found by exhaustive dynamic programming.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Checks whether a tour was found.
+     *
+     * @return false if some stop cannot be reached from the others.
+     */
+    public boolean isFound() {
+        return !stops.isEmpty();
+    }
+
+    /**
+     * Returns the whole walk, with the nodes where legs meet listed once.
+     *
+     * @return The nodes in walking order, or an empty list if no tour was found.
+     */
+    public List<Node> getPath() {
+        ArrayList<Node> path = new ArrayList<>();
+        for (RouteResult leg : legs) {
+            List<Node> nodes = leg.getPath();
+            path.addAll(path.isEmpty() ? nodes : nodes.subList(1, nodes.size()));
+        }
+        if (path.isEmpty() && stops.size() == 1) {
+            path.add(stops.get(0));
+        }
+        return path;
+    }
+
+    /**
+     * Returns the total distance of the walk.
+     *
+     * @return The distance, or {@link Double#MAX_VALUE} if no tour was found.
+     */
+    public double getDistance() {
+        if (!isFound()) {
+            return Double.MAX_VALUE;
+        }
+        double total = 0;
+        for (RouteResult leg : legs) {
+            total += leg.getDistance();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total walking time of the walk.
+     *
+     * @return The time, or {@link Double#MAX_VALUE} if no tour was found.
+     */
+    public double getTime() {
+        if (!isFound()) {
+            return Double.MAX_VALUE;
+        }
+        double total = 0;
+        for (RouteResult leg : legs) {
+            total += leg.getTime();
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "Tour" + stops + " (" + (exact ? "optimal" : "heuristic") + ", distance " + getDistance() + ")";
+    }
+}
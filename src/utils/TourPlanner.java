@@ -0,0 +1,348 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Plans the best order in which to visit a set of landmarks, such as a freshers' orientation
+ * route or a maintenance round, starting from the first stop and optionally returning to it.
+ *
+ * <p>The distances between every pair of stops are computed once with {@link DistanceMatrix}.
+ * Up to {@link #MAX_EXACT_STOPS} stops the order is found exactly with the Held-Karp dynamic
+ * programme over subsets of stops, whose cost grows as 2^n·n² rather than n!. Subsets of
+ * equal size only depend on smaller ones, so each size is filled in parallel. Costs are kept
+ * as floats and predecessors as bytes in flat arrays, which keeps 20 stops to about 50 MB.
+ *
+ * <p>Above that size the order is built greedily from the nearest unvisited stop and then
+ * improved with 2-opt (reversing a stretch of the tour) and Or-opt (moving a run of up to
+ * three stops elsewhere) until neither finds an improvement. Both moves are costed leg by leg
+ * in the direction it is walked, including the legs inside a reversed stretch, so they only
+ * accept real improvements even when the distance between two stops depends on the direction.
+ * The number of passes is capped all the same, so rounding can never keep two moves undoing
+ * each other.
+ */
+public class TourPlanner {
+
+    // Largest number of stops, counting the start, that is solved exactly
+    public static final int MAX_EXACT_STOPS = 20;
+
+    // Smallest subset layer worth splitting across threads
+    private static final int PARALLEL_LAYER_SIZE = 2048;
+
+    // Longest run of stops Or-opt moves at once
+    private static final int OR_OPT_SEGMENT = 3;
+
+    // Most rounds of 2-opt and Or-opt before the greedy tour is returned as it is
+    private static final int MAX_IMPROVEMENT_PASSES = 1000;
+
+    /**
+     * Plans a tour over a graph.
+     *
+     * @param graph The graph to route on.
+     * @param stops The stops; the first is where the tour starts. Duplicates are visited once.
+     * @param returnToStart Whether the tour ends back at the first stop.
+     * @param metric The edge attribute to minimise.
+     * @return The tour, which is not found if some stop cannot be reached.
+     * @throws IllegalArgumentException If there are no stops or a stop is not in the graph.
+     */
+    public static Tour plan(IndexedGraph graph, List<Node> stops, boolean returnToStart, Metric metric) {
+        if (stops.isEmpty()) {
+            throw new IllegalArgumentException("A tour needs at least one stop");
+        }
+        int[] indices = graph.indicesOf(new ArrayList<>(new LinkedHashSet<>(stops)));
+        double[][] distances = DistanceMatrix.distanceMatrix(graph, indices, indices, metric);
+
+        boolean exact = indices.length <= MAX_EXACT_STOPS;
+        int[] order = exact ? heldKarp(distances, returnToStart) : improve(nearestNeighbour(distances), distances, returnToStart);
+        if (order == null) {
+            return new Tour(new ArrayList<>(), new ArrayList<>(), metric, exact);
+        }
+        return expand(graph, indices, order, returnToStart, metric, exact);
+    }
+
+    /**
+     * Finds the optimal visiting order by dynamic programming over subsets of stops.
+     *
+     * @param d The distances between stops; stop 0 is the start.
+     * @param returnToStart Whether the tour closes back at stop 0.
+     * @return The stops in visiting order, starting with 0, or null if no tour exists.
+     */
+    static int[] heldKarp(double[][] d, boolean returnToStart) {
+        int n = d.length;
+        if (n == 1) {
+            return new int[] {0};
+        }
+        // Subsets range over stops 1..n-1, stored as bits 0..k-1
+        int k = n - 1;
+        int subsets = 1 << k;
+        float[] cost = new float[subsets * k];
+        byte[] parent = new byte[subsets * k];
+        Arrays.fill(cost, Float.POSITIVE_INFINITY);
+        for (int j = 0; j < k; j++) {
+            cost[(1 << j) * k + j] = (float) d[0][j + 1];
+            parent[(1 << j) * k + j] = -1;
+        }
+
+        int[][] layers = subsetsBySize(k);
+        for (int size = 2; size <= k; size++) {
+            int[] layer = layers[size - 1];
+            IntStream range = IntStream.range(0, layer.length);
+            (layer.length >= PARALLEL_LAYER_SIZE ? range.parallel() : range).forEach(s -> {
+                int subset = layer[s];
+                for (int last = 0; last < k; last++) {
+                    if ((subset & (1 << last)) == 0) {
+                        continue;
+                    }
+                    int previous = subset ^ (1 << last);
+                    float best = Float.POSITIVE_INFINITY;
+                    int bestParent = -1;
+                    for (int j = 0; j < k; j++) {
+                        if ((previous & (1 << j)) != 0) {
+                            float candidate = cost[previous * k + j] + (float) d[j + 1][last + 1];
+                            if (candidate < best) {
+                                best = candidate;
+                                bestParent = j;
+                            }
+                        }
+                    }
+                    cost[subset * k + last] = best;
+                    parent[subset * k + last] = (byte) bestParent;
+                }
+            });
+        }
+
+        int full = subsets - 1;
+        float best = Float.POSITIVE_INFINITY;
+        int last = -1;
+        for (int j = 0; j < k; j++) {
+            float total = cost[full * k + j] + (returnToStart ? (float) d[j + 1][0] : 0);
+            if (total < best) {
+                best = total;
+                last = j;
+            }
+        }
+        if (last < 0) {
+            return null;
+        }
+
+        int[] order = new int[n];
+        int subset = full;
+        for (int position = n - 1; position > 0; position--) {
+            order[position] = last + 1;
+            int previous = parent[subset * k + last];
+            subset ^= 1 << last;
+            last = previous;
+        }
+        return order;
+    }
+
+    /**
+     * Lists the non-empty subsets of k items grouped by size, smallest first.
+     */
+    private static int[][] subsetsBySize(int k) {
+        int[][] layers = new int[k][];
+        int[] fill = new int[k + 1];
+        for (int size = 1; size <= k; size++) {
+            layers[size - 1] = new int[binomial(k, size)];
+        }
+        for (int subset = 1; subset < 1 << k; subset++) {
+            int size = Integer.bitCount(subset);
+            layers[size - 1][fill[size]++] = subset;
+        }
+        return layers;
+    }
+
+    private static int binomial(int n, int r) {
+        long result = 1;
+        for (int i = 1; i <= r; i++) {
+            result = result * (n - r + i) / i;
+        }
+        return (int) result;
+    }
+
+    /**
+     * Builds a tour by always walking to the closest unvisited stop.
+     *
+     * @param d The distances between stops; stop 0 is the start.
+     * @return The stops in visiting order, starting with 0, or null if some stop is unreachable.
+     */
+    static int[] nearestNeighbour(double[][] d) {
+        int n = d.length;
+        for (double[] row : d) {
+            for (double distance : row) {
+                if (distance == Double.POSITIVE_INFINITY) {
+                    return null;
+                }
+            }
+        }
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        visited[0] = true;
+        for (int position = 1; position < n; position++) {
+            int from = order[position - 1];
+            int next = -1;
+            for (int v = 1; v < n; v++) {
+                if (!visited[v] && (next < 0 || d[from][v] < d[from][next])) {
+                    next = v;
+                }
+            }
+            order[position] = next;
+            visited[next] = true;
+        }
+        return order;
+    }
+
+    /**
+     * Applies improving 2-opt and Or-opt moves until neither finds one, or for at most
+     * {@link #MAX_IMPROVEMENT_PASSES} rounds. The start stays first.
+     *
+     * @param order The tour to improve, or null.
+     * @param d The distances between stops.
+     * @param returnToStart Whether the tour closes back at the start.
+     * @return The improved tour, or null if the given tour was null.
+     */
+    static int[] improve(int[] order, double[][] d, boolean returnToStart) {
+        if (order == null) {
+            return null;
+        }
+        boolean improved = true;
+        for (int pass = 0; improved && pass < MAX_IMPROVEMENT_PASSES; pass++) {
+            improved = twoOpt(order, d, returnToStart) | orOpt(order, d, returnToStart);
+        }
+        return order;
+    }
+
+    /**
+     * Reverses each stretch of the tour whose reversal shortens it.
+     */
+    private static boolean twoOpt(int[] order, double[][] d, boolean returnToStart) {
+        int n = order.length;
+        // The cost of the first k legs, walked forwards and walked backwards
+        double[] forward = new double[n];
+        double[] backward = new double[n];
+        legCosts(order, d, forward, backward);
+        boolean improved = false;
+        for (int i = 1; i < n - 1; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int before = order[i - 1];
+                int after = next(order, j, returnToStart);
+                // Replace before→order[i] and order[j]→after with before→order[j] and order[i]→after,
+                // and walk the legs between order[i] and order[j] the other way
+                double delta = d[before][order[j]] - d[before][order[i]]
+                        + (backward[j] - backward[i]) - (forward[j] - forward[i]);
+                if (after >= 0) {
+                    delta += d[order[i]][after] - d[order[j]][after];
+                }
+                if (delta < -1e-12) {
+                    reverse(order, i, j);
+                    legCosts(order, d, forward, backward);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Fills {@code forward[k]} and {@code backward[k]} with the cost of walking the legs between
+     * the first k + 1 stops in tour order and in reverse order.
+     */
+    private static void legCosts(int[] order, double[][] d, double[] forward, double[] backward) {
+        for (int k = 1; k < order.length; k++) {
+            forward[k] = forward[k - 1] + d[order[k - 1]][order[k]];
+            backward[k] = backward[k - 1] + d[order[k]][order[k - 1]];
+        }
+    }
+
+    /**
+     * Moves each run of up to {@link #OR_OPT_SEGMENT} stops to wherever it shortens the tour most.
+     */
+    private static boolean orOpt(int[] order, double[][] d, boolean returnToStart) {
+        int n = order.length;
+        boolean improved = false;
+        for (int length = 1; length <= OR_OPT_SEGMENT; length++) {
+            for (int i = 1; i + length <= n; i++) {
+                int first = order[i];
+                int last = order[i + length - 1];
+                int before = order[i - 1];
+                int after = next(order, i + length - 1, returnToStart);
+                double removed = d[before][first] + (after >= 0 ? d[last][after] - d[before][after] : 0);
+
+                // Try inserting between order[p] and the stop after it, outside the run
+                int bestPosition = -1;
+                double bestDelta = -1e-12;
+                for (int p = 0; p < n; p++) {
+                    if (p >= i - 1 && p < i + length) {
+                        continue;
+                    }
+                    int q = next(order, p, returnToStart);
+                    double added = d[order[p]][first] + (q >= 0 ? d[last][q] - d[order[p]][q] : 0);
+                    if (added - removed < bestDelta) {
+                        bestDelta = added - removed;
+                        bestPosition = p;
+                    }
+                }
+                if (bestPosition >= 0) {
+                    move(order, i, length, bestPosition);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+
+    /**
+     * Returns the stop after a position, the start if the tour closes, or -1 at the end of an open tour.
+     */
+    private static int next(int[] order, int position, boolean returnToStart) {
+        if (position + 1 < order.length) {
+            return order[position + 1];
+        }
+        return returnToStart ? order[0] : -1;
+    }
+
+    private static void reverse(int[] order, int i, int j) {
+        while (i < j) {
+            int swap = order[i];
+            order[i++] = order[j];
+            order[j--] = swap;
+        }
+    }
+
+    /**
+     * Moves the run starting at {@code i} so that it follows the stop now at {@code p}.
+     */
+    private static void move(int[] order, int i, int length, int p) {
+        int[] run = Arrays.copyOfRange(order, i, i + length);
+        if (p < i) {
+            System.arraycopy(order, p + 1, order, p + 1 + length, i - p - 1);
+            System.arraycopy(run, 0, order, p + 1, length);
+        } else {
+            System.arraycopy(order, i + length, order, i, p - i - length + 1);
+            System.arraycopy(run, 0, order, p - length + 1, length);
+        }
+    }
+
+    /**
+     * Turns a visiting order into a tour with the full route of every leg.
+     */
+    private static Tour expand(IndexedGraph graph, int[] indices, int[] order, boolean returnToStart, Metric metric, boolean exact) {
+        ArrayList<Node> stops = new ArrayList<>();
+        for (int stop : order) {
+            stops.add(graph.node(indices[stop]));
+        }
+        if (returnToStart && order.length > 1) {
+            stops.add(stops.get(0));
+        }
+        List<RouteResult> legs = new ArrayList<>();
+        for (int i = 1; i < stops.size(); i++) {
+            int from = indices[order[i - 1]];
+            int to = indices[order[i % order.length]];
+            legs.add(IndexedDijkstra.shortestPath(graph, from, to, metric).toRouteResult(graph, from, to, metric));
+        }
+        return new Tour(stops, legs, metric, exact);
+    }
+}
@@ -0,0 +1,79 @@
+package utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utility class for obtaining virtual-thread executors.
+ * Virtual threads are looked up reflectively so the project still compiles and runs on
+ * JDKs older than 21; on those JDKs a cached pool of daemon platform threads is used instead.
+ */
+public class VirtualThreads {
+
+    private static final ThreadFactory VIRTUAL_FACTORY = lookupVirtualFactory();
+
+    /**
+     * Checks whether the running JDK supports virtual threads.
+     *
+     * @return true if virtual threads are available; false otherwise.
+     */
+    public static boolean isAvailable() {
+        return VIRTUAL_FACTORY != null;
+    }
+
+    /**
+     * Returns a thread factory that creates virtual threads, or daemon platform threads
+     * with the given name prefix when virtual threads are unavailable.
+     *
+     * @param namePrefix The name prefix for fallback platform threads.
+     * @return The thread factory.
+     */
+    public static ThreadFactory threadFactory(String namePrefix) {
+        if (VIRTUAL_FACTORY != null) {
+            return VIRTUAL_FACTORY;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task.
+     * Falls back to a cached platform thread pool when virtual threads are unavailable.
+     *
+     * @param namePrefix The name prefix for fallback platform threads.
+     * @return The executor.
+     */
+    public static ExecutorService newPerTaskExecutor(String namePrefix) {
+        if (VIRTUAL_FACTORY != null) {
+            try {
+                Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                return (ExecutorService) perTask.invoke(null, VIRTUAL_FACTORY);
+            } catch (ReflectiveOperationException e) {
+                // Fall through to the platform thread pool
+            }
+        }
+        return Executors.newCachedThreadPool(threadFactory(namePrefix));
+    }
+
+    /**
+     * Looks up {@code Thread.ofVirtual().factory()} on JDKs that provide it.
+     *
+     * @return The virtual thread factory, or null if the JDK does not support virtual threads.
+     */
+    private static ThreadFactory lookupVirtualFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}